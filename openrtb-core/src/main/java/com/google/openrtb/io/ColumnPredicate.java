@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
+import javax.annotation.Nullable;
+
+/**
+ * Filter on a column of a {@link ColumnarReader} scan. A row matches if any of its values in
+ * the column matches, so for repeated fields like {@code imp.bidfloor} the predicate means
+ * "some impression has a matching floor".
+ *
+ * <p>Predicates are pushed down to the reader: row groups are skipped if the statistics of
+ * their chunk rule out matches (value range for numeric columns, dictionary for strings), and
+ * otherwise evaluated over the decoded column, before decoding other columns.
+ *
+ * <p>This class is immutable and threadsafe.
+ */
+public final class ColumnPredicate {
+  private final String column;
+  @Nullable private final ImmutableSet<String> strings;
+  private final double min;
+  private final double max;
+
+  private ColumnPredicate(
+      String column, @Nullable ImmutableSet<String> strings, double min, double max) {
+    this.column = checkNotNull(column);
+    this.strings = strings;
+    this.min = min;
+    this.max = max;
+  }
+
+  /**
+   * Matches rows with a value equal to one of {@code values}, in a string or enum column.
+   * Enum values are matched by name.
+   */
+  public static ColumnPredicate in(String column, String... values) {
+    checkArgument(values.length != 0, "No values");
+    return new ColumnPredicate(column, ImmutableSet.copyOf(values), 0, 0);
+  }
+
+  /**
+   * Matches rows with a value from {@code min} to {@code max} inclusive, in a numeric or
+   * boolean column (where {@code true} is 1).
+   */
+  public static ColumnPredicate between(String column, double min, double max) {
+    checkArgument(min <= max, "min: %s, max: %s", min, max);
+    return new ColumnPredicate(column, null, min, max);
+  }
+
+  /**
+   * Matches rows with a value equal to {@code value}, in a numeric or boolean column.
+   */
+  public static ColumnPredicate equalTo(String column, double value) {
+    return between(column, value, value);
+  }
+
+  public static ColumnPredicate atLeast(String column, double min) {
+    return between(column, min, Double.POSITIVE_INFINITY);
+  }
+
+  public static ColumnPredicate atMost(String column, double max) {
+    return between(column, Double.NEGATIVE_INFINITY, max);
+  }
+
+  public String column() {
+    return column;
+  }
+
+  boolean isStringMatch() {
+    return strings != null;
+  }
+
+  boolean matches(String value) {
+    return strings.contains(value);
+  }
+
+  boolean matches(double value) {
+    return value >= min && value <= max;
+  }
+
+  /**
+   * Checks if some value in a range may match.
+   */
+  boolean mayMatch(double rangeMin, double rangeMax) {
+    return rangeMax >= min && rangeMin <= max;
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this).omitNullValues()
+        .add("column", column)
+        .add("in", strings)
+        .add("min", strings == null ? min : null)
+        .add("max", strings == null ? max : null)
+        .toString();
+  }
+}
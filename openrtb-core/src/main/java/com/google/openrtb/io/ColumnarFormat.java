@@ -0,0 +1,191 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Layout of the columnar files of {@link ColumnarWriter}.
+ *
+ * <pre>
+ * file       := MAGIC rowGroup* footer footerLength:int32 MAGIC
+ * rowGroup   := chunk*                  (one per column, in column order)
+ * chunk      := levelCount:int32 valueCount:int32 repLevels? defLevels? values
+ * values     := min:int64 width:int8 packed       (LONG, BOOLEAN, ENUM)
+ *             | float64*                          (DOUBLE)
+ *             | dictSize:int32 (length:int32 utf8)* width:int8 packed   (STRING)
+ * footer     := messageType:str columnCount:int32 column* rowGroupCount:int32 group*
+ * column     := path:str type:int8 maxRep:int8 maxDef:int8
+ * group      := rowCount:int32 (offset:int64 length:int32 valueCount:int32 min:int64 max:int64)*
+ * str        := length:int32 utf8
+ * </pre>
+ *
+ * <p>Integers are big-endian. Each column is a leaf field, and each chunk stores its values as
+ * in Dremel: one repetition and definition level per value or missing value, and the values
+ * that are present. Levels are omitted when their maximum is zero, otherwise they're bit-packed
+ * with the width of the maximum. Integral values are bit-packed as offsets from the chunk's
+ * minimum; strings are dictionary-encoded, with bit-packed dictionary indexes. Bit-packing
+ * fills each byte from its least significant bit.
+ *
+ * <p>The footer's {@code min/max} statistics are the range of a chunk's values (the bits of
+ * doubles for {@code DOUBLE}, ignoring NaN), and are not used for strings: readers check a
+ * string chunk's dictionary instead, which precedes its values.
+ */
+final class ColumnarFormat {
+  static final byte[] MAGIC = "ORTBCOL1".getBytes(US_ASCII);
+
+  private ColumnarFormat() {
+  }
+
+  /**
+   * Physical types of columns.
+   */
+  enum Type {
+    LONG, DOUBLE, BOOLEAN, STRING, ENUM;
+
+    static Type of(FieldDescriptor field) {
+      switch (field.getJavaType()) {
+        case INT:
+        case LONG:
+          return LONG;
+        case FLOAT:
+        case DOUBLE:
+          return DOUBLE;
+        case BOOLEAN:
+          return BOOLEAN;
+        case STRING:
+          return STRING;
+        case ENUM:
+          return ENUM;
+        default:
+          throw new IllegalArgumentException("Unsupported column type: " + field.getFullName());
+      }
+    }
+
+    boolean integral() {
+      return this == LONG || this == BOOLEAN || this == ENUM;
+    }
+  }
+
+  /**
+   * A column: the path of fields from the root message to a leaf field, with its maximum
+   * repetition and definition levels.
+   */
+  static final class Column {
+    final String path;
+    final ImmutableList<FieldDescriptor> fields;
+    final Type type;
+    final int maxRep;
+    final int maxDef;
+
+    private Column(String path, ImmutableList<FieldDescriptor> fields) {
+      this.path = path;
+      this.fields = fields;
+      this.type = Type.of(fields.get(fields.size() - 1));
+      int maxRep = 0;
+      int maxDef = 0;
+      for (FieldDescriptor field : fields) {
+        maxRep += field.isRepeated() ? 1 : 0;
+        maxDef += field.isRequired() ? 0 : 1;
+      }
+      this.maxRep = maxRep;
+      this.maxDef = maxDef;
+    }
+
+    /**
+     * Resolves a path of field names, like {@code device.geo.country}.
+     */
+    static Column resolve(Descriptor root, String path) {
+      ImmutableList.Builder<FieldDescriptor> fields = ImmutableList.builder();
+      Descriptor message = root;
+      List<String> names = Splitter.on('.').splitToList(path);
+      for (int i = 0; i < names.size(); ++i) {
+        if (message == null) {
+          throw new IllegalArgumentException("Not a message: " + names.get(i - 1) + " in " + path);
+        }
+        FieldDescriptor field = message.findFieldByName(names.get(i));
+        checkArgument(field != null, "Unknown field: %s in %s", names.get(i), path);
+        fields.add(field);
+        message = field.getJavaType() == FieldDescriptor.JavaType.MESSAGE
+            ? field.getMessageType()
+            : null;
+      }
+      checkArgument(message == null, "Not a leaf field: %s", path);
+      return new Column(path, fields.build());
+    }
+  }
+
+  /**
+   * Number of bits for unsigned values up to {@code max}.
+   */
+  static int width(long max) {
+    return 64 - Long.numberOfLeadingZeros(max);
+  }
+
+  /**
+   * Packs the low {@code width} bits of each value.
+   */
+  static byte[] pack(long[] values, int count, int width) {
+    byte[] packed = new byte[packedLength(count, width)];
+    long bitPos = 0;
+    for (int i = 0; i < count; ++i) {
+      long value = values[i];
+      for (int done = 0; done < width; ) {
+        int bitInByte = (int) (bitPos & 7);
+        int take = Math.min(8 - bitInByte, width - done);
+        packed[(int) (bitPos >>> 3)] |= (((value >>> done) & ((1 << take) - 1)) << bitInByte);
+        done += take;
+        bitPos += take;
+      }
+    }
+    return packed;
+  }
+
+  /**
+   * Unpacks {@code count} values written by {@link #pack}, advancing the buffer.
+   */
+  static void unpack(ByteBuffer buf, int count, int width, long[] values) {
+    int start = buf.position();
+    long bitPos = 0;
+    for (int i = 0; i < count; ++i) {
+      long value = 0;
+      for (int done = 0; done < width; ) {
+        int bitInByte = (int) (bitPos & 7);
+        int take = Math.min(8 - bitInByte, width - done);
+        long bits = ((buf.get(start + (int) (bitPos >>> 3)) & 0xFF) >>> bitInByte)
+            & ((1 << take) - 1);
+        value |= bits << done;
+        done += take;
+        bitPos += take;
+      }
+      values[i] = value;
+    }
+    buf.position(start + packedLength(count, width));
+  }
+
+  static int packedLength(int count, int width) {
+    return (int) (((long) count * width + 7) / 8);
+  }
+}
@@ -0,0 +1,714 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.openrtb.io.ColumnarFormat.Column;
+import com.google.openrtb.io.ColumnarFormat.Type;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.EnumDescriptor;
+import com.google.protobuf.Descriptors.EnumValueDescriptor;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Reads the columnar files written by {@link ColumnarWriter}.
+ *
+ * <p>A {@link #scan} only reads the chunks of the projected columns and the columns used by
+ * its predicates. Predicates are evaluated first: row groups are skipped by the chunks'
+ * statistics when possible, or for string predicates when no entry of the chunk's dictionary
+ * matches, then predicates are evaluated column by column over the decoded values (string
+ * predicates over the dictionary, then the dictionary indexes), and the projected columns are
+ * only decoded for row groups with matching rows.
+ *
+ * <pre>
+ * try (ColumnarReader reader = ColumnarReader.open(path, BidRequest.getDescriptor())) {
+ *   ColumnarReader.Scan scan = reader.scan(ImmutableList.of("site.domain"),
+ *       ColumnPredicate.in("device.geo.country", "USA"),
+ *       ColumnPredicate.atLeast("imp.bidfloor", 2.0));
+ *   while (scan.hasNext()) {
+ *     ColumnarReader.Batch batch = scan.next();
+ *     ColumnarReader.ColumnVector domains = batch.column("site.domain");
+ *     BitSet rows = batch.selected();
+ *     for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+ *       ... domains.value(row) ...
+ *     }
+ *   }
+ * }
+ * </pre>
+ *
+ * <p>This class is threadsafe, but each {@link Scan} must only be used by one thread.
+ */
+public final class ColumnarReader implements Closeable {
+  private final Path path;
+  private final FileChannel channel;
+  private final ImmutableMap<String, ColumnInfo> columns;
+  private final RowGroup[] rowGroups;
+  private final long rowCount;
+
+  private ColumnarReader(Path path, FileChannel channel, Descriptor type) throws IOException {
+    this.path = path;
+    this.channel = channel;
+    long size = channel.size();
+    int trailer = 4 + ColumnarFormat.MAGIC.length;
+    if (size < ColumnarFormat.MAGIC.length + trailer
+        || !Arrays.equals(read(0, ColumnarFormat.MAGIC.length).array(), ColumnarFormat.MAGIC)) {
+      throw new IOException("Not a columnar file: " + path);
+    }
+    ByteBuffer end = read(size - trailer, trailer);
+    int footerLength = end.getInt();
+    byte[] magic = new byte[ColumnarFormat.MAGIC.length];
+    end.get(magic);
+    if (!Arrays.equals(magic, ColumnarFormat.MAGIC)
+        || footerLength < 0 || footerLength > size - ColumnarFormat.MAGIC.length - trailer) {
+      throw new IOException("Corrupt footer: " + path);
+    }
+
+    ByteBuffer footer = read(size - trailer - footerLength, footerLength);
+    String messageType = readString(footer);
+    checkArgument(messageType.equals(type.getFullName()),
+        "File has %s, not %s", messageType, type.getFullName());
+    ImmutableMap.Builder<String, ColumnInfo> columns = ImmutableMap.builder();
+    int columnCount = footer.getInt();
+    for (int i = 0; i < columnCount; ++i) {
+      Column column = Column.resolve(type, readString(footer));
+      int typeOrdinal = footer.get();
+      int maxRep = footer.get();
+      int maxDef = footer.get();
+      if (typeOrdinal != column.type.ordinal()
+          || maxRep != column.maxRep || maxDef != column.maxDef) {
+        throw new IOException("Column " + column.path + " doesn't match " + type.getFullName());
+      }
+      columns.put(column.path, new ColumnInfo(column, i));
+    }
+    this.columns = columns.build();
+    this.rowGroups = new RowGroup[footer.getInt()];
+    long rowCount = 0;
+    for (int i = 0; i < rowGroups.length; ++i) {
+      RowGroup group = new RowGroup(footer.getInt(), columnCount);
+      for (int c = 0; c < columnCount; ++c) {
+        group.offsets[c] = footer.getLong();
+        group.lengths[c] = footer.getInt();
+        group.valueCounts[c] = footer.getInt();
+        group.mins[c] = footer.getLong();
+        group.maxs[c] = footer.getLong();
+      }
+      rowGroups[i] = group;
+      rowCount += group.rowCount;
+    }
+    this.rowCount = rowCount;
+  }
+
+  /**
+   * Opens a file, checking that it has columns of the expected message type.
+   */
+  public static ColumnarReader open(Path path, Descriptor type) throws IOException {
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      return new ColumnarReader(path, channel, type);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  public ImmutableList<String> columns() {
+    return columns.keySet().asList();
+  }
+
+  public long rowCount() {
+    return rowCount;
+  }
+
+  public int rowGroupCount() {
+    return rowGroups.length;
+  }
+
+  /**
+   * Scans the file for rows that match all predicates.
+   *
+   * @param projection Columns to read for matching rows
+   */
+  public Scan scan(Collection<String> projection, ColumnPredicate... predicates) {
+    for (String column : projection) {
+      checkArgument(columns.containsKey(column), "Unknown column: %s", column);
+    }
+    for (ColumnPredicate predicate : predicates) {
+      ColumnInfo info = columns.get(predicate.column());
+      checkArgument(info != null, "Unknown column: %s", predicate.column());
+      Type type = info.column.type;
+      checkArgument(predicate.isStringMatch()
+          ? type == Type.STRING || type == Type.ENUM
+          : type != Type.STRING,
+          "Predicate doesn't apply to column type %s: %s", type, predicate);
+    }
+    return new Scan(ImmutableList.copyOf(new LinkedHashSet<>(projection)),
+        ImmutableList.copyOf(predicates));
+  }
+
+  @Override public void close() throws IOException {
+    channel.close();
+  }
+
+  private ByteBuffer read(long offset, int length) throws IOException {
+    ByteBuffer buf = ByteBuffer.allocate(length);
+    while (buf.hasRemaining()) {
+      if (channel.read(buf, offset + buf.position()) < 0) {
+        throw new EOFException(path.toString());
+      }
+    }
+    buf.flip();
+    return buf;
+  }
+
+  private static String readString(ByteBuffer buf) {
+    byte[] bytes = new byte[buf.getInt()];
+    buf.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("path", path)
+        .add("columns", columns.keySet())
+        .add("rowGroups", rowGroups.length)
+        .add("rows", rowCount)
+        .toString();
+  }
+
+  private static final class ColumnInfo {
+    final Column column;
+    final int index;
+
+    ColumnInfo(Column column, int index) {
+      this.column = column;
+      this.index = index;
+    }
+  }
+
+  private static final class RowGroup {
+    final int rowCount;
+    final long[] offsets;
+    final int[] lengths;
+    final int[] valueCounts;
+    final long[] mins;
+    final long[] maxs;
+
+    RowGroup(int rowCount, int columnCount) {
+      this.rowCount = rowCount;
+      this.offsets = new long[columnCount];
+      this.lengths = new int[columnCount];
+      this.valueCounts = new int[columnCount];
+      this.mins = new long[columnCount];
+      this.maxs = new long[columnCount];
+    }
+  }
+
+  /**
+   * Iterates the row groups with matching rows. Read errors are thrown as
+   * {@link UncheckedIOException}.
+   */
+  public final class Scan implements Iterator<Batch> {
+    private final ImmutableList<String> projection;
+    private final ImmutableList<ColumnPredicate> predicates;
+    private final Map<String, ByteBuffer> chunks = new HashMap<>();
+    private int nextGroup;
+    @Nullable private Batch next;
+    private int skipped;
+    private int read;
+
+    Scan(ImmutableList<String> projection, ImmutableList<ColumnPredicate> predicates) {
+      this.projection = projection;
+      this.predicates = predicates;
+    }
+
+    @Override public boolean hasNext() {
+      try {
+        while (next == null && nextGroup < rowGroups.length) {
+          next = scan(rowGroups[nextGroup++]);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return next != null;
+    }
+
+    @Override public Batch next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Batch batch = next;
+      next = null;
+      return batch;
+    }
+
+    /**
+     * Number of row groups skipped so far, by statistics or because no rows matched.
+     */
+    public int rowGroupsSkipped() {
+      return skipped;
+    }
+
+    /**
+     * Number of row groups with matching rows so far.
+     */
+    public int rowGroupsRead() {
+      return read;
+    }
+
+    @Nullable private Batch scan(RowGroup group) throws IOException {
+      for (ColumnPredicate predicate : predicates) {
+        ColumnInfo info = columns.get(predicate.column());
+        if (!mayMatch(predicate, info, group)) {
+          ++skipped;
+          return null;
+        }
+      }
+      chunks.clear();
+      for (ColumnPredicate predicate : predicates) {
+        ColumnInfo info = columns.get(predicate.column());
+        if (info.column.type == Type.STRING
+            && !ColumnVector.dictionaryMayMatch(info.column, chunk(info, group), predicate)) {
+          ++skipped;
+          return null;
+        }
+      }
+
+      Map<String, ColumnVector> decoded = new HashMap<>();
+      BitSet selected = new BitSet(group.rowCount);
+      selected.set(0, group.rowCount);
+      for (ColumnPredicate predicate : predicates) {
+        ColumnVector vector = decoded.get(predicate.column());
+        if (vector == null) {
+          vector = decode(columns.get(predicate.column()), group);
+          decoded.put(predicate.column(), vector);
+        }
+        selected.and(vector.matching(predicate));
+        if (selected.isEmpty()) {
+          ++skipped;
+          return null;
+        }
+      }
+
+      ImmutableMap.Builder<String, ColumnVector> vectors = ImmutableMap.builder();
+      for (String column : projection) {
+        ColumnVector vector = decoded.get(column);
+        vectors.put(column, vector == null ? decode(columns.get(column), group) : vector);
+      }
+      ++read;
+      return new Batch(group.rowCount, selected, vectors.build());
+    }
+
+    private ColumnVector decode(ColumnInfo info, RowGroup group) throws IOException {
+      return new ColumnVector(info.column, group.rowCount, chunk(info, group));
+    }
+
+    /**
+     * Reads a chunk of the row group, once per scan of the group.
+     */
+    private ByteBuffer chunk(ColumnInfo info, RowGroup group) throws IOException {
+      ByteBuffer chunk = chunks.get(info.column.path);
+      if (chunk == null) {
+        int c = info.index;
+        chunk = read(group.offsets[c], group.lengths[c]);
+        chunks.put(info.column.path, chunk);
+      }
+      return chunk.duplicate();
+    }
+
+    /**
+     * Checks the statistics of a chunk. String chunks have no statistics, see
+     * {@link ColumnVector#dictionaryMayMatch}.
+     */
+    private boolean mayMatch(ColumnPredicate predicate, ColumnInfo info, RowGroup group) {
+      int c = info.index;
+      if (group.valueCounts[c] == 0) {
+        return false;
+      }
+      switch (info.column.type) {
+        case DOUBLE:
+          return predicate.mayMatch(
+              Double.longBitsToDouble(group.mins[c]), Double.longBitsToDouble(group.maxs[c]));
+        case STRING:
+          return true;
+        case ENUM:
+          return predicate.isStringMatch() || predicate.mayMatch(group.mins[c], group.maxs[c]);
+        default:
+          return predicate.mayMatch(group.mins[c], group.maxs[c]);
+      }
+    }
+
+    @Override public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("projection", projection)
+          .add("predicates", predicates)
+          .add("skipped", skipped)
+          .add("read", read)
+          .toString();
+    }
+  }
+
+  /**
+   * The projected columns of a row group, and the rows that match the scan's predicates.
+   */
+  public static final class Batch {
+    private final int rowCount;
+    private final BitSet selected;
+    private final ImmutableMap<String, ColumnVector> columns;
+
+    Batch(int rowCount, BitSet selected, ImmutableMap<String, ColumnVector> columns) {
+      this.rowCount = rowCount;
+      this.selected = selected;
+      this.columns = columns;
+    }
+
+    /**
+     * Number of rows in the batch, including rows that don't match.
+     */
+    public int rowCount() {
+      return rowCount;
+    }
+
+    /**
+     * Rows that match all predicates.
+     */
+    public BitSet selected() {
+      return (BitSet) selected.clone();
+    }
+
+    public int selectedCount() {
+      return selected.cardinality();
+    }
+
+    /**
+     * Returns a projected column.
+     */
+    public ColumnVector column(String column) {
+      ColumnVector vector = columns.get(column);
+      checkArgument(vector != null, "Not projected: %s", column);
+      return vector;
+    }
+
+    @Override public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("rows", rowCount)
+          .add("selected", selectedCount())
+          .add("columns", columns.keySet())
+          .toString();
+    }
+  }
+
+  /**
+   * Decoded values of a column in a row group. Values are indexed from zero, and
+   * {@link #start} / {@link #end} give the range of values of each row: empty for rows where
+   * the field is not set, and possibly more than one value for repeated fields.
+   */
+  public static final class ColumnVector {
+    private final Column column;
+    @Nullable private final EnumDescriptor enumType;
+    private final int levelCount;
+    private final long[] repLevels;
+    private final long[] defLevels;
+    private final int valueCount;
+    private final long[] longs;
+    private final double[] doubles;
+    private final String[] dictionary;
+    private final int[] rowStart;
+
+    /**
+     * Checks if any entry of a string chunk's dictionary matches a predicate, skipping the
+     * levels and not decoding the values.
+     */
+    static boolean dictionaryMayMatch(Column column, ByteBuffer chunk, ColumnPredicate predicate) {
+      int levelCount = chunk.getInt();
+      chunk.getInt();
+      // Each level array is packed separately, and is empty when its maximum is zero
+      int levelsLength =
+          ColumnarFormat.packedLength(levelCount, ColumnarFormat.width(column.maxRep))
+          + ColumnarFormat.packedLength(levelCount, ColumnarFormat.width(column.maxDef));
+      chunk.position(chunk.position() + levelsLength);
+      for (int i = chunk.getInt(); i > 0; --i) {
+        if (predicate.matches(readString(chunk))) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    ColumnVector(Column column, int rowCount, ByteBuffer chunk) {
+      this.column = column;
+      this.enumType = column.type == Type.ENUM
+          ? column.fields.get(column.fields.size() - 1).getEnumType()
+          : null;
+      this.levelCount = chunk.getInt();
+      this.valueCount = chunk.getInt();
+      this.repLevels = new long[levelCount];
+      this.defLevels = new long[levelCount];
+      if (column.maxRep != 0) {
+        ColumnarFormat.unpack(chunk, levelCount, ColumnarFormat.width(column.maxRep), repLevels);
+      }
+      if (column.maxDef != 0) {
+        ColumnarFormat.unpack(chunk, levelCount, ColumnarFormat.width(column.maxDef), defLevels);
+      }
+
+      String[] dictionary = null;
+      double[] doubles = null;
+      long[] longs = null;
+      if (column.type == Type.DOUBLE) {
+        doubles = new double[valueCount];
+        for (int i = 0; i < valueCount; ++i) {
+          doubles[i] = chunk.getDouble();
+        }
+      } else {
+        if (column.type == Type.STRING) {
+          dictionary = new String[chunk.getInt()];
+          for (int i = 0; i < dictionary.length; ++i) {
+            dictionary[i] = readString(chunk);
+          }
+        }
+        long base = chunk.getLong();
+        int width = chunk.get();
+        longs = new long[valueCount];
+        ColumnarFormat.unpack(chunk, valueCount, width, longs);
+        if (base != 0) {
+          for (int i = 0; i < valueCount; ++i) {
+            longs[i] += base;
+          }
+        }
+      }
+      this.dictionary = dictionary;
+      this.doubles = doubles;
+      this.longs = longs;
+
+      this.rowStart = new int[rowCount + 1];
+      int row = -1;
+      int value = 0;
+      for (int i = 0; i < levelCount; ++i) {
+        if (repLevels[i] == 0) {
+          rowStart[++row] = value;
+        }
+        if (defLevels[i] == column.maxDef) {
+          ++value;
+        }
+      }
+      rowStart[rowCount] = value;
+    }
+
+    public String path() {
+      return column.path;
+    }
+
+    /**
+     * Number of values in the row group.
+     */
+    public int valueCount() {
+      return valueCount;
+    }
+
+    /**
+     * Index of the first value of a row.
+     */
+    public int start(int row) {
+      return rowStart[row];
+    }
+
+    /**
+     * Index after the last value of a row.
+     */
+    public int end(int row) {
+      return rowStart[row + 1];
+    }
+
+    /**
+     * Returns the first value of a row, or {@code null} if the row has no values.
+     * See {@link #get} for the value types.
+     */
+    @Nullable public Object value(int row) {
+      return start(row) == end(row) ? null : get(start(row));
+    }
+
+    /**
+     * Returns all values of a row.
+     */
+    public List<Object> values(int row) {
+      List<Object> values = new ArrayList<>(end(row) - start(row));
+      for (int i = start(row); i < end(row); ++i) {
+        values.add(get(i));
+      }
+      return values;
+    }
+
+    /**
+     * Returns a value: a {@link Long} for integer fields, {@link Double} for floating-point
+     * fields, {@link Boolean}, or {@link String} for string fields and enum names.
+     */
+    public Object get(int index) {
+      switch (column.type) {
+        case DOUBLE:
+          return getDouble(index);
+        case BOOLEAN:
+          return getBoolean(index);
+        case STRING:
+        case ENUM:
+          return getString(index);
+        default:
+          return getLong(index);
+      }
+    }
+
+    /**
+     * Returns an integer value, a boolean as 0 or 1, or an enum number.
+     */
+    public long getLong(int index) {
+      checkArgument(column.type.integral(), "Not integral: %s", column.path);
+      return longs[checkIndex(index)];
+    }
+
+    public double getDouble(int index) {
+      return column.type == Type.DOUBLE ? doubles[checkIndex(index)] : getLong(index);
+    }
+
+    public boolean getBoolean(int index) {
+      return getLong(index) != 0;
+    }
+
+    /**
+     * Returns a string value, or an enum name (or number, if unknown).
+     */
+    public String getString(int index) {
+      if (column.type == Type.STRING) {
+        return dictionary[(int) longs[checkIndex(index)]];
+      }
+      checkArgument(column.type == Type.ENUM, "Not a string: %s", column.path);
+      return enumName(longs[checkIndex(index)]);
+    }
+
+    public int levelCount() {
+      return levelCount;
+    }
+
+    public int repetitionLevel(int level) {
+      return (int) repLevels[level];
+    }
+
+    public int definitionLevel(int level) {
+      return (int) defLevels[level];
+    }
+
+    public int maxRepetitionLevel() {
+      return column.maxRep;
+    }
+
+    public int maxDefinitionLevel() {
+      return column.maxDef;
+    }
+
+    /**
+     * Finds the rows with a value that matches a predicate.
+     */
+    BitSet matching(ColumnPredicate predicate) {
+      BitSet rows = new BitSet(rowStart.length - 1);
+      boolean[] matchingIds = null;
+      if (predicate.isStringMatch()) {
+        String[] names = dictionary;
+        if (names == null) {
+          // Enum: evaluate the names of the chunk's distinct numbers
+          Set<Long> numbers = new LinkedHashSet<>();
+          for (int i = 0; i < valueCount; ++i) {
+            numbers.add(longs[i]);
+          }
+          Map<Long, Boolean> matches = new HashMap<>();
+          for (Long number : numbers) {
+            matches.put(number, predicate.matches(enumName(number)));
+          }
+          for (int row = 0; row < rowStart.length - 1; ++row) {
+            for (int i = rowStart[row]; i < rowStart[row + 1]; ++i) {
+              if (matches.get(longs[i])) {
+                rows.set(row);
+                break;
+              }
+            }
+          }
+          return rows;
+        }
+        matchingIds = new boolean[names.length];
+        boolean any = false;
+        for (int id = 0; id < names.length; ++id) {
+          matchingIds[id] = predicate.matches(names[id]);
+          any |= matchingIds[id];
+        }
+        if (!any) {
+          return rows;
+        }
+      }
+      for (int row = 0; row < rowStart.length - 1; ++row) {
+        for (int i = rowStart[row]; i < rowStart[row + 1]; ++i) {
+          boolean match = matchingIds != null
+              ? matchingIds[(int) longs[i]]
+              : predicate.matches(doubles == null ? longs[i] : doubles[i]);
+          if (match) {
+            rows.set(row);
+            break;
+          }
+        }
+      }
+      return rows;
+    }
+
+    private String enumName(long number) {
+      EnumValueDescriptor value = enumType.findValueByNumber((int) number);
+      return value == null ? String.valueOf(number) : value.getName();
+    }
+
+    private int checkIndex(int index) {
+      if (index < 0 || index >= valueCount) {
+        throw new IndexOutOfBoundsException("index: " + index + ", values: " + valueCount);
+      }
+      return index;
+    }
+
+    @Override public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("path", column.path)
+          .add("values", valueCount)
+          .toString();
+    }
+  }
+}
@@ -0,0 +1,413 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.openrtb.io.ColumnarFormat.Column;
+import com.google.openrtb.io.ColumnarFormat.Type;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.EnumValueDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.MessageOrBuilder;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts messages (typically logged {@code BidRequest}s) to a columnar file, so analytics
+ * that read a few fields only decode those fields (see {@link ColumnarReader}).
+ *
+ * <p>Columns are leaf fields of the message type, selected by path, like
+ * {@code device.geo.country} or {@code imp.bidfloor}. Rows are buffered in memory and written
+ * in row groups, where each column is encoded separately: strings with a dictionary, integral
+ * values and enums bit-packed, and the structure of repeated and optional fields as
+ * repetition and definition levels (see {@link ColumnarFormat}). Fields that are not set are
+ * missing values, even if they have a default.
+ *
+ * <pre>
+ * try (ColumnarWriter writer = ColumnarWriter.builder(BidRequest.getDescriptor(), path)
+ *     .columns("device.geo.country", "imp.bidfloor", "site.domain", "app.bundle")
+ *     .build()) {
+ *   writer.writeAll(OpenRtbLogReader.open(logDir).requestStream(false).iterator());
+ * }
+ * </pre>
+ *
+ * <p>This class is NOT threadsafe.
+ */
+public final class ColumnarWriter implements Closeable {
+  private final Descriptor type;
+  private final DataOutputStream out;
+  private final ImmutableList<ColumnBuffer> columns;
+  private final int rowGroupSize;
+  private final List<byte[]> groupStats = new ArrayList<>();
+  private long offset;
+  private int rows;
+  private long totalRows;
+  private boolean closed;
+
+  private ColumnarWriter(Builder builder) throws IOException {
+    this.type = builder.type;
+    this.rowGroupSize = builder.rowGroupSize;
+    ImmutableList.Builder<ColumnBuffer> columns = ImmutableList.builder();
+    for (String path : builder.columns) {
+      columns.add(new ColumnBuffer(Column.resolve(type, path)));
+    }
+    this.columns = columns.build();
+    this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(builder.path),
+        1 << 16));
+    out.write(ColumnarFormat.MAGIC);
+    this.offset = ColumnarFormat.MAGIC.length;
+  }
+
+  public static Builder builder(Descriptor type, Path path) {
+    return new Builder(type, path);
+  }
+
+  /**
+   * Adds a row. Writes a row group when enough rows are buffered.
+   */
+  public void write(MessageOrBuilder message) throws IOException {
+    checkState(!closed, "Writer closed");
+    checkArgument(message.getDescriptorForType() == type,
+        "Expected %s: %s", type.getFullName(), message.getDescriptorForType().getFullName());
+    for (ColumnBuffer column : columns) {
+      column.add(message, 0, 0, 0);
+    }
+    if (++rows == rowGroupSize) {
+      writeRowGroup();
+    }
+  }
+
+  /**
+   * Adds all rows from an iterator.
+   */
+  public void writeAll(Iterator<? extends MessageOrBuilder> messages) throws IOException {
+    while (messages.hasNext()) {
+      write(messages.next());
+    }
+  }
+
+  public long rowCount() {
+    return totalRows + rows;
+  }
+
+  /**
+   * Writes the buffered rows and the footer.
+   */
+  @Override public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try (DataOutputStream out = this.out) {
+      if (rows != 0) {
+        writeRowGroup();
+      }
+      ByteArrayOutputStream footerBytes = new ByteArrayOutputStream();
+      DataOutputStream footer = new DataOutputStream(footerBytes);
+      writeString(footer, type.getFullName());
+      footer.writeInt(columns.size());
+      for (ColumnBuffer column : columns) {
+        writeString(footer, column.column.path);
+        footer.writeByte(column.column.type.ordinal());
+        footer.writeByte(column.column.maxRep);
+        footer.writeByte(column.column.maxDef);
+      }
+      footer.writeInt(groupStats.size());
+      for (byte[] stats : groupStats) {
+        footer.write(stats);
+      }
+      footer.flush();
+      footerBytes.writeTo(out);
+      out.writeInt(footerBytes.size());
+      out.write(ColumnarFormat.MAGIC);
+    }
+  }
+
+  private void writeRowGroup() throws IOException {
+    ByteArrayOutputStream statsBytes = new ByteArrayOutputStream();
+    DataOutputStream stats = new DataOutputStream(statsBytes);
+    stats.writeInt(rows);
+    ByteArrayOutputStream chunkBytes = new ByteArrayOutputStream();
+    DataOutputStream chunk = new DataOutputStream(chunkBytes);
+    for (ColumnBuffer column : columns) {
+      chunkBytes.reset();
+      column.writeChunk(chunk);
+      chunk.flush();
+      stats.writeLong(offset);
+      stats.writeInt(chunkBytes.size());
+      stats.writeInt(column.valueCount);
+      stats.writeLong(column.min);
+      stats.writeLong(column.max);
+      chunkBytes.writeTo(out);
+      offset += chunkBytes.size();
+      column.reset();
+    }
+    groupStats.add(statsBytes.toByteArray());
+    totalRows += rows;
+    rows = 0;
+  }
+
+  static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("type", type.getFullName())
+        .add("columns", columns.size())
+        .add("rows", rowCount())
+        .toString();
+  }
+
+  /**
+   * Levels and values of a column, for the current row group.
+   */
+  private static final class ColumnBuffer {
+    final Column column;
+    final int[] repLevelOf;
+    long[] repLevels = new long[1024];
+    long[] defLevels = new long[1024];
+    int levelCount;
+    long[] values = new long[1024];
+    double[] doubles;
+    int valueCount;
+    long min;
+    long max;
+    final Map<String, Integer> dictionary;
+    final List<String> dictionaryValues;
+
+    ColumnBuffer(Column column) {
+      this.column = column;
+      this.repLevelOf = new int[column.fields.size()];
+      int rep = 0;
+      for (int i = 0; i < repLevelOf.length; ++i) {
+        rep += column.fields.get(i).isRepeated() ? 1 : 0;
+        repLevelOf[i] = rep;
+      }
+      if (column.type == Type.DOUBLE) {
+        doubles = new double[1024];
+      }
+      if (column.type == Type.STRING) {
+        dictionary = new HashMap<>();
+        dictionaryValues = new ArrayList<>();
+      } else {
+        dictionary = null;
+        dictionaryValues = null;
+      }
+      reset();
+    }
+
+    /**
+     * Adds the values of the column's field at {@code depth} in a message.
+     */
+    void add(MessageOrBuilder message, int depth, int rep, int def) {
+      FieldDescriptor field = column.fields.get(depth);
+      if (field.isRepeated()) {
+        int count = message.getRepeatedFieldCount(field);
+        if (count == 0) {
+          addLevels(rep, def);
+        }
+        for (int i = 0; i < count; ++i) {
+          addChild(message.getRepeatedField(field, i), depth, i == 0 ? rep : repLevelOf[depth],
+              def + 1);
+        }
+      } else if (field.isRequired() || message.hasField(field)) {
+        addChild(message.getField(field), depth, rep, field.isRequired() ? def : def + 1);
+      } else {
+        addLevels(rep, def);
+      }
+    }
+
+    private void addChild(Object value, int depth, int rep, int def) {
+      if (depth + 1 < column.fields.size()) {
+        add((MessageOrBuilder) value, depth + 1, rep, def);
+      } else {
+        addLevels(rep, def);
+        addValue(value);
+      }
+    }
+
+    private void addLevels(int rep, int def) {
+      if (levelCount == repLevels.length) {
+        repLevels = Arrays.copyOf(repLevels, levelCount * 2);
+        defLevels = Arrays.copyOf(defLevels, levelCount * 2);
+      }
+      repLevels[levelCount] = rep;
+      defLevels[levelCount] = def;
+      ++levelCount;
+    }
+
+    private void addValue(Object value) {
+      if (column.type == Type.DOUBLE) {
+        if (valueCount == doubles.length) {
+          doubles = Arrays.copyOf(doubles, valueCount * 2);
+        }
+        double d = ((Number) value).doubleValue();
+        doubles[valueCount++] = d;
+        // NaN matches no predicate, and would make the statistics NaN
+        if (!Double.isNaN(d)) {
+          min = Double.doubleToLongBits(Math.min(Double.longBitsToDouble(min), d));
+          max = Double.doubleToLongBits(Math.max(Double.longBitsToDouble(max), d));
+        }
+        return;
+      }
+      long v;
+      switch (column.type) {
+        case BOOLEAN:
+          v = ((Boolean) value) ? 1 : 0;
+          break;
+        case ENUM:
+          v = ((EnumValueDescriptor) value).getNumber();
+          break;
+        case STRING:
+          v = dictionary.computeIfAbsent((String) value, key -> {
+            dictionaryValues.add(key);
+            return dictionary.size();
+          });
+          break;
+        default:
+          v = ((Number) value).longValue();
+      }
+      if (valueCount == values.length) {
+        values = Arrays.copyOf(values, valueCount * 2);
+      }
+      values[valueCount++] = v;
+      if (column.type != Type.STRING) {
+        min = Math.min(min, v);
+        max = Math.max(max, v);
+      }
+    }
+
+    void writeChunk(DataOutputStream out) throws IOException {
+      out.writeInt(levelCount);
+      out.writeInt(valueCount);
+      if (column.maxRep != 0) {
+        out.write(ColumnarFormat.pack(repLevels, levelCount, ColumnarFormat.width(column.maxRep)));
+      }
+      if (column.maxDef != 0) {
+        out.write(ColumnarFormat.pack(defLevels, levelCount, ColumnarFormat.width(column.maxDef)));
+      }
+      switch (column.type) {
+        case DOUBLE:
+          for (int i = 0; i < valueCount; ++i) {
+            out.writeDouble(doubles[i]);
+          }
+          break;
+        case STRING:
+          out.writeInt(dictionaryValues.size());
+          for (String value : dictionaryValues) {
+            writeString(out, value);
+          }
+          writePacked(out, 0, dictionaryValues.size() - 1);
+          break;
+        default:
+          writePacked(out, min, max);
+      }
+    }
+
+    private void writePacked(DataOutputStream out, long min, long max) throws IOException {
+      long base = valueCount == 0 ? 0 : min;
+      int width = valueCount == 0 ? 0 : ColumnarFormat.width(max - base);
+      long[] offsets = new long[valueCount];
+      for (int i = 0; i < valueCount; ++i) {
+        offsets[i] = values[i] - base;
+      }
+      out.writeLong(base);
+      out.writeByte(width);
+      out.write(ColumnarFormat.pack(offsets, valueCount, width));
+    }
+
+    void reset() {
+      levelCount = 0;
+      valueCount = 0;
+      if (column.type == Type.DOUBLE) {
+        min = Double.doubleToLongBits(Double.POSITIVE_INFINITY);
+        max = Double.doubleToLongBits(Double.NEGATIVE_INFINITY);
+      } else {
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+      }
+      if (dictionary != null) {
+        dictionary.clear();
+        dictionaryValues.clear();
+      }
+    }
+  }
+
+  /**
+   * Builder for {@link ColumnarWriter}.
+   */
+  public static final class Builder {
+    private final Descriptor type;
+    private final Path path;
+    private final List<String> columns = new ArrayList<>();
+    private int rowGroupSize = 100_000;
+
+    private Builder(Descriptor type, Path path) {
+      this.type = checkNotNull(type);
+      this.path = checkNotNull(path);
+    }
+
+    /**
+     * Adds columns, by path of field names from the message type.
+     *
+     * @throws IllegalArgumentException if a path is not a scalar, string or enum field
+     */
+    public Builder columns(String... paths) {
+      for (String path : paths) {
+        Column.resolve(type, path);
+        checkArgument(!columns.contains(path), "Duplicate column: %s", path);
+        columns.add(path);
+      }
+      return this;
+    }
+
+    /**
+     * Sets the number of rows per row group. Larger groups encode better, but need more memory
+     * to write and read. Default is 100,000.
+     */
+    public Builder rowGroupSize(int rowGroupSize) {
+      checkArgument(rowGroupSize > 0, "rowGroupSize: %s", rowGroupSize);
+      this.rowGroupSize = rowGroupSize;
+      return this;
+    }
+
+    public ColumnarWriter build() throws IOException {
+      checkState(!columns.isEmpty(), "No columns");
+      return new ColumnarWriter(this);
+    }
+  }
+}
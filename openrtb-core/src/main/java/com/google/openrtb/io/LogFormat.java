@@ -0,0 +1,64 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.io;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Layout of the segment files of {@link OpenRtbLogWriter}.
+ *
+ * <pre>
+ * segment := MAGIC block* index footer
+ * block   := compressedLength:int32 rawLength:int32 records:int32 crc32:int32 zlib-data
+ * index   := (blockOffset:int64 records:int32)*
+ * footer  := indexOffset:int64 blockCount:int32 INDEX_MAGIC
+ * </pre>
+ *
+ * <p>Integers are big-endian. The CRC-32 is computed over the compressed data. The
+ * uncompressed data of each block is a sequence of length-delimited fields, one per record,
+ * like a serialized message with:
+ *
+ * <pre>
+ * repeated BidRequest request = 1;    // Request logged alone
+ * repeated BidResponse response = 2;  // Response logged alone
+ * repeated Pair pair = 3;             // Request logged with its response
+ *
+ * message Pair {
+ *   optional BidRequest request = 1;
+ *   optional BidResponse response = 2;
+ * }
+ * </pre>
+ *
+ * <p>Segments that were not closed properly have no index and footer; their blocks can still
+ * be read sequentially, since each block header has the block's length.
+ */
+final class LogFormat {
+  static final byte[] MAGIC = "ORTBLOG1".getBytes(US_ASCII);
+  static final byte[] INDEX_MAGIC = "ORTBIDX1".getBytes(US_ASCII);
+  static final String EXTENSION = ".ortblog";
+
+  static final int BLOCK_HEADER_SIZE = 16;
+  static final int INDEX_ENTRY_SIZE = 12;
+  static final int FOOTER_SIZE = 12 + INDEX_MAGIC.length;
+
+  static final int REQUEST_FIELD = 1;
+  static final int RESPONSE_FIELD = 2;
+  static final int PAIR_FIELD = 3;
+
+  private LogFormat() {
+  }
+}
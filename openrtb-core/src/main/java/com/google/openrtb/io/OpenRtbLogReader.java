@@ -0,0 +1,480 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.io;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.ExtensionRegistryLite;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+import com.google.protobuf.WireFormat;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import javax.annotation.Nullable;
+
+/**
+ * Reads the segment files written by {@link OpenRtbLogWriter}.
+ *
+ * <p>Segments are memory-mapped, and their blocks are located from the segment's index. Segments
+ * without an index (not closed properly, or still being written) are scanned block by block
+ * from their headers, stopping at the first incomplete block. Blocks are only decompressed and
+ * parsed when records are consumed, and {@link #requests()}, {@link #responses()} and
+ * {@link #records()} split at block boundaries, so parallel streams decode blocks in parallel:
+ *
+ * <pre>
+ * OpenRtbLogReader reader = OpenRtbLogReader.open(logDir);
+ * long count = reader.requestStream(true).filter(request -> request.hasApp()).count();
+ * </pre>
+ *
+ * <p>Corrupt blocks (bad checksum or data) fail the stream with an {@link UncheckedIOException}.
+ * The mapped files are released when the reader is garbage-collected.
+ *
+ * <p>This class is threadsafe.
+ */
+public final class OpenRtbLogReader {
+  private final ImmutableList<Path> segments;
+  private final ExtensionRegistryLite extensionRegistry;
+  private final Block[] blocks;
+  private final long[] recordsBefore;
+
+  private OpenRtbLogReader(
+      ImmutableList<Path> segments, ExtensionRegistryLite extensionRegistry, List<Block> blocks) {
+    this.segments = segments;
+    this.extensionRegistry = extensionRegistry;
+    this.blocks = blocks.toArray(new Block[blocks.size()]);
+    this.recordsBefore = new long[this.blocks.length + 1];
+    for (int i = 0; i < this.blocks.length; ++i) {
+      recordsBefore[i + 1] = recordsBefore[i] + this.blocks[i].records;
+    }
+  }
+
+  /**
+   * Opens a segment file, or all segment files in a directory (in name order).
+   */
+  public static OpenRtbLogReader open(Path path) throws IOException {
+    return open(path, ExtensionRegistryLite.getEmptyRegistry());
+  }
+
+  /**
+   * Opens a segment file, or all segment files in a directory (in name order),
+   * parsing extensions from a registry.
+   */
+  public static OpenRtbLogReader open(Path path, ExtensionRegistryLite extensionRegistry)
+      throws IOException {
+    if (Files.isDirectory(path)) {
+      try (Stream<Path> files = Files.list(path)) {
+        return open(files
+            .filter(file -> file.getFileName().toString().endsWith(LogFormat.EXTENSION))
+            .sorted()
+            .collect(Collectors.toList()), extensionRegistry);
+      }
+    } else {
+      return open(ImmutableList.of(path), extensionRegistry);
+    }
+  }
+
+  /**
+   * Opens a sequence of segment files, parsing extensions from a registry.
+   */
+  public static OpenRtbLogReader open(
+      Collection<Path> segments, ExtensionRegistryLite extensionRegistry) throws IOException {
+    checkNotNull(extensionRegistry);
+    List<Block> blocks = new ArrayList<>();
+    for (Path segment : segments) {
+      addBlocks(segment, map(segment), blocks);
+    }
+    return new OpenRtbLogReader(ImmutableList.copyOf(segments), extensionRegistry, blocks);
+  }
+
+  public ImmutableList<Path> segments() {
+    return segments;
+  }
+
+  public int blockCount() {
+    return blocks.length;
+  }
+
+  /**
+   * Number of records in all segments. A request logged with its response is a single record.
+   */
+  public long recordCount() {
+    return recordsBefore[blocks.length];
+  }
+
+  /**
+   * Returns a spliterator of all logged requests, in logging order, including the requests
+   * logged with their responses.
+   */
+  public Spliterator<BidRequest> requests() {
+    return new BlockSpliterator<>(
+        (in, out) -> decode(in, LogFormat.REQUEST_FIELD, BidRequest.parser(), out),
+        0, blocks.length);
+  }
+
+  /**
+   * Returns a spliterator of all logged responses, in logging order, including the responses
+   * logged with their requests.
+   */
+  public Spliterator<BidResponse> responses() {
+    return new BlockSpliterator<>(
+        (in, out) -> decode(in, LogFormat.RESPONSE_FIELD, BidResponse.parser(), out),
+        0, blocks.length);
+  }
+
+  /**
+   * Returns a spliterator of all logged records, in logging order. A request logged with
+   * its response is a single record with both.
+   */
+  public Spliterator<LogRecord> records() {
+    return new BlockSpliterator<>(this::decodeRecords, 0, blocks.length);
+  }
+
+  public Stream<BidRequest> requestStream(boolean parallel) {
+    return StreamSupport.stream(requests(), parallel);
+  }
+
+  public Stream<BidResponse> responseStream(boolean parallel) {
+    return StreamSupport.stream(responses(), parallel);
+  }
+
+  public Stream<LogRecord> recordStream(boolean parallel) {
+    return StreamSupport.stream(records(), parallel);
+  }
+
+  /**
+   * Decodes the messages of one field, alone or in pairs, up to the input's limit.
+   */
+  private <T extends MessageLite> void decode(
+      CodedInputStream in, int field, Parser<T> parser, List<T> out) throws IOException {
+    for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+      int number = WireFormat.getTagFieldNumber(tag);
+      if (number == field) {
+        out.add(in.readMessage(parser, extensionRegistry));
+      } else if (number == LogFormat.PAIR_FIELD) {
+        int oldLimit = in.pushLimit(in.readRawVarint32());
+        decode(in, field, parser, out);
+        in.popLimit(oldLimit);
+      } else {
+        in.skipField(tag);
+      }
+    }
+  }
+
+  private void decodeRecords(CodedInputStream in, List<LogRecord> out) throws IOException {
+    for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+      switch (WireFormat.getTagFieldNumber(tag)) {
+        case LogFormat.REQUEST_FIELD:
+          out.add(new LogRecord(in.readMessage(BidRequest.parser(), extensionRegistry), null));
+          break;
+        case LogFormat.RESPONSE_FIELD:
+          out.add(new LogRecord(null, in.readMessage(BidResponse.parser(), extensionRegistry)));
+          break;
+        case LogFormat.PAIR_FIELD: {
+          int oldLimit = in.pushLimit(in.readRawVarint32());
+          BidRequest request = null;
+          BidResponse response = null;
+          for (int pairTag = in.readTag(); pairTag != 0; pairTag = in.readTag()) {
+            int number = WireFormat.getTagFieldNumber(pairTag);
+            if (number == LogFormat.REQUEST_FIELD) {
+              request = in.readMessage(BidRequest.parser(), extensionRegistry);
+            } else if (number == LogFormat.RESPONSE_FIELD) {
+              response = in.readMessage(BidResponse.parser(), extensionRegistry);
+            } else {
+              in.skipField(pairTag);
+            }
+          }
+          in.popLimit(oldLimit);
+          out.add(new LogRecord(request, response));
+          break;
+        }
+        default:
+          in.skipField(tag);
+      }
+    }
+  }
+
+  private static MappedByteBuffer map(Path segment) throws IOException {
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("Segment too large to map: " + segment);
+      }
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+  }
+
+  private static void addBlocks(Path segment, ByteBuffer buf, List<Block> blocks)
+      throws IOException {
+    int size = buf.limit();
+    if (size < LogFormat.MAGIC.length || !hasBytes(buf, 0, LogFormat.MAGIC)) {
+      throw new IOException("Not a log segment: " + segment);
+    }
+    if (size >= LogFormat.MAGIC.length + LogFormat.FOOTER_SIZE
+        && hasBytes(buf, size - LogFormat.INDEX_MAGIC.length, LogFormat.INDEX_MAGIC)) {
+      int footer = size - LogFormat.FOOTER_SIZE;
+      long indexOffset = buf.getLong(footer);
+      int blockCount = buf.getInt(footer + 8);
+      if (indexOffset < LogFormat.MAGIC.length
+          || indexOffset + (long) blockCount * LogFormat.INDEX_ENTRY_SIZE != footer) {
+        throw new IOException("Corrupt index: " + segment);
+      }
+      for (int i = 0; i < blockCount; ++i) {
+        int entry = (int) indexOffset + i * LogFormat.INDEX_ENTRY_SIZE;
+        long offset = buf.getLong(entry);
+        if (offset < LogFormat.MAGIC.length
+            || offset + LogFormat.BLOCK_HEADER_SIZE > indexOffset
+            || offset + LogFormat.BLOCK_HEADER_SIZE + buf.getInt((int) offset) > indexOffset) {
+          throw new IOException("Corrupt index: " + segment);
+        }
+        blocks.add(new Block(segment, buf, (int) offset, buf.getInt(entry + 8)));
+      }
+    } else {
+      int offset = LogFormat.MAGIC.length;
+      while (offset + LogFormat.BLOCK_HEADER_SIZE <= size) {
+        int length = buf.getInt(offset);
+        if (length < 0 || (long) offset + LogFormat.BLOCK_HEADER_SIZE + length > size) {
+          break;
+        }
+        blocks.add(new Block(segment, buf, offset, buf.getInt(offset + 8)));
+        offset += LogFormat.BLOCK_HEADER_SIZE + length;
+      }
+    }
+  }
+
+  private static boolean hasBytes(ByteBuffer buf, int offset, byte[] bytes) {
+    for (int i = 0; i < bytes.length; ++i) {
+      if (buf.get(offset + i) != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("segments", segments.size())
+        .add("blocks", blocks.length)
+        .add("records", recordCount())
+        .toString();
+  }
+
+  /**
+   * Location of a block in a mapped segment.
+   */
+  private static final class Block {
+    final Path segment;
+    final ByteBuffer buf;
+    final int offset;
+    final int records;
+
+    Block(Path segment, ByteBuffer buf, int offset, int records) {
+      this.segment = segment;
+      this.buf = buf;
+      this.offset = offset;
+      this.records = records;
+    }
+  }
+
+  /**
+   * A logged record: a request, a response, or a request with its response.
+   * This class is immutable.
+   */
+  public static final class LogRecord {
+    @Nullable private final BidRequest request;
+    @Nullable private final BidResponse response;
+
+    LogRecord(@Nullable BidRequest request, @Nullable BidResponse response) {
+      this.request = request;
+      this.response = response;
+    }
+
+    /**
+     * The logged request, or {@code null} for a response logged alone.
+     */
+    @Nullable public BidRequest request() {
+      return request;
+    }
+
+    /**
+     * The logged response, or {@code null} for a request logged alone.
+     */
+    @Nullable public BidResponse response() {
+      return response;
+    }
+
+    @Override public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      } else if (!(obj instanceof LogRecord)) {
+        return false;
+      }
+      LogRecord other = (LogRecord) obj;
+      return Objects.equal(request, other.request) && Objects.equal(response, other.response);
+    }
+
+    @Override public int hashCode() {
+      return Objects.hashCode(request, response);
+    }
+
+    @Override public String toString() {
+      return MoreObjects.toStringHelper(this).omitNullValues()
+          .add("request", request == null ? null : request.getId())
+          .add("response", response == null ? null : response.getId())
+          .toString();
+    }
+  }
+
+  /**
+   * Decodes the items of a block that a {@link BlockSpliterator} returns.
+   */
+  private interface Decoder<T> {
+    void decode(CodedInputStream in, List<T> out) throws IOException;
+  }
+
+  /**
+   * Iterates the items decoded from a range of blocks, decoding one block at a time.
+   * Splits by halving the range of blocks not yet decoded.
+   */
+  private final class BlockSpliterator<T> implements Spliterator<T> {
+    private final Decoder<T> decoder;
+    private final int end;
+    private int next;
+    private List<T> current = new ArrayList<>();
+    private int currentPos;
+    private byte[] compressed = new byte[0];
+    private byte[] raw = new byte[0];
+
+    BlockSpliterator(Decoder<T> decoder, int start, int end) {
+      this.decoder = decoder;
+      this.next = start;
+      this.end = end;
+    }
+
+    @Override public boolean tryAdvance(Consumer<? super T> action) {
+      while (currentPos == current.size()) {
+        if (next == end) {
+          return false;
+        }
+        decode(blocks[next++]);
+      }
+      action.accept(current.get(currentPos++));
+      return true;
+    }
+
+    @Override public void forEachRemaining(Consumer<? super T> action) {
+      while (true) {
+        while (currentPos < current.size()) {
+          action.accept(current.get(currentPos++));
+        }
+        if (next == end) {
+          return;
+        }
+        decode(blocks[next++]);
+      }
+    }
+
+    @Override public Spliterator<T> trySplit() {
+      boolean decoded = currentPos < current.size();
+      int mid = (next + end) >>> 1;
+      if (mid == next && !decoded) {
+        return null;
+      }
+      BlockSpliterator<T> prefix = new BlockSpliterator<>(decoder, next, mid);
+      if (decoded) {
+        // Records already decoded by this spliterator come before the prefix's blocks
+        prefix.current = current;
+        prefix.currentPos = currentPos;
+        current = new ArrayList<>();
+        currentPos = 0;
+      }
+      next = mid;
+      return prefix;
+    }
+
+    @Override public long estimateSize() {
+      return recordsBefore[end] - recordsBefore[next] + (current.size() - currentPos);
+    }
+
+    @Override public int characteristics() {
+      return ORDERED | NONNULL | IMMUTABLE;
+    }
+
+    private void decode(Block block) {
+      current.clear();
+      currentPos = 0;
+      try {
+        ByteBuffer buf = block.buf.duplicate();
+        buf.position(block.offset);
+        int compressedLength = buf.getInt();
+        int rawLength = buf.getInt();
+        buf.getInt();
+        int crc32 = buf.getInt();
+        if (compressed.length < compressedLength) {
+          compressed = new byte[compressedLength];
+        }
+        buf.get(compressed, 0, compressedLength);
+        CRC32 crc = new CRC32();
+        crc.update(compressed, 0, compressedLength);
+        if ((int) crc.getValue() != crc32) {
+          throw new IOException("Bad checksum");
+        }
+
+        if (raw.length < rawLength) {
+          raw = new byte[rawLength];
+        }
+        Inflater inflater = new Inflater();
+        try {
+          inflater.setInput(compressed, 0, compressedLength);
+          if (inflater.inflate(raw, 0, rawLength) != rawLength || !inflater.finished()) {
+            throw new IOException("Bad block length");
+          }
+        } finally {
+          inflater.end();
+        }
+
+        decoder.decode(CodedInputStream.newInstance(raw, 0, rawLength), current);
+      } catch (IOException | DataFormatException e) {
+        throw new UncheckedIOException(new IOException(
+            "Corrupt block at " + block.segment + ":" + block.offset, e));
+      }
+    }
+  }
+}
@@ -0,0 +1,678 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.WireFormat;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes {@link BidRequest}s and {@link BidResponse}s to log files, as length-delimited records
+ * in Deflate-compressed blocks with a per-file block index (see {@link LogFormat}).
+ *
+ * <p>Callers only serialize their messages and enqueue them in a bounded queue; a background
+ * thread drains the queue in batches, fills blocks up to the block size, compresses them, and
+ * writes them through a {@link FileChannel} from a large direct buffer. Blocks are also written
+ * when they have been open for the flush interval, so a slow trickle of records still gets to
+ * the file. Files are rotated into a new segment when they reach the segment size.
+ *
+ * <p>When the queue is full, {@link #write(BidRequest)} and similar methods wait for space
+ * (back-pressure), while {@link #tryWrite(BidRequest)} drops the record. Metrics:
+ * <ul>
+ *   <li>{@code records}, {@code blocks}, {@code raw-bytes}, {@code compressed-bytes}:
+ *   counters of the data written.</li>
+ *   <li>{@code queue-size}: gauge of records waiting for the background thread.</li>
+ *   <li>{@code back-pressure}: timer of writes that had to wait for queue space.</li>
+ *   <li>{@code dropped}: counter of records dropped because the queue was full,
+ *   or because the writer failed.</li>
+ * </ul>
+ * Writers with the same {@link MetricRegistry} share these metrics; the {@code queue-size}
+ * gauge is the first writer's.
+ *
+ * <p>If writing fails or the background thread is interrupted, the writer stops logging:
+ * queued records are dropped, pending flushes are released, and further writes throw the
+ * failure. Records that are still queued when the writer is closed are dropped as well.
+ *
+ * <p>This class is threadsafe.
+ */
+public final class OpenRtbLogWriter implements Closeable {
+  private static final Logger logger = LoggerFactory.getLogger(OpenRtbLogWriter.class);
+  private static final Object CLOSE = new Object();
+  private static final int MAX_BATCH = 4096;
+
+  private final Path directory;
+  private final String prefix;
+  private final int blockSize;
+  private final long segmentSize;
+  private final long flushIntervalNanos;
+  private final BlockingQueue<Object> queue;
+  private final Thread flusher;
+  private volatile boolean closed;
+  private volatile boolean stopped;
+  @Nullable private volatile IOException failure;
+
+  private final Counter records;
+  private final Counter blocks;
+  private final Counter rawBytes;
+  private final Counter compressedBytes;
+  private final Counter dropped;
+  private final Timer backPressure;
+
+  // State of the background thread
+  private final ByteBuffer out;
+  private final Deflater deflater;
+  private final CRC32 crc = new CRC32();
+  private byte[] block;
+  private int blockLength;
+  private int blockRecords;
+  private long blockStartNanos;
+  private byte[] compressed;
+  @Nullable private FileChannel channel;
+  private int segmentNumber;
+  private long segmentBytes;
+  private long[] indexOffsets = new long[64];
+  private int[] indexRecords = new int[64];
+  private int indexCount;
+
+  private OpenRtbLogWriter(Builder builder) {
+    this.directory = builder.directory;
+    this.prefix = builder.prefix;
+    this.blockSize = builder.blockSize;
+    this.segmentSize = builder.segmentSize;
+    this.flushIntervalNanos = builder.flushIntervalNanos;
+    this.queue = new ArrayBlockingQueue<>(builder.queueCapacity);
+    this.out = ByteBuffer.allocateDirect(builder.bufferSize);
+    this.deflater = new Deflater(builder.compressionLevel);
+    this.block = new byte[blockSize];
+    this.compressed = new byte[blockSize + blockSize / 1000 + 64];
+
+    MetricRegistry metricRegistry = builder.metricRegistry;
+    this.records = metricRegistry.counter(MetricRegistry.name(OpenRtbLogWriter.class, "records"));
+    this.blocks = metricRegistry.counter(MetricRegistry.name(OpenRtbLogWriter.class, "blocks"));
+    this.rawBytes =
+        metricRegistry.counter(MetricRegistry.name(OpenRtbLogWriter.class, "raw-bytes"));
+    this.compressedBytes =
+        metricRegistry.counter(MetricRegistry.name(OpenRtbLogWriter.class, "compressed-bytes"));
+    this.dropped = metricRegistry.counter(MetricRegistry.name(OpenRtbLogWriter.class, "dropped"));
+    this.backPressure =
+        metricRegistry.timer(MetricRegistry.name(OpenRtbLogWriter.class, "back-pressure"));
+    metricRegistry.gauge(MetricRegistry.name(OpenRtbLogWriter.class, "queue-size"),
+        () -> (Gauge<Integer>) queue::size);
+
+    this.flusher = builder.threadFactory.newThread(this::run);
+    flusher.start();
+  }
+
+  public static Builder builder(Path directory) {
+    return new Builder(directory);
+  }
+
+  /**
+   * Logs a request, waiting for queue space if necessary.
+   *
+   * @throws IOException if the writer failed, or the wait was interrupted
+   */
+  public void write(BidRequest request) throws IOException {
+    put(record(request, null));
+  }
+
+  /**
+   * Logs a response, waiting for queue space if necessary.
+   */
+  public void write(BidResponse response) throws IOException {
+    put(record(null, response));
+  }
+
+  /**
+   * Logs a request with its response, as a single record.
+   */
+  public void write(BidRequest request, BidResponse response) throws IOException {
+    put(record(checkNotNull(request), checkNotNull(response)));
+  }
+
+  /**
+   * Logs a request if there's queue space, otherwise drops it.
+   *
+   * @return {@code true} if the request was queued
+   */
+  public boolean tryWrite(BidRequest request) throws IOException {
+    return offer(record(request, null));
+  }
+
+  /**
+   * Logs a request with its response if there's queue space, otherwise drops them.
+   *
+   * @return {@code true} if the request and response were queued
+   */
+  public boolean tryWrite(BidRequest request, BidResponse response) throws IOException {
+    return offer(record(checkNotNull(request), checkNotNull(response)));
+  }
+
+  /**
+   * Writes all records queued before this call to the file system.
+   */
+  public void flush() throws IOException {
+    Flush flush = new Flush();
+    put(flush);
+    try {
+      flush.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    }
+    checkFailure();
+    if (!flush.written) {
+      throw new IOException("Writer closed");
+    }
+  }
+
+  /**
+   * Writes all queued records, and closes the current segment with its index.
+   */
+  @Override public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      queue.put(CLOSE);
+      flusher.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    }
+    checkFailure();
+  }
+
+  private static byte[] record(@Nullable BidRequest request, @Nullable BidResponse response) {
+    int size = (request == null ? 0
+            : CodedOutputStream.computeMessageSize(LogFormat.REQUEST_FIELD, request))
+        + (response == null ? 0
+            : CodedOutputStream.computeMessageSize(LogFormat.RESPONSE_FIELD, response));
+    boolean pair = request != null && response != null;
+    byte[] record = new byte[pair
+        ? CodedOutputStream.computeTagSize(LogFormat.PAIR_FIELD)
+            + CodedOutputStream.computeUInt32SizeNoTag(size) + size
+        : size];
+    CodedOutputStream cos = CodedOutputStream.newInstance(record);
+    try {
+      if (pair) {
+        cos.writeTag(LogFormat.PAIR_FIELD, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        cos.writeUInt32NoTag(size);
+      }
+      writeField(cos, LogFormat.REQUEST_FIELD, request);
+      writeField(cos, LogFormat.RESPONSE_FIELD, response);
+    } catch (IOException e) {
+      // Not possible, the array has the exact size
+      throw new IllegalStateException(e);
+    }
+    cos.checkNoSpaceLeft();
+    return record;
+  }
+
+  private static void writeField(CodedOutputStream cos, int number, @Nullable MessageLite msg)
+      throws IOException {
+    if (msg != null) {
+      cos.writeMessage(number, msg);
+    }
+  }
+
+  private void put(Object item) throws IOException {
+    checkOpen();
+    if (!queue.offer(item)) {
+      Timer.Context timing = backPressure.time();
+      try {
+        queue.put(item);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      } finally {
+        timing.stop();
+      }
+    }
+    if (stopped) {
+      // The background thread stopped while the item was queued, so nobody else will take it
+      releaseQueued();
+    }
+  }
+
+  private boolean offer(byte[] record) throws IOException {
+    checkOpen();
+    if (queue.offer(record)) {
+      if (stopped) {
+        releaseQueued();
+      }
+      return true;
+    }
+    dropped.inc();
+    return false;
+  }
+
+  private void checkOpen() throws IOException {
+    checkFailure();
+    if (closed) {
+      throw new IOException("Writer closed");
+    }
+  }
+
+  private void checkFailure() throws IOException {
+    IOException e = failure;
+    if (e != null) {
+      throw new IOException("Log writer failed", e);
+    }
+  }
+
+  private void run() {
+    List<Object> batch = new ArrayList<>();
+    int next = 0;
+    try {
+      while (true) {
+        long timeout = blockRecords == 0
+            ? flushIntervalNanos
+            : blockStartNanos + flushIntervalNanos - System.nanoTime();
+        Object first = queue.poll(Math.max(timeout, 0), TimeUnit.NANOSECONDS);
+        if (first != null) {
+          batch.add(first);
+          queue.drainTo(batch, MAX_BATCH);
+        }
+        while (next < batch.size()) {
+          Object item = batch.get(next++);
+          if (item == CLOSE) {
+            closeSegment();
+            return;
+          } else if (item instanceof byte[]) {
+            append((byte[]) item);
+          } else {
+            flushBlock();
+            Flush flush = (Flush) item;
+            flush.written = true;
+            flush.countDown();
+          }
+        }
+        batch.clear();
+        next = 0;
+        if (blockRecords != 0 && System.nanoTime() - blockStartNanos >= flushIntervalNanos) {
+          flushBlock();
+        }
+      }
+    } catch (InterruptedException e) {
+      if (failure == null) {
+        fail(new InterruptedIOException("Log writer interrupted"));
+      }
+    } catch (RuntimeException | Error e) {
+      if (failure == null) {
+        fail(new IOException("Log writer failed", e));
+      }
+      throw e;
+    } finally {
+      // Items queued after CLOSE, or after a failure, are never taken by this thread again
+      stopped = true;
+      for (Object item : batch.subList(next, batch.size())) {
+        release(item);
+      }
+      releaseQueued();
+      deflater.end();
+    }
+  }
+
+  /**
+   * Drops all queued records and releases all queued flushes, once the background thread
+   * has stopped. Can be called by any thread.
+   */
+  private void releaseQueued() {
+    for (Object item = queue.poll(); item != null; item = queue.poll()) {
+      release(item);
+    }
+  }
+
+  private void release(Object item) {
+    if (item instanceof byte[]) {
+      dropped.inc();
+    } else if (item instanceof Flush) {
+      ((Flush) item).countDown();
+    }
+  }
+
+  private void append(byte[] record) {
+    if (failure != null) {
+      dropped.inc();
+      return;
+    }
+    try {
+      if (blockLength != 0 && blockLength + record.length > blockSize) {
+        writeBlock();
+      }
+      if (blockLength + record.length > block.length) {
+        block = Arrays.copyOf(block, blockLength + record.length);
+      }
+      if (blockRecords == 0) {
+        blockStartNanos = System.nanoTime();
+      }
+      System.arraycopy(record, 0, block, blockLength, record.length);
+      blockLength += record.length;
+      ++blockRecords;
+      records.inc();
+    } catch (IOException e) {
+      fail(e);
+    }
+  }
+
+  private void flushBlock() {
+    if (failure == null) {
+      try {
+        writeBlock();
+        flushBuffer();
+      } catch (IOException e) {
+        fail(e);
+      }
+    }
+  }
+
+  private void writeBlock() throws IOException {
+    if (blockRecords == 0) {
+      return;
+    }
+    deflater.reset();
+    deflater.setInput(block, 0, blockLength);
+    deflater.finish();
+    int length = 0;
+    while (!deflater.finished()) {
+      if (length == compressed.length) {
+        compressed = Arrays.copyOf(compressed, compressed.length * 2);
+      }
+      length += deflater.deflate(compressed, length, compressed.length - length);
+    }
+    crc.reset();
+    crc.update(compressed, 0, length);
+
+    if (channel == null) {
+      openSegment();
+    }
+    addIndexEntry(segmentBytes, blockRecords);
+    if (out.remaining() < LogFormat.BLOCK_HEADER_SIZE) {
+      flushBuffer();
+    }
+    out.putInt(length).putInt(blockLength).putInt(blockRecords).putInt((int) crc.getValue());
+    put(compressed, length);
+    segmentBytes += LogFormat.BLOCK_HEADER_SIZE + length;
+
+    blocks.inc();
+    rawBytes.inc(blockLength);
+    compressedBytes.inc(LogFormat.BLOCK_HEADER_SIZE + length);
+    blockLength = 0;
+    blockRecords = 0;
+    if (block.length > blockSize) {
+      block = new byte[blockSize];
+    }
+    if (segmentBytes >= segmentSize) {
+      closeSegment();
+    }
+  }
+
+  private void put(byte[] bytes, int length) throws IOException {
+    int pos = 0;
+    while (pos < length) {
+      if (!out.hasRemaining()) {
+        flushBuffer();
+      }
+      int chunk = Math.min(out.remaining(), length - pos);
+      out.put(bytes, pos, chunk);
+      pos += chunk;
+    }
+  }
+
+  private void flushBuffer() throws IOException {
+    out.flip();
+    while (out.hasRemaining()) {
+      channel.write(out);
+    }
+    out.clear();
+  }
+
+  private void addIndexEntry(long offset, int blockRecords) {
+    if (indexCount == indexOffsets.length) {
+      indexOffsets = Arrays.copyOf(indexOffsets, indexCount * 2);
+      indexRecords = Arrays.copyOf(indexRecords, indexCount * 2);
+    }
+    indexOffsets[indexCount] = offset;
+    indexRecords[indexCount] = blockRecords;
+    ++indexCount;
+  }
+
+  private void openSegment() throws IOException {
+    while (true) {
+      Path path = directory.resolve(
+          String.format("%s-%06d%s", prefix, segmentNumber++, LogFormat.EXTENSION));
+      try {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        break;
+      } catch (FileAlreadyExistsException e) {
+        // Keep existing segments
+      }
+    }
+    out.put(LogFormat.MAGIC);
+    segmentBytes = LogFormat.MAGIC.length;
+    indexCount = 0;
+  }
+
+  /**
+   * Writes the pending block, the index and the footer, and closes the segment.
+   */
+  private void closeSegment() {
+    if (failure != null) {
+      return;
+    }
+    try {
+      writeBlock();
+      if (channel == null) {
+        return;
+      }
+      long indexOffset = segmentBytes;
+      for (int i = 0; i < indexCount; ++i) {
+        if (out.remaining() < LogFormat.INDEX_ENTRY_SIZE) {
+          flushBuffer();
+        }
+        out.putLong(indexOffsets[i]).putInt(indexRecords[i]);
+      }
+      if (out.remaining() < LogFormat.FOOTER_SIZE) {
+        flushBuffer();
+      }
+      out.putLong(indexOffset).putInt(indexCount).put(LogFormat.INDEX_MAGIC);
+      flushBuffer();
+      channel.force(true);
+      channel.close();
+    } catch (IOException e) {
+      fail(e);
+    } finally {
+      channel = null;
+    }
+  }
+
+  private void fail(IOException e) {
+    logger.error("Log writer failed, further records will be dropped", e);
+    failure = e;
+    dropped.inc(blockRecords);
+    blockLength = 0;
+    blockRecords = 0;
+    if (channel != null) {
+      try {
+        channel.close();
+      } catch (IOException e2) {
+        e.addSuppressed(e2);
+      }
+    }
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("directory", directory)
+        .add("prefix", prefix)
+        .add("records", records.getCount())
+        .add("queued", queue.size())
+        .toString();
+  }
+
+  /**
+   * Queue marker for {@link #flush()}, counted down when the records queued before it are
+   * written, or when the writer stopped before they could be.
+   */
+  private static final class Flush extends CountDownLatch {
+    volatile boolean written;
+
+    Flush() {
+      super(1);
+    }
+  }
+
+  /**
+   * Builder for {@link OpenRtbLogWriter}.
+   */
+  public static final class Builder {
+    private final Path directory;
+    private String prefix = "openrtb";
+    private int blockSize = 1024 * 1024;
+    private long segmentSize = 1024L * 1024 * 1024;
+    private int bufferSize = 8 * 1024 * 1024;
+    private int queueCapacity = 65_536;
+    private long flushIntervalNanos = TimeUnit.SECONDS.toNanos(1);
+    private int compressionLevel = Deflater.BEST_SPEED;
+    private MetricRegistry metricRegistry = new MetricRegistry();
+    private ThreadFactory threadFactory = new ThreadFactoryBuilder()
+        .setNameFormat("openrtb-log-writer-%d").setDaemon(true).build();
+
+    private Builder(Path directory) {
+      this.directory = checkNotNull(directory);
+    }
+
+    /**
+     * Sets the prefix of segment file names, which are {@code <prefix>-<number>.ortblog}.
+     * Default is {@code openrtb}.
+     */
+    public Builder prefix(String prefix) {
+      checkArgument(!prefix.isEmpty() && prefix.indexOf('/') == -1, "prefix: %s", prefix);
+      this.prefix = prefix;
+      return this;
+    }
+
+    /**
+     * Sets the uncompressed size of blocks. Larger blocks compress better, but smaller blocks
+     * allow finer-grained parallel reading. Default is 1 MiB.
+     */
+    public Builder blockSize(int blockSize) {
+      checkArgument(blockSize > 0, "blockSize: %s", blockSize);
+      this.blockSize = blockSize;
+      return this;
+    }
+
+    /**
+     * Sets the size after which a new segment file is started. Default is 1 GiB.
+     */
+    public Builder segmentSize(long segmentSize) {
+      checkArgument(segmentSize > 0, "segmentSize: %s", segmentSize);
+      this.segmentSize = segmentSize;
+      return this;
+    }
+
+    /**
+     * Sets the size of the direct buffer for file writes. Default is 8 MiB.
+     */
+    public Builder bufferSize(int bufferSize) {
+      checkArgument(bufferSize >= LogFormat.FOOTER_SIZE, "bufferSize: %s", bufferSize);
+      this.bufferSize = bufferSize;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of records waiting to be written. Default is 65,536.
+     */
+    public Builder queueCapacity(int queueCapacity) {
+      checkArgument(queueCapacity > 0, "queueCapacity: %s", queueCapacity);
+      this.queueCapacity = queueCapacity;
+      return this;
+    }
+
+    /**
+     * Sets the maximum time a record waits in an open block before it's written.
+     * Default is one second.
+     */
+    public Builder flushInterval(long duration, TimeUnit unit) {
+      checkArgument(duration > 0, "duration: %s", duration);
+      this.flushIntervalNanos = unit.toNanos(duration);
+      return this;
+    }
+
+    /**
+     * Sets the Deflate compression level, from 0 to 9. Default is
+     * {@link Deflater#BEST_SPEED}.
+     */
+    public Builder compressionLevel(int compressionLevel) {
+      checkArgument(compressionLevel >= 0 && compressionLevel <= 9,
+          "compressionLevel: %s", compressionLevel);
+      this.compressionLevel = compressionLevel;
+      return this;
+    }
+
+    public Builder metricRegistry(MetricRegistry metricRegistry) {
+      this.metricRegistry = checkNotNull(metricRegistry);
+      return this;
+    }
+
+    /**
+     * Sets the factory for the background thread. Default creates daemon threads.
+     */
+    public Builder threadFactory(ThreadFactory threadFactory) {
+      this.threadFactory = checkNotNull(threadFactory);
+      return this;
+    }
+
+    public OpenRtbLogWriter build() {
+      return new OpenRtbLogWriter(this);
+    }
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.snippet;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.base.MoreObjects;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidResponse;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import javax.annotation.Nullable;
+
+/**
+ * Reusable per-request objects for building a response: a {@link BidResponse.Builder}, a
+ * {@link SnippetProcessorContext} with a pre-grown {@link StringBuilder}, and scratch structures
+ * for lookups. Workspaces are obtained from a {@link Pool} for each request, and returned to it
+ * by {@link #close()} when the request is done:
+ *
+ * <pre>
+ * try (ResponseWorkspace workspace = pool.acquire(request)) {
+ *   BidResponse.Builder response = workspace.response();
+ *   ...
+ *   return response.build();
+ * }
+ * </pre>
+ *
+ * <p>Workspaces are bound to a request, not to a thread, so they work the same with platform
+ * threads, thread pools, or virtual threads (which would make per-thread caches useless, or
+ * pinned to carrier threads that are shared by unrelated requests). Nothing obtained from
+ * a workspace, including the response builder, can be used after it's closed.
+ *
+ * <p>This class is NOT threadsafe; {@link Pool} is threadsafe.
+ */
+public final class ResponseWorkspace implements AutoCloseable {
+  private final Pool pool;
+  private final BidResponse.Builder response = BidResponse.newBuilder();
+  private final StringBuilder builder;
+  private final SnippetProcessorContext snippetContext;
+  private final Map<String, Imp> imps = new HashMap<>();
+  private BidRequest request;
+  private int[] ints = new int[0];
+  private double[] doubles = new double[0];
+
+  private ResponseWorkspace(Pool pool) {
+    this.pool = pool;
+    this.builder = new StringBuilder(pool.initialCapacity);
+    this.snippetContext = new SnippetProcessorContext(
+        BidRequest.getDefaultInstance(), response, builder);
+  }
+
+  /**
+   * The request this workspace is currently bound to.
+   */
+  public BidRequest request() {
+    checkState(request != null, "Workspace is closed");
+    return request;
+  }
+
+  /**
+   * An empty response builder, on acquisition of the workspace.
+   */
+  public BidResponse.Builder response() {
+    checkState(request != null, "Workspace is closed");
+    return response;
+  }
+
+  /**
+   * A snippet processing context for the request and {@link #response()}.
+   */
+  public SnippetProcessorContext snippetContext() {
+    checkState(request != null, "Workspace is closed");
+    return snippetContext;
+  }
+
+  /**
+   * Finds an impression of the request by ID. The index is built on the first call.
+   */
+  @Nullable public Imp imp(String impId) {
+    List<Imp> reqImps = request().getImpList();
+    if (imps.isEmpty() && !reqImps.isEmpty()) {
+      for (Imp imp : reqImps) {
+        imps.putIfAbsent(imp.getId(), imp);
+      }
+    }
+    return imps.get(checkNotNull(impId));
+  }
+
+  /**
+   * Scratch array of at least {@code size} elements, with undefined contents.
+   */
+  public int[] ints(int size) {
+    if (ints.length < size) {
+      ints = new int[Math.max(size, ints.length * 2)];
+    }
+    return ints;
+  }
+
+  /**
+   * Scratch array of at least {@code size} elements, with undefined contents.
+   */
+  public double[] doubles(int size) {
+    if (doubles.length < size) {
+      doubles = new double[Math.max(size, doubles.length * 2)];
+    }
+    return doubles;
+  }
+
+  /**
+   * Releases this workspace back to its pool.
+   */
+  @Override public void close() {
+    if (request != null) {
+      request = null;
+      pool.release(this);
+    }
+  }
+
+  private void reset(BidRequest request) {
+    this.request = request;
+    response.clear();
+    snippetContext.reset(request, response);
+  }
+
+  /**
+   * Clears references to the last request, and shrinks buffers that grew beyond the limits.
+   */
+  private void trim() {
+    response.clear();
+    snippetContext.reset(null, response);
+    imps.clear();
+    if (builder.capacity() > pool.maxRetainedCapacity) {
+      builder.trimToSize();
+      builder.ensureCapacity(pool.initialCapacity);
+    }
+    if (ints.length > pool.maxRetainedCapacity) {
+      ints = new int[0];
+    }
+    if (doubles.length > pool.maxRetainedCapacity) {
+      doubles = new double[0];
+    }
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this).omitNullValues()
+        .add("request", request == null ? null : request.getId())
+        .add("builderCapacity", builder.capacity())
+        .toString();
+  }
+
+  /**
+   * Bounded pool of {@link ResponseWorkspace}s. If the pool is empty, a new workspace is created;
+   * if it's full, released workspaces are discarded, so the pool's size tracks the number of
+   * concurrent requests up to its limit.
+   *
+   * <p>This class is threadsafe.
+   */
+  public static final class Pool {
+    private final BlockingQueue<ResponseWorkspace> free;
+    private final int initialCapacity;
+    private final int maxRetainedCapacity;
+
+    /**
+     * Creates a pool.
+     *
+     * @param maxPooled Maximum number of idle workspaces kept in the pool
+     * @param initialCapacity Initial capacity of each workspace's {@link StringBuilder}
+     * @param maxRetainedCapacity Capacity above which a workspace's buffers are shrunk
+     *     when it's released, so a few huge responses don't keep memory forever
+     */
+    public Pool(int maxPooled, int initialCapacity, int maxRetainedCapacity) {
+      checkArgument(maxPooled > 0, "maxPooled: %s", maxPooled);
+      checkArgument(initialCapacity >= 0 && initialCapacity <= maxRetainedCapacity,
+          "initialCapacity: %s, maxRetainedCapacity: %s", initialCapacity, maxRetainedCapacity);
+      this.free = new ArrayBlockingQueue<>(maxPooled);
+      this.initialCapacity = initialCapacity;
+      this.maxRetainedCapacity = maxRetainedCapacity;
+    }
+
+    /**
+     * Gets a workspace for a request.
+     */
+    public ResponseWorkspace acquire(BidRequest request) {
+      checkNotNull(request);
+      ResponseWorkspace workspace = free.poll();
+      if (workspace == null) {
+        workspace = new ResponseWorkspace(this);
+      }
+      workspace.reset(request);
+      return workspace;
+    }
+
+    /**
+     * Number of idle workspaces.
+     */
+    public int idle() {
+      return free.size();
+    }
+
+    void release(ResponseWorkspace workspace) {
+      workspace.trim();
+      free.offer(workspace);
+    }
+
+    @Override public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("idle", free.size())
+          .add("initialCapacity", initialCapacity)
+          .add("maxRetainedCapacity", maxRetainedCapacity)
+          .toString();
+    }
+  }
+}
@@ -21,6 +21,7 @@ import com.google.openrtb.OpenRtb.BidRequestOrBuilder;
 import com.google.openrtb.OpenRtb.BidResponse;
 import com.google.openrtb.OpenRtb.BidResponse.SeatBid.Bid;
 import com.google.openrtb.util.ProtoUtils;
+import javax.annotation.Nullable;
 
 /**
  * Context for {@link SnippetProcessor}.
@@ -28,10 +29,11 @@ import com.google.openrtb.util.ProtoUtils;
  * <p>This class is NOT threadsafe.
  */
 public class SnippetProcessorContext {
-  private final BidRequestOrBuilder request;
-  private final BidResponse.Builder response;
+  private BidRequestOrBuilder request;
+  private BidResponse.Builder response;
   private final StringBuilder builder;
   private Bid.Builder bid;
+  private SnippetProcessorContext rec;
 
   public SnippetProcessorContext(BidRequestOrBuilder request, BidResponse.Builder response) {
     this(request, response, new StringBuilder(0));
@@ -64,8 +66,32 @@ public class SnippetProcessorContext {
     return builder;
   }
 
+  /**
+   * Returns a context for recursive processing of macro expansions. The same nested context is
+   * reused by all expansions, since they don't overlap; it's cleared each time, so it doesn't
+   * have a bid or leftovers of a previous expansion.
+   */
   public SnippetProcessorContext rec() {
-    return new SnippetProcessorContext(request, response);
+    if (rec == null) {
+      rec = new SnippetProcessorContext(request, response);
+    } else {
+      rec.bid = null;
+      rec.builder.setLength(0);
+    }
+    return rec;
+  }
+
+  /**
+   * Prepares this context for reuse with another request, see {@link ResponseWorkspace}.
+   */
+  void reset(@Nullable BidRequestOrBuilder request, BidResponse.Builder response) {
+    this.request = request;
+    this.response = response;
+    this.bid = null;
+    this.builder.setLength(0);
+    if (rec != null) {
+      rec.reset(request, response);
+    }
   }
 
   @Override public String toString() {
@@ -0,0 +1,419 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.targeting;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Ascii;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.openrtb.OpenRtb.APIFramework;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Banner;
+import com.google.openrtb.OpenRtb.ConnectionType;
+import com.google.openrtb.OpenRtb.ContentCategory;
+import com.google.openrtb.OpenRtb.DeviceType;
+import com.google.openrtb.OpenRtb.Protocol;
+import com.google.openrtb.util.CompressedBitmap;
+import com.google.openrtb.util.OpenRtbUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index from discrete {@link BidRequest} attributes to the campaigns that target them.
+ *
+ * <p>Each {@link Dimension} has a posting bitmap per value, plus a bitmap of the campaigns that
+ * don't restrict that dimension. The candidates for an impression are the intersection, over all
+ * dimensions, of the union of the postings for the values present in the request.
+ * Request-level dimensions are resolved once per request.
+ *
+ * <p>This class is threadsafe. Lookups use an immutable snapshot and never block. Updates
+ * rebuild a new snapshot (copy-on-write) and publish it atomically; they're serialized among
+ * themselves, so prefer {@link #putAll(Collection)} for bulk updates.
+ */
+public class CampaignIndex {
+  /**
+   * Request attributes indexed by {@link CampaignIndex}.
+   */
+  public enum Dimension {
+    /** {@link ContentCategory}, from {@code Site.cat} or {@code App.cat}. */
+    CATEGORY(false),
+    /** {@link DeviceType}, from {@code Device.devicetype}. */
+    DEVICE_TYPE(false),
+    /** {@link ConnectionType}, from {@code Device.connectiontype}. */
+    CONNECTION_TYPE(false),
+    /** Country code, from {@code Device.geo.country} or else {@code User.geo.country}. */
+    COUNTRY(false),
+    /** {@link APIFramework}, from the {@code api} of any of the impression's media objects. */
+    API_FRAMEWORK(true),
+    /** {@link Protocol}, from {@code Video.protocols} or {@code Audio.protocols}. */
+    PROTOCOL(true),
+    /** Banner size, from {@code Banner.w/h} or any {@code Banner.format}. */
+    FORMAT(true);
+
+    private final boolean impLevel;
+
+    private Dimension(boolean impLevel) {
+      this.impLevel = impLevel;
+    }
+
+    public boolean isImpLevel() {
+      return impLevel;
+    }
+  }
+
+  private final Map<String, Campaign> campaigns = new LinkedHashMap<>();
+  private volatile Snapshot snapshot = new Snapshot(ImmutableList.<Campaign>of());
+
+  /**
+   * Adds or replaces a campaign.
+   */
+  public void put(Campaign campaign) {
+    putAll(ImmutableList.of(campaign));
+  }
+
+  /**
+   * Adds or replaces several campaigns, with a single rebuild.
+   */
+  public synchronized void putAll(Collection<Campaign> newCampaigns) {
+    for (Campaign campaign : newCampaigns) {
+      campaigns.put(campaign.id(), campaign);
+    }
+    snapshot = new Snapshot(campaigns.values());
+  }
+
+  /**
+   * Removes a campaign.
+   *
+   * @return {@code true} if the campaign was present
+   */
+  public synchronized boolean remove(String campaignId) {
+    if (campaigns.remove(checkNotNull(campaignId)) == null) {
+      return false;
+    }
+    snapshot = new Snapshot(campaigns.values());
+    return true;
+  }
+
+  /**
+   * Replaces all campaigns.
+   */
+  public synchronized void replaceAll(Collection<Campaign> newCampaigns) {
+    campaigns.clear();
+    putAll(newCampaigns);
+  }
+
+  public int size() {
+    return snapshot.campaigns.size();
+  }
+
+  /**
+   * Finds the candidate campaigns for each impression of a request.
+   *
+   * @return Impression ID to candidate campaign IDs. Impressions with no candidates are omitted
+   */
+  public ImmutableSetMultimap<String, String> candidates(BidRequest request) {
+    Snapshot snap = snapshot;
+    ImmutableSetMultimap.Builder<String, String> candidates = ImmutableSetMultimap.builder();
+    if (snap.campaigns.isEmpty()) {
+      return candidates.build();
+    }
+
+    List<CompressedBitmap> requestPostings = snap.requestPostings(request);
+    for (Imp imp : request.getImpList()) {
+      snap.candidates(requestPostings, imp).forEach(
+          slot -> candidates.put(imp.getId(), snap.campaigns.get(slot).id()));
+    }
+    return candidates.build();
+  }
+
+  /**
+   * Finds the candidate campaigns for one impression of a request.
+   */
+  public ImmutableSet<String> candidates(BidRequest request, Imp imp) {
+    Snapshot snap = snapshot;
+    if (snap.campaigns.isEmpty()) {
+      return ImmutableSet.of();
+    }
+
+    ImmutableSet.Builder<String> candidates = ImmutableSet.builder();
+    snap.candidates(snap.requestPostings(request), imp).forEach(
+        slot -> candidates.add(snap.campaigns.get(slot).id()));
+    return candidates.build();
+  }
+
+  /**
+   * Immutable index built from a list of campaigns; slots are positions in that list.
+   */
+  private static final class Snapshot {
+    final ImmutableList<Campaign> campaigns;
+    final EnumMap<Dimension, Map<Object, CompressedBitmap>> postings =
+        new EnumMap<>(Dimension.class);
+    final EnumMap<Dimension, CompressedBitmap> unrestricted = new EnumMap<>(Dimension.class);
+
+    Snapshot(Collection<Campaign> campaigns) {
+      this.campaigns = ImmutableList.copyOf(campaigns);
+      for (Dimension dim : Dimension.values()) {
+        postings.put(dim, new HashMap<>());
+        unrestricted.put(dim, new CompressedBitmap());
+      }
+
+      for (int slot = 0; slot < this.campaigns.size(); ++slot) {
+        Campaign campaign = this.campaigns.get(slot);
+        for (Dimension dim : Dimension.values()) {
+          ImmutableSet<Object> values = campaign.targeting(dim);
+          if (values.isEmpty()) {
+            unrestricted.get(dim).add(slot);
+          } else {
+            Map<Object, CompressedBitmap> dimPostings = postings.get(dim);
+            for (Object value : values) {
+              dimPostings.computeIfAbsent(value, v -> new CompressedBitmap()).add(slot);
+            }
+          }
+        }
+      }
+    }
+
+    List<CompressedBitmap> requestPostings(BidRequest request) {
+      List<CompressedBitmap> allowed = new ArrayList<>(Dimension.values().length);
+      allowed.add(allowed(Dimension.CATEGORY, requestCategories(request)));
+      allowed.add(allowed(Dimension.DEVICE_TYPE, request.getDevice().hasDevicetype()
+          ? ImmutableList.of(request.getDevice().getDevicetype())
+          : ImmutableList.of()));
+      allowed.add(allowed(Dimension.CONNECTION_TYPE, request.getDevice().hasConnectiontype()
+          ? ImmutableList.of(request.getDevice().getConnectiontype())
+          : ImmutableList.of()));
+      String country = request.getDevice().getGeo().hasCountry()
+          ? request.getDevice().getGeo().getCountry()
+          : request.getUser().getGeo().getCountry();
+      allowed.add(allowed(Dimension.COUNTRY, country.isEmpty()
+          ? ImmutableList.of()
+          : ImmutableList.of(Ascii.toUpperCase(country))));
+      return allowed;
+    }
+
+    CompressedBitmap candidates(List<CompressedBitmap> requestPostings, Imp imp) {
+      List<CompressedBitmap> allowed = new ArrayList<>(requestPostings);
+      allowed.add(allowed(Dimension.API_FRAMEWORK, impApis(imp)));
+      allowed.add(allowed(Dimension.PROTOCOL, impProtocols(imp)));
+      allowed.add(allowed(Dimension.FORMAT, impFormats(imp)));
+
+      // Intersect smallest first, so the intermediate results are as small as possible.
+      allowed.sort((b1, b2) -> Integer.compare(b1.cardinality(), b2.cardinality()));
+      CompressedBitmap result = allowed.get(0);
+      for (int i = 1; i < allowed.size() && !result.isEmpty(); ++i) {
+        result = result.and(allowed.get(i));
+      }
+      return result;
+    }
+
+    /**
+     * Campaigns allowed for one dimension: the union of the postings for the request's values,
+     * and the campaigns that don't restrict that dimension.
+     */
+    CompressedBitmap allowed(Dimension dim, Collection<?> requestValues) {
+      CompressedBitmap unrestrictedDim = unrestricted.get(dim);
+      if (requestValues.isEmpty()) {
+        return unrestrictedDim;
+      }
+
+      Map<Object, CompressedBitmap> dimPostings = postings.get(dim);
+      CompressedBitmap allowed = null;
+      for (Object value : requestValues) {
+        CompressedBitmap posting = dimPostings.get(value);
+        if (posting != null) {
+          allowed = allowed == null ? posting.or(unrestrictedDim) : allowed.orInPlace(posting);
+        }
+      }
+      return allowed == null ? unrestrictedDim : allowed;
+    }
+  }
+
+  static List<ContentCategory> requestCategories(BidRequest request) {
+    List<String> cats = request.hasSite()
+        ? request.getSite().getCatList()
+        : request.getApp().getCatList();
+    if (cats.isEmpty()) {
+      return ImmutableList.of();
+    }
+    List<ContentCategory> parsed = new ArrayList<>(cats.size());
+    for (String cat : cats) {
+      ContentCategory category = OpenRtbUtils.categoryFromName(cat);
+      if (category != null) {
+        parsed.add(category);
+      }
+    }
+    return parsed;
+  }
+
+  static Collection<APIFramework> impApis(Imp imp) {
+    if (!imp.hasBanner() && !imp.hasVideo() && !imp.hasAudio() && !imp.hasNative()) {
+      return ImmutableList.of();
+    }
+    Set<APIFramework> apis = new HashSet<>();
+    apis.addAll(imp.getBanner().getApiList());
+    apis.addAll(imp.getVideo().getApiList());
+    apis.addAll(imp.getAudio().getApiList());
+    apis.addAll(imp.getNative().getApiList());
+    return apis;
+  }
+
+  static Collection<Protocol> impProtocols(Imp imp) {
+    if (imp.hasVideo() && !imp.hasAudio()) {
+      return imp.getVideo().getProtocolsList();
+    } else if (imp.hasAudio() && !imp.hasVideo()) {
+      return imp.getAudio().getProtocolsList();
+    }
+    Set<Protocol> protocols = new HashSet<>(imp.getVideo().getProtocolsList());
+    protocols.addAll(imp.getAudio().getProtocolsList());
+    return protocols;
+  }
+
+  static Collection<Long> impFormats(Imp imp) {
+    if (!imp.hasBanner()) {
+      return ImmutableList.of();
+    }
+    Banner banner = imp.getBanner();
+    List<Long> formats = new ArrayList<>(banner.getFormatCount() + 1);
+    if (banner.hasW() && banner.hasH()) {
+      formats.add(formatKey(banner.getW(), banner.getH()));
+    }
+    for (Banner.Format format : banner.getFormatList()) {
+      if (format.hasW() && format.hasH()) {
+        formats.add(formatKey(format.getW(), format.getH()));
+      }
+    }
+    return formats;
+  }
+
+  static Long formatKey(int w, int h) {
+    return ((long) w << 32) | (h & 0xFFFFFFFFL);
+  }
+
+  /**
+   * A campaign's targeting. Dimensions with no values are not restricted.
+   *
+   * <p>This class is immutable and threadsafe.
+   */
+  public static final class Campaign {
+    private final String id;
+    private final ImmutableMap<Dimension, ImmutableSet<Object>> targeting;
+
+    private Campaign(Builder builder) {
+      this.id = builder.id;
+      ImmutableMap.Builder<Dimension, ImmutableSet<Object>> targeting = ImmutableMap.builder();
+      for (Map.Entry<Dimension, ImmutableSet.Builder<Object>> entry :
+          builder.targeting.entrySet()) {
+        targeting.put(entry.getKey(), entry.getValue().build());
+      }
+      this.targeting = targeting.build();
+    }
+
+    public static Builder newBuilder(String id) {
+      return new Builder(id);
+    }
+
+    public String id() {
+      return id;
+    }
+
+    /**
+     * Values targeted for a dimension; empty if the dimension is not restricted.
+     * {@link Dimension#FORMAT} values are opaque keys.
+     */
+    public ImmutableSet<Object> targeting(Dimension dim) {
+      ImmutableSet<Object> values = targeting.get(dim);
+      return values == null ? ImmutableSet.of() : values;
+    }
+
+    @Override public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("id", id)
+          .add("targeting", targeting)
+          .toString();
+    }
+
+    /**
+     * Builder for {@link Campaign}.
+     */
+    public static final class Builder {
+      private final String id;
+      private final EnumMap<Dimension, ImmutableSet.Builder<Object>> targeting =
+          new EnumMap<>(Dimension.class);
+
+      private Builder(String id) {
+        this.id = checkNotNull(id);
+      }
+
+      public Builder addCategory(ContentCategory... cats) {
+        return add(Dimension.CATEGORY, Arrays.asList(cats));
+      }
+
+      public Builder addDeviceType(DeviceType... deviceTypes) {
+        return add(Dimension.DEVICE_TYPE, Arrays.asList(deviceTypes));
+      }
+
+      public Builder addConnectionType(ConnectionType... connectionTypes) {
+        return add(Dimension.CONNECTION_TYPE, Arrays.asList(connectionTypes));
+      }
+
+      public Builder addCountry(String... countries) {
+        for (String country : countries) {
+          add(Dimension.COUNTRY, ImmutableList.of(Ascii.toUpperCase(country)));
+        }
+        return this;
+      }
+
+      public Builder addApi(APIFramework... apis) {
+        return add(Dimension.API_FRAMEWORK, Arrays.asList(apis));
+      }
+
+      public Builder addProtocol(Protocol... protocols) {
+        return add(Dimension.PROTOCOL, Arrays.asList(protocols));
+      }
+
+      public Builder addFormat(int w, int h) {
+        return add(Dimension.FORMAT, ImmutableList.of(formatKey(w, h)));
+      }
+
+      private Builder add(Dimension dim, List<?> values) {
+        ImmutableSet.Builder<Object> dimValues =
+            targeting.computeIfAbsent(dim, d -> ImmutableSet.builder());
+        for (Object value : values) {
+          dimValues.add(checkNotNull(value));
+        }
+        return this;
+      }
+
+      public Campaign build() {
+        return new Campaign(this);
+      }
+    }
+  }
+}
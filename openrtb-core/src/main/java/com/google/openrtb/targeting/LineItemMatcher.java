@@ -0,0 +1,349 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.targeting;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.primitives.Ints;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Banner;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Pmp.Deal;
+import com.google.openrtb.targeting.TargetingExpression.Attribute;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Compiled set of line items, each with a {@link TargetingExpression}.
+ *
+ * <p>All atomic predicates ({@code attribute in (values)}) from all line items are deduplicated
+ * and indexed by attribute value, so each request is scanned exactly once: the request's
+ * attribute values are looked up in the index to set the bits of every atom they satisfy,
+ * request-level atoms only once per request. Line items are then evaluated as trees over that
+ * bit set, without touching the request again; and each line item is indexed by one atom that
+ * its expression requires (when it has one), so line items that can't match are not evaluated.
+ *
+ * <p>This class is immutable and threadsafe.
+ */
+public final class LineItemMatcher {
+  private static final int[] NO_INTS = new int[0];
+
+  private final ImmutableList<String> lineItemIds;
+  private final Node[] lineItems;
+  private final EnumMap<Attribute, Map<String, int[]>> atomsByValue;
+  private final int atomCount;
+  private final boolean hasRequestAtoms;
+  private final int[][] lineItemsByAnchor;
+  private final int[] unanchored;
+
+  private LineItemMatcher(Builder builder) {
+    this.lineItemIds = ImmutableList.copyOf(builder.lineItems.keySet());
+    this.lineItems = new Node[lineItemIds.size()];
+    this.atomsByValue = new EnumMap<>(Attribute.class);
+    Compiler compiler = new Compiler();
+    List<List<Integer>> anchored = new ArrayList<>();
+    List<Integer> unanchoredList = new ArrayList<>();
+
+    int i = 0;
+    for (TargetingExpression expr : builder.lineItems.values()) {
+      lineItems[i] = compiler.compile(expr);
+      int anchor = anchor(lineItems[i]);
+      if (anchor == -1) {
+        unanchoredList.add(i);
+      } else {
+        while (anchored.size() <= anchor) {
+          anchored.add(new ArrayList<>());
+        }
+        anchored.get(anchor).add(i);
+      }
+      ++i;
+    }
+
+    this.atomCount = compiler.atoms.size();
+    boolean requestAtoms = false;
+    for (Map.Entry<TargetingExpression.In, Integer> atom : compiler.atoms.entrySet()) {
+      Map<String, int[]> byValue = atomsByValue.computeIfAbsent(
+          atom.getKey().attr, attr -> new HashMap<>());
+      for (String value : atom.getKey().values) {
+        int[] atoms = byValue.getOrDefault(value, NO_INTS);
+        int[] newAtoms = Arrays.copyOf(atoms, atoms.length + 1);
+        newAtoms[atoms.length] = atom.getValue();
+        byValue.put(value, newAtoms);
+      }
+      requestAtoms |= !atom.getKey().attr.isImpLevel();
+    }
+    this.hasRequestAtoms = requestAtoms;
+    this.lineItemsByAnchor = new int[atomCount][];
+    for (int atom = 0; atom < atomCount; ++atom) {
+      lineItemsByAnchor[atom] = atom < anchored.size()
+          ? Ints.toArray(anchored.get(atom))
+          : NO_INTS;
+    }
+    this.unanchored = Ints.toArray(unanchoredList);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Number of line items.
+   */
+  public int size() {
+    return lineItemIds.size();
+  }
+
+  /**
+   * Number of distinct atomic predicates, shared by all line items.
+   */
+  public int atomCount() {
+    return atomCount;
+  }
+
+  /**
+   * Finds the line items that match each impression of a request.
+   *
+   * @return Impression ID to matching line item IDs. Impressions with no matches are omitted
+   */
+  public ImmutableListMultimap<String, String> match(BidRequest request) {
+    BitSet requestBits = requestAtoms(request);
+    ImmutableListMultimap.Builder<String, String> matches = ImmutableListMultimap.builder();
+    BitSet impBits = new BitSet(atomCount);
+
+    for (Imp imp : request.getImpList()) {
+      impBits.clear();
+      impBits.or(requestBits);
+      setImpAtoms(imp, impBits);
+      forEachMatch(impBits, lineItem -> matches.put(imp.getId(), lineItemIds.get(lineItem)));
+    }
+
+    return matches.build();
+  }
+
+  /**
+   * Finds the line items that match one impression of a request.
+   */
+  public ImmutableList<String> match(BidRequest request, Imp imp) {
+    BitSet bits = requestAtoms(request);
+    setImpAtoms(imp, bits);
+    ImmutableList.Builder<String> matches = ImmutableList.builder();
+    forEachMatch(bits, lineItem -> matches.add(lineItemIds.get(lineItem)));
+    return matches.build();
+  }
+
+  private void forEachMatch(BitSet bits, IntConsumer consumer) {
+    for (int lineItem : unanchored) {
+      if (lineItems[lineItem].eval(bits)) {
+        consumer.accept(lineItem);
+      }
+    }
+    for (int atom = bits.nextSetBit(0); atom >= 0; atom = bits.nextSetBit(atom + 1)) {
+      for (int lineItem : lineItemsByAnchor[atom]) {
+        if (lineItems[lineItem].eval(bits)) {
+          consumer.accept(lineItem);
+        }
+      }
+    }
+  }
+
+  private BitSet requestAtoms(BidRequest request) {
+    BitSet bits = new BitSet(atomCount);
+    if (!hasRequestAtoms) {
+      return bits;
+    }
+
+    if (request.getDevice().hasDevicetype()) {
+      set(bits, Attribute.DEVICE_TYPE, request.getDevice().getDevicetype().name());
+    }
+    if (request.getDevice().getGeo().hasCountry()) {
+      set(bits, Attribute.COUNTRY, request.getDevice().getGeo().getCountry());
+    } else if (request.getUser().getGeo().hasCountry()) {
+      set(bits, Attribute.COUNTRY, request.getUser().getGeo().getCountry());
+    }
+
+    List<String> cats = request.hasSite()
+        ? request.getSite().getCatList()
+        : request.getApp().getCatList();
+    for (String cat : cats) {
+      set(bits, Attribute.CATEGORY, cat);
+    }
+
+    return bits;
+  }
+
+  private void setImpAtoms(Imp imp, BitSet bits) {
+    if (imp.hasBanner()) {
+      set(bits, Attribute.IMP_TYPE, "banner");
+      Banner banner = imp.getBanner();
+      if (banner.hasW() && banner.hasH()) {
+        set(bits, Attribute.BANNER_SIZE, banner.getW() + "x" + banner.getH());
+      }
+      for (Banner.Format format : banner.getFormatList()) {
+        if (format.hasW() && format.hasH()) {
+          set(bits, Attribute.BANNER_SIZE, format.getW() + "x" + format.getH());
+        }
+      }
+    }
+    if (imp.hasVideo()) {
+      set(bits, Attribute.IMP_TYPE, "video");
+    }
+    if (imp.hasAudio()) {
+      set(bits, Attribute.IMP_TYPE, "audio");
+    }
+    if (imp.hasNative()) {
+      set(bits, Attribute.IMP_TYPE, "native");
+    }
+    for (Deal deal : imp.getPmp().getDealsList()) {
+      set(bits, Attribute.DEAL, deal.getId());
+    }
+  }
+
+  private void set(BitSet bits, Attribute attr, String value) {
+    Map<String, int[]> byValue = atomsByValue.get(attr);
+    if (byValue != null) {
+      int[] atoms = byValue.get(attr.normalize(value));
+      if (atoms != null) {
+        for (int atom : atoms) {
+          bits.set(atom);
+        }
+      }
+    }
+  }
+
+  /**
+   * Picks an atom that must be true for the node to be true, or -1 if there's no such atom.
+   * Prefers atoms that are deeper in conjunctions, which are typically the most selective.
+   */
+  private static int anchor(Node node) {
+    switch (node.op) {
+      case ATOM:
+        return node.atom;
+      case AND: {
+        int anchor = -1;
+        for (Node child : node.children) {
+          int childAnchor = anchor(child);
+          if (childAnchor != -1) {
+            anchor = childAnchor;
+          }
+        }
+        return anchor;
+      }
+      default:
+        return -1;
+    }
+  }
+
+  /**
+   * Builder for {@link LineItemMatcher}.
+   */
+  public static final class Builder {
+    private final Map<String, TargetingExpression> lineItems = new LinkedHashMap<>();
+
+    private Builder() {
+    }
+
+    /**
+     * Adds a line item.
+     *
+     * @throws IllegalArgumentException if the line item ID is duplicated
+     */
+    public Builder add(String lineItemId, TargetingExpression expr) {
+      checkArgument(lineItems.put(checkNotNull(lineItemId), checkNotNull(expr)) == null,
+          "Duplicate line item: %s", lineItemId);
+      return this;
+    }
+
+    /**
+     * Adds a line item, parsing its expression with {@link TargetingExpression#parse(String)}.
+     */
+    public Builder add(String lineItemId, String expr) {
+      return add(lineItemId, TargetingExpression.parse(expr));
+    }
+
+    public LineItemMatcher build() {
+      return new LineItemMatcher(this);
+    }
+  }
+
+  private enum Op { ATOM, AND, OR, NOT }
+
+  private static final class Node {
+    final Op op;
+    final int atom;
+    final Node[] children;
+
+    Node(Op op, int atom, Node[] children) {
+      this.op = op;
+      this.atom = atom;
+      this.children = children;
+    }
+
+    boolean eval(BitSet bits) {
+      switch (op) {
+        case ATOM:
+          return bits.get(atom);
+        case NOT:
+          return !children[0].eval(bits);
+        case AND:
+          for (Node child : children) {
+            if (!child.eval(bits)) {
+              return false;
+            }
+          }
+          return true;
+        default:
+          for (Node child : children) {
+            if (child.eval(bits)) {
+              return true;
+            }
+          }
+          return false;
+      }
+    }
+  }
+
+  private static final class Compiler {
+    final Map<TargetingExpression.In, Integer> atoms = new LinkedHashMap<>();
+
+    Node compile(TargetingExpression expr) {
+      if (expr instanceof TargetingExpression.In) {
+        Integer atom = atoms.computeIfAbsent((TargetingExpression.In) expr, in -> atoms.size());
+        return new Node(Op.ATOM, atom, null);
+      } else if (expr instanceof TargetingExpression.Not) {
+        return new Node(Op.NOT, -1,
+            new Node[] { compile(((TargetingExpression.Not) expr).child) });
+      } else {
+        TargetingExpression.Junction junction = (TargetingExpression.Junction) expr;
+        Node[] children = new Node[junction.children.size()];
+        for (int i = 0; i < children.length; ++i) {
+          children[i] = compile(junction.children.get(i));
+        }
+        return new Node(junction.and ? Op.AND : Op.OR, -1, children);
+      }
+    }
+  }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.targeting;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Multimap;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Data;
+import com.google.openrtb.OpenRtb.BidRequest.Data.Segment;
+import com.google.openrtb.OpenRtb.BidRequestOrBuilder;
+import com.google.openrtb.util.CompressedBitmap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+
+/**
+ * Matches the user segments of a {@link BidRequest} ({@code user.data[].segment[]}) against
+ * the segment rules of many campaigns.
+ *
+ * <p>Segment IDs are only unique within their data provider, so each pair of
+ * ({@link Data#getId()}, {@link Segment#getId()}) is interned to a dense int. Each campaign's
+ * segments are kept as a {@link CompressedBitmap} of those ints, and each segment keeps a
+ * posting bitmap of the campaigns that target it; matching a request is a union of the postings
+ * for the request's segments, followed by a bitmap intersection for {@link Match#ALL} campaigns.
+ *
+ * <p>This class is threadsafe. Lookups work on an immutable snapshot and never block;
+ * campaign updates are incremental (copy-on-write of the affected bitmaps only),
+ * serialized among themselves, and become visible to lookups atomically.
+ */
+public class SegmentIndex {
+  /**
+   * How a campaign's segments must match the request's segments.
+   */
+  public enum Match {
+    /** The request must contain at least one of the campaign's segments. */
+    ANY,
+    /** The request must contain all of the campaign's segments. */
+    ALL
+  }
+
+  private final Map<SegmentKey, Integer> segmentIds = new ConcurrentHashMap<>();
+  private final AtomicInteger nextSegmentId = new AtomicInteger();
+  private final Map<String, Integer> campaignSlots = new HashMap<>();
+  private int[] freeSlots = new int[0];
+  private int freeSlotCount;
+  private volatile Snapshot snapshot = new Snapshot(
+      new String[0], new Match[0], new CompressedBitmap[0], new CompressedBitmap[0]);
+
+  /**
+   * Adds or replaces a campaign.
+   *
+   * @param campaignId Campaign ID
+   * @param match How the campaign's segments must match
+   * @param segments Targeted segments: data provider ID (use "" if the exchange doesn't set
+   *     {@code Data.id}) to segment IDs. Should not be empty
+   */
+  public synchronized void put(String campaignId, Match match, Multimap<String, String> segments) {
+    checkNotNull(campaignId);
+    checkNotNull(match);
+    checkArgument(!segments.isEmpty(), "Campaign %s has no segments", campaignId);
+
+    CompressedBitmap campaignBits = new CompressedBitmap();
+    for (Map.Entry<String, String> entry : segments.entries()) {
+      campaignBits.add(intern(entry.getKey(), entry.getValue()));
+    }
+
+    Snapshot curr = snapshot;
+    Integer slot = campaignSlots.get(campaignId);
+    int newSlot = slot == null ? allocateSlot(curr) : slot;
+    int capacity = Math.max(curr.campaignIds.length, newSlot + 1);
+    String[] ids = Arrays.copyOf(curr.campaignIds, capacity);
+    Match[] matches = Arrays.copyOf(curr.matches, capacity);
+    CompressedBitmap[] campaigns = Arrays.copyOf(curr.campaigns, capacity);
+    CompressedBitmap[] postings = Arrays.copyOf(
+        curr.postings, Math.max(curr.postings.length, nextSegmentId.get()));
+
+    if (slot != null) {
+      updatePostings(postings, curr.campaigns[slot], slot, false);
+    }
+    ids[newSlot] = campaignId;
+    matches[newSlot] = match;
+    campaigns[newSlot] = campaignBits;
+    updatePostings(postings, campaignBits, newSlot, true);
+
+    campaignSlots.put(campaignId, newSlot);
+    snapshot = new Snapshot(ids, matches, campaigns, postings);
+  }
+
+  /**
+   * Removes a campaign.
+   *
+   * @return {@code true} if the campaign was present
+   */
+  public synchronized boolean remove(String campaignId) {
+    Integer slot = campaignSlots.remove(checkNotNull(campaignId));
+    if (slot == null) {
+      return false;
+    }
+
+    Snapshot curr = snapshot;
+    String[] ids = curr.campaignIds.clone();
+    Match[] matches = curr.matches.clone();
+    CompressedBitmap[] campaigns = curr.campaigns.clone();
+    CompressedBitmap[] postings = curr.postings.clone();
+    updatePostings(postings, campaigns[slot], slot, false);
+    ids[slot] = null;
+    matches[slot] = null;
+    campaigns[slot] = null;
+
+    if (freeSlotCount == freeSlots.length) {
+      freeSlots = Arrays.copyOf(freeSlots, Math.max(4, freeSlotCount * 2));
+    }
+    freeSlots[freeSlotCount++] = slot;
+    snapshot = new Snapshot(ids, matches, campaigns, postings);
+    return true;
+  }
+
+  /**
+   * Number of campaigns in the index.
+   */
+  public int size() {
+    Snapshot snap = snapshot;
+    int size = 0;
+    for (String id : snap.campaignIds) {
+      if (id != null) {
+        ++size;
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Number of distinct segments interned by the index.
+   */
+  public int segmentCount() {
+    return nextSegmentId.get();
+  }
+
+  /**
+   * Finds the campaigns whose segment rules match the request's user segments.
+   *
+   * @return IDs of matching campaigns, in no particular order
+   */
+  public ImmutableList<String> matchingCampaigns(BidRequestOrBuilder request) {
+    Snapshot snap = snapshot;
+    CompressedBitmap requestBits = requestSegments(request);
+    if (requestBits.isEmpty()) {
+      return ImmutableList.of();
+    }
+
+    CompressedBitmap candidates = new CompressedBitmap();
+    requestBits.forEach(segment -> {
+      if (segment < snap.postings.length && snap.postings[segment] != null) {
+        candidates.orInPlace(snap.postings[segment]);
+      }
+    });
+
+    ImmutableList.Builder<String> matched = ImmutableList.builder();
+    candidates.forEach(slot -> {
+      if (snap.matches[slot] == Match.ANY || snap.campaigns[slot].isSubsetOf(requestBits)) {
+        matched.add(snap.campaignIds[slot]);
+      }
+    });
+    return matched.build();
+  }
+
+  /**
+   * Maps the request's user segments to the index's dense segment IDs. Segments never used by
+   * any campaign are ignored, so request data cannot grow the index.
+   */
+  public CompressedBitmap requestSegments(BidRequestOrBuilder request) {
+    CompressedBitmap bits = new CompressedBitmap();
+    if (request.hasUser()) {
+      for (Data data : request.getUser().getDataList()) {
+        for (Segment segment : data.getSegmentList()) {
+          Integer id = segmentIds.get(new SegmentKey(data.getId(), segment.getId()));
+          if (id != null) {
+            bits.add(id);
+          }
+        }
+      }
+    }
+    return bits;
+  }
+
+  /**
+   * Returns the dense ID of a segment, or {@code null} if no campaign ever targeted it.
+   */
+  @Nullable public Integer segmentId(String dataId, String segmentId) {
+    return segmentIds.get(new SegmentKey(dataId, segmentId));
+  }
+
+  private int intern(String dataId, String segmentId) {
+    return segmentIds.computeIfAbsent(
+        new SegmentKey(dataId, segmentId), key -> nextSegmentId.getAndIncrement());
+  }
+
+  private int allocateSlot(Snapshot curr) {
+    return freeSlotCount == 0 ? curr.campaignIds.length : freeSlots[--freeSlotCount];
+  }
+
+  private static void updatePostings(
+      CompressedBitmap[] postings, CompressedBitmap segments, int slot, boolean add) {
+    segments.forEach(segment -> {
+      CompressedBitmap posting = postings[segment] == null
+          ? new CompressedBitmap()
+          : postings[segment].copy();
+      if (add) {
+        posting.add(slot);
+      } else {
+        posting.remove(slot);
+      }
+      postings[segment] = posting.isEmpty() ? null : posting;
+    });
+  }
+
+  private static final class Snapshot {
+    final String[] campaignIds;
+    final Match[] matches;
+    final CompressedBitmap[] campaigns;
+    final CompressedBitmap[] postings;
+
+    Snapshot(String[] campaignIds, Match[] matches,
+        CompressedBitmap[] campaigns, CompressedBitmap[] postings) {
+      this.campaignIds = campaignIds;
+      this.matches = matches;
+      this.campaigns = campaigns;
+      this.postings = postings;
+    }
+  }
+
+  private static final class SegmentKey {
+    final String dataId;
+    final String segmentId;
+
+    SegmentKey(String dataId, String segmentId) {
+      this.dataId = dataId;
+      this.segmentId = segmentId;
+    }
+
+    @Override public boolean equals(Object obj) {
+      if (!(obj instanceof SegmentKey)) {
+        return false;
+      }
+      SegmentKey other = (SegmentKey) obj;
+      return dataId.equals(other.dataId) && segmentId.equals(other.segmentId);
+    }
+
+    @Override public int hashCode() {
+      return dataId.hashCode() * 31 + segmentId.hashCode();
+    }
+  }
+}
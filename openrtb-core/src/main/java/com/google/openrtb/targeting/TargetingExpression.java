@@ -0,0 +1,385 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.targeting;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Ascii;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.openrtb.OpenRtb.ContentCategory;
+import com.google.openrtb.OpenRtb.DeviceType;
+import com.google.openrtb.util.OpenRtbUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nullable;
+
+/**
+ * Boolean targeting expression over OpenRTB request attributes, to be compiled by
+ * {@link LineItemMatcher}. Expressions can be built programmatically, or parsed from text:
+ *
+ * <pre>
+ * imp.type in (banner, native) and geo.country in ("USA", "CAN")
+ *     and not cat in (IAB25, IAB26) and (banner.size = 300x250 or deal = "d-123")
+ * </pre>
+ *
+ * <p>Keywords and attribute names are case-insensitive. Values can be quoted with {@code "}
+ * and are normalized by each {@link Attribute}, e.g. both {@code IAB10-1} and {@code IAB10_1}
+ * select the same {@link ContentCategory}.
+ *
+ * <p>Instances are immutable and threadsafe.
+ */
+public abstract class TargetingExpression {
+  /**
+   * Request attributes that can be targeted.
+   */
+  public enum Attribute {
+    /** Impression type: {@code banner}, {@code video}, {@code audio} or {@code native}. */
+    IMP_TYPE("imp.type", true),
+    /** Banner size ({@code WxH}), from {@code Banner.w/h} or any {@code Banner.format}. */
+    BANNER_SIZE("banner.size", true),
+    /** Deal ID, from {@code Imp.pmp.deals}. */
+    DEAL("deal", true),
+    /** {@link DeviceType} name, from {@code Device.devicetype}. */
+    DEVICE_TYPE("device.devicetype", false),
+    /** Country code, from {@code Device.geo.country} or else {@code User.geo.country}. */
+    COUNTRY("geo.country", false),
+    /** {@link ContentCategory}, from {@code Site.cat} or {@code App.cat}. */
+    CATEGORY("cat", false);
+
+    private final String exprName;
+    private final boolean impLevel;
+
+    private Attribute(String exprName, boolean impLevel) {
+      this.exprName = exprName;
+      this.impLevel = impLevel;
+    }
+
+    /**
+     * Name of the attribute in the expression syntax.
+     */
+    public String exprName() {
+      return exprName;
+    }
+
+    /**
+     * {@code true} if the attribute's values depend on the {@code Imp},
+     * {@code false} if they are the same for every {@code Imp} of a request.
+     */
+    public boolean isImpLevel() {
+      return impLevel;
+    }
+
+    /**
+     * Normalizes a value, so values from expressions and from requests can be compared.
+     */
+    public String normalize(String value) {
+      switch (this) {
+        case IMP_TYPE:
+          return Ascii.toLowerCase(value);
+        case BANNER_SIZE:
+          return Ascii.toLowerCase(value);
+        case DEVICE_TYPE:
+          return Ascii.toUpperCase(value);
+        case COUNTRY:
+          return Ascii.toUpperCase(value);
+        case CATEGORY: {
+          ContentCategory cat = OpenRtbUtils.categoryFromName(value);
+          return cat == null ? value : cat.name();
+        }
+        default:
+          return value;
+      }
+    }
+
+    @Nullable public static Attribute forExprName(String exprName) {
+      for (Attribute attr : values()) {
+        if (attr.exprName.equalsIgnoreCase(exprName)) {
+          return attr;
+        }
+      }
+      return null;
+    }
+  }
+
+  TargetingExpression() {
+  }
+
+  /**
+   * Atomic predicate: the request has any of the given values for the attribute.
+   */
+  public static TargetingExpression in(Attribute attr, Iterable<String> values) {
+    ImmutableSet.Builder<String> normalized = ImmutableSet.builder();
+    for (String value : values) {
+      normalized.add(attr.normalize(value));
+    }
+    return new In(attr, normalized.build());
+  }
+
+  public static TargetingExpression in(Attribute attr, String... values) {
+    return in(attr, ImmutableList.copyOf(values));
+  }
+
+  public static TargetingExpression and(TargetingExpression... exprs) {
+    return new Junction(true, ImmutableList.copyOf(exprs));
+  }
+
+  public static TargetingExpression or(TargetingExpression... exprs) {
+    return new Junction(false, ImmutableList.copyOf(exprs));
+  }
+
+  public static TargetingExpression not(TargetingExpression expr) {
+    return new Not(expr);
+  }
+
+  /**
+   * Parses an expression.
+   *
+   * @throws IllegalArgumentException if the expression is not valid
+   */
+  public static TargetingExpression parse(String text) {
+    Parser parser = new Parser(checkNotNull(text));
+    TargetingExpression expr = parser.parseOr();
+    checkArgument(parser.peek() == null, "Unexpected '%s' at %s: %s",
+        parser.peek(), parser.pos, text);
+    return expr;
+  }
+
+  static final class In extends TargetingExpression {
+    final Attribute attr;
+    final ImmutableSet<String> values;
+
+    In(Attribute attr, ImmutableSet<String> values) {
+      this.attr = checkNotNull(attr);
+      checkArgument(!values.isEmpty(), "No values for %s", attr.exprName());
+      this.values = values;
+    }
+
+    @Override public boolean equals(Object obj) {
+      if (!(obj instanceof In)) {
+        return false;
+      }
+      In other = (In) obj;
+      return attr == other.attr && values.equals(other.values);
+    }
+
+    @Override public int hashCode() {
+      return Objects.hash(attr, values);
+    }
+
+    @Override public String toString() {
+      StringBuilder sb = new StringBuilder().append(attr.exprName()).append(" in (");
+      boolean first = true;
+      for (String value : values) {
+        if (!first) {
+          sb.append(", ");
+        }
+        sb.append('"').append(value).append('"');
+        first = false;
+      }
+      return sb.append(')').toString();
+    }
+  }
+
+  static final class Junction extends TargetingExpression {
+    final boolean and;
+    final ImmutableList<TargetingExpression> children;
+
+    Junction(boolean and, ImmutableList<TargetingExpression> children) {
+      checkArgument(!children.isEmpty(), "Empty %s", and ? "and" : "or");
+      this.and = and;
+      this.children = children;
+    }
+
+    @Override public boolean equals(Object obj) {
+      if (!(obj instanceof Junction)) {
+        return false;
+      }
+      Junction other = (Junction) obj;
+      return and == other.and && children.equals(other.children);
+    }
+
+    @Override public int hashCode() {
+      return Objects.hash(and, children);
+    }
+
+    @Override public String toString() {
+      return '(' + Joiner.on(and ? " and " : " or ").join(children) + ')';
+    }
+  }
+
+  static final class Not extends TargetingExpression {
+    final TargetingExpression child;
+
+    Not(TargetingExpression child) {
+      this.child = checkNotNull(child);
+    }
+
+    @Override public boolean equals(Object obj) {
+      return obj instanceof Not && child.equals(((Not) obj).child);
+    }
+
+    @Override public int hashCode() {
+      return ~child.hashCode();
+    }
+
+    @Override public String toString() {
+      return "not " + child;
+    }
+  }
+
+  /**
+   * Recursive-descent parser. Tokens are words ({@code [A-Za-z0-9_.-]+}), quoted strings,
+   * and the punctuation {@code ( ) , =}.
+   */
+  private static final class Parser {
+    final String text;
+    int pos;
+    String token;
+    boolean quoted;
+
+    Parser(String text) {
+      this.text = text;
+    }
+
+    TargetingExpression parseOr() {
+      List<TargetingExpression> children = new ArrayList<>();
+      children.add(parseAnd());
+      while (acceptKeyword("or")) {
+        children.add(parseAnd());
+      }
+      return children.size() == 1 ? children.get(0) : new Junction(false,
+          ImmutableList.copyOf(children));
+    }
+
+    TargetingExpression parseAnd() {
+      List<TargetingExpression> children = new ArrayList<>();
+      children.add(parseUnary());
+      while (acceptKeyword("and")) {
+        children.add(parseUnary());
+      }
+      return children.size() == 1 ? children.get(0) : new Junction(true,
+          ImmutableList.copyOf(children));
+    }
+
+    TargetingExpression parseUnary() {
+      if (acceptKeyword("not")) {
+        return new Not(parseUnary());
+      } else if (accept("(")) {
+        TargetingExpression expr = parseOr();
+        expect(")");
+        return expr;
+      }
+
+      String attrName = next();
+      Attribute attr = Attribute.forExprName(attrName);
+      checkArgument(attr != null, "Unknown attribute '%s' at %s: %s", attrName, pos, text);
+      List<String> values = new ArrayList<>();
+      if (accept("=")) {
+        values.add(value());
+      } else {
+        checkArgument(acceptKeyword("in"), "Expected 'in' or '=' at %s: %s", pos, text);
+        expect("(");
+        do {
+          values.add(value());
+        } while (accept(","));
+        expect(")");
+      }
+      return in(attr, values);
+    }
+
+    String value() {
+      String value = next();
+      checkArgument(quoted || isWord(value), "Expected value at %s: %s", pos, text);
+      return value;
+    }
+
+    boolean acceptKeyword(String keyword) {
+      String next = peek();
+      if (next != null && !quoted && next.equalsIgnoreCase(keyword)) {
+        token = null;
+        return true;
+      }
+      return false;
+    }
+
+    boolean accept(String punct) {
+      String next = peek();
+      if (next != null && !quoted && next.equals(punct)) {
+        token = null;
+        return true;
+      }
+      return false;
+    }
+
+    void expect(String punct) {
+      checkArgument(accept(punct), "Expected '%s' at %s: %s", punct, pos, text);
+    }
+
+    String next() {
+      String next = peek();
+      checkArgument(next != null, "Unexpected end of expression: %s", text);
+      token = null;
+      return next;
+    }
+
+    @Nullable String peek() {
+      if (token != null) {
+        return token;
+      }
+      while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+        ++pos;
+      }
+      if (pos == text.length()) {
+        return null;
+      }
+
+      char c = text.charAt(pos);
+      quoted = c == '"';
+      if (quoted) {
+        int end = text.indexOf('"', pos + 1);
+        checkArgument(end != -1, "Unterminated string at %s: %s", pos, text);
+        token = text.substring(pos + 1, end);
+        pos = end + 1;
+      } else if (isWordChar(c)) {
+        int start = pos;
+        while (pos < text.length() && isWordChar(text.charAt(pos))) {
+          ++pos;
+        }
+        token = text.substring(start, pos);
+      } else {
+        checkArgument(c == '(' || c == ')' || c == ',' || c == '=',
+            "Unexpected '%s' at %s: %s", c, pos, text);
+        token = String.valueOf(c);
+        ++pos;
+      }
+      return token;
+    }
+
+    static boolean isWord(String token) {
+      return !token.isEmpty() && isWordChar(token.charAt(0));
+    }
+
+    static boolean isWordChar(char c) {
+      return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+          || c == '_' || c == '.' || c == '-';
+    }
+  }
+}
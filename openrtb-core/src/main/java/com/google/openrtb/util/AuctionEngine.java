@@ -0,0 +1,439 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.MoreObjects;
+import com.google.openrtb.OpenRtb.AuctionType;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Pmp.Deal;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid.Bid;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Runs a local auction over the bids of a {@link BidResponse}, typically a pre-auction among
+ * a bidder's own seats before responding to the exchange.
+ *
+ * <p>For each impression, the winner is the highest bid that clears its floor: the deal's
+ * {@code bidfloor} for bids with a {@code dealid} offered by the impression, otherwise the
+ * impression's {@code bidfloor}. Bids for unknown impressions or deals never win, and neither
+ * do bids without a deal for impressions with {@code pmp.private_auction}. The clearing
+ * price depends on the auction type (the deal's {@code at} if set, otherwise the request's
+ * {@code at}):
+ * <ul>
+ *   <li>{@link AuctionType#FIRST_PRICE}: the winner's price.</li>
+ *   <li>{@link AuctionType#SECOND_PRICE}: the highest competing price plus an increment, or the
+ *   floor if that's higher. Without competing bids, the floor plus the increment, or the
+ *   winner's price if there's no floor. Never more than the winner's price.</li>
+ *   <li>{@link AuctionType#FIXED_PRICE}: the floor.</li>
+ * </ul>
+ *
+ * <p>Seats with {@code group=1} win all-or-nothing, so they are decided before the
+ * per-impression ranking: by decreasing total price, each grouped seat is kept if all its bids
+ * can win, outbidding the bids of seats without {@code group} and not competing for an
+ * impression with a grouped seat already kept. Other grouped seats are withdrawn, so two
+ * grouped seats competing for an impression don't knock each other out.
+ *
+ * <p>With a {@link CurrencyConverter}, floors are converted to the response's {@code cur} (default
+ * USD), which is also the currency of the clearing prices. Bids for floors in unsupported
+ * currencies never win.
+ *
+ * <p>Bids are flattened into primitive arrays, so the auction doesn't create per-bid objects.
+ * This class is threadsafe.
+ */
+public class AuctionEngine {
+  /** Default increment for second-price clearing. */
+  public static final double DEFAULT_INCREMENT = 0.01;
+
+  private final double increment;
+  @Nullable private final CurrencyConverter currencyConverter;
+
+  public AuctionEngine() {
+    this(DEFAULT_INCREMENT);
+  }
+
+  public AuctionEngine(double increment) {
+    this(increment, null);
+  }
+
+  /**
+   * Creates an engine.
+   *
+   * @param increment Added to the runner-up's price, for second-price clearing
+   * @param currencyConverter Converts floors to the response's currency. If {@code null},
+   *     floors are compared to bid prices as if they had the same currency
+   */
+  public AuctionEngine(double increment, @Nullable CurrencyConverter currencyConverter) {
+    checkArgument(increment >= 0, "Negative increment: %s", increment);
+    this.increment = increment;
+    this.currencyConverter = currencyConverter;
+  }
+
+  /**
+   * Runs the auction.
+   *
+   * @return Winners and clearing prices for each impression
+   */
+  public Result run(BidRequest request, BidResponse response) {
+    Bids bids = new Bids(request, response, currencyConverter);
+    int impCount = request.getImpCount();
+    int[] winners = new int[impCount];
+    double[] runnerUp = new double[impCount];
+
+    selectGroups(bids, impCount);
+    while (true) {
+      rank(bids, winners, runnerUp);
+      if (!dropLosingGroups(bids, winners)) {
+        break;
+      }
+    }
+
+    double[] clearing = new double[impCount];
+    for (int imp = 0; imp < impCount; ++imp) {
+      int winner = winners[imp];
+      if (winner != -1) {
+        clearing[imp] = clearingPrice(bids, winner, runnerUp[imp]);
+      }
+    }
+    return new Result(request, response, bids, winners, clearing);
+  }
+
+  private double clearingPrice(Bids bids, int winner, double runnerUp) {
+    double price = bids.price[winner];
+    double floor = bids.floor[winner];
+    switch (bids.auctionType[winner]) {
+      case FIRST_PRICE:
+        return price;
+      case FIXED_PRICE:
+        return floor;
+      default:
+        if (runnerUp < 0) {
+          return floor > 0 ? Math.min(price, floor + increment) : price;
+        }
+        return Math.min(price, Math.max(floor, runnerUp + increment));
+    }
+  }
+
+  private static void rank(Bids bids, int[] winners, double[] runnerUp) {
+    Arrays.fill(winners, -1);
+    Arrays.fill(runnerUp, -1);
+    for (int bid = 0; bid < bids.count; ++bid) {
+      if (bids.alive[bid]) {
+        int imp = bids.imp[bid];
+        int winner = winners[imp];
+        if (winner == -1) {
+          winners[imp] = bid;
+        } else if (bids.price[bid] > bids.price[winner]) {
+          runnerUp[imp] = bids.price[winner];
+          winners[imp] = bid;
+        } else if (bids.price[bid] > runnerUp[imp]) {
+          runnerUp[imp] = bids.price[bid];
+        }
+      }
+    }
+  }
+
+  /**
+   * Withdraws the grouped seats that can't win all their bids, taking seats by decreasing
+   * total price.
+   */
+  private static void selectGroups(Bids bids, int impCount) {
+    List<Integer> groupSeats = new ArrayList<>();
+    double[] totals = new double[bids.seatCount];
+    for (int seat = 0; seat < bids.seatCount; ++seat) {
+      if (bids.group[seat]) {
+        groupSeats.add(seat);
+        for (int bid = bids.seatStart[seat]; bid < bids.seatStart[seat + 1]; ++bid) {
+          totals[seat] += bids.price[bid];
+        }
+      }
+    }
+    if (groupSeats.isEmpty()) {
+      return;
+    }
+    // Stable sort, so ties keep the response's order
+    groupSeats.sort((seat1, seat2) -> Double.compare(totals[seat2], totals[seat1]));
+
+    int[] bestUngrouped = new int[impCount];
+    Arrays.fill(bestUngrouped, -1);
+    for (int bid = 0; bid < bids.count; ++bid) {
+      if (bids.alive[bid] && !bids.group[bids.seat[bid]]) {
+        int best = bestUngrouped[bids.imp[bid]];
+        if (best == -1 || bids.price[bid] > bids.price[best]) {
+          bestUngrouped[bids.imp[bid]] = bid;
+        }
+      }
+    }
+
+    boolean[] taken = new boolean[impCount];
+    for (int seat : groupSeats) {
+      int start = bids.seatStart[seat];
+      int end = bids.seatStart[seat + 1];
+      int bid = start;
+      while (bid < end && bids.alive[bid] && !taken[bids.imp[bid]]
+          && outbids(bids, bid, bestUngrouped[bids.imp[bid]])) {
+        taken[bids.imp[bid]] = true;
+        ++bid;
+      }
+      if (bid < end) {
+        // Can't win all its bids: release the impressions taken so far and withdraw the seat
+        for (int taker = start; taker < bid; ++taker) {
+          taken[bids.imp[taker]] = false;
+        }
+        for (bid = start; bid < end; ++bid) {
+          bids.alive[bid] = false;
+        }
+      }
+    }
+  }
+
+  /**
+   * Checks if a bid wins over another in {@link #rank}: by price, then by response order.
+   */
+  private static boolean outbids(Bids bids, int bid, int other) {
+    return other == -1 || bids.price[bid] > bids.price[other]
+        || (bids.price[bid] == bids.price[other] && bid < other);
+  }
+
+  /**
+   * Withdraws the bids of grouped seats that didn't win all their bids.
+   *
+   * @return {@code true} if any seat was withdrawn, so the auction must be ranked again
+   */
+  private static boolean dropLosingGroups(Bids bids, int[] winners) {
+    boolean dropped = false;
+    for (int seat = 0; seat < bids.seatCount; ++seat) {
+      if (bids.group[seat] && seatLost(bids, winners, seat)) {
+        for (int bid = bids.seatStart[seat]; bid < bids.seatStart[seat + 1]; ++bid) {
+          if (bids.alive[bid]) {
+            bids.alive[bid] = false;
+            dropped = true;
+          }
+        }
+      }
+    }
+    return dropped;
+  }
+
+  private static boolean seatLost(Bids bids, int[] winners, int seat) {
+    for (int bid = bids.seatStart[seat]; bid < bids.seatStart[seat + 1]; ++bid) {
+      if (!bids.alive[bid] || winners[bids.imp[bid]] != bid) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * All bids from a response, flattened into arrays indexed by bid position.
+   */
+  private static final class Bids {
+    final int count;
+    final int seatCount;
+    final int[] seatStart;
+    final boolean[] group;
+    final int[] seat;
+    final int[] imp;
+    final double[] price;
+    final double[] floor;
+    final AuctionType[] auctionType;
+    final boolean[] alive;
+
+    Bids(BidRequest request, BidResponse response,
+        @Nullable CurrencyConverter currencyConverter) {
+      List<SeatBid> seats = response.getSeatbidList();
+      this.seatCount = seats.size();
+      this.seatStart = new int[seatCount + 1];
+      this.group = new boolean[seatCount];
+      int n = 0;
+      for (int seat = 0; seat < seatCount; ++seat) {
+        seatStart[seat] = n;
+        group[seat] = seats.get(seat).getGroup();
+        n += seats.get(seat).getBidCount();
+      }
+      seatStart[seatCount] = n;
+      this.count = n;
+      this.seat = new int[n];
+      this.imp = new int[n];
+      this.price = new double[n];
+      this.floor = new double[n];
+      this.auctionType = new AuctionType[n];
+      this.alive = new boolean[n];
+
+      Map<String, Integer> impPositions = new HashMap<>();
+      List<Imp> imps = request.getImpList();
+      for (int i = 0; i < imps.size(); ++i) {
+        impPositions.putIfAbsent(imps.get(i).getId(), i);
+      }
+      String currency = CurrencyConverter.responseCurrency(response);
+      double[] impFloors = currencyConverter == null
+          ? null
+          : currencyConverter.normalizedFloors(request, currency);
+      DealIndex deals = null;
+
+      int bid = 0;
+      for (int seatPos = 0; seatPos < seatCount; ++seatPos) {
+        for (Bid bidMsg : seats.get(seatPos).getBidList()) {
+          seat[bid] = seatPos;
+          Integer impPos = impPositions.get(bidMsg.getImpid());
+          price[bid] = bidMsg.getPrice();
+          auctionType[bid] = request.getAt();
+          if (impPos == null) {
+            imp[bid] = -1;
+          } else if (bidMsg.hasDealid()) {
+            if (deals == null) {
+              deals = DealIndex.of(request);
+            }
+            DealIndex.ImpDeal impDeal = deals.deal(bidMsg.getImpid(), bidMsg.getDealid());
+            if (impDeal != null) {
+              Deal deal = impDeal.deal();
+              imp[bid] = impPos;
+              floor[bid] = currencyConverter == null || deal.getBidfloor() <= 0
+                  ? deal.getBidfloor()
+                  : currencyConverter.convert(
+                      deal.getBidfloor(), deal.getBidfloorcur(), currency);
+              if (deal.hasAt()) {
+                auctionType[bid] = deal.getAt();
+              }
+            } else {
+              imp[bid] = -1;
+            }
+          } else if (imps.get(impPos).getPmp().getPrivateAuction()) {
+            imp[bid] = -1;
+          } else {
+            imp[bid] = impPos;
+            floor[bid] = impFloors == null ? imps.get(impPos).getBidfloor() : impFloors[impPos];
+          }
+          alive[bid] = imp[bid] != -1 && price[bid] > 0 && price[bid] >= floor[bid];
+          ++bid;
+        }
+      }
+    }
+  }
+
+  /**
+   * Outcome of an auction.
+   */
+  public static final class Result {
+    private final BidRequest request;
+    private final BidResponse response;
+    private final Bids bids;
+    private final int[] winners;
+    private final double[] clearing;
+
+    Result(BidRequest request, BidResponse response,
+        Bids bids, int[] winners, double[] clearing) {
+      this.request = request;
+      this.response = response;
+      this.bids = bids;
+      this.winners = winners;
+      this.clearing = clearing;
+    }
+
+    /**
+     * Number of impressions with a winning bid.
+     */
+    public int winnerCount() {
+      int count = 0;
+      for (int winner : winners) {
+        if (winner != -1) {
+          ++count;
+        }
+      }
+      return count;
+    }
+
+    /**
+     * Returns the winning bid for an impression, or {@code null} if no bid won.
+     */
+    @Nullable public Bid winner(String impId) {
+      int imp = impPosition(impId);
+      return imp == -1 || winners[imp] == -1 ? null : bid(winners[imp]);
+    }
+
+    /**
+     * Returns the clearing price for an impression, or {@code 0} if no bid won.
+     */
+    public double clearingPrice(String impId) {
+      int imp = impPosition(impId);
+      return imp == -1 ? 0 : clearing[imp];
+    }
+
+    /**
+     * Builds a copy of the response with only the winning bids. Seats without winners
+     * are omitted; other fields of the response and seats are preserved.
+     */
+    public BidResponse response() {
+      boolean[] won = new boolean[bids.count];
+      for (int winner : winners) {
+        if (winner != -1) {
+          won[winner] = true;
+        }
+      }
+
+      BidResponse.Builder filtered = response.toBuilder().clearSeatbid();
+      List<SeatBid> seats = response.getSeatbidList();
+      for (int seat = 0; seat < bids.seatCount; ++seat) {
+        int start = bids.seatStart[seat];
+        int end = bids.seatStart[seat + 1];
+        SeatBid.Builder seatbid = null;
+        for (int bid = start; bid < end; ++bid) {
+          if (won[bid]) {
+            if (seatbid == null) {
+              seatbid = seats.get(seat).toBuilder().clearBid();
+            }
+            seatbid.addBid(seats.get(seat).getBid(bid - start));
+          }
+        }
+        if (seatbid != null) {
+          filtered.addSeatbid(seatbid);
+        }
+      }
+      return filtered.build();
+    }
+
+    private Bid bid(int index) {
+      int seat = bids.seat[index];
+      return response.getSeatbid(seat).getBid(index - bids.seatStart[seat]);
+    }
+
+    private int impPosition(String impId) {
+      List<Imp> imps = request.getImpList();
+      for (int i = 0; i < imps.size(); ++i) {
+        if (imps.get(i).getId().equals(impId)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("winners", winnerCount())
+          .toString();
+    }
+  }
+}
@@ -0,0 +1,730 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative ints, in the style of Roaring bitmaps. Values are partitioned
+ * by their high 16 bits, and each partition is stored either as a sorted array (sparse) or as
+ * a 65536-bit bitmap (dense), whichever is smaller. Intersections and unions are computed
+ * container by container, so they are fast even for large, sparse sets of dense ids.
+ *
+ * <p>This class is NOT threadsafe. Instances can be safely shared once they are not modified
+ * anymore, e.g. by publishing a bitmap in an immutable snapshot; use {@link #copy()} to
+ * derive modified versions of shared bitmaps.
+ */
+public final class CompressedBitmap {
+  /** Maximum size of an array container; bigger containers are stored as bitmaps. */
+  static final int ARRAY_MAX = 4096;
+  private static final char[] NO_KEYS = new char[0];
+  private static final Container[] NO_CONTAINERS = new Container[0];
+
+  private char[] keys;
+  private Container[] containers;
+  private int size;
+
+  public CompressedBitmap() {
+    this(NO_KEYS, NO_CONTAINERS, 0);
+  }
+
+  private CompressedBitmap(char[] keys, Container[] containers, int size) {
+    this.keys = keys;
+    this.containers = containers;
+    this.size = size;
+  }
+
+  /**
+   * Creates a bitmap with the given values.
+   */
+  public static CompressedBitmap of(int... values) {
+    CompressedBitmap bitmap = new CompressedBitmap();
+    for (int value : values) {
+      bitmap.add(value);
+    }
+    return bitmap;
+  }
+
+  /**
+   * Adds a value.
+   *
+   * @return {@code true} if the value was added, {@code false} if it was already present
+   */
+  public boolean add(int value) {
+    checkArgument(value >= 0, "Negative value: %s", value);
+    char high = (char) (value >>> 16);
+    int i = indexOf(high);
+    if (i < 0) {
+      i = -i - 1;
+      insertAt(i, high, new ArrayContainer());
+    }
+    Container container = containers[i];
+    int card = container.cardinality();
+    containers[i] = container.add((char) value);
+    return containers[i].cardinality() != card;
+  }
+
+  /**
+   * Removes a value.
+   *
+   * @return {@code true} if the value was removed, {@code false} if it was not present
+   */
+  public boolean remove(int value) {
+    if (value < 0) {
+      return false;
+    }
+    int i = indexOf((char) (value >>> 16));
+    if (i < 0) {
+      return false;
+    }
+    Container container = containers[i];
+    int card = container.cardinality();
+    Container updated = container.remove((char) value);
+    if (updated.cardinality() == card) {
+      return false;
+    } else if (updated.cardinality() == 0) {
+      removeAt(i);
+    } else {
+      containers[i] = updated;
+    }
+    return true;
+  }
+
+  public boolean contains(int value) {
+    if (value < 0) {
+      return false;
+    }
+    int i = indexOf((char) (value >>> 16));
+    return i >= 0 && containers[i].contains((char) value);
+  }
+
+  public int cardinality() {
+    int card = 0;
+    for (int i = 0; i < size; ++i) {
+      card += containers[i].cardinality();
+    }
+    return card;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns a new bitmap with the values present in both this bitmap and {@code other}.
+   */
+  public CompressedBitmap and(CompressedBitmap other) {
+    int max = Math.min(size, other.size);
+    char[] newKeys = new char[max];
+    Container[] newContainers = new Container[max];
+    int n = 0;
+
+    for (int i = 0, j = 0; i < size && j < other.size; ) {
+      if (keys[i] < other.keys[j]) {
+        ++i;
+      } else if (keys[i] > other.keys[j]) {
+        ++j;
+      } else {
+        Container container = containers[i].and(other.containers[j]);
+        if (container.cardinality() != 0) {
+          newKeys[n] = keys[i];
+          newContainers[n++] = container;
+        }
+        ++i;
+        ++j;
+      }
+    }
+
+    return new CompressedBitmap(newKeys, newContainers, n);
+  }
+
+  /**
+   * Returns the number of values present in both this bitmap and {@code other},
+   * without materializing the intersection.
+   */
+  public int andCardinality(CompressedBitmap other) {
+    int card = 0;
+    for (int i = 0, j = 0; i < size && j < other.size; ) {
+      if (keys[i] < other.keys[j]) {
+        ++i;
+      } else if (keys[i] > other.keys[j]) {
+        ++j;
+      } else {
+        card += containers[i++].andCardinality(other.containers[j++]);
+      }
+    }
+    return card;
+  }
+
+  /**
+   * Returns {@code true} if this bitmap and {@code other} have at least one common value.
+   */
+  public boolean intersects(CompressedBitmap other) {
+    for (int i = 0, j = 0; i < size && j < other.size; ) {
+      if (keys[i] < other.keys[j]) {
+        ++i;
+      } else if (keys[i] > other.keys[j]) {
+        ++j;
+      } else if (containers[i++].intersects(other.containers[j++])) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns {@code true} if all values from this bitmap are also present in {@code other}.
+   */
+  public boolean isSubsetOf(CompressedBitmap other) {
+    return size <= other.size && andCardinality(other) == cardinality();
+  }
+
+  /**
+   * Returns a new bitmap with the values present in this bitmap or in {@code other}.
+   */
+  public CompressedBitmap or(CompressedBitmap other) {
+    char[] newKeys = new char[size + other.size];
+    Container[] newContainers = new Container[size + other.size];
+    int n = 0;
+    int i = 0;
+    int j = 0;
+
+    while (i < size && j < other.size) {
+      if (keys[i] < other.keys[j]) {
+        newKeys[n] = keys[i];
+        newContainers[n++] = containers[i++].copy();
+      } else if (keys[i] > other.keys[j]) {
+        newKeys[n] = other.keys[j];
+        newContainers[n++] = other.containers[j++].copy();
+      } else {
+        newKeys[n] = keys[i];
+        newContainers[n++] = containers[i++].or(other.containers[j++]);
+      }
+    }
+    for (; i < size; ++i, ++n) {
+      newKeys[n] = keys[i];
+      newContainers[n] = containers[i].copy();
+    }
+    for (; j < other.size; ++j, ++n) {
+      newKeys[n] = other.keys[j];
+      newContainers[n] = other.containers[j].copy();
+    }
+
+    return new CompressedBitmap(newKeys, newContainers, n);
+  }
+
+  /**
+   * Adds all values from {@code other} to this bitmap. Containers of this bitmap are updated
+   * in place; only the containers of {@code other} with new keys are copied.
+   *
+   * @return this bitmap
+   */
+  public CompressedBitmap orInPlace(CompressedBitmap other) {
+    if (other == this || other.size == 0) {
+      return this;
+    }
+    int added = 0;
+    for (int i = 0, j = 0; j < other.size; ) {
+      if (i < size && keys[i] < other.keys[j]) {
+        ++i;
+      } else if (i < size && keys[i] == other.keys[j]) {
+        ++i;
+        ++j;
+      } else {
+        ++added;
+        ++j;
+      }
+    }
+    if (size + added > keys.length) {
+      int newCapacity = Math.max(size + added, size * 2);
+      keys = Arrays.copyOf(keys, newCapacity);
+      containers = Arrays.copyOf(containers, newCapacity);
+    }
+
+    // Merge from the end, so this bitmap's entries only move up
+    int i = size - 1;
+    int j = other.size - 1;
+    for (int n = size + added - 1; j >= 0; --n) {
+      if (i >= 0 && keys[i] > other.keys[j]) {
+        keys[n] = keys[i];
+        containers[n] = containers[i--];
+      } else if (i >= 0 && keys[i] == other.keys[j]) {
+        keys[n] = keys[i];
+        containers[n] = containers[i--].orInPlace(other.containers[j--]);
+      } else {
+        keys[n] = other.keys[j];
+        containers[n] = other.containers[j--].copy();
+      }
+    }
+    size += added;
+    return this;
+  }
+
+  /**
+   * Invokes {@code consumer} for each value, in ascending order.
+   */
+  public void forEach(IntConsumer consumer) {
+    for (int i = 0; i < size; ++i) {
+      containers[i].forEach(keys[i] << 16, consumer);
+    }
+  }
+
+  /**
+   * Returns all values, in ascending order.
+   */
+  public int[] toArray() {
+    int[] values = new int[cardinality()];
+    int[] pos = new int[1];
+    forEach(value -> values[pos[0]++] = value);
+    return values;
+  }
+
+  /**
+   * Returns a deep copy of this bitmap, which can be modified without affecting the original.
+   */
+  public CompressedBitmap copy() {
+    Container[] newContainers = new Container[size];
+    for (int i = 0; i < size; ++i) {
+      newContainers[i] = containers[i].copy();
+    }
+    return new CompressedBitmap(Arrays.copyOf(keys, size), newContainers, size);
+  }
+
+  @Override public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    } else if (!(obj instanceof CompressedBitmap)) {
+      return false;
+    }
+    CompressedBitmap other = (CompressedBitmap) obj;
+    return Arrays.equals(toArray(), other.toArray());
+  }
+
+  @Override public int hashCode() {
+    return Arrays.hashCode(toArray());
+  }
+
+  @Override public String toString() {
+    return Arrays.toString(toArray());
+  }
+
+  private int indexOf(char high) {
+    return Arrays.binarySearch(keys, 0, size, high);
+  }
+
+  private void insertAt(int i, char high, Container container) {
+    if (size == keys.length) {
+      int newCapacity = Math.max(4, size * 2);
+      keys = Arrays.copyOf(keys, newCapacity);
+      containers = Arrays.copyOf(containers, newCapacity);
+    }
+    System.arraycopy(keys, i, keys, i + 1, size - i);
+    System.arraycopy(containers, i, containers, i + 1, size - i);
+    keys[i] = high;
+    containers[i] = container;
+    ++size;
+  }
+
+  private void removeAt(int i) {
+    System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+    System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+    containers[--size] = null;
+  }
+
+  /**
+   * Storage for the low 16 bits of the values that share the same high 16 bits.
+   * Mutators may return a different container, converting between sparse and dense storage.
+   */
+  abstract static class Container {
+    abstract int cardinality();
+
+    abstract boolean contains(char low);
+
+    abstract Container add(char low);
+
+    abstract Container remove(char low);
+
+    abstract Container and(Container other);
+
+    abstract int andCardinality(Container other);
+
+    abstract boolean intersects(Container other);
+
+    abstract Container or(Container other);
+
+    /**
+     * Adds the values of {@code other}, which must be a different container.
+     */
+    abstract Container orInPlace(Container other);
+
+    abstract void forEach(int high, IntConsumer consumer);
+
+    abstract Container copy();
+  }
+
+  static final class ArrayContainer extends Container {
+    char[] content;
+    int card;
+
+    ArrayContainer() {
+      this(new char[4], 0);
+    }
+
+    ArrayContainer(char[] content, int card) {
+      this.content = content;
+      this.card = card;
+    }
+
+    @Override int cardinality() {
+      return card;
+    }
+
+    @Override boolean contains(char low) {
+      return Arrays.binarySearch(content, 0, card, low) >= 0;
+    }
+
+    @Override Container add(char low) {
+      int i = Arrays.binarySearch(content, 0, card, low);
+      if (i >= 0) {
+        return this;
+      } else if (card == ARRAY_MAX) {
+        return toBitmap().add(low);
+      }
+      i = -i - 1;
+      if (card == content.length) {
+        content = Arrays.copyOf(content, Math.max(4, Math.min(ARRAY_MAX, card * 2)));
+      }
+      System.arraycopy(content, i, content, i + 1, card - i);
+      content[i] = low;
+      ++card;
+      return this;
+    }
+
+    @Override Container remove(char low) {
+      int i = Arrays.binarySearch(content, 0, card, low);
+      if (i >= 0) {
+        System.arraycopy(content, i + 1, content, i, card - i - 1);
+        --card;
+      }
+      return this;
+    }
+
+    @Override Container and(Container other) {
+      char[] result = new char[Math.min(card, other.cardinality())];
+      int n = 0;
+      if (other instanceof ArrayContainer) {
+        ArrayContainer ac = (ArrayContainer) other;
+        for (int i = 0, j = 0; i < card && j < ac.card; ) {
+          if (content[i] < ac.content[j]) {
+            ++i;
+          } else if (content[i] > ac.content[j]) {
+            ++j;
+          } else {
+            result[n++] = content[i++];
+            ++j;
+          }
+        }
+      } else {
+        for (int i = 0; i < card; ++i) {
+          if (other.contains(content[i])) {
+            result[n++] = content[i];
+          }
+        }
+      }
+      return new ArrayContainer(result, n);
+    }
+
+    @Override int andCardinality(Container other) {
+      int n = 0;
+      if (other instanceof ArrayContainer) {
+        ArrayContainer ac = (ArrayContainer) other;
+        for (int i = 0, j = 0; i < card && j < ac.card; ) {
+          if (content[i] < ac.content[j]) {
+            ++i;
+          } else if (content[i] > ac.content[j]) {
+            ++j;
+          } else {
+            ++n;
+            ++i;
+            ++j;
+          }
+        }
+      } else {
+        for (int i = 0; i < card; ++i) {
+          if (other.contains(content[i])) {
+            ++n;
+          }
+        }
+      }
+      return n;
+    }
+
+    @Override boolean intersects(Container other) {
+      if (other instanceof ArrayContainer) {
+        ArrayContainer ac = (ArrayContainer) other;
+        for (int i = 0, j = 0; i < card && j < ac.card; ) {
+          if (content[i] < ac.content[j]) {
+            ++i;
+          } else if (content[i] > ac.content[j]) {
+            ++j;
+          } else {
+            return true;
+          }
+        }
+      } else {
+        for (int i = 0; i < card; ++i) {
+          if (other.contains(content[i])) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    @Override Container or(Container other) {
+      if (other instanceof BitmapContainer) {
+        return other.or(this);
+      }
+      ArrayContainer ac = (ArrayContainer) other;
+      char[] result = new char[card + ac.card];
+      int n = 0;
+      int i = 0;
+      int j = 0;
+      while (i < card && j < ac.card) {
+        if (content[i] < ac.content[j]) {
+          result[n++] = content[i++];
+        } else if (content[i] > ac.content[j]) {
+          result[n++] = ac.content[j++];
+        } else {
+          result[n++] = content[i++];
+          ++j;
+        }
+      }
+      while (i < card) {
+        result[n++] = content[i++];
+      }
+      while (j < ac.card) {
+        result[n++] = ac.content[j++];
+      }
+      ArrayContainer union = new ArrayContainer(result, n);
+      return n > ARRAY_MAX ? union.toBitmap() : union;
+    }
+
+    @Override Container orInPlace(Container other) {
+      if (other instanceof BitmapContainer) {
+        return other.copy().orInPlace(this);
+      }
+      ArrayContainer ac = (ArrayContainer) other;
+      int max = card + ac.card;
+      if (max > ARRAY_MAX) {
+        return toBitmap().orInPlace(other);
+      } else if (max > content.length) {
+        content = Arrays.copyOf(content, max);
+      }
+      // Merge from the end, then close the gap left by the common values
+      int i = card - 1;
+      int j = ac.card - 1;
+      int n = max;
+      while (j >= 0) {
+        if (i >= 0 && content[i] > ac.content[j]) {
+          content[--n] = content[i--];
+        } else {
+          if (i >= 0 && content[i] == ac.content[j]) {
+            --i;
+          }
+          content[--n] = ac.content[j--];
+        }
+      }
+      int merged = max - n + i + 1;
+      if (n != i + 1) {
+        System.arraycopy(content, n, content, i + 1, max - n);
+      }
+      card = merged;
+      return this;
+    }
+
+    @Override void forEach(int high, IntConsumer consumer) {
+      for (int i = 0; i < card; ++i) {
+        consumer.accept(high | content[i]);
+      }
+    }
+
+    @Override Container copy() {
+      return new ArrayContainer(Arrays.copyOf(content, Math.max(card, 1)), card);
+    }
+
+    BitmapContainer toBitmap() {
+      BitmapContainer bitmap = new BitmapContainer();
+      for (int i = 0; i < card; ++i) {
+        bitmap.add(content[i]);
+      }
+      return bitmap;
+    }
+  }
+
+  static final class BitmapContainer extends Container {
+    final long[] words;
+    int card;
+
+    BitmapContainer() {
+      this(new long[1 << 10], 0);
+    }
+
+    BitmapContainer(long[] words, int card) {
+      this.words = words;
+      this.card = card;
+    }
+
+    @Override int cardinality() {
+      return card;
+    }
+
+    @Override boolean contains(char low) {
+      return (words[low >>> 6] & (1L << low)) != 0;
+    }
+
+    @Override Container add(char low) {
+      long word = words[low >>> 6];
+      long updated = word | (1L << low);
+      if (updated != word) {
+        words[low >>> 6] = updated;
+        ++card;
+      }
+      return this;
+    }
+
+    @Override Container remove(char low) {
+      long word = words[low >>> 6];
+      long updated = word & ~(1L << low);
+      if (updated != word) {
+        words[low >>> 6] = updated;
+        --card;
+        if (card <= ARRAY_MAX) {
+          return toArray();
+        }
+      }
+      return this;
+    }
+
+    @Override Container and(Container other) {
+      if (other instanceof ArrayContainer) {
+        return other.and(this);
+      }
+      BitmapContainer bc = (BitmapContainer) other;
+      long[] result = new long[words.length];
+      int n = 0;
+      for (int i = 0; i < words.length; ++i) {
+        result[i] = words[i] & bc.words[i];
+        n += Long.bitCount(result[i]);
+      }
+      BitmapContainer intersection = new BitmapContainer(result, n);
+      return n <= ARRAY_MAX ? intersection.toArray() : intersection;
+    }
+
+    @Override int andCardinality(Container other) {
+      if (other instanceof ArrayContainer) {
+        return other.andCardinality(this);
+      }
+      BitmapContainer bc = (BitmapContainer) other;
+      int n = 0;
+      for (int i = 0; i < words.length; ++i) {
+        n += Long.bitCount(words[i] & bc.words[i]);
+      }
+      return n;
+    }
+
+    @Override boolean intersects(Container other) {
+      if (other instanceof ArrayContainer) {
+        return other.intersects(this);
+      }
+      BitmapContainer bc = (BitmapContainer) other;
+      for (int i = 0; i < words.length; ++i) {
+        if ((words[i] & bc.words[i]) != 0) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override Container or(Container other) {
+      BitmapContainer union = (BitmapContainer) copy();
+      if (other instanceof ArrayContainer) {
+        ArrayContainer ac = (ArrayContainer) other;
+        for (int i = 0; i < ac.card; ++i) {
+          union.add(ac.content[i]);
+        }
+      } else {
+        BitmapContainer bc = (BitmapContainer) other;
+        int n = 0;
+        for (int i = 0; i < words.length; ++i) {
+          union.words[i] |= bc.words[i];
+          n += Long.bitCount(union.words[i]);
+        }
+        union.card = n;
+      }
+      return union;
+    }
+
+    @Override Container orInPlace(Container other) {
+      if (other instanceof ArrayContainer) {
+        ArrayContainer ac = (ArrayContainer) other;
+        for (int i = 0; i < ac.card; ++i) {
+          add(ac.content[i]);
+        }
+      } else {
+        BitmapContainer bc = (BitmapContainer) other;
+        int n = 0;
+        for (int i = 0; i < words.length; ++i) {
+          words[i] |= bc.words[i];
+          n += Long.bitCount(words[i]);
+        }
+        card = n;
+      }
+      return this;
+    }
+
+    @Override void forEach(int high, IntConsumer consumer) {
+      for (int i = 0; i < words.length; ++i) {
+        long word = words[i];
+        while (word != 0) {
+          consumer.accept(high | (i << 6) | Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+    }
+
+    @Override Container copy() {
+      return new BitmapContainer(words.clone(), card);
+    }
+
+    ArrayContainer toArray() {
+      char[] content = new char[Math.max(card, 1)];
+      int n = 0;
+      for (int i = 0; i < words.length; ++i) {
+        long word = words[i];
+        while (word != 0) {
+          content[n++] = (char) ((i << 6) | Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+      return new ArrayContainer(content, n);
+    }
+  }
+}
@@ -0,0 +1,683 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.openrtb.OpenRtb.AuctionType;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.App;
+import com.google.openrtb.OpenRtb.BidRequest.Data;
+import com.google.openrtb.OpenRtb.BidRequest.Device;
+import com.google.openrtb.OpenRtb.BidRequest.Geo;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Audio;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Banner;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Pmp;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Pmp.Deal;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Video;
+import com.google.openrtb.OpenRtb.BidRequest.Publisher;
+import com.google.openrtb.OpenRtb.BidRequest.Site;
+import com.google.openrtb.OpenRtb.BidRequest.Source;
+import com.google.openrtb.OpenRtb.BidRequest.User;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid.Bid;
+import com.google.openrtb.OpenRtb.ConnectionType;
+import com.google.openrtb.OpenRtb.DataAssetType;
+import com.google.openrtb.OpenRtb.DeviceType;
+import com.google.openrtb.OpenRtb.EventTrackingMethod;
+import com.google.openrtb.OpenRtb.EventType;
+import com.google.openrtb.OpenRtb.ImageAssetType;
+import com.google.openrtb.OpenRtb.NativeRequest;
+import com.google.openrtb.OpenRtb.Protocol;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Message;
+import com.google.protobuf.UnknownFieldSet;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Generates synthetic {@link BidRequest}s and {@link BidResponse}s, for benchmarks and load
+ * tests that need large and realistic inputs.
+ *
+ * <p>The shape of generated messages is driven by {@link Distribution}s: impression count,
+ * media type mix, banner format list length, deal count, {@code bcat/badv} list lengths,
+ * {@code user.data} segment counts, and extension payload sizes. Strings like domains, bundles
+ * and countries are drawn from fixed-size pools with skewed popularity, so caches and
+ * dictionaries see realistic cardinalities.
+ *
+ * <p>Each message is a function of the seed and its index only, so corpora are reproducible,
+ * can be generated in parallel, and are streamed without retaining messages:
+ *
+ * <pre>
+ * CorpusGenerator generator = CorpusGenerator.builder().seed(42).build();
+ * generator.requests(10_000_000).forEach(request -> ...);
+ * </pre>
+ *
+ * <p>Extension payloads are random bytes in the unknown field {@value #EXT_FIELD}, so they're
+ * serialized like an extension without requiring its definition.
+ *
+ * <p>This class is immutable and threadsafe.
+ */
+public final class CorpusGenerator {
+  /** Field number for generated extension payloads. */
+  public static final int EXT_FIELD = 100;
+
+  private static final long RESPONSE_SALT = 0x5DEECE66DL;
+  private static final int[][] BANNER_SIZES = {
+      { 300, 250 }, { 728, 90 }, { 320, 50 }, { 160, 600 },
+      { 300, 600 }, { 970, 250 }, { 320, 100 }, { 336, 280 } };
+  private static final Distribution BANNER_SIZE = Distribution.zipf(BANNER_SIZES.length, 1.0);
+  private static final String[] COUNTRIES = {
+      "USA", "GBR", "DEU", "FRA", "JPN", "BRA", "IND", "CAN", "AUS", "ESP",
+      "ITA", "MEX", "NLD", "KOR", "SWE", "POL", "TUR", "ARG", "IDN", "ZAF" };
+  private static final Distribution COUNTRY = Distribution.zipf(COUNTRIES.length, 1.2);
+  private static final String[] USER_AGENTS = {
+      "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) "
+          + "Chrome/120.0 Safari/537.36",
+      "Mozilla/5.0 (iPhone; CPU iPhone OS 17_1 like Mac OS X) AppleWebKit/605.1.15 "
+          + "(KHTML, like Gecko) Version/17.1 Mobile/15E148 Safari/604.1",
+      "Mozilla/5.0 (Linux; Android 14; Pixel 8) AppleWebKit/537.36 (KHTML, like Gecko) "
+          + "Chrome/120.0 Mobile Safari/537.36",
+      "Mozilla/5.0 (Macintosh; Intel Mac OS X 14_1) AppleWebKit/605.1.15 "
+          + "(KHTML, like Gecko) Version/17.1 Safari/605.1.15" };
+  private static final DeviceType[] DEVICE_TYPES = {
+      DeviceType.PERSONAL_COMPUTER, DeviceType.HIGHEND_PHONE, DeviceType.HIGHEND_PHONE,
+      DeviceType.TABLET };
+  private static final String[] VIDEO_MIMES = { "video/mp4", "video/webm" };
+  private static final String[] AUDIO_MIMES = { "audio/mp4", "audio/mpeg" };
+
+  private final long seed;
+  private final Distribution impCount;
+  private final double[] mediaMix;
+  private final Distribution formatCount;
+  private final Distribution dealCount;
+  private final Distribution bcatCount;
+  private final Distribution badvCount;
+  private final Distribution userDataCount;
+  private final Distribution segmentCount;
+  private final Distribution extensionSize;
+  private final double appRatio;
+  private final double bidRate;
+  private final String[] domains;
+  private final String[] bundles;
+  private final String[] advertisers;
+  private final Distribution domain;
+  private final Distribution bundle;
+  private final Distribution advertiser;
+
+  private CorpusGenerator(Builder builder) {
+    this.seed = builder.seed;
+    this.impCount = builder.impCount;
+    this.mediaMix = builder.mediaMix;
+    this.formatCount = builder.formatCount;
+    this.dealCount = builder.dealCount;
+    this.bcatCount = builder.bcatCount;
+    this.badvCount = builder.badvCount;
+    this.userDataCount = builder.userDataCount;
+    this.segmentCount = builder.segmentCount;
+    this.extensionSize = builder.extensionSize;
+    this.appRatio = builder.appRatio;
+    this.bidRate = builder.bidRate;
+    this.domains = pool("site", ".example.com", builder.domainCount);
+    this.bundles = pool("com.example.app", "", builder.domainCount);
+    this.advertisers = pool("brand", ".example", builder.advertiserCount);
+    this.domain = Distribution.zipf(domains.length, 1.0);
+    this.bundle = Distribution.zipf(bundles.length, 1.0);
+    this.advertiser = Distribution.zipf(advertisers.length, 1.0);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Generates the request at a position of the corpus.
+   */
+  public BidRequest request(long index) {
+    SplittableRandom random = new SplittableRandom(mix(seed, index));
+    BidRequest.Builder request = BidRequest.newBuilder()
+        .setId(hexId(random))
+        .setAt(random.nextInt(10) < 7 ? AuctionType.FIRST_PRICE : AuctionType.SECOND_PRICE)
+        .setTmax(100 + 50 * random.nextInt(5))
+        .addCur("USD")
+        .setSource(Source.newBuilder().setTid(hexId(random)));
+
+    for (int i = 0, n = Math.max(1, impCount.sample(random)); i < n; ++i) {
+      request.addImp(imp(random, i + 1));
+    }
+    if (random.nextDouble() < appRatio) {
+      int pos = bundle.sample(random);
+      request.setApp(App.newBuilder()
+          .setId("app" + pos)
+          .setBundle(bundles[pos])
+          .addCat(category(random))
+          .setPublisher(Publisher.newBuilder().setId("pub" + pos % 1000)));
+    } else {
+      int pos = domain.sample(random);
+      request.setSite(Site.newBuilder()
+          .setId("site" + pos)
+          .setDomain(domains[pos])
+          .setPage("https://" + domains[pos] + "/page/" + random.nextInt(1000))
+          .addCat(category(random))
+          .setPublisher(Publisher.newBuilder().setId("pub" + pos % 1000)));
+    }
+    request.setDevice(device(random, request.hasApp()));
+    request.setUser(user(random));
+
+    for (int i = 0, n = bcatCount.sample(random); i < n; ++i) {
+      request.addBcat(category(random));
+    }
+    for (int i = 0, n = badvCount.sample(random); i < n; ++i) {
+      request.addBadv(advertisers[advertiser.sample(random)]);
+    }
+    setExtension(request, random);
+    return request.build();
+  }
+
+  /**
+   * Generates a response for a request. Each impression gets a bid with probability
+   * {@link Builder#bidRate}, at or above its floor, or a deal's floor for impressions
+   * with deals.
+   *
+   * @param index Position of the request in the corpus, for reproducibility
+   */
+  public BidResponse response(BidRequest request, long index) {
+    SplittableRandom random = new SplittableRandom(mix(seed ^ RESPONSE_SALT, index));
+    BidResponse.Builder response = BidResponse.newBuilder()
+        .setId(request.getId())
+        .setBidid(hexId(random))
+        .setCur("USD");
+    int seatCount = 1 + random.nextInt(3);
+    SeatBid.Builder[] seats = new SeatBid.Builder[seatCount];
+    for (Imp imp : request.getImpList()) {
+      if (random.nextDouble() >= bidRate) {
+        continue;
+      }
+      int seat = random.nextInt(seatCount);
+      if (seats[seat] == null) {
+        seats[seat] = SeatBid.newBuilder().setSeat("seat" + seat);
+      }
+      Bid.Builder bid = Bid.newBuilder()
+          .setId(hexId(random))
+          .setImpid(imp.getId())
+          .setCrid("cr" + random.nextInt(100_000))
+          .addAdomain(advertisers[advertiser.sample(random)])
+          .setAdm(adm(random));
+      double floor = imp.getBidfloor();
+      if (imp.getPmp().getDealsCount() != 0) {
+        Deal deal = imp.getPmp().getDeals(random.nextInt(imp.getPmp().getDealsCount()));
+        bid.setDealid(deal.getId());
+        floor = deal.getBidfloor();
+      }
+      bid.setPrice(round(floor * (1 + random.nextDouble())) + 0.01);
+      if (imp.hasBanner() && imp.getBanner().hasW()) {
+        bid.setW(imp.getBanner().getW()).setH(imp.getBanner().getH());
+      }
+      seats[seat].addBid(bid);
+    }
+    for (SeatBid.Builder seat : seats) {
+      if (seat != null) {
+        response.addSeatbid(seat);
+      }
+    }
+    return response.build();
+  }
+
+  /**
+   * Streams the first {@code count} requests of the corpus, in order.
+   */
+  public Stream<BidRequest> requests(long count) {
+    checkArgument(count >= 0, "count: %s", count);
+    return LongStream.range(0, count).mapToObj(this::request);
+  }
+
+  /**
+   * Streams the responses for the first {@code count} requests of the corpus, in order.
+   */
+  public Stream<BidResponse> responses(long count) {
+    checkArgument(count >= 0, "count: %s", count);
+    return LongStream.range(0, count).mapToObj(index -> response(request(index), index));
+  }
+
+  private Imp imp(SplittableRandom random, int id) {
+    Imp.Builder imp = Imp.newBuilder()
+        .setId(String.valueOf(id))
+        .setBidfloor(round(0.05 + random.nextDouble() * random.nextDouble() * 5))
+        .setSecure(random.nextInt(10) < 8)
+        .setTagid("tag" + random.nextInt(10_000));
+
+    double media = random.nextDouble();
+    if (media < mediaMix[0]) {
+      int[] size = BANNER_SIZES[BANNER_SIZE.sample(random)];
+      Banner.Builder banner = Banner.newBuilder().setW(size[0]).setH(size[1]);
+      for (int i = 0, n = formatCount.sample(random); i < n; ++i) {
+        int[] format = BANNER_SIZES[BANNER_SIZE.sample(random)];
+        banner.addFormat(Banner.Format.newBuilder().setW(format[0]).setH(format[1]));
+      }
+      imp.setBanner(banner);
+    } else if (media < mediaMix[1]) {
+      imp.setVideo(Video.newBuilder()
+          .addMimes(VIDEO_MIMES[random.nextInt(VIDEO_MIMES.length)])
+          .setMinduration(5)
+          .setMaxduration(15 + 15 * random.nextInt(3))
+          .addProtocols(Protocol.VAST_3_0)
+          .addProtocols(Protocol.VAST_4_0)
+          .setW(random.nextBoolean() ? 640 : 1280)
+          .setH(random.nextBoolean() ? 360 : 720));
+    } else if (media < mediaMix[2]) {
+      imp.setNative(Imp.Native.newBuilder()
+          .setVer("1.2")
+          .setRequestNative(nativeRequest(random)));
+    } else {
+      imp.setAudio(Audio.newBuilder()
+          .addMimes(AUDIO_MIMES[random.nextInt(AUDIO_MIMES.length)])
+          .setMinduration(5)
+          .setMaxduration(30)
+          .addProtocols(Protocol.DAAST_1_0));
+    }
+
+    int deals = dealCount.sample(random);
+    if (deals != 0) {
+      Pmp.Builder pmp = Pmp.newBuilder().setPrivateAuction(random.nextInt(4) == 0);
+      for (int i = 0; i < deals; ++i) {
+        Deal.Builder deal = Deal.newBuilder()
+            .setId("deal" + random.nextInt(100_000))
+            .setBidfloor(round(imp.getBidfloor() * (1 + random.nextDouble())));
+        if (random.nextBoolean()) {
+          deal.addWseat("seat" + random.nextInt(3));
+        }
+        pmp.addDeals(deal);
+      }
+      imp.setPmp(pmp);
+    }
+    setExtension(imp, random);
+    return imp.build();
+  }
+
+  private static NativeRequest nativeRequest(SplittableRandom random) {
+    NativeRequest.Builder request = NativeRequest.newBuilder()
+        .setVer("1.2")
+        .addAssets(NativeRequest.Asset.newBuilder()
+            .setId(1)
+            .setRequired(true)
+            .setTitle(NativeRequest.Asset.Title.newBuilder().setLen(25 + 25 * random.nextInt(3))))
+        .addAssets(NativeRequest.Asset.newBuilder()
+            .setId(2)
+            .setRequired(true)
+            .setImg(NativeRequest.Asset.Image.newBuilder()
+                .setType(ImageAssetType.MAIN)
+                .setWmin(300)
+                .setHmin(random.nextBoolean() ? 157 : 250)))
+        .addEventtrackers(NativeRequest.EventTrackers.newBuilder()
+            .setEvent(EventType.IMPRESSION)
+            .addMethods(EventTrackingMethod.IMG));
+    if (random.nextBoolean()) {
+      request.addAssets(NativeRequest.Asset.newBuilder()
+          .setId(3)
+          .setImg(NativeRequest.Asset.Image.newBuilder()
+              .setType(ImageAssetType.ICON)
+              .setW(50)
+              .setH(50)));
+    }
+    if (random.nextBoolean()) {
+      request.addAssets(NativeRequest.Asset.newBuilder()
+          .setId(4)
+          .setData(NativeRequest.Asset.Data.newBuilder()
+              .setType(DataAssetType.SPONSORED)
+              .setLen(25)));
+    }
+    return request.build();
+  }
+
+  private static Device device(SplittableRandom random, boolean app) {
+    int deviceType = random.nextInt(DEVICE_TYPES.length);
+    Device.Builder device = Device.newBuilder()
+        .setUa(USER_AGENTS[deviceType])
+        .setIp(random.nextInt(224) + "." + random.nextInt(256) + "." + random.nextInt(256) + ".0")
+        .setDevicetype(DEVICE_TYPES[deviceType])
+        .setConnectiontype(random.nextBoolean() ? ConnectionType.WIFI : ConnectionType.CELL_4G)
+        .setGeo(Geo.newBuilder()
+            .setCountry(COUNTRIES[COUNTRY.sample(random)])
+            .setLat(round(random.nextDouble() * 180 - 90))
+            .setLon(round(random.nextDouble() * 360 - 180)));
+    if (app) {
+      device.setIfa(uuid(random));
+    }
+    return device.build();
+  }
+
+  private User user(SplittableRandom random) {
+    User.Builder user = User.newBuilder().setId(hexId(random));
+    for (int i = 0, n = userDataCount.sample(random); i < n; ++i) {
+      Data.Builder data = Data.newBuilder().setId("dmp" + i);
+      for (int j = 0, m = segmentCount.sample(random); j < m; ++j) {
+        data.addSegment(Data.Segment.newBuilder().setId(String.valueOf(random.nextInt(100_000))));
+      }
+      user.addData(data);
+    }
+    return user.build();
+  }
+
+  private void setExtension(Message.Builder message, SplittableRandom random) {
+    int size = extensionSize.sample(random);
+    if (size > 0) {
+      byte[] payload = new byte[size];
+      for (int i = 0; i < size; ++i) {
+        payload[i] = (byte) random.nextInt(256);
+      }
+      message.setUnknownFields(UnknownFieldSet.newBuilder()
+          .addField(EXT_FIELD, UnknownFieldSet.Field.newBuilder()
+              .addLengthDelimited(ByteString.copyFrom(payload))
+              .build())
+          .build());
+    }
+  }
+
+  private static String adm(SplittableRandom random) {
+    return "<a href=\"https://click.example.com/" + random.nextInt(1_000_000)
+        + "\"><img src=\"https://cdn.example.com/" + random.nextInt(1_000_000) + ".jpg\"></a>";
+  }
+
+  private static String category(SplittableRandom random) {
+    int tier1 = 1 + random.nextInt(26);
+    return random.nextBoolean() ? "IAB" + tier1 : "IAB" + tier1 + "-" + random.nextInt(20);
+  }
+
+  private static String hexId(SplittableRandom random) {
+    return Long.toHexString(random.nextLong());
+  }
+
+  private static String uuid(SplittableRandom random) {
+    return new UUID(random.nextLong(), random.nextLong()).toString();
+  }
+
+  private static double round(double value) {
+    return Math.round(value * 100) / 100.0;
+  }
+
+  private static String[] pool(String prefix, String suffix, int size) {
+    String[] pool = new String[size];
+    for (int i = 0; i < size; ++i) {
+      pool[i] = prefix + i + suffix;
+    }
+    return pool;
+  }
+
+  /**
+   * Derives the seed for a message, with the 64-bit finalizer of MurmurHash3.
+   */
+  private static long mix(long seed, long index) {
+    long h = seed + index * 0x9E3779B97F4A7C15L;
+    h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+    h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+    return h ^ (h >>> 33);
+  }
+
+  /**
+   * Normalized cumulative weights.
+   */
+  private static double[] cumulative(double[] weights) {
+    double[] cdf = new double[weights.length];
+    double total = 0;
+    for (int i = 0; i < weights.length; ++i) {
+      checkArgument(weights[i] >= 0, "weight: %s", weights[i]);
+      total += weights[i];
+      cdf[i] = total;
+    }
+    checkArgument(total > 0, "No positive weights");
+    for (int i = 0; i < cdf.length; ++i) {
+      cdf[i] /= total;
+    }
+    cdf[cdf.length - 1] = 1;
+    return cdf;
+  }
+
+  /**
+   * Returns the first index with {@code cdf[index] > p}.
+   */
+  private static int search(double[] cdf, double p) {
+    int low = 0;
+    int high = cdf.length - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (cdf[mid] > p) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    return low;
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("seed", seed)
+        .add("mediaMix", Arrays.toString(mediaMix))
+        .toString();
+  }
+
+  /**
+   * Distribution of non-negative integers, like list lengths or sizes.
+   */
+  @FunctionalInterface
+  public interface Distribution {
+    int sample(SplittableRandom random);
+
+    static Distribution constant(int value) {
+      checkArgument(value >= 0, "value: %s", value);
+      return random -> value;
+    }
+
+    /**
+     * Uniform distribution, from {@code min} to {@code max} inclusive.
+     */
+    static Distribution uniform(int min, int max) {
+      checkArgument(min >= 0 && min <= max, "min: %s, max: %s", min, max);
+      return random -> min + random.nextInt(max - min + 1);
+    }
+
+    /**
+     * Geometric distribution (like the lengths of most lists in real traffic: usually short,
+     * with a long tail), capped to {@code max}.
+     */
+    static Distribution geometric(double mean, int max) {
+      checkArgument(mean > 0, "mean: %s", mean);
+      checkArgument(max >= 0, "max: %s", max);
+      double logQ = Math.log(mean / (mean + 1));
+      return random -> (int) Math.min(max, Math.floor(Math.log(1 - random.nextDouble()) / logQ));
+    }
+
+    /**
+     * Discrete distribution of values with relative weights.
+     */
+    static Distribution weighted(int[] values, double[] weights) {
+      checkArgument(values.length == weights.length && values.length != 0,
+          "values: %s, weights: %s", values.length, weights.length);
+      double[] cdf = cumulative(weights);
+      int[] copy = values.clone();
+      for (int value : copy) {
+        checkArgument(value >= 0, "value: %s", value);
+      }
+      return random -> copy[search(cdf, random.nextDouble())];
+    }
+
+    /**
+     * Zipf distribution of ranks from 0 to {@code n - 1}: rank {@code k} has a weight
+     * proportional to {@code 1 / (k + 1)^exponent}.
+     */
+    static Distribution zipf(int n, double exponent) {
+      checkArgument(n > 0, "n: %s", n);
+      double[] weights = new double[n];
+      for (int k = 0; k < n; ++k) {
+        weights[k] = 1 / Math.pow(k + 1, exponent);
+      }
+      double[] cdf = cumulative(weights);
+      return random -> search(cdf, random.nextDouble());
+    }
+  }
+
+  /**
+   * Builder for {@link CorpusGenerator}. Defaults approximate typical exchange traffic.
+   */
+  public static final class Builder {
+    private long seed;
+    private Distribution impCount = Distribution.weighted(
+        new int[] { 1, 2, 3, 5 }, new double[] { 0.7, 0.15, 0.1, 0.05 });
+    private double[] mediaMix = cumulativeMix(0.6, 0.2, 0.15, 0.05);
+    private Distribution formatCount = Distribution.geometric(1.5, 10);
+    private Distribution dealCount = Distribution.weighted(
+        new int[] { 0, 1, 2, 5 }, new double[] { 0.7, 0.15, 0.1, 0.05 });
+    private Distribution bcatCount = Distribution.geometric(5, 50);
+    private Distribution badvCount = Distribution.geometric(10, 200);
+    private Distribution userDataCount = Distribution.uniform(0, 3);
+    private Distribution segmentCount = Distribution.geometric(8, 100);
+    private Distribution extensionSize = Distribution.weighted(
+        new int[] { 0, 16, 256 }, new double[] { 0.5, 0.3, 0.2 });
+    private double appRatio = 0.4;
+    private double bidRate = 0.3;
+    private int domainCount = 10_000;
+    private int advertiserCount = 5_000;
+
+    private Builder() {
+    }
+
+    public Builder seed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    /**
+     * Sets the distribution of impressions per request; values below 1 produce one impression.
+     */
+    public Builder impCount(Distribution impCount) {
+      this.impCount = checkNotNull(impCount);
+      return this;
+    }
+
+    /**
+     * Sets the relative weights of impression media types.
+     * Default is 60% banner, 20% video, 15% native, 5% audio.
+     */
+    public Builder mediaMix(double banner, double video, double nativeAd, double audio) {
+      this.mediaMix = cumulativeMix(banner, video, nativeAd, audio);
+      return this;
+    }
+
+    /**
+     * Sets the distribution of {@code Banner.format} list lengths.
+     */
+    public Builder formatCount(Distribution formatCount) {
+      this.formatCount = checkNotNull(formatCount);
+      return this;
+    }
+
+    /**
+     * Sets the distribution of {@code Pmp.Deal}s per impression.
+     */
+    public Builder dealCount(Distribution dealCount) {
+      this.dealCount = checkNotNull(dealCount);
+      return this;
+    }
+
+    public Builder bcatCount(Distribution bcatCount) {
+      this.bcatCount = checkNotNull(bcatCount);
+      return this;
+    }
+
+    public Builder badvCount(Distribution badvCount) {
+      this.badvCount = checkNotNull(badvCount);
+      return this;
+    }
+
+    /**
+     * Sets the distribution of {@code user.data} objects per request.
+     */
+    public Builder userDataCount(Distribution userDataCount) {
+      this.userDataCount = checkNotNull(userDataCount);
+      return this;
+    }
+
+    /**
+     * Sets the distribution of segments per {@code user.data} object.
+     */
+    public Builder segmentCount(Distribution segmentCount) {
+      this.segmentCount = checkNotNull(segmentCount);
+      return this;
+    }
+
+    /**
+     * Sets the distribution of extension payload sizes in bytes, for requests and impressions;
+     * zero means no extension.
+     */
+    public Builder extensionSize(Distribution extensionSize) {
+      this.extensionSize = checkNotNull(extensionSize);
+      return this;
+    }
+
+    /**
+     * Sets the fraction of requests from apps; the others are from sites. Default is 0.4.
+     */
+    public Builder appRatio(double appRatio) {
+      checkArgument(appRatio >= 0 && appRatio <= 1, "appRatio: %s", appRatio);
+      this.appRatio = appRatio;
+      return this;
+    }
+
+    /**
+     * Sets the probability of a bid for each impression, in responses. Default is 0.3.
+     */
+    public Builder bidRate(double bidRate) {
+      checkArgument(bidRate >= 0 && bidRate <= 1, "bidRate: %s", bidRate);
+      this.bidRate = bidRate;
+      return this;
+    }
+
+    /**
+     * Sets the number of distinct site domains, and of app bundles. Default is 10,000.
+     */
+    public Builder domainCount(int domainCount) {
+      checkArgument(domainCount > 0, "domainCount: %s", domainCount);
+      this.domainCount = domainCount;
+      return this;
+    }
+
+    /**
+     * Sets the number of distinct advertiser domains, for {@code badv} and
+     * {@code Bid.adomain}. Default is 5,000.
+     */
+    public Builder advertiserCount(int advertiserCount) {
+      checkArgument(advertiserCount > 0, "advertiserCount: %s", advertiserCount);
+      this.advertiserCount = advertiserCount;
+      return this;
+    }
+
+    public CorpusGenerator build() {
+      return new CorpusGenerator(this);
+    }
+
+    private static double[] cumulativeMix(double... weights) {
+      return cumulative(weights);
+    }
+  }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Ascii;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidRequestOrBuilder;
+import com.google.openrtb.OpenRtb.BidResponseOrBuilder;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Converts amounts between currencies, for comparisons between bid prices
+ * ({@code BidResponse.cur}) and floors ({@code Imp.bidfloorcur}, {@code Deal.bidfloorcur}).
+ *
+ * <p>Rates are relative to a common base currency: each rate is the number of units of a currency
+ * that one unit of the base is worth (the base itself has rate 1). The rate table is immutable and
+ * swapped atomically by {@link #setRates(Map)}, so conversions never see a partial update, and
+ * a request that calls {@link #normalizedFloors(BidRequestOrBuilder, String)} works with a
+ * consistent set of rates. Currency codes are ISO-4217, case-insensitive; codes are interned in
+ * the rate table, so lookups of codes as they appear in requests and responses are single hash
+ * probes. Conversion between the same currency doesn't consult the table at all.
+ *
+ * <p>Conversions involving a currency not in the table produce {@link Double#NaN}, so every
+ * comparison with the result is {@code false}: a floor in an unknown currency is never cleared.
+ *
+ * <p>This class is threadsafe.
+ */
+@Singleton
+public class CurrencyConverter {
+  /** Default currency for floors and bids, per the OpenRTB specification. */
+  public static final String DEFAULT_CURRENCY = "USD";
+
+  private volatile RateTable rates;
+
+  /**
+   * Creates a converter with an empty rate table, so it can only convert between
+   * identical currencies until {@link #setRates(Map)} is called.
+   */
+  @Inject
+  public CurrencyConverter() {
+    this.rates = new RateTable(ImmutableMap.<String, Double>of());
+  }
+
+  /**
+   * Creates a converter with an initial rate table.
+   */
+  public CurrencyConverter(Map<String, Double> rates) {
+    this.rates = new RateTable(rates);
+  }
+
+  /**
+   * Creates a converter with rates loaded from a file; see {@link #loadRates(Path)}.
+   */
+  public static CurrencyConverter fromFile(Path path) throws IOException {
+    return new CurrencyConverter(loadRates(path));
+  }
+
+  /**
+   * Loads rates from a properties file, with entries like {@code EUR=0.92}.
+   */
+  public static Map<String, Double> loadRates(Path path) throws IOException {
+    Properties props = new Properties();
+    try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      props.load(reader);
+    }
+    Map<String, Double> rates = new HashMap<>();
+    for (String code : props.stringPropertyNames()) {
+      try {
+        rates.put(code, Double.parseDouble(props.getProperty(code).trim()));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid rate for " + code + " in " + path, e);
+      }
+    }
+    return rates;
+  }
+
+  /**
+   * Replaces the rate table.
+   *
+   * @throws IllegalArgumentException if any rate is not a positive finite number
+   */
+  public void setRates(Map<String, Double> rates) {
+    this.rates = new RateTable(rates);
+  }
+
+  /**
+   * Checks if a currency is in the rate table.
+   */
+  public boolean isSupported(String currency) {
+    return rates.index(currency) != -1;
+  }
+
+  /**
+   * Converts an amount between two currencies.
+   *
+   * @return The converted amount, or {@link Double#NaN} if either currency is not supported
+   */
+  public double convert(double amount, String from, String to) {
+    return sameCurrency(from, to) ? amount : rates.convert(amount, from, to);
+  }
+
+  /**
+   * Checks if a price clears a floor, i.e. {@code price >= floor} after conversion of the floor
+   * to the price's currency.
+   *
+   * @return {@code false} if the currencies are different and either is not supported
+   */
+  public boolean clears(double price, String priceCurrency, double floor, String floorCurrency) {
+    return floor <= 0 || price >= convert(floor, floorCurrency, priceCurrency);
+  }
+
+  /**
+   * Computes the floors of all impressions of a request, in a single currency.
+   *
+   * @param currency Target currency, typically the bid response's {@code cur}
+   * @return Floors indexed by impression position; {@link Double#NaN} for impressions
+   *     with a floor in an unsupported currency
+   */
+  public double[] normalizedFloors(BidRequestOrBuilder request, String currency) {
+    RateTable rates = this.rates;
+    List<Imp> imps = request.getImpList();
+    double[] floors = new double[imps.size()];
+    for (int i = 0; i < floors.length; ++i) {
+      Imp imp = imps.get(i);
+      double floor = imp.getBidfloor();
+      floors[i] = floor <= 0 || sameCurrency(imp.getBidfloorcur(), currency)
+          ? floor
+          : rates.convert(floor, imp.getBidfloorcur(), currency);
+    }
+    return floors;
+  }
+
+  /**
+   * Returns the currency of a response's bids: its {@code cur}, or the default currency.
+   */
+  public static String responseCurrency(BidResponseOrBuilder response) {
+    return response.hasCur() ? response.getCur() : DEFAULT_CURRENCY;
+  }
+
+  private static boolean sameCurrency(String c1, String c2) {
+    return c1 == c2 || c1.equalsIgnoreCase(c2);
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("currencies", rates.codes.keySet())
+        .toString();
+  }
+
+  /**
+   * Immutable snapshot of the rates, with currency codes mapped to positions in a rate array.
+   */
+  private static final class RateTable {
+    final ImmutableMap<String, Integer> codes;
+    final double[] perBase;
+
+    RateTable(Map<String, Double> rates) {
+      ImmutableMap.Builder<String, Integer> codes = ImmutableMap.builder();
+      this.perBase = new double[rates.size()];
+      int i = 0;
+      for (Map.Entry<String, Double> entry : rates.entrySet()) {
+        double rate = checkNotNull(entry.getValue());
+        checkArgument(rate > 0 && !Double.isInfinite(rate),
+            "Invalid rate for %s: %s", entry.getKey(), rate);
+        codes.put(Ascii.toUpperCase(entry.getKey()).intern(), i);
+        perBase[i++] = rate;
+      }
+      this.codes = codes.build();
+    }
+
+    int index(String code) {
+      Integer index = codes.get(code);
+      if (index == null) {
+        index = codes.get(Ascii.toUpperCase(code));
+      }
+      return index == null ? -1 : index;
+    }
+
+    double convert(double amount, String from, String to) {
+      int fromIndex = index(from);
+      int toIndex = index(to);
+      return fromIndex == -1 || toIndex == -1
+          ? Double.NaN
+          : amount * perBase[toIndex] / perBase[fromIndex];
+    }
+  }
+}
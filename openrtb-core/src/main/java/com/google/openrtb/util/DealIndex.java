@@ -0,0 +1,193 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Pmp.Deal;
+import com.google.openrtb.OpenRtb.BidRequestOrBuilder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Index of the {@link Deal}s from all impressions of a {@link BidRequest}, to look up deals by ID,
+ * by seat eligibility ({@code Deal.wseat}), and by floor, without rescanning the request.
+ *
+ * <p>Deal IDs are usually unique within a request, but the same deal can be offered
+ * in several impressions, so lookups by deal ID alone can return multiple entries.
+ *
+ * <p>This class is immutable and threadsafe.
+ */
+public final class DealIndex {
+  private final ImmutableListMultimap<String, ImpDeal> byId;
+  private final Map<String, Map<String, ImpDeal>> byImpAndId;
+  private final ImmutableListMultimap<String, ImpDeal> bySeat;
+  private final ImmutableList<ImpDeal> openSeat;
+  private final ImmutableList<ImpDeal> byFloor;
+  private final double[] floors;
+
+  private DealIndex(BidRequestOrBuilder request) {
+    ImmutableListMultimap.Builder<String, ImpDeal> byId = ImmutableListMultimap.builder();
+    ImmutableListMultimap.Builder<String, ImpDeal> bySeat = ImmutableListMultimap.builder();
+    ImmutableList.Builder<ImpDeal> openSeat = ImmutableList.builder();
+    List<ImpDeal> all = new ArrayList<>();
+    this.byImpAndId = new HashMap<>();
+
+    for (Imp imp : request.getImpList()) {
+      for (Deal deal : imp.getPmp().getDealsList()) {
+        ImpDeal impDeal = new ImpDeal(imp, deal);
+        all.add(impDeal);
+        byId.put(deal.getId(), impDeal);
+        byImpAndId.computeIfAbsent(imp.getId(), id -> new HashMap<>())
+            .putIfAbsent(deal.getId(), impDeal);
+        if (deal.getWseatCount() == 0) {
+          openSeat.add(impDeal);
+        } else {
+          for (String seat : deal.getWseatList()) {
+            bySeat.put(seat, impDeal);
+          }
+        }
+      }
+    }
+
+    all.sort((d1, d2) -> Double.compare(d1.floor(), d2.floor()));
+    this.byId = byId.build();
+    this.bySeat = bySeat.build();
+    this.openSeat = openSeat.build();
+    this.byFloor = ImmutableList.copyOf(all);
+    this.floors = new double[all.size()];
+    for (int i = 0; i < floors.length; ++i) {
+      floors[i] = all.get(i).floor();
+    }
+  }
+
+  /**
+   * Creates the index for a request.
+   */
+  public static DealIndex of(BidRequestOrBuilder request) {
+    return new DealIndex(request);
+  }
+
+  public boolean isEmpty() {
+    return byFloor.isEmpty();
+  }
+
+  /**
+   * Finds all offers of a deal, from any impression.
+   */
+  public ImmutableList<ImpDeal> deals(String dealId) {
+    return byId.get(checkNotNull(dealId));
+  }
+
+  /**
+   * Finds a deal in a specific impression.
+   *
+   * @return The deal, or {@code null} if the impression doesn't offer that deal
+   */
+  @Nullable public ImpDeal deal(String impId, String dealId) {
+    Map<String, ImpDeal> impDeals = byImpAndId.get(impId);
+    return impDeals == null ? null : impDeals.get(dealId);
+  }
+
+  /**
+   * Finds the deals a seat can bid on: deals that list the seat in {@code wseat},
+   * and deals with no seat restrictions.
+   */
+  public ImmutableList<ImpDeal> dealsForSeat(String seat) {
+    ImmutableList<ImpDeal> restricted = bySeat.get(checkNotNull(seat));
+    return restricted.isEmpty()
+        ? openSeat
+        : ImmutableList.<ImpDeal>builder().addAll(restricted).addAll(openSeat).build();
+  }
+
+  /**
+   * All deals, sorted by increasing {@code bidfloor}.
+   */
+  public ImmutableList<ImpDeal> dealsByFloor() {
+    return byFloor;
+  }
+
+  /**
+   * Finds the deals with a floor that is cleared by a price, i.e. {@code bidfloor <= price}.
+   *
+   * @return Deals sorted by increasing {@code bidfloor}
+   */
+  public ImmutableList<ImpDeal> dealsClearedBy(double price) {
+    int low = 0;
+    int high = floors.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (floors[mid] <= price) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return byFloor.subList(0, low);
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("deals", byFloor.size())
+        .toString();
+  }
+
+  /**
+   * A {@link Deal} and the {@link Imp} that offers it.
+   */
+  public static final class ImpDeal {
+    private final Imp imp;
+    private final Deal deal;
+
+    ImpDeal(Imp imp, Deal deal) {
+      this.imp = imp;
+      this.deal = deal;
+    }
+
+    public Imp imp() {
+      return imp;
+    }
+
+    public Deal deal() {
+      return deal;
+    }
+
+    public double floor() {
+      return deal.getBidfloor();
+    }
+
+    public String floorCurrency() {
+      return deal.getBidfloorcur();
+    }
+
+    @Override public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("imp", imp.getId())
+          .add("deal", deal.getId())
+          .add("floor", deal.getBidfloor())
+          .toString();
+    }
+  }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Device;
+import com.google.openrtb.OpenRtb.BidRequest.Geo;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid.Bid;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Bounded cache of per-impression bid decisions, keyed by the fingerprint of the request's
+ * inventory (see {@link RequestFingerprinter}). Identical requests, such as retries or
+ * long-tail inventory that repeats with only volatile fields changed, can reuse the decisions
+ * made for the first request instead of running targeting and pricing again.
+ *
+ * <ul>
+ *   <li>Entries expire some time after they are loaded, and the least recently used entries
+ *   are evicted when the cache exceeds its maximum size.</li>
+ *   <li>Loading is single-flight: concurrent lookups for the same fingerprint wait for a single
+ *   load. Failed loads are not cached.</li>
+ *   <li>Impressions without a decision are no-bids, which are cached as well.</li>
+ * </ul>
+ *
+ * <p>Metrics: gauges {@code hit-rate}, {@code hits}, {@code misses}, {@code evictions}
+ * and {@code size}. Gauges are created by the first cache that uses a {@link MetricRegistry};
+ * other caches with the same registry don't replace them.
+ *
+ * <p>This class is threadsafe.
+ */
+public final class DecisionCache {
+  /**
+   * Default key for cached decisions: like {@link RequestFingerprinter#DEFAULT}, but also
+   * ignores {@code user} and the per-user, volatile fields of {@code device}: {@code ua},
+   * {@code ip}, {@code ipv6}, {@code ifa}, the hashed device IDs and MACs, and
+   * {@code geo.lat}/{@code geo.lon}. Decisions are shared by all users of the same inventory,
+   * but not across countries, device types or connection types, which can be targeted. Use a
+   * different fingerprinter if decisions depend on the user or on these device fields; or to
+   * share decisions more widely, ignore more of {@code device} with
+   * {@link RequestFingerprinter.Builder#ignorePath(int...)}, or all of it.
+   */
+  public static final RequestFingerprinter DEFAULT_FINGERPRINTER = defaultFingerprinter();
+
+  private final RequestFingerprinter fingerprinter;
+  private final Cache<HashCode, ImmutableMap<String, Decision>> cache;
+
+  private DecisionCache(Builder builder) {
+    this.fingerprinter = builder.fingerprinter;
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(builder.maximumSize)
+        .expireAfterWrite(builder.expireAfterWrite, TimeUnit.NANOSECONDS)
+        .ticker(builder.ticker)
+        .recordStats()
+        .build();
+
+    MetricRegistry metricRegistry = builder.metricRegistry;
+    metricRegistry.gauge(MetricRegistry.name(DecisionCache.class, "hit-rate"),
+        () -> (Gauge<Double>) () -> cache.stats().hitRate());
+    metricRegistry.gauge(MetricRegistry.name(DecisionCache.class, "hits"),
+        () -> (Gauge<Long>) () -> cache.stats().hitCount());
+    metricRegistry.gauge(MetricRegistry.name(DecisionCache.class, "misses"),
+        () -> (Gauge<Long>) () -> cache.stats().missCount());
+    metricRegistry.gauge(MetricRegistry.name(DecisionCache.class, "evictions"),
+        () -> (Gauge<Long>) () -> cache.stats().evictionCount());
+    metricRegistry.gauge(MetricRegistry.name(DecisionCache.class, "size"),
+        () -> (Gauge<Long>) cache::size);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private static RequestFingerprinter defaultFingerprinter() {
+    RequestFingerprinter.Builder builder = RequestFingerprinter.builder()
+        .ignore(BidRequest.USER_FIELD_NUMBER);
+    for (int field : new int[] {
+        Device.UA_FIELD_NUMBER, Device.IP_FIELD_NUMBER, Device.IPV6_FIELD_NUMBER,
+        Device.IFA_FIELD_NUMBER, Device.DIDSHA1_FIELD_NUMBER, Device.DIDMD5_FIELD_NUMBER,
+        Device.DPIDSHA1_FIELD_NUMBER, Device.DPIDMD5_FIELD_NUMBER,
+        Device.MACSHA1_FIELD_NUMBER, Device.MACMD5_FIELD_NUMBER}) {
+      builder.ignorePath(BidRequest.DEVICE_FIELD_NUMBER, field);
+    }
+    return builder
+        .ignorePath(BidRequest.DEVICE_FIELD_NUMBER, Device.GEO_FIELD_NUMBER, Geo.LAT_FIELD_NUMBER)
+        .ignorePath(BidRequest.DEVICE_FIELD_NUMBER, Device.GEO_FIELD_NUMBER, Geo.LON_FIELD_NUMBER)
+        .build();
+  }
+
+  /**
+   * Returns the decisions for a request, loading them if they are not cached.
+   *
+   * @param loader Computes the decisions if necessary, only once for concurrent lookups
+   * @return Decisions by impression ID; impressions without decisions are no-bids
+   * @throws ExecutionException if the loader threw a checked exception
+   * @throws UncheckedExecutionException if the loader threw an unchecked exception
+   * @throws ExecutionError if the loader threw an error
+   */
+  public ImmutableMap<String, Decision> get(BidRequest request, Loader loader)
+      throws ExecutionException {
+    checkNotNull(loader);
+    return cache.get(fingerprinter.fingerprint128(request),
+        () -> ImmutableMap.copyOf(loader.decide(request)));
+  }
+
+  /**
+   * Returns the cached decisions for a request, or {@code null} if not cached.
+   */
+  @Nullable public ImmutableMap<String, Decision> getIfPresent(BidRequest request) {
+    return cache.getIfPresent(fingerprinter.fingerprint128(request));
+  }
+
+  /**
+   * Caches decisions for a request, replacing any existing decisions.
+   */
+  public void put(BidRequest request, Map<String, Decision> decisions) {
+    cache.put(fingerprinter.fingerprint128(request), ImmutableMap.copyOf(decisions));
+  }
+
+  public void invalidate(BidRequest request) {
+    cache.invalidate(fingerprinter.fingerprint128(request));
+  }
+
+  /**
+   * Discards all decisions, e.g. after a change in campaigns or creatives.
+   */
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  public double hitRate() {
+    return cache.stats().hitRate();
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("size", cache.size())
+        .add("stats", cache.stats())
+        .toString();
+  }
+
+  /**
+   * Computes the decisions for a request, on a cache miss.
+   */
+  public interface Loader {
+    /**
+     * Computes decisions for some or all impressions of a request.
+     *
+     * @return Decisions by impression ID
+     */
+    Map<String, Decision> decide(BidRequest request) throws Exception;
+  }
+
+  /**
+   * A bid decision for an impression: price, creative and deal. This class is immutable.
+   */
+  public static final class Decision {
+    private final double price;
+    private final String creativeId;
+    @Nullable private final String dealId;
+
+    public Decision(double price, String creativeId, @Nullable String dealId) {
+      checkArgument(price > 0, "Invalid price: %s", price);
+      this.price = price;
+      this.creativeId = checkNotNull(creativeId);
+      this.dealId = dealId;
+    }
+
+    public double price() {
+      return price;
+    }
+
+    public String creativeId() {
+      return creativeId;
+    }
+
+    @Nullable public String dealId() {
+      return dealId;
+    }
+
+    /**
+     * Creates a bid for this decision, with {@code impid}, {@code price}, {@code crid}
+     * and {@code dealid} set.
+     */
+    public Bid.Builder toBid(String bidId, String impId) {
+      Bid.Builder bid = Bid.newBuilder()
+          .setId(bidId)
+          .setImpid(impId)
+          .setPrice(price)
+          .setCrid(creativeId);
+      if (dealId != null) {
+        bid.setDealid(dealId);
+      }
+      return bid;
+    }
+
+    @Override public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      } else if (!(obj instanceof Decision)) {
+        return false;
+      }
+      Decision other = (Decision) obj;
+      return price == other.price
+          && creativeId.equals(other.creativeId)
+          && Objects.equal(dealId, other.dealId);
+    }
+
+    @Override public int hashCode() {
+      return Objects.hashCode(price, creativeId, dealId);
+    }
+
+    @Override public String toString() {
+      return MoreObjects.toStringHelper(this).omitNullValues()
+          .add("price", price)
+          .add("creativeId", creativeId)
+          .add("dealId", dealId)
+          .toString();
+    }
+  }
+
+  /**
+   * Builder for {@link DecisionCache}.
+   */
+  public static final class Builder {
+    private RequestFingerprinter fingerprinter = DEFAULT_FINGERPRINTER;
+    private MetricRegistry metricRegistry = new MetricRegistry();
+    private long maximumSize = 10_000;
+    private long expireAfterWrite = TimeUnit.MINUTES.toNanos(1);
+    private Ticker ticker = Ticker.systemTicker();
+
+    private Builder() {
+    }
+
+    /**
+     * Sets the fingerprinter for cache keys. It should ignore all fields that don't affect
+     * decisions, like user data for contextual bidding. Default is
+     * {@link #DEFAULT_FINGERPRINTER}.
+     */
+    public Builder fingerprinter(RequestFingerprinter fingerprinter) {
+      this.fingerprinter = checkNotNull(fingerprinter);
+      return this;
+    }
+
+    public Builder metricRegistry(MetricRegistry metricRegistry) {
+      this.metricRegistry = checkNotNull(metricRegistry);
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of cached requests. Default is 10,000.
+     */
+    public Builder maximumSize(long maximumSize) {
+      checkArgument(maximumSize > 0, "maximumSize: %s", maximumSize);
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * Sets the time decisions are cached after they are loaded. Default is one minute.
+     */
+    public Builder expireAfterWrite(long duration, TimeUnit unit) {
+      checkArgument(duration > 0, "duration: %s", duration);
+      this.expireAfterWrite = unit.toNanos(duration);
+      return this;
+    }
+
+    /**
+     * Sets the time source for expiration, mostly for testing.
+     */
+    public Builder ticker(Ticker ticker) {
+      this.ticker = checkNotNull(ticker);
+      return this;
+    }
+
+    public DecisionCache build() {
+      return new DecisionCache(this);
+    }
+  }
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.math.IntMath;
+import com.google.common.primitives.Ints;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Banner;
+import com.google.openrtb.OpenRtb.BidRequestOrBuilder;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid.BidOrBuilder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+
+/**
+ * Index of the banner sizes accepted by the impressions of a {@link BidRequest}, to find
+ * which impressions accept a creative's size without scanning every {@link Banner.Format}.
+ *
+ * <ul>
+ *   <li>Exact sizes ({@code Banner.w/h}, {@code Format.w/h}) are kept in a hash table.</li>
+ *   <li>Flexible sizes ({@code Format.wratio/hratio/wmin}) are grouped by reduced aspect ratio,
+ *   each group sorted by {@code wmin}, so a creative size is matched by a hash lookup for its
+ *   ratio and a binary search for its width.</li>
+ *   <li>Size ranges (the deprecated {@code Banner.wmin/wmax/hmin/hmax}) are sorted by
+ *   {@code wmin}, so only ranges that start at or before the creative's width are checked.</li>
+ * </ul>
+ *
+ * <p>Each impression also keeps its own sorted sizes and ratios, so {@link #accepts} checks
+ * a single impression with binary searches, without looking at the other impressions.
+ *
+ * <p>Banner impressions that don't declare any size accept all sizes. Non-banner impressions
+ * are not indexed, and never accept a size.
+ *
+ * <p>This class is immutable and threadsafe.
+ */
+public final class FormatIndex {
+  private static final int[] NO_INTS = new int[0];
+
+  private final List<Imp> imps;
+  private final Map<String, Integer> impPositions;
+  private final Map<Long, int[]> exact;
+  private final Map<Long, RatioGroup> ratios;
+  private final int[] rangeWmin;
+  private final int[] rangeWmax;
+  private final int[] rangeHmin;
+  private final int[] rangeHmax;
+  private final int[] rangeImps;
+  private final BitSet unrestricted;
+  private final BitSet banners;
+  private final long[][] impSizes;
+  private final long[][] impRatios;
+  private final int[][] impRatioWmin;
+  private final int[][] impRanges;
+
+  private FormatIndex(BidRequestOrBuilder request) {
+    this.imps = request.getImpList();
+    this.impPositions = new HashMap<>();
+    this.exact = new HashMap<>();
+    this.unrestricted = new BitSet(imps.size());
+    this.banners = new BitSet(imps.size());
+    this.impSizes = new long[imps.size()][];
+    this.impRatios = new long[imps.size()][];
+    this.impRatioWmin = new int[imps.size()][];
+    this.impRanges = new int[imps.size()][];
+    Map<Long, List<long[]>> ratioEntries = new HashMap<>();
+    List<int[]> ranges = new ArrayList<>();
+
+    for (int pos = 0; pos < imps.size(); ++pos) {
+      Imp imp = imps.get(pos);
+      impPositions.putIfAbsent(imp.getId(), pos);
+      if (!imp.hasBanner()) {
+        continue;
+      }
+      banners.set(pos);
+      Banner banner = imp.getBanner();
+      List<Long> sizes = new ArrayList<>();
+      TreeMap<Long, Integer> ratioWmin = new TreeMap<>();
+
+      if (banner.hasW() && banner.hasH()) {
+        addExact(banner.getW(), banner.getH(), pos);
+        sizes.add(sizeKey(banner.getW(), banner.getH()));
+      }
+      for (Banner.Format format : banner.getFormatList()) {
+        if (format.hasW() && format.hasH()) {
+          addExact(format.getW(), format.getH(), pos);
+          sizes.add(sizeKey(format.getW(), format.getH()));
+        } else if (format.getWratio() > 0 && format.getHratio() > 0) {
+          long key = ratioKey(format.getWratio(), format.getHratio());
+          ratioEntries.computeIfAbsent(key, k -> new ArrayList<>())
+              .add(new long[] { format.getWmin(), pos });
+          ratioWmin.merge(key, format.getWmin(), Math::min);
+        }
+      }
+      impRanges[pos] = legacyRange(banner);
+      if (impRanges[pos] != null) {
+        ranges.add(new int[] {
+            impRanges[pos][0], impRanges[pos][1], impRanges[pos][2], impRanges[pos][3], pos });
+      }
+
+      impSizes[pos] = new long[sizes.size()];
+      for (int i = 0; i < sizes.size(); ++i) {
+        impSizes[pos][i] = sizes.get(i);
+      }
+      Arrays.sort(impSizes[pos]);
+      impRatios[pos] = new long[ratioWmin.size()];
+      impRatioWmin[pos] = new int[ratioWmin.size()];
+      int i = 0;
+      for (Map.Entry<Long, Integer> entry : ratioWmin.entrySet()) {
+        impRatios[pos][i] = entry.getKey();
+        impRatioWmin[pos][i++] = entry.getValue();
+      }
+      if (sizes.isEmpty() && ratioWmin.isEmpty() && impRanges[pos] == null) {
+        unrestricted.set(pos);
+      }
+    }
+
+    this.ratios = new HashMap<>();
+    for (Map.Entry<Long, List<long[]>> entry : ratioEntries.entrySet()) {
+      List<long[]> group = entry.getValue();
+      group.sort((e1, e2) -> Long.compare(e1[0], e2[0]));
+      int[] wmin = new int[group.size()];
+      int[] groupImps = new int[group.size()];
+      for (int i = 0; i < wmin.length; ++i) {
+        wmin[i] = (int) group.get(i)[0];
+        groupImps[i] = (int) group.get(i)[1];
+      }
+      ratios.put(entry.getKey(), new RatioGroup(wmin, groupImps));
+    }
+
+    ranges.sort((r1, r2) -> Integer.compare(r1[0], r2[0]));
+    this.rangeWmin = new int[ranges.size()];
+    this.rangeWmax = new int[ranges.size()];
+    this.rangeHmin = new int[ranges.size()];
+    this.rangeHmax = new int[ranges.size()];
+    this.rangeImps = new int[ranges.size()];
+    for (int i = 0; i < ranges.size(); ++i) {
+      int[] range = ranges.get(i);
+      rangeWmin[i] = range[0];
+      rangeWmax[i] = range[1];
+      rangeHmin[i] = range[2];
+      rangeHmax[i] = range[3];
+      rangeImps[i] = range[4];
+    }
+  }
+
+  /**
+   * Creates the index for a request.
+   */
+  public static FormatIndex of(BidRequestOrBuilder request) {
+    return new FormatIndex(request);
+  }
+
+  /**
+   * Finds the impressions that accept a creative with a fixed size.
+   *
+   * @return Matching impressions, in request order
+   */
+  public List<Imp> impsAccepting(int w, int h) {
+    return toImps(accepting(w, h));
+  }
+
+  /**
+   * Finds the impressions that accept a flexible creative with a given aspect ratio.
+   * These are impressions with a {@link Banner.Format} with the same ratio (after reduction,
+   * so 2:1 and 4:2 are the same ratio), or that don't declare any size.
+   *
+   * @return Matching impressions, in request order
+   */
+  public List<Imp> impsAcceptingRatio(int wratio, int hratio) {
+    return toImps(acceptingRatio(wratio, hratio));
+  }
+
+  /**
+   * Checks if a bid's creative size is accepted by an impression.
+   *
+   * @return {@code true} if the impression is a banner that accepts the bid's
+   *     {@code w/h} (or else {@code wratio/hratio}), or if the bid doesn't declare a size
+   */
+  public boolean accepts(String impId, BidOrBuilder bid) {
+    Integer pos = impPositions.get(impId);
+    if (pos == null || !banners.get(pos)) {
+      return false;
+    } else if (unrestricted.get(pos)) {
+      return true;
+    } else if (bid.getW() > 0 && bid.getH() > 0) {
+      return accepts(pos, bid.getW(), bid.getH());
+    } else if (bid.getWratio() > 0 && bid.getHratio() > 0) {
+      return Arrays.binarySearch(impRatios[pos], ratioKey(bid.getWratio(), bid.getHratio())) >= 0;
+    } else {
+      return true;
+    }
+  }
+
+  private boolean accepts(int pos, int w, int h) {
+    if (Arrays.binarySearch(impSizes[pos], sizeKey(w, h)) >= 0) {
+      return true;
+    }
+    int ratio = Arrays.binarySearch(impRatios[pos], ratioKey(w, h));
+    if (ratio >= 0 && impRatioWmin[pos][ratio] <= w) {
+      return true;
+    }
+    int[] range = impRanges[pos];
+    return range != null
+        && w >= range[0] && w <= range[1] && h >= range[2] && h <= range[3];
+  }
+
+  private BitSet accepting(int w, int h) {
+    BitSet matches = (BitSet) unrestricted.clone();
+
+    for (int pos : exact.getOrDefault(sizeKey(w, h), NO_INTS)) {
+      matches.set(pos);
+    }
+
+    if (!ratios.isEmpty() && w > 0 && h > 0) {
+      RatioGroup group = ratios.get(ratioKey(w, h));
+      if (group != null) {
+        for (int i = 0, end = group.upperBound(w); i < end; ++i) {
+          matches.set(group.imps[i]);
+        }
+      }
+    }
+
+    for (int i = 0, end = upperBound(rangeWmin, rangeWmin.length, w); i < end; ++i) {
+      if (w <= rangeWmax[i] && h >= rangeHmin[i] && h <= rangeHmax[i]) {
+        matches.set(rangeImps[i]);
+      }
+    }
+
+    return matches;
+  }
+
+  private BitSet acceptingRatio(int wratio, int hratio) {
+    BitSet matches = (BitSet) unrestricted.clone();
+    if (wratio > 0 && hratio > 0) {
+      RatioGroup group = ratios.get(ratioKey(wratio, hratio));
+      if (group != null) {
+        for (int pos : group.imps) {
+          matches.set(pos);
+        }
+      }
+    }
+    return matches;
+  }
+
+  private List<Imp> toImps(BitSet positions) {
+    if (positions.isEmpty()) {
+      return ImmutableList.of();
+    }
+    ImmutableList.Builder<Imp> matches = ImmutableList.builder();
+    for (int pos = positions.nextSetBit(0); pos >= 0; pos = positions.nextSetBit(pos + 1)) {
+      matches.add(imps.get(pos));
+    }
+    return matches.build();
+  }
+
+  private void addExact(int w, int h, int pos) {
+    exact.merge(sizeKey(w, h), new int[] { pos }, (pos1, pos2) -> Ints.concat(pos1, pos2));
+  }
+
+  /**
+   * Size range of a banner from {@code wmin}, {@code wmax}, {@code hmin} and {@code hmax}, or
+   * {@code null} if it has none. These fields are deprecated since OpenRTB 2.4 in favor of
+   * {@code format}, but exchanges still on older versions of the spec send them, and a bid
+   * must fit them to be accepted.
+   */
+  @SuppressWarnings("deprecation")
+  @Nullable private static int[] legacyRange(Banner banner) {
+    if (!banner.hasWmin() && !banner.hasWmax() && !banner.hasHmin() && !banner.hasHmax()) {
+      return null;
+    }
+    return new int[] {
+        banner.getWmin(),
+        banner.hasWmax() ? banner.getWmax() : Integer.MAX_VALUE,
+        banner.getHmin(),
+        banner.hasHmax() ? banner.getHmax() : Integer.MAX_VALUE };
+  }
+
+  private static long sizeKey(int w, int h) {
+    return ((long) w << 32) | (h & 0xFFFFFFFFL);
+  }
+
+  private static long ratioKey(int wratio, int hratio) {
+    int gcd = IntMath.gcd(wratio, hratio);
+    return sizeKey(wratio / gcd, hratio / gcd);
+  }
+
+  /**
+   * Returns the number of leading elements of the sorted {@code array} that are {@code <= key}.
+   */
+  private static int upperBound(int[] array, int length, int key) {
+    int low = 0;
+    int high = length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (array[mid] <= key) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private static final class RatioGroup {
+    final int[] wmin;
+    final int[] imps;
+
+    RatioGroup(int[] wmin, int[] imps) {
+      this.wmin = wmin;
+      this.imps = imps;
+    }
+
+    int upperBound(int w) {
+      return FormatIndex.upperBound(wmin, wmin.length, w);
+    }
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("exactSizes", exact.size())
+        .add("ratios", ratios.size())
+        .add("ranges", rangeImps.length)
+        .toString();
+  }
+}
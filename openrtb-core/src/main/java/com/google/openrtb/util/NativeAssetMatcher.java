@@ -0,0 +1,480 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.openrtb.OpenRtb.DataAssetType;
+import com.google.openrtb.OpenRtb.ImageAssetType;
+import com.google.openrtb.OpenRtb.NativeRequest;
+import com.google.openrtb.OpenRtb.NativeResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Checks if native creatives satisfy the assets of a {@link NativeRequest}.
+ *
+ * <p>The request is compiled into a requirement vector: a bitmask of the asset kinds
+ * (title, video, image type, data type) of its required assets, and the size and length
+ * constraints of these assets in primitive arrays. Creatives are compiled once into
+ * {@link Capabilities}, with the same bitmask of the kinds they provide. A creative that
+ * doesn't provide all required kinds is rejected with a single mask comparison; otherwise
+ * the constraints are checked with a few int comparisons per required asset.
+ *
+ * <ul>
+ *   <li>Titles: the creative's text length must not exceed {@code Title.len}.</li>
+ *   <li>Images: the type must be the same, unless the requested image has no type; the size
+ *   must be at least {@code wmin x hmin} if either is set, otherwise exactly {@code w x h}
+ *   if both are set.</li>
+ *   <li>Data: the type must be the same, and the value's length must not exceed
+ *   {@code Data.len} if set.</li>
+ *   <li>Video: any video asset is accepted.</li>
+ * </ul>
+ *
+ * <p>{@link #invalidAssets(NativeResponse)} checks a native response, like a bid's
+ * {@code adm_native}, against the request by asset ID, as a validation rule. Response assets
+ * take their kind from the request asset with the same ID, since the specification doesn't
+ * require them to repeat the type: a type is only compared if the response asset has one,
+ * and a missing image size is unknown, so it doesn't fail the size constraints.
+ *
+ * <p>This class is immutable and threadsafe.
+ */
+public final class NativeAssetMatcher {
+  static final int TITLE = 1;
+  static final int IMAGE = 2;
+  static final int VIDEO = 3;
+  static final int DATA = 4;
+
+  private static final int IMAGE_BIT = 2;
+  private static final int MAX_IMAGE_TYPE = 7;
+  private static final int DATA_BIT = IMAGE_BIT + MAX_IMAGE_TYPE + 1;
+  private static final int MAX_DATA_TYPE = 31;
+
+  private final NativeRequest request;
+  private final long requiredBits;
+  // Constraints of all request assets, by position
+  private final int[] ids;
+  private final int[] kinds;
+  private final int[] lengths;
+  private final int[] widths;
+  private final int[] heights;
+  private final int[] minWidths;
+  private final int[] minHeights;
+  private final int[] requiredAssets;
+  private final Map<Integer, Integer> positionsById;
+
+  private NativeAssetMatcher(NativeRequest request) {
+    this.request = request;
+    List<NativeRequest.Asset> assets = request.getAssetsList();
+    int count = assets.size();
+    this.ids = new int[count];
+    this.kinds = new int[count];
+    this.lengths = new int[count];
+    this.widths = new int[count];
+    this.heights = new int[count];
+    this.minWidths = new int[count];
+    this.minHeights = new int[count];
+    this.positionsById = new HashMap<>();
+    int[] requiredAssets = new int[count];
+    int requiredCount = 0;
+    long requiredBits = 0;
+
+    for (int i = 0; i < count; ++i) {
+      NativeRequest.Asset asset = assets.get(i);
+      ids[i] = asset.getId();
+      positionsById.putIfAbsent(asset.getId(), i);
+      switch (asset.getAssetOneofCase()) {
+        case TITLE:
+          kinds[i] = kind(TITLE, 0);
+          lengths[i] = asset.getTitle().getLen();
+          break;
+        case IMG: {
+          NativeRequest.Asset.Image img = asset.getImg();
+          kinds[i] = kind(IMAGE, img.hasType() ? img.getType().getNumber() : 0);
+          widths[i] = img.getW();
+          heights[i] = img.getH();
+          minWidths[i] = img.getWmin();
+          minHeights[i] = img.getHmin();
+          break;
+        }
+        case VIDEO:
+          kinds[i] = kind(VIDEO, 0);
+          break;
+        case DATA:
+          kinds[i] = kind(DATA, asset.getData().getType().getNumber());
+          lengths[i] = asset.getData().getLen();
+          break;
+        default:
+          // Asset without content can't be matched
+          kinds[i] = 0;
+      }
+      if (asset.getRequired()) {
+        requiredAssets[requiredCount++] = i;
+        requiredBits |= bit(kinds[i]);
+      }
+    }
+    this.requiredAssets = Arrays.copyOf(requiredAssets, requiredCount);
+    this.requiredBits = requiredBits;
+  }
+
+  /**
+   * Compiles the requirements of a native request.
+   */
+  public static NativeAssetMatcher of(NativeRequest request) {
+    return new NativeAssetMatcher(checkNotNull(request));
+  }
+
+  /**
+   * Compiles the requirements of a native request, from its cached summary.
+   */
+  public static NativeAssetMatcher of(NativeRequirements requirements) {
+    return of(requirements.request());
+  }
+
+  public NativeRequest request() {
+    return request;
+  }
+
+  /**
+   * Checks if a creative can satisfy all required assets of the request.
+   */
+  public boolean matches(Capabilities creative) {
+    if ((creative.bits & requiredBits) != requiredBits) {
+      return false;
+    }
+    for (int pos : requiredAssets) {
+      if (!creative.satisfies(this, pos)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks a native response against the request's assets, matching its assets by ID.
+   *
+   * @return IDs of response assets that are not in the request or don't satisfy it, followed by
+   *     IDs of required request assets missing from the response. Empty if the response is valid
+   */
+  public List<Integer> invalidAssets(NativeResponse response) {
+    List<Integer> invalid = null;
+    boolean[] present = new boolean[ids.length];
+
+    for (NativeResponse.Asset asset : response.getAssetsList()) {
+      Integer pos = positionsById.get(asset.getId());
+      if (pos != null && satisfies(pos, asset)) {
+        present[pos] = true;
+      } else {
+        if (invalid == null) {
+          invalid = new ArrayList<>();
+        }
+        invalid.add(asset.getId());
+      }
+    }
+
+    for (int pos : requiredAssets) {
+      if (!present[pos]) {
+        if (invalid == null) {
+          invalid = new ArrayList<>();
+        }
+        invalid.add(ids[pos]);
+      }
+    }
+
+    return invalid == null ? ImmutableList.<Integer>of() : invalid;
+  }
+
+  /**
+   * Checks if an asset with a kind, length (for titles and data) and size (for images)
+   * satisfies the request asset in a position.
+   */
+  boolean satisfies(int pos, int kind, int length, int w, int h) {
+    int reqKind = kinds[pos];
+    if (reqKind == 0) {
+      return false;
+    } else if (kind != reqKind && !(reqKind == kind(IMAGE, 0) && category(kind) == IMAGE)) {
+      return false;
+    }
+    return satisfiesConstraints(pos, length, w, h);
+  }
+
+  /**
+   * Checks if a response asset satisfies the request asset with the same ID. The asset must
+   * have the same category; its type is only compared if it has one.
+   */
+  private boolean satisfies(int pos, NativeResponse.Asset asset) {
+    int reqKind = kinds[pos];
+    if (reqKind == 0 || category(reqKind) != category(asset)) {
+      return false;
+    }
+    int reqType = reqKind & 0xFFFF;
+    switch (asset.getAssetOneofCase()) {
+      case IMG:
+        if (asset.getImg().hasType() && reqType != 0
+            && asset.getImg().getType().getNumber() != reqType) {
+          return false;
+        }
+        break;
+      case DATA:
+        if (asset.getData().hasType() && asset.getData().getType().getNumber() != reqType) {
+          return false;
+        }
+        break;
+      default:
+    }
+    return satisfiesConstraints(pos, length(asset), width(asset), height(asset));
+  }
+
+  /**
+   * Checks the length and size constraints of the request asset in a position.
+   * A width or height {@code <= 0} is unknown, and satisfies any constraint on it.
+   */
+  private boolean satisfiesConstraints(int pos, int length, int w, int h) {
+    switch (category(kinds[pos])) {
+      case TITLE:
+      case DATA:
+        return lengths[pos] <= 0 || length <= lengths[pos];
+      case IMAGE:
+        if (minWidths[pos] > 0 || minHeights[pos] > 0) {
+          return (w <= 0 || w >= minWidths[pos]) && (h <= 0 || h >= minHeights[pos]);
+        } else if (widths[pos] > 0 && heights[pos] > 0) {
+          return (w <= 0 || w == widths[pos]) && (h <= 0 || h == heights[pos]);
+        } else {
+          return true;
+        }
+      default:
+        return true;
+    }
+  }
+
+  static int kind(int category, int type) {
+    return category << 16 | type;
+  }
+
+  static int category(int kind) {
+    return kind >>> 16;
+  }
+
+  /**
+   * Bit for an asset kind in requirement and capability masks. Types beyond the bitmask's
+   * range share the last bit, and are told apart by the constraint checks.
+   */
+  static long bit(int kind) {
+    int type = kind & 0xFFFF;
+    switch (category(kind)) {
+      case TITLE:
+        return 1L;
+      case VIDEO:
+        return 1L << 1;
+      case IMAGE:
+        return 1L << (IMAGE_BIT + Math.min(type, MAX_IMAGE_TYPE));
+      case DATA:
+        return 1L << (DATA_BIT + Math.min(type, MAX_DATA_TYPE));
+      default:
+        return 0;
+    }
+  }
+
+  private static int category(NativeResponse.Asset asset) {
+    switch (asset.getAssetOneofCase()) {
+      case TITLE:
+        return TITLE;
+      case IMG:
+        return IMAGE;
+      case VIDEO:
+        return VIDEO;
+      case DATA:
+        return DATA;
+      default:
+        return 0;
+    }
+  }
+
+  private static int kind(NativeResponse.Asset asset) {
+    switch (asset.getAssetOneofCase()) {
+      case TITLE:
+        return kind(TITLE, 0);
+      case IMG:
+        return kind(IMAGE, asset.getImg().hasType() ? asset.getImg().getType().getNumber() : 0);
+      case VIDEO:
+        return kind(VIDEO, 0);
+      case DATA:
+        return kind(DATA, asset.getData().getType().getNumber());
+      default:
+        return 0;
+    }
+  }
+
+  private static int length(NativeResponse.Asset asset) {
+    switch (asset.getAssetOneofCase()) {
+      case TITLE:
+        return codePoints(asset.getTitle().getText());
+      case DATA:
+        return codePoints(asset.getData().getValue());
+      default:
+        return 0;
+    }
+  }
+
+  private static int width(NativeResponse.Asset asset) {
+    return asset.hasImg() ? asset.getImg().getW() : 0;
+  }
+
+  private static int height(NativeResponse.Asset asset) {
+    return asset.hasImg() ? asset.getImg().getH() : 0;
+  }
+
+  private static int codePoints(String s) {
+    return s.codePointCount(0, s.length());
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("assets", ids.length)
+        .add("required", requiredAssets.length)
+        .add("requiredBits", Long.toHexString(requiredBits))
+        .toString();
+  }
+
+  /**
+   * The assets a native creative can provide, compiled once per creative.
+   *
+   * <p>This class is immutable and threadsafe.
+   */
+  public static final class Capabilities {
+    final long bits;
+    final int[] kinds;
+    final int[] lengths;
+    final int[] widths;
+    final int[] heights;
+
+    private Capabilities(Builder builder) {
+      this.bits = builder.bits;
+      int count = builder.count;
+      this.kinds = Arrays.copyOf(builder.kinds, count);
+      this.lengths = Arrays.copyOf(builder.lengths, count);
+      this.widths = Arrays.copyOf(builder.widths, count);
+      this.heights = Arrays.copyOf(builder.heights, count);
+    }
+
+    public static Builder builder() {
+      return new Builder();
+    }
+
+    /**
+     * Compiles the capabilities of a creative from its native markup.
+     */
+    public static Capabilities of(NativeResponse creative) {
+      Builder builder = builder();
+      for (NativeResponse.Asset asset : creative.getAssetsList()) {
+        int kind = kind(asset);
+        if (kind != 0) {
+          builder.add(kind, length(asset), width(asset), height(asset));
+        }
+      }
+      return builder.build();
+    }
+
+    boolean satisfies(NativeAssetMatcher matcher, int pos) {
+      for (int i = 0; i < kinds.length; ++i) {
+        if (matcher.satisfies(pos, kinds[i], lengths[i], widths[i], heights[i])) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("assets", kinds.length)
+          .add("bits", Long.toHexString(bits))
+          .toString();
+    }
+
+    /**
+     * Builder for {@link Capabilities}.
+     */
+    public static final class Builder {
+      private long bits;
+      private int count;
+      private int[] kinds = new int[8];
+      private int[] lengths = new int[8];
+      private int[] widths = new int[8];
+      private int[] heights = new int[8];
+
+      private Builder() {
+      }
+
+      /**
+       * Adds a title, with the length of its text.
+       */
+      public Builder title(int length) {
+        return add(kind(TITLE, 0), length, 0, 0);
+      }
+
+      /**
+       * Adds an image.
+       *
+       * @param type Image type, or {@code null} if unspecified
+       */
+      public Builder image(@Nullable ImageAssetType type, int w, int h) {
+        return add(kind(IMAGE, type == null ? 0 : type.getNumber()), 0, w, h);
+      }
+
+      /**
+       * Adds a data asset, with the length of its value.
+       */
+      public Builder data(DataAssetType type, int length) {
+        return add(kind(DATA, type.getNumber()), length, 0, 0);
+      }
+
+      public Builder video() {
+        return add(kind(VIDEO, 0), 0, 0, 0);
+      }
+
+      private Builder add(int kind, int length, int w, int h) {
+        if (count == kinds.length) {
+          kinds = Arrays.copyOf(kinds, count * 2);
+          lengths = Arrays.copyOf(lengths, count * 2);
+          widths = Arrays.copyOf(widths, count * 2);
+          heights = Arrays.copyOf(heights, count * 2);
+        }
+        kinds[count] = kind;
+        lengths[count] = length;
+        widths[count] = w;
+        heights[count] = h;
+        ++count;
+        bits |= bit(kind);
+        // Typed images also satisfy requests for images of any type
+        if (category(kind) == IMAGE) {
+          bits |= bit(kind(IMAGE, 0));
+        }
+        return this;
+      }
+
+      public Capabilities build() {
+        return new Capabilities(this);
+      }
+    }
+  }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.NativeRequest;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Bounded cache of parsed {@link NativeRequest}s and their {@link NativeRequirements},
+ * keyed by a 128-bit hash of their contents. Publishers send the same native request on
+ * nearly every impression of a placement, so the request is only decoded and summarized
+ * the first time it's seen.
+ *
+ * <p>Native requests in {@code Imp.Native.request} strings are decoded by a {@link Decoder},
+ * typically a JSON reader such as
+ * {@code json -> jsonReader.readNativeRequest(json.getBytes(UTF_8))}. Requests already
+ * decoded to {@code Imp.Native.request_native} are only summarized, keyed by their
+ * serialized bytes. Serializing is avoided for a request instance already seen, with a first
+ * level keyed by identity (with weak references); but each new instance is serialized once, so
+ * callers that have the original {@code request} string should rather pass that.
+ *
+ * <p>Metrics: gauges {@code hit-rate}, {@code hits}, {@code misses}, {@code evictions}
+ * and {@code size}. Gauges are created by the first cache that uses a {@link MetricRegistry};
+ * other caches with the same registry don't replace them.
+ *
+ * <p>This class is threadsafe.
+ */
+public final class NativeRequestCache {
+  private static final HashFunction HASH = Hashing.murmur3_128();
+  private static final byte STRING_KEY = 1;
+  private static final byte MESSAGE_KEY = 2;
+
+  private final Decoder decoder;
+  private final Cache<HashCode, NativeRequirements> cache;
+  private final Cache<NativeRequest, NativeRequirements> byInstance;
+
+  private NativeRequestCache(Builder builder) {
+    this.decoder = builder.decoder;
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(builder.maximumSize)
+        .recordStats()
+        .build();
+    this.byInstance = CacheBuilder.newBuilder()
+        .maximumSize(builder.maximumSize)
+        .weakKeys()
+        .recordStats()
+        .build();
+
+    MetricRegistry metricRegistry = builder.metricRegistry;
+    metricRegistry.gauge(MetricRegistry.name(NativeRequestCache.class, "hit-rate"),
+        () -> (Gauge<Double>) this::hitRate);
+    metricRegistry.gauge(MetricRegistry.name(NativeRequestCache.class, "hits"),
+        () -> (Gauge<Long>) this::hitCount);
+    metricRegistry.gauge(MetricRegistry.name(NativeRequestCache.class, "misses"),
+        () -> (Gauge<Long>) () -> cache.stats().missCount());
+    metricRegistry.gauge(MetricRegistry.name(NativeRequestCache.class, "evictions"),
+        () -> (Gauge<Long>) () -> cache.stats().evictionCount());
+    metricRegistry.gauge(MetricRegistry.name(NativeRequestCache.class, "size"),
+        () -> (Gauge<Long>) cache::size);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns the requirements for a native impression, from either its
+   * {@code request_native} or its {@code request} string.
+   *
+   * @throws IOException if the {@code request} string can't be decoded
+   */
+  public NativeRequirements get(Imp.Native nativeImp) throws IOException {
+    return nativeImp.hasRequestNative()
+        ? get(nativeImp.getRequestNative())
+        : get(nativeImp.getRequest());
+  }
+
+  /**
+   * Returns the requirements for a native request string, decoding it if not cached.
+   *
+   * @throws IOException if the string can't be decoded; failures are not cached
+   */
+  public NativeRequirements get(String request) throws IOException {
+    HashCode key = HASH.newHasher()
+        .putByte(STRING_KEY)
+        .putUnencodedChars(request)
+        .hash();
+    return get(key, () -> decoder.decode(request));
+  }
+
+  /**
+   * Returns the requirements for a decoded native request. The request is only serialized,
+   * to look up its contents, the first time this instance is seen.
+   */
+  public NativeRequirements get(NativeRequest request) {
+    NativeRequirements requirements = byInstance.getIfPresent(request);
+    if (requirements != null) {
+      return requirements;
+    }
+    HashCode key = HASH.newHasher()
+        .putByte(MESSAGE_KEY)
+        .putBytes(request.toByteArray())
+        .hash();
+    try {
+      requirements = get(key, () -> request);
+    } catch (IOException e) {
+      // Not possible, no decoding
+      throw new IllegalStateException(e);
+    }
+    byInstance.put(request, requirements);
+    return requirements;
+  }
+
+  private NativeRequirements get(HashCode key, Callable<NativeRequest> decode)
+      throws IOException {
+    try {
+      return cache.get(key, () -> NativeRequirements.of(decode.call()));
+    } catch (ExecutionException e) {
+      Throwables.throwIfInstanceOf(e.getCause(), IOException.class);
+      throw new IOException(e.getCause());
+    }
+  }
+
+  /**
+   * Discards all cached requests.
+   */
+  public void invalidateAll() {
+    cache.invalidateAll();
+    byInstance.invalidateAll();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  /**
+   * Lookups that found the requirements cached, by request instance or by contents.
+   */
+  public long hitCount() {
+    return cache.stats().hitCount() + byInstance.stats().hitCount();
+  }
+
+  public double hitRate() {
+    long hits = hitCount();
+    long lookups = hits + cache.stats().missCount();
+    return lookups == 0 ? 1.0 : (double) hits / lookups;
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("size", cache.size())
+        .add("stats", cache.stats())
+        .toString();
+  }
+
+  /**
+   * Decodes native request strings, on a cache miss.
+   */
+  public interface Decoder {
+    NativeRequest decode(String request) throws IOException;
+  }
+
+  /**
+   * Builder for {@link NativeRequestCache}.
+   */
+  public static final class Builder {
+    private Decoder decoder = request -> {
+      throw new IOException("No decoder for native request strings");
+    };
+    private MetricRegistry metricRegistry = new MetricRegistry();
+    private long maximumSize = 1_000;
+
+    private Builder() {
+    }
+
+    /**
+     * Sets the decoder for {@code Imp.Native.request} strings. Without a decoder,
+     * only {@code request_native} is supported.
+     */
+    public Builder decoder(Decoder decoder) {
+      this.decoder = checkNotNull(decoder);
+      return this;
+    }
+
+    public Builder metricRegistry(MetricRegistry metricRegistry) {
+      this.metricRegistry = checkNotNull(metricRegistry);
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of cached native requests. Default is 1,000.
+     */
+    public Builder maximumSize(long maximumSize) {
+      checkArgument(maximumSize > 0, "maximumSize: %s", maximumSize);
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    public NativeRequestCache build() {
+      return new NativeRequestCache(this);
+    }
+  }
+}
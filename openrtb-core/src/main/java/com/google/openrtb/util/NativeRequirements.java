@@ -0,0 +1,307 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.openrtb.OpenRtb.DataAssetType;
+import com.google.openrtb.OpenRtb.EventType;
+import com.google.openrtb.OpenRtb.ImageAssetType;
+import com.google.openrtb.OpenRtb.NativeRequest;
+import com.google.openrtb.OpenRtb.NativeRequest.Asset;
+import com.google.openrtb.OpenRtb.NativeRequest.Asset.Image;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Summary of the assets requested by a {@link NativeRequest}, precomputed for fast matching
+ * of native creatives: the title length, image sizes by {@link ImageAssetType}, the data
+ * assets' {@link DataAssetType}s, and which of these assets are required.
+ *
+ * <p>This class is immutable and threadsafe.
+ */
+public final class NativeRequirements {
+  private final NativeRequest request;
+  private final int titleLength;
+  private final boolean titleRequired;
+  private final ImmutableList<ImageRequirement> images;
+  private final ImmutableListMultimap<ImageAssetType, ImageRequirement> imagesByType;
+  private final ImmutableSet<DataAssetType> dataTypes;
+  private final ImmutableSet<DataAssetType> requiredDataTypes;
+  private final ImmutableMap<DataAssetType, Integer> dataLengths;
+  private final boolean video;
+  private final boolean videoRequired;
+  private final ImmutableSet<EventType> eventTypes;
+  private final int requiredAssetCount;
+
+  private NativeRequirements(NativeRequest request) {
+    this.request = request;
+    int titleLength = 0;
+    boolean titleRequired = false;
+    ImmutableList.Builder<ImageRequirement> images = ImmutableList.builder();
+    ImmutableListMultimap.Builder<ImageAssetType, ImageRequirement> imagesByType =
+        ImmutableListMultimap.builder();
+    ImmutableSet.Builder<DataAssetType> dataTypes = ImmutableSet.builder();
+    ImmutableSet.Builder<DataAssetType> requiredDataTypes = ImmutableSet.builder();
+    Map<DataAssetType, Integer> dataLengths = new HashMap<>();
+    boolean video = false;
+    boolean videoRequired = false;
+    int requiredAssetCount = 0;
+
+    for (Asset asset : request.getAssetsList()) {
+      if (asset.getRequired()) {
+        ++requiredAssetCount;
+      }
+      switch (asset.getAssetOneofCase()) {
+        case TITLE:
+          titleLength = Math.max(titleLength, asset.getTitle().getLen());
+          titleRequired |= asset.getRequired();
+          break;
+        case IMG: {
+          ImageRequirement image = new ImageRequirement(asset);
+          images.add(image);
+          if (image.type() != null) {
+            imagesByType.put(image.type(), image);
+          }
+          break;
+        }
+        case DATA: {
+          DataAssetType type = asset.getData().getType();
+          dataTypes.add(type);
+          if (asset.getRequired()) {
+            requiredDataTypes.add(type);
+          }
+          // Zero (no limit) wins over any limit
+          int len = asset.getData().getLen();
+          dataLengths.merge(type, len, (len1, len2) ->
+              len1 == 0 || len2 == 0 ? 0 : Math.max(len1, len2));
+          break;
+        }
+        case VIDEO:
+          video = true;
+          videoRequired |= asset.getRequired();
+          break;
+        default:
+      }
+    }
+
+    ImmutableSet.Builder<EventType> eventTypes = ImmutableSet.builder();
+    for (NativeRequest.EventTrackers tracker : request.getEventtrackersList()) {
+      eventTypes.add(tracker.getEvent());
+    }
+
+    this.titleLength = titleLength;
+    this.titleRequired = titleRequired;
+    this.images = images.build();
+    this.imagesByType = imagesByType.build();
+    this.dataTypes = dataTypes.build();
+    this.requiredDataTypes = requiredDataTypes.build();
+    this.dataLengths = ImmutableMap.copyOf(dataLengths);
+    this.video = video;
+    this.videoRequired = videoRequired;
+    this.eventTypes = eventTypes.build();
+    this.requiredAssetCount = requiredAssetCount;
+  }
+
+  /**
+   * Computes the requirements of a native request.
+   */
+  public static NativeRequirements of(NativeRequest request) {
+    return new NativeRequirements(checkNotNull(request));
+  }
+
+  public NativeRequest request() {
+    return request;
+  }
+
+  /**
+   * Maximum length of the title, or 0 if the request has no title asset. If there are
+   * multiple title assets, this is the largest length.
+   */
+  public int titleLength() {
+    return titleLength;
+  }
+
+  public boolean hasTitle() {
+    return titleLength > 0;
+  }
+
+  public boolean titleRequired() {
+    return titleRequired;
+  }
+
+  /**
+   * All image assets, in request order.
+   */
+  public ImmutableList<ImageRequirement> images() {
+    return images;
+  }
+
+  /**
+   * Image assets of a type. Image assets without a type are only included in {@link #images()}.
+   */
+  public ImmutableList<ImageRequirement> images(ImageAssetType type) {
+    return imagesByType.get(type);
+  }
+
+  /**
+   * Types of all data assets.
+   */
+  public ImmutableSet<DataAssetType> dataTypes() {
+    return dataTypes;
+  }
+
+  /**
+   * Types of the required data assets.
+   */
+  public ImmutableSet<DataAssetType> requiredDataTypes() {
+    return requiredDataTypes;
+  }
+
+  /**
+   * Maximum length for a data asset type, or 0 if unlimited or not requested.
+   */
+  public int dataLength(DataAssetType type) {
+    return dataLengths.getOrDefault(type, 0);
+  }
+
+  public boolean hasVideo() {
+    return video;
+  }
+
+  public boolean videoRequired() {
+    return videoRequired;
+  }
+
+  /**
+   * Event types of the requested event trackers.
+   */
+  public ImmutableSet<EventType> eventTypes() {
+    return eventTypes;
+  }
+
+  public int requiredAssetCount() {
+    return requiredAssetCount;
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("titleLength", titleLength)
+        .add("images", images.size())
+        .add("dataTypes", dataTypes)
+        .add("video", video)
+        .add("requiredAssets", requiredAssetCount)
+        .toString();
+  }
+
+  /**
+   * Size and format requirements of an image asset.
+   */
+  public static final class ImageRequirement {
+    private final int assetId;
+    private final boolean required;
+    @Nullable private final ImageAssetType type;
+    private final int w;
+    private final int h;
+    private final int wmin;
+    private final int hmin;
+    private final ImmutableList<String> mimes;
+
+    ImageRequirement(Asset asset) {
+      Image img = asset.getImg();
+      this.assetId = asset.getId();
+      this.required = asset.getRequired();
+      this.type = img.hasType() ? img.getType() : null;
+      this.w = img.getW();
+      this.h = img.getH();
+      this.wmin = img.getWmin();
+      this.hmin = img.getHmin();
+      this.mimes = ImmutableList.copyOf(img.getMimesList());
+    }
+
+    public int assetId() {
+      return assetId;
+    }
+
+    public boolean required() {
+      return required;
+    }
+
+    /**
+     * Image type, or {@code null} if not specified.
+     */
+    @Nullable public ImageAssetType type() {
+      return type;
+    }
+
+    public int w() {
+      return w;
+    }
+
+    public int h() {
+      return h;
+    }
+
+    public int wmin() {
+      return wmin;
+    }
+
+    public int hmin() {
+      return hmin;
+    }
+
+    public ImmutableList<String> mimes() {
+      return mimes;
+    }
+
+    /**
+     * Checks if an image size is accepted: at least {@code wmin x hmin} if either is set,
+     * otherwise exactly {@code w x h} if both are set, otherwise any size.
+     */
+    public boolean accepts(int imageW, int imageH) {
+      if (wmin > 0 || hmin > 0) {
+        return imageW >= wmin && imageH >= hmin;
+      } else if (w > 0 && h > 0) {
+        return imageW == w && imageH == h;
+      } else {
+        return true;
+      }
+    }
+
+    /**
+     * Checks if an image MIME type is accepted. All types are accepted if none is specified.
+     */
+    public boolean acceptsMime(String mime) {
+      return mimes.isEmpty() || mimes.contains(mime);
+    }
+
+    @Override public String toString() {
+      return MoreObjects.toStringHelper(this).omitNullValues()
+          .add("assetId", assetId)
+          .add("type", type)
+          .add("size", wmin > 0 || hmin > 0 ? wmin + "x" + hmin + "+" : w + "x" + h)
+          .add("required", required)
+          .toString();
+    }
+  }
+}
@@ -292,7 +292,14 @@ public final class OpenRtbUtils {
     return updated;
   }
 
-  private static boolean removeBids(SeatBid.Builder seatbid, Predicate<Bid.Builder> filter) {
+  /**
+   * Remove bids from a seat.
+   *
+   * @param filter Returns {@code true} to keep bid, {@code false} to remove
+   * @return {@code true} if any bid was removed
+   */
+  public static boolean removeBids(SeatBid.Builder seatbid, Predicate<Bid.Builder> filter) {
+    checkNotNull(filter);
     List<Bid.Builder> oldBids = seatbid.getBidBuilderList();
     Iterable<Bid.Builder> newBids = ProtoUtils.filter(oldBids, filter);
     if (newBids == oldBids) {
@@ -24,11 +24,15 @@ import com.google.openrtb.OpenRtb.BidRequest;
 import com.google.openrtb.OpenRtb.BidRequest.Imp;
 import com.google.openrtb.OpenRtb.BidRequest.Imp.Banner;
 import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid;
 import com.google.openrtb.OpenRtb.BidResponse.SeatBid.Bid;
 import com.google.openrtb.OpenRtb.CreativeAttribute;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.slf4j.Logger;
@@ -39,7 +43,12 @@ import org.slf4j.LoggerFactory;
  * {@link com.google.openrtb.OpenRtb.BidResponse.Builder}.
  * Bids with any validation problems will cause debug logs and metric updates.
  * Fatal validation errors (that would likely cause the bid to be rejected by the exchange)
- * will also be removed from the response.
+ * will also be removed from the response. Seats with {@code group=1} must win all-or-nothing,
+ * so they are removed entirely if any of their bids is removed.
+ *
+ * <p>Native bids with {@code adm_native} are checked by a {@link NativeAssetMatcher} against
+ * the impression's {@code request_native}; native requests only available as strings
+ * are not checked.
  *
  * <p>This class is threadsafe. Recommended use is as a singleton, but you may also want to create
  * multiple instances if you need to keep track of metrics separately for different uses
@@ -52,22 +61,87 @@ public class OpenRtbValidator {
   private final Counter unmatchedImp = new Counter();
   private final Counter invalidCreatAttr = new Counter();
   private final Counter invalidAdv = new Counter();
+  private final Counter sizeMismatch = new Counter();
+  private final Counter invalidDeal = new Counter();
+  private final Counter belowDealFloor = new Counter();
+  private final Counter groupDropped = new Counter();
+  private final Counter invalidNative = new Counter();
+  @Nullable private final CurrencyConverter currencyConverter;
+  private final ThreadLocal<RequestIndexes> currentIndexes = new ThreadLocal<>();
 
   @Inject
   public OpenRtbValidator(MetricRegistry metricRegistry) {
+    this(metricRegistry, null);
+  }
+
+  /**
+   * Creates a validator that converts currencies for floor checks. Without a converter,
+   * floors are compared to bid prices as if they had the same currency.
+   */
+  public OpenRtbValidator(
+      MetricRegistry metricRegistry, @Nullable CurrencyConverter currencyConverter) {
+    this.currencyConverter = currencyConverter;
     metricRegistry.register(MetricRegistry.name(getClass(), "unmatched-imp"),
         unmatchedImp);
     metricRegistry.register(MetricRegistry.name(getClass(), "invalid-creative-attr"),
         invalidCreatAttr);
     metricRegistry.register(MetricRegistry.name(getClass(), "invalid-advertiser"),
         invalidAdv);
+    metricRegistry.register(MetricRegistry.name(getClass(), "size-mismatch"),
+        sizeMismatch);
+    metricRegistry.register(MetricRegistry.name(getClass(), "invalid-deal"),
+        invalidDeal);
+    metricRegistry.register(MetricRegistry.name(getClass(), "below-deal-floor"),
+        belowDealFloor);
+    metricRegistry.register(MetricRegistry.name(getClass(), "group-dropped-bids"),
+        groupDropped);
+    metricRegistry.register(MetricRegistry.name(getClass(), "invalid-native"),
+        invalidNative);
   }
 
   public boolean validate(BidRequest request, BidResponse.Builder response) {
-    return !OpenRtbUtils.removeBids(response, bid -> validate(request, bid));
+    RequestIndexes indexes =
+        new RequestIndexes(request, CurrencyConverter.responseCurrency(response));
+    RequestIndexes previous = currentIndexes.get();
+    currentIndexes.set(indexes);
+    boolean updated = false;
+
+    try {
+      for (int i = 0; i < response.getSeatbidCount(); ) {
+        SeatBid.Builder seatbid = response.getSeatbidBuilder(i);
+        if (!seatbid.getGroup()) {
+          updated |= OpenRtbUtils.removeBids(seatbid, bid -> validate(request, bid));
+          ++i;
+        } else if (validateGroup(indexes, seatbid)) {
+          ++i;
+        } else {
+          response.removeSeatbid(i);
+          updated = true;
+        }
+      }
+    } finally {
+      currentIndexes.set(previous);
+    }
+
+    return !updated;
   }
 
+  /**
+   * Validates a single bid. This is also called for each bid of a response, so it can be
+   * overridden to add rules. The request's lookup structures are shared with the response
+   * being validated; a standalone call builds them for this bid only, and assumes the bid's
+   * currency is {@link CurrencyConverter#DEFAULT_CURRENCY}.
+   */
   public boolean validate(BidRequest request, Bid.Builder bid) {
+    RequestIndexes indexes = currentIndexes.get();
+    if (indexes == null || indexes.request() != request) {
+      indexes = new RequestIndexes(request, CurrencyConverter.DEFAULT_CURRENCY);
+    }
+    return validate(indexes, bid);
+  }
+
+  private boolean validate(RequestIndexes indexes, Bid.Builder bid) {
+    BidRequest request = indexes.request();
     Imp imp = OpenRtbUtils.impWithId(request, bid.getImpid());
     if (imp == null) {
       unmatchedImp.inc();
@@ -87,8 +161,17 @@ public class OpenRtbValidator {
       goodBid = false;
     }
 
+    if (bid.hasDealid()) {
+      goodBid &= validateDeal(bid, indexes);
+    }
+
     if (imp.hasBanner()) {
       goodBid &= validateCreats(bid, check(imp.getBanner().getBattrList(), bid.getAttrList()));
+      // Without a markup type, a bid for a multi-format impression may be a video, audio or
+      // native creative whose size has nothing to do with the banner formats.
+      if (!imp.hasVideo() && !imp.hasAudio() && !imp.hasNative()) {
+        goodBid &= validateSize(bid, indexes);
+      }
     }
 
     if (imp.hasVideo()) {
@@ -101,9 +184,32 @@ public class OpenRtbValidator {
       goodBid &= validateCompanions(bid, imp.getAudio().getCompanionadList());
     }
 
+    if (imp.hasNative() && bid.hasAdmNative()) {
+      goodBid &= validateNative(bid, indexes.nativeMatcher(imp));
+    }
+
     return goodBid;
   }
 
+  /**
+   * Validates the bids of a seat with {@code group=1}, stopping at the first invalid bid.
+   *
+   * @return {@code true} if all bids are valid, {@code false} if the whole seat must be removed
+   */
+  private boolean validateGroup(RequestIndexes indexes, SeatBid.Builder seatbid) {
+    List<Bid.Builder> bids = seatbid.getBidBuilderList();
+    for (Bid.Builder bid : bids) {
+      if (!validate(indexes.request(), bid)) {
+        if (logger.isDebugEnabled()) {
+          logger.debug("Seat {} rejected, grouped with rejected {}", seatbid.getSeat(), logId(bid));
+        }
+        groupDropped.inc(bids.size() - 1);
+        return false;
+      }
+    }
+    return true;
+  }
+
   protected boolean validateCreats(Bid.Builder bid, List<CreativeAttribute> badCreats) {
     if (badCreats.isEmpty()) {
       return true;
@@ -116,6 +222,46 @@ public class OpenRtbValidator {
     return false;
   }
 
+  private boolean validateDeal(Bid.Builder bid, RequestIndexes indexes) {
+    DealIndex.ImpDeal impDeal = indexes.deals().deal(bid.getImpid(), bid.getDealid());
+    if (impDeal == null) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("{} rejected, deal not offered by impression: {}", logId(bid),
+            bid.getDealid());
+      }
+      invalidDeal.inc();
+      return false;
+    } else if (currencyConverter == null
+        ? bid.getPrice() < impDeal.floor()
+        : !currencyConverter.clears(bid.getPrice(), indexes.currency(),
+            impDeal.floor(), impDeal.floorCurrency())) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("{} rejected, price {} {} below floor {} {} for deal {}", logId(bid),
+            bid.getPrice(), indexes.currency(), impDeal.floor(), impDeal.floorCurrency(),
+            bid.getDealid());
+      }
+      belowDealFloor.inc();
+      return false;
+    }
+    return true;
+  }
+
+  private boolean validateSize(Bid.Builder bid, RequestIndexes indexes) {
+    if (bid.getW() <= 0 && bid.getWratio() <= 0) {
+      return true;
+    }
+    if (indexes.formats().accepts(bid.getImpid(), bid)) {
+      return true;
+    }
+
+    if (logger.isDebugEnabled()) {
+      logger.debug("{} rejected, size not accepted by impression: {}", logId(bid),
+          bid.getW() > 0 ? bid.getW() + "x" + bid.getH() : bid.getWratio() + ":" + bid.getHratio());
+    }
+    sizeMismatch.inc();
+    return false;
+  }
+
   protected boolean validateCompanions(Bid.Builder bid, List<Banner> companions) {
     for (Banner companion : companions) {
       List<CreativeAttribute> badCompCreats =
@@ -132,6 +278,22 @@ public class OpenRtbValidator {
     return true;
   }
 
+  protected boolean validateNative(Bid.Builder bid, @Nullable NativeAssetMatcher matcher) {
+    if (matcher == null) {
+      return true;
+    }
+    List<Integer> badAssets = matcher.invalidAssets(bid.getAdmNative());
+    if (badAssets.isEmpty()) {
+      return true;
+    }
+
+    if (logger.isDebugEnabled()) {
+      logger.debug("{} rejected, invalid or missing native assets: {}", logId(bid), badAssets);
+    }
+    invalidNative.inc();
+    return false;
+  }
+
   protected static String logId(Bid.Builder bid) {
     if (bid.hasId()) {
       return "Bid " + bid.getId();
@@ -162,4 +324,61 @@ public class OpenRtbValidator {
 
     return bad == null ? ImmutableList.<T>of() : bad;
   }
+
+  /**
+   * Lookup structures for a request, built lazily and shared by the validation
+   * of all bids from the same response.
+   */
+  private static final class RequestIndexes {
+    private final BidRequest request;
+    private final String currency;
+    private FormatIndex formats;
+    private DealIndex deals;
+    private Map<String, NativeAssetMatcher> nativeMatchers;
+
+    RequestIndexes(BidRequest request, String currency) {
+      this.request = request;
+      this.currency = currency;
+    }
+
+    BidRequest request() {
+      return request;
+    }
+
+    /**
+     * Currency of the bids being validated.
+     */
+    String currency() {
+      return currency;
+    }
+
+    FormatIndex formats() {
+      if (formats == null) {
+        formats = FormatIndex.of(request);
+      }
+      return formats;
+    }
+
+    DealIndex deals() {
+      if (deals == null) {
+        deals = DealIndex.of(request);
+      }
+      return deals;
+    }
+
+    /**
+     * Matcher for a native impression's {@code request_native}, or {@code null} if the
+     * impression doesn't have it.
+     */
+    @Nullable NativeAssetMatcher nativeMatcher(Imp imp) {
+      if (!imp.getNative().hasRequestNative()) {
+        return null;
+      }
+      if (nativeMatchers == null) {
+        nativeMatchers = new HashMap<>();
+      }
+      return nativeMatchers.computeIfAbsent(imp.getId(),
+          id -> NativeAssetMatcher.of(imp.getNative().getRequestNative()));
+    }
+  }
 }
@@ -0,0 +1,366 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Longs;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.WireFormat;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Computes stable 64-bit or 128-bit fingerprints of {@link BidRequest}s, so identical
+ * inventory can be recognized across requests, e.g. to detect retries or to cache decisions.
+ *
+ * <p>The request is serialized once, and its top-level fields are hashed directly from
+ * the wire format, without walking messages by reflection. Each field can be:
+ * <ul>
+ *   <li>Ignored. By default, the volatile fields {@code id}, {@code tmax} and {@code source}
+ *   (which contains the transaction ID) are ignored.</li>
+ *   <li>Unordered (the default for repeated fields like {@code imp} or {@code bcat}): each
+ *   element is hashed separately and combined by addition, so the order of elements doesn't
+ *   change the fingerprint.</li>
+ *   <li>Ordered (the default for non-repeated fields): bytes are hashed in sequence.</li>
+ * </ul>
+ *
+ * <p>Nested messages (like {@code imp} or {@code device}) are hashed from their serialized
+ * bytes, so the order of their own repeated fields is significant. Fields of nested messages
+ * can also be ignored by their path (like {@code device.ip}), see
+ * {@link Builder#ignorePath(int...)}: messages on such paths are hashed field by field, and
+ * are left out of the fingerprint if they only have ignored fields. Fingerprints are stable
+ * across processes and versions of this library, as long as the proto schema is the same;
+ * they are not cryptographic.
+ *
+ * <p>This class is immutable and threadsafe.
+ */
+public final class RequestFingerprinter {
+  /** Ignores {@code id}, {@code tmax} and {@code source}; all repeated fields unordered. */
+  public static final RequestFingerprinter DEFAULT = builder().build();
+
+  private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+  private static final ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[4096]);
+
+  private final HashFunction hashFunction;
+  private final BitSet ignored;
+  private final BitSet unordered;
+  private final boolean includeOnly;
+  private final Map<Integer, NestedFields> nested;
+
+  private RequestFingerprinter(Builder builder) {
+    this.hashFunction = Hashing.murmur3_128(builder.seed);
+    this.ignored = (BitSet) builder.fields.clone();
+    this.includeOnly = builder.includeOnly;
+    this.unordered = (BitSet) builder.unordered.clone();
+    this.nested = NestedFields.copyOf(builder.nested);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Computes a 64-bit fingerprint: the first 8 bytes of {@link #fingerprint128(BidRequest)}.
+   */
+  public long fingerprint(BidRequest request) {
+    return fingerprint128(request).asLong();
+  }
+
+  /**
+   * Computes a 128-bit fingerprint.
+   */
+  public HashCode fingerprint128(BidRequest request) {
+    int size = request.getSerializedSize();
+    byte[] buffer = buffers.get();
+    if (buffer.length < size) {
+      buffer = new byte[size];
+      if (size <= MAX_RETAINED_BUFFER) {
+        buffers.set(buffer);
+      }
+    }
+
+    try {
+      CodedOutputStream output = CodedOutputStream.newInstance(buffer, 0, size);
+      request.writeTo(output);
+      output.checkNoSpaceLeft();
+      return hash(buffer, size);
+    } catch (IOException e) {
+      // Not possible when reading/writing an array of the exact serialized size
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private HashCode hash(byte[] buffer, int size) throws IOException {
+    Hasher ordered = hashFunction.newHasher();
+    long unorderedLow = 0;
+    long unorderedHigh = 0;
+    int unorderedCount = 0;
+
+    CodedInputStream input = CodedInputStream.newInstance(buffer, 0, size);
+    while (true) {
+      int start = input.getTotalBytesRead();
+      int tag = input.readTag();
+      if (tag == 0) {
+        break;
+      }
+      input.skipField(tag);
+      int fieldNumber = tag >>> 3;
+      if (isIgnored(fieldNumber)) {
+        continue;
+      }
+      int length = input.getTotalBytesRead() - start;
+      NestedFields fieldNested = nestedFields(nested, tag);
+      HashCode nestedHash = null;
+      if (fieldNested != null) {
+        nestedHash = hashNested(buffer, start, length, tag, fieldNested);
+        if (nestedHash == null) {
+          continue;
+        }
+      }
+      if (fieldNumber < unordered.length() && unordered.get(fieldNumber)) {
+        byte[] element = nestedHash == null
+            ? hashFunction.hashBytes(buffer, start, length).asBytes()
+            : nestedHash.asBytes();
+        unorderedLow += Longs.fromBytes(element[7], element[6], element[5], element[4],
+            element[3], element[2], element[1], element[0]);
+        unorderedHigh += Longs.fromBytes(element[15], element[14], element[13], element[12],
+            element[11], element[10], element[9], element[8]);
+        ++unorderedCount;
+      } else if (nestedHash == null) {
+        ordered.putBytes(buffer, start, length);
+      } else {
+        ordered.putBytes(nestedHash.asBytes());
+      }
+    }
+
+    return ordered
+        .putInt(unorderedCount)
+        .putLong(unorderedLow)
+        .putLong(unorderedHigh)
+        .hash();
+  }
+
+  /**
+   * Hashes a message field (tag, length and content) without the nested fields it ignores.
+   *
+   * @return The hash, or {@code null} if the message only has ignored fields
+   */
+  @Nullable private HashCode hashNested(byte[] buffer, int start, int length, int tag,
+      NestedFields fields) throws IOException {
+    CodedInputStream input = CodedInputStream.newInstance(buffer, start, length);
+    input.readTag();
+    int contentLength = input.readRawVarint32();
+    int contentStart = start + input.getTotalBytesRead();
+    input = CodedInputStream.newInstance(buffer, contentStart, contentLength);
+
+    Hasher hasher = null;
+    while (true) {
+      int fieldStart = contentStart + input.getTotalBytesRead();
+      int fieldTag = input.readTag();
+      if (fieldTag == 0) {
+        break;
+      }
+      input.skipField(fieldTag);
+      int fieldNumber = fieldTag >>> 3;
+      if (fieldNumber < fields.ignored.length() && fields.ignored.get(fieldNumber)) {
+        continue;
+      }
+      int fieldLength = contentStart + input.getTotalBytesRead() - fieldStart;
+      NestedFields fieldNested = nestedFields(fields.nested, fieldTag);
+      HashCode nestedHash = fieldNested == null
+          ? null
+          : hashNested(buffer, fieldStart, fieldLength, fieldTag, fieldNested);
+      if (fieldNested != null && nestedHash == null) {
+        continue;
+      }
+      if (hasher == null) {
+        hasher = hashFunction.newHasher().putInt(tag);
+      }
+      if (nestedHash == null) {
+        hasher.putBytes(buffer, fieldStart, fieldLength);
+      } else {
+        hasher.putBytes(nestedHash.asBytes());
+      }
+    }
+    return hasher == null ? null : hasher.hash();
+  }
+
+  @Nullable private static NestedFields nestedFields(Map<Integer, NestedFields> nested, int tag) {
+    if (nested.isEmpty()
+        || WireFormat.getTagWireType(tag) != WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+      return null;
+    }
+    return nested.get(tag >>> 3);
+  }
+
+  private boolean isIgnored(int fieldNumber) {
+    boolean listed = fieldNumber < ignored.length() && ignored.get(fieldNumber);
+    return listed != includeOnly;
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add(includeOnly ? "included" : "ignored", ignored)
+        .add("unordered", unordered)
+        .add("nested", nested.isEmpty() ? null : nested)
+        .omitNullValues()
+        .toString();
+  }
+
+  /**
+   * Fields ignored in a nested message, by field number, and the nested messages that ignore
+   * some of their own fields.
+   */
+  private static final class NestedFields {
+    final BitSet ignored = new BitSet();
+    final Map<Integer, NestedFields> nested = new HashMap<>();
+
+    static Map<Integer, NestedFields> copyOf(Map<Integer, NestedFields> fields) {
+      Map<Integer, NestedFields> copy = new HashMap<>();
+      for (Map.Entry<Integer, NestedFields> entry : fields.entrySet()) {
+        NestedFields fieldsCopy = new NestedFields();
+        fieldsCopy.ignored.or(entry.getValue().ignored);
+        fieldsCopy.nested.putAll(copyOf(entry.getValue().nested));
+        copy.put(entry.getKey(), fieldsCopy);
+      }
+      return copy;
+    }
+
+    @Override public String toString() {
+      return nested.isEmpty() ? ignored.toString() : ignored + " " + nested;
+    }
+  }
+
+  /**
+   * Builder for {@link RequestFingerprinter}.
+   */
+  public static final class Builder {
+    private final BitSet fields = new BitSet();
+    private final BitSet unordered = new BitSet();
+    private final Map<Integer, NestedFields> nested = new HashMap<>();
+    private boolean includeOnly;
+    private int seed;
+
+    private Builder() {
+      fields.set(BidRequest.ID_FIELD_NUMBER);
+      fields.set(BidRequest.TMAX_FIELD_NUMBER);
+      fields.set(BidRequest.SOURCE_FIELD_NUMBER);
+      for (FieldDescriptor fd : BidRequest.getDescriptor().getFields()) {
+        if (fd.isRepeated()) {
+          unordered.set(fd.getNumber());
+        }
+      }
+    }
+
+    /**
+     * Adds fields to ignore, by field number (like {@link BidRequest#USER_FIELD_NUMBER}).
+     * Ignored fields also include {@code id}, {@code tmax} and {@code source},
+     * unless {@link #clearIgnored()} is called.
+     */
+    public Builder ignore(int... fieldNumbers) {
+      checkArgument(!includeOnly, "Already configured to include only some fields");
+      for (int fieldNumber : fieldNumbers) {
+        fields.set(checkFieldNumber(fieldNumber));
+      }
+      return this;
+    }
+
+    /**
+     * Clears the ignored fields, so all fields are fingerprinted.
+     */
+    public Builder clearIgnored() {
+      checkArgument(!includeOnly, "Already configured to include only some fields");
+      fields.clear();
+      nested.clear();
+      return this;
+    }
+
+    /**
+     * Adds a field of a nested message to ignore, by the field numbers of its path; e.g.
+     * {@code ignorePath(BidRequest.DEVICE_FIELD_NUMBER, Device.IP_FIELD_NUMBER)} ignores
+     * {@code device.ip}, but keeps other fields of {@code device}. All fields on the path,
+     * except the last, must be messages. A path with a single field is like
+     * {@link #ignore(int...)}.
+     */
+    public Builder ignorePath(int... path) {
+      checkArgument(path.length > 0, "Empty path");
+      if (path.length == 1) {
+        return ignore(path[0]);
+      }
+      NestedFields fields = nested.computeIfAbsent(checkFieldNumber(path[0]),
+          fieldNumber -> new NestedFields());
+      for (int i = 1; i < path.length - 1; ++i) {
+        fields = fields.nested.computeIfAbsent(checkFieldNumber(path[i]),
+            fieldNumber -> new NestedFields());
+      }
+      fields.ignored.set(checkFieldNumber(path[path.length - 1]));
+      return this;
+    }
+
+    /**
+     * Fingerprints only the specified fields, by field number (like
+     * {@link BidRequest#IMP_FIELD_NUMBER}), instead of all non-ignored fields.
+     */
+    public Builder include(int... fieldNumbers) {
+      if (!includeOnly) {
+        fields.clear();
+        includeOnly = true;
+      }
+      for (int fieldNumber : fieldNumbers) {
+        fields.set(checkFieldNumber(fieldNumber));
+      }
+      return this;
+    }
+
+    /**
+     * Makes a repeated field order-sensitive.
+     */
+    public Builder ordered(int fieldNumber) {
+      unordered.clear(checkFieldNumber(fieldNumber));
+      return this;
+    }
+
+    /**
+     * Sets the hash seed. Fingerprints with different seeds are not comparable. Default is 0.
+     */
+    public Builder seed(int seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    public RequestFingerprinter build() {
+      return new RequestFingerprinter(this);
+    }
+
+    private static int checkFieldNumber(int fieldNumber) {
+      checkArgument(fieldNumber > 0, "Invalid field number: %s", fieldNumber);
+      return fieldNumber;
+    }
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid.Bid;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges several {@link BidResponse}s into one, with a single {@link SeatBid} per seat.
+ *
+ * <p>Responses are merged in a single pass, with hash indexes of seats and bid IDs. {@link Bid}
+ * messages are moved into the merged response by reference, never copied through builders;
+ * and a seat that only appears in one response, without any of its bids dropped, is reused
+ * as-is. Seats are only merged if they have the same {@code group}: a seat that must win
+ * all-or-nothing ({@code group=1}) is never mixed with bids that don't have this constraint, so
+ * a seat with both values produces two {@link SeatBid}s. Other seat-level fields are taken
+ * from the first response that has each seat.
+ *
+ * <p>The merged response only has the given {@code id}, the seats and {@code cur}, taken from
+ * the first response that sets it; fields that describe a single response ({@code bidid},
+ * {@code nbr}, {@code customdata}, extensions) are not carried over. All responses should have
+ * the same currency.
+ *
+ * <p>Bid IDs must be unique in the merged response. Duplicates are resolved by the
+ * {@link DuplicatePolicy}. Responses from independent sources, like different bidders, can be
+ * merged with {@link #mergeSources(String, Iterable)} instead, where bid IDs only have to be
+ * unique within each response.
+ *
+ * <p>This class is immutable and threadsafe.
+ */
+public final class ResponseMerger {
+  /**
+   * How to resolve bids with the same ID.
+   */
+  public enum DuplicatePolicy {
+    /** Keeps the first bid, in the order of the responses and their seats. */
+    FIRST_WINS,
+    /** Keeps the bid with the highest price; the first bid, in case of ties. */
+    HIGHEST_PRICE,
+  }
+
+  private final DuplicatePolicy duplicatePolicy;
+
+  public ResponseMerger(DuplicatePolicy duplicatePolicy) {
+    this.duplicatePolicy = checkNotNull(duplicatePolicy);
+  }
+
+  public DuplicatePolicy duplicatePolicy() {
+    return duplicatePolicy;
+  }
+
+  /**
+   * Merges responses.
+   *
+   * @param responseId ID for the merged response, usually the request's ID
+   * @return The merged response; a response with no seats if there are no responses
+   */
+  public BidResponse merge(String responseId, Iterable<BidResponse> responses) {
+    return merge(responseId, responses, false);
+  }
+
+  /**
+   * Merges responses from independent sources, like different bidders, which often reuse bid
+   * IDs like {@code "1"} and leave seats unnamed. Duplicate bid IDs are only resolved within
+   * each response, and unnamed seats are never merged with seats of other responses; named
+   * seats are merged as in {@link #merge(String, Iterable)}.
+   *
+   * @param responseId ID for the merged response, usually the request's ID
+   * @return The merged response; a response with no seats if there are no responses
+   */
+  public BidResponse mergeSources(String responseId, Iterable<BidResponse> responses) {
+    return merge(responseId, responses, true);
+  }
+
+  private BidResponse merge(
+      String responseId, Iterable<BidResponse> responses, boolean independentSources) {
+    checkNotNull(responseId);
+    BidResponse.Builder merged = BidResponse.newBuilder().setId(responseId);
+    List<Seat> order = new ArrayList<>();
+    Map<String, Seat> seats = new HashMap<>();
+    Map<String, Seat> groupSeats = new HashMap<>();
+    Map<String, BidRef> bidsById = new HashMap<>();
+
+    for (BidResponse response : responses) {
+      if (!merged.hasCur() && response.hasCur()) {
+        merged.setCur(response.getCur());
+      }
+      if (independentSources) {
+        bidsById.clear();
+        seats.remove("");
+        groupSeats.remove("");
+      }
+      for (SeatBid seatbid : response.getSeatbidList()) {
+        Map<String, Seat> index = seatbid.getGroup() ? groupSeats : seats;
+        Seat seat = index.get(seatbid.getSeat());
+        if (seat == null) {
+          seat = new Seat(seatbid);
+          index.put(seatbid.getSeat(), seat);
+          order.add(seat);
+        } else {
+          seat.modified = true;
+        }
+        for (Bid bid : seatbid.getBidList()) {
+          add(seat, bid, bidsById);
+        }
+      }
+    }
+
+    for (Seat seat : order) {
+      if (!seat.modified) {
+        merged.addSeatbid(seat.first);
+      } else if (seat.live != 0) {
+        SeatBid.Builder seatbid = seat.first.toBuilder().clearBid();
+        for (Bid bid : seat.bids) {
+          if (bid != null) {
+            seatbid.addBid(bid);
+          }
+        }
+        merged.addSeatbid(seatbid);
+      }
+    }
+    return merged.build();
+  }
+
+  private void add(Seat seat, Bid bid, Map<String, BidRef> bidsById) {
+    BidRef existing = bidsById.get(bid.getId());
+    if (existing == null) {
+      bidsById.put(bid.getId(), new BidRef(seat, seat.add(bid)));
+      return;
+    }
+
+    // Duplicate: this bid is dropped or replaces the existing one; either way, some seat
+    // won't be the same as in its original response.
+    seat.modified = true;
+    existing.seat.modified = true;
+    if (duplicatePolicy == DuplicatePolicy.HIGHEST_PRICE
+        && bid.getPrice() > existing.seat.bids.get(existing.index).getPrice()) {
+      existing.seat.remove(existing.index);
+      existing.seat = seat;
+      existing.index = seat.add(bid);
+    }
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("duplicatePolicy", duplicatePolicy)
+        .toString();
+  }
+
+  /**
+   * Bids accumulated for a seat. Removed bids are nulled in place, so indexes stay valid.
+   */
+  private static final class Seat {
+    final SeatBid first;
+    final List<Bid> bids;
+    int live;
+    boolean modified;
+
+    Seat(SeatBid first) {
+      this.first = first;
+      this.bids = new ArrayList<>(first.getBidCount());
+    }
+
+    int add(Bid bid) {
+      bids.add(bid);
+      ++live;
+      return bids.size() - 1;
+    }
+
+    void remove(int index) {
+      bids.set(index, null);
+      --live;
+    }
+  }
+
+  private static final class BidRef {
+    Seat seat;
+    int index;
+
+    BidRef(Seat seat, int index) {
+      this.seat = seat;
+      this.index = index;
+    }
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.io;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+import com.google.openrtb.OpenRtb.AuctionType;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.util.CorpusGenerator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link ColumnarReader}.
+ */
+public class ColumnarReaderTest {
+  @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+  private List<BidRequest> requests;
+  private Path path;
+
+  @Before
+  public void setUp() throws IOException {
+    CorpusGenerator generator = CorpusGenerator.builder().seed(7).build();
+    // tmax increases with the row, so its statistics can skip row groups
+    requests = new ArrayList<>();
+    for (int i = 0; i < 1000; ++i) {
+      requests.add(generator.request(i).toBuilder().setTmax(i).build());
+    }
+    path = tmp.newFile().toPath();
+    try (ColumnarWriter writer = ColumnarWriter.builder(BidRequest.getDescriptor(), path)
+        .columns("tmax", "at", "device.geo.country", "imp.bidfloor", "site.domain")
+        .rowGroupSize(100)
+        .build()) {
+      writer.writeAll(requests.iterator());
+    }
+  }
+
+  @Test
+  public void testPredicates() throws IOException {
+    List<String> expected = new ArrayList<>();
+    for (BidRequest request : requests) {
+      if (request.getDevice().getGeo().getCountry().equals("USA")
+          && request.getImpList().stream().anyMatch(imp -> imp.getBidfloor() >= 1)) {
+        expected.add(request.hasSite() ? request.getSite().getDomain() : null);
+      }
+    }
+    assertThat(expected).isNotEmpty();
+
+    try (ColumnarReader reader = ColumnarReader.open(path, BidRequest.getDescriptor())) {
+      ColumnarReader.Scan scan = reader.scan(ImmutableList.of("site.domain"),
+          ColumnPredicate.in("device.geo.country", "USA"),
+          ColumnPredicate.atLeast("imp.bidfloor", 1));
+      List<String> actual = new ArrayList<>();
+      while (scan.hasNext()) {
+        ColumnarReader.Batch batch = scan.next();
+        ColumnarReader.ColumnVector domains = batch.column("site.domain");
+        BitSet rows = batch.selected();
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+          actual.add((String) domains.value(row));
+        }
+        try {
+          batch.column("device.geo.country");
+          fail();
+        } catch (IllegalArgumentException expectedNotProjected) {
+        }
+      }
+      assertThat(actual).containsExactlyElementsIn(expected).inOrder();
+    }
+  }
+
+  @Test
+  public void testStatisticsSkip() throws IOException {
+    try (ColumnarReader reader = ColumnarReader.open(path, BidRequest.getDescriptor())) {
+      ColumnarReader.Scan scan = reader.scan(ImmutableList.of("tmax"),
+          ColumnPredicate.between("tmax", 150, 160));
+      ColumnarReader.Batch batch = scan.next();
+      assertThat(batch.selectedCount()).isEqualTo(11);
+      assertThat(batch.column("tmax").value(batch.selected().nextSetBit(0))).isEqualTo(150L);
+      assertThat(scan.hasNext()).isFalse();
+      assertThat(scan.rowGroupsRead()).isEqualTo(1);
+      assertThat(scan.rowGroupsSkipped()).isEqualTo(9);
+
+      // No dictionary has the value
+      scan = reader.scan(ImmutableList.of("tmax"), ColumnPredicate.in("device.geo.country", "?"));
+      assertThat(scan.hasNext()).isFalse();
+      assertThat(scan.rowGroupsSkipped()).isEqualTo(10);
+    }
+  }
+
+  @Test
+  public void testDictionarySkip() throws IOException {
+    Path file = tmp.newFile().toPath();
+    try (ColumnarWriter writer = ColumnarWriter.builder(BidRequest.getDescriptor(), file)
+        .columns("imp.tagid", "tmax")
+        .rowGroupSize(2)
+        .build()) {
+      for (String tagid : new String[] { "a", "a", "b", "c", "c", "c" }) {
+        writer.write(BidRequest.newBuilder().setId(tagid)
+            .addImp(Imp.newBuilder().setId("1"))
+            .addImp(Imp.newBuilder().setId("2").setTagid(tagid))
+            .build());
+      }
+    }
+    try (ColumnarReader reader = ColumnarReader.open(file, BidRequest.getDescriptor())) {
+      ColumnarReader.Scan scan = reader.scan(ImmutableList.of(),
+          ColumnPredicate.in("imp.tagid", "b"));
+      assertThat(count(scan)).isEqualTo(1);
+      assertThat(scan.rowGroupsRead()).isEqualTo(1);
+      assertThat(scan.rowGroupsSkipped()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  public void testNanStatistics() throws IOException {
+    Path file = tmp.newFile().toPath();
+    try (ColumnarWriter writer = ColumnarWriter.builder(BidRequest.getDescriptor(), file)
+        .columns("imp.bidfloor")
+        .build()) {
+      writer.write(BidRequest.newBuilder().setId("1")
+          .addImp(Imp.newBuilder().setId("1").setBidfloor(Double.NaN))
+          .addImp(Imp.newBuilder().setId("2").setBidfloor(5))
+          .build());
+      writer.write(BidRequest.newBuilder().setId("2")
+          .addImp(Imp.newBuilder().setId("1").setBidfloor(Double.NaN))
+          .build());
+    }
+    try (ColumnarReader reader = ColumnarReader.open(file, BidRequest.getDescriptor())) {
+      assertThat(count(reader.scan(ImmutableList.of(),
+          ColumnPredicate.atLeast("imp.bidfloor", 4)))).isEqualTo(1);
+      assertThat(count(reader.scan(ImmutableList.of(),
+          ColumnPredicate.atLeast("imp.bidfloor", 6)))).isEqualTo(0);
+    }
+  }
+
+  @Test
+  public void testEnumPredicate() throws IOException {
+    long expected = requests.stream()
+        .filter(request -> request.getAt() == AuctionType.SECOND_PRICE)
+        .count();
+    try (ColumnarReader reader = ColumnarReader.open(path, BidRequest.getDescriptor())) {
+      assertThat(count(reader.scan(ImmutableList.of(),
+          ColumnPredicate.in("at", "SECOND_PRICE")))).isEqualTo(expected);
+      assertThat(count(reader.scan(ImmutableList.of(),
+          ColumnPredicate.equalTo("at", AuctionType.SECOND_PRICE.getNumber()))))
+          .isEqualTo(expected);
+    }
+  }
+
+  @Test
+  public void testNoPredicates() throws IOException {
+    try (ColumnarReader reader = ColumnarReader.open(path, BidRequest.getDescriptor())) {
+      assertThat(count(reader.scan(ImmutableList.of("imp.bidfloor")))).isEqualTo(1000);
+      ColumnarReader.ColumnVector floors =
+          reader.scan(ImmutableList.of("imp.bidfloor")).next().column("imp.bidfloor");
+      Imp imp = requests.get(0).getImp(0);
+      assertThat(floors.getDouble(floors.start(0))).isEqualTo(imp.getBidfloor());
+    }
+  }
+
+  @Test
+  public void testBadScans() throws IOException {
+    try (ColumnarReader reader = ColumnarReader.open(path, BidRequest.getDescriptor())) {
+      try {
+        reader.scan(ImmutableList.of("imp.id"));
+        fail();
+      } catch (IllegalArgumentException expected) {
+      }
+      try {
+        reader.scan(ImmutableList.of(), ColumnPredicate.atLeast("site.domain", 1));
+        fail();
+      } catch (IllegalArgumentException expected) {
+      }
+    }
+    try {
+      ColumnarReader.open(path, BidResponse.getDescriptor());
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    Path bad = tmp.newFile().toPath();
+    Files.write(bad, new byte[100]);
+    try {
+      ColumnarReader.open(bad, BidRequest.getDescriptor());
+      fail();
+    } catch (IOException expected) {
+    }
+  }
+
+  private static long count(ColumnarReader.Scan scan) {
+    long count = 0;
+    while (scan.hasNext()) {
+      count += scan.next().selectedCount();
+    }
+    return count;
+  }
+}
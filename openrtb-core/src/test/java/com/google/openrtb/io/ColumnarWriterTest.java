@@ -0,0 +1,168 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.io;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Banner;
+import com.google.openrtb.util.CorpusGenerator;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link ColumnarWriter}.
+ */
+public class ColumnarWriterTest {
+  @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    List<BidRequest> requests = CorpusGenerator.builder().seed(1).build()
+        .requests(1000).collect(Collectors.toList());
+    Path path = tmp.newFile().toPath();
+    try (ColumnarWriter writer = ColumnarWriter.builder(BidRequest.getDescriptor(), path)
+        .columns("id", "tmax", "at", "device.geo.country", "site.domain", "app.bundle")
+        .columns("imp.id", "imp.bidfloor", "imp.secure", "imp.banner.format.w", "bcat")
+        .rowGroupSize(300)
+        .build()) {
+      writer.writeAll(requests.iterator());
+      assertThat(writer.rowCount()).isEqualTo(1000);
+    }
+
+    try (ColumnarReader reader = ColumnarReader.open(path, BidRequest.getDescriptor())) {
+      assertThat(reader.rowCount()).isEqualTo(1000);
+      assertThat(reader.rowGroupCount()).isEqualTo(4);
+      assertThat(reader.columns()).hasSize(11);
+      ColumnarReader.Scan scan = reader.scan(reader.columns());
+      int base = 0;
+      while (scan.hasNext()) {
+        ColumnarReader.Batch batch = scan.next();
+        for (int row = 0; row < batch.rowCount(); ++row) {
+          BidRequest request = requests.get(base + row);
+          assertThat(batch.column("id").value(row)).isEqualTo(request.getId());
+          assertThat(batch.column("tmax").value(row)).isEqualTo((long) request.getTmax());
+          assertThat(batch.column("at").value(row)).isEqualTo(request.getAt().name());
+          assertThat(batch.column("device.geo.country").value(row))
+              .isEqualTo(request.getDevice().getGeo().getCountry());
+          assertThat(batch.column("site.domain").value(row))
+              .isEqualTo(request.hasSite() ? request.getSite().getDomain() : null);
+          assertThat(batch.column("app.bundle").value(row))
+              .isEqualTo(request.hasApp() ? request.getApp().getBundle() : null);
+          assertThat(batch.column("bcat").values(row))
+              .containsExactlyElementsIn(request.getBcatList()).inOrder();
+
+          List<Object> impIds = new ArrayList<>();
+          List<Object> floors = new ArrayList<>();
+          List<Object> secure = new ArrayList<>();
+          List<Object> formatWidths = new ArrayList<>();
+          for (Imp imp : request.getImpList()) {
+            impIds.add(imp.getId());
+            floors.add(imp.getBidfloor());
+            secure.add(imp.getSecure());
+            for (Banner.Format format : imp.getBanner().getFormatList()) {
+              formatWidths.add((long) format.getW());
+            }
+          }
+          assertThat(batch.column("imp.id").values(row)).isEqualTo(impIds);
+          assertThat(batch.column("imp.bidfloor").values(row)).isEqualTo(floors);
+          assertThat(batch.column("imp.secure").values(row)).isEqualTo(secure);
+          assertThat(batch.column("imp.banner.format.w").values(row)).isEqualTo(formatWidths);
+        }
+        base += batch.rowCount();
+      }
+      assertThat(base).isEqualTo(1000);
+    }
+  }
+
+  @Test
+  public void testLevels() throws IOException {
+    BidRequest request = BidRequest.newBuilder()
+        .setId("1")
+        .addImp(Imp.newBuilder().setId("1").setBanner(Banner.newBuilder()
+            .addFormat(Banner.Format.newBuilder().setW(300))
+            .addFormat(Banner.Format.newBuilder().setW(728))))
+        .addImp(Imp.newBuilder().setId("2"))
+        .addImp(Imp.newBuilder().setId("3").setBanner(Banner.newBuilder()
+            .addFormat(Banner.Format.newBuilder().setH(50))))
+        .build();
+    Path path = tmp.newFile().toPath();
+    try (ColumnarWriter writer = ColumnarWriter.builder(BidRequest.getDescriptor(), path)
+        .columns("imp.banner.format.w")
+        .build()) {
+      writer.write(request);
+      writer.write(request.toBuilder().clearImp());
+    }
+
+    try (ColumnarReader reader = ColumnarReader.open(path, BidRequest.getDescriptor())) {
+      ColumnarReader.ColumnVector column = reader.scan(ImmutableList.of("imp.banner.format.w"))
+          .next().column("imp.banner.format.w");
+      assertThat(column.maxRepetitionLevel()).isEqualTo(2);
+      assertThat(column.maxDefinitionLevel()).isEqualTo(4);
+      int[] rep = new int[column.levelCount()];
+      int[] def = new int[column.levelCount()];
+      for (int i = 0; i < rep.length; ++i) {
+        rep[i] = column.repetitionLevel(i);
+        def[i] = column.definitionLevel(i);
+      }
+      // 300, 728, imp 2 without banner, imp 3 format without w, request without imps
+      assertThat(rep).asList().containsExactly(0, 2, 1, 1, 0).inOrder();
+      assertThat(def).asList().containsExactly(4, 4, 1, 3, 0).inOrder();
+      assertThat(column.values(0)).containsExactly(300L, 728L).inOrder();
+      assertThat(column.values(1)).isEmpty();
+    }
+  }
+
+  @Test
+  public void testPacking() {
+    Random random = new Random(1);
+    for (int width = 0; width <= 64; ++width) {
+      long[] values = new long[37];
+      for (int i = 0; i < values.length; ++i) {
+        values[i] = width == 64 ? random.nextLong() : random.nextLong() & ((1L << width) - 1);
+      }
+      byte[] packed = ColumnarFormat.pack(values, values.length, width);
+      assertThat(packed.length).isEqualTo(ColumnarFormat.packedLength(values.length, width));
+      long[] unpacked = new long[values.length];
+      ByteBuffer buf = ByteBuffer.wrap(packed);
+      ColumnarFormat.unpack(buf, values.length, width, unpacked);
+      assertThat(unpacked).isEqualTo(values);
+      assertThat(buf.hasRemaining()).isFalse();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMessageColumn() {
+    ColumnarWriter.builder(BidRequest.getDescriptor(), tmp.getRoot().toPath()).columns("imp");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownColumn() {
+    ColumnarWriter.builder(BidRequest.getDescriptor(), tmp.getRoot().toPath())
+        .columns("device.foo");
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.io;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.openrtb.io.OpenRtbLogWriterTest.request;
+import static com.google.openrtb.io.OpenRtbLogWriterTest.response;
+import static org.junit.Assert.fail;
+
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.io.OpenRtbLogReader.LogRecord;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link OpenRtbLogReader}.
+ */
+public class OpenRtbLogReaderTest {
+  @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void testRead() throws IOException {
+    Path dir = tmp.getRoot().toPath();
+    List<BidRequest> requests = new ArrayList<>();
+    List<BidResponse> responses = new ArrayList<>();
+    try (OpenRtbLogWriter writer = OpenRtbLogWriter.builder(dir)
+        .blockSize(500)
+        .segmentSize(2000)
+        .compressionLevel(0)
+        .build()) {
+      for (int i = 0; i < 500; ++i) {
+        BidRequest request = request(String.valueOf(i));
+        requests.add(request);
+        if (i % 3 == 0) {
+          BidResponse response = response(String.valueOf(i));
+          responses.add(response);
+          writer.write(request, response);
+        } else {
+          writer.write(request);
+        }
+      }
+    }
+
+    OpenRtbLogReader reader = OpenRtbLogReader.open(dir);
+    assertThat(reader.segments().size()).isGreaterThan(1);
+    assertThat(reader.blockCount()).isGreaterThan(reader.segments().size());
+    assertThat(reader.recordCount()).isEqualTo(500);
+    assertThat(reader.requestStream(false).collect(Collectors.toList()))
+        .containsExactlyElementsIn(requests).inOrder();
+    assertThat(reader.requestStream(true).collect(Collectors.toList()))
+        .containsExactlyElementsIn(requests).inOrder();
+    assertThat(reader.responseStream(true).collect(Collectors.toList()))
+        .containsExactlyElementsIn(responses).inOrder();
+    assertThat(OpenRtbLogReader.open(reader.segments().get(0)).recordCount())
+        .isLessThan(500);
+  }
+
+  @Test
+  public void testRecords() throws IOException {
+    Path dir = tmp.getRoot().toPath();
+    List<LogRecord> records = new ArrayList<>();
+    try (OpenRtbLogWriter writer = OpenRtbLogWriter.builder(dir)
+        .blockSize(200).compressionLevel(0).build()) {
+      for (int i = 0; i < 60; ++i) {
+        BidRequest request = request(String.valueOf(i));
+        BidResponse response = response(String.valueOf(i));
+        switch (i % 3) {
+          case 0:
+            writer.write(request);
+            records.add(new LogRecord(request, null));
+            break;
+          case 1:
+            writer.write(response);
+            records.add(new LogRecord(null, response));
+            break;
+          default:
+            writer.write(request, response);
+            records.add(new LogRecord(request, response));
+        }
+      }
+    }
+
+    OpenRtbLogReader reader = OpenRtbLogReader.open(dir);
+    assertThat(reader.blockCount()).isGreaterThan(1);
+    assertThat(reader.recordCount()).isEqualTo(60);
+    assertThat(reader.recordStream(false).collect(Collectors.toList()))
+        .containsExactlyElementsIn(records).inOrder();
+    assertThat(reader.recordStream(true).collect(Collectors.toList()))
+        .containsExactlyElementsIn(records).inOrder();
+    assertThat(reader.requestStream(true).count()).isEqualTo(40);
+    assertThat(reader.responseStream(true).count()).isEqualTo(40);
+  }
+
+  @Test
+  public void testSplit() throws IOException {
+    Path dir = tmp.getRoot().toPath();
+    try (OpenRtbLogWriter writer = OpenRtbLogWriter.builder(dir)
+        .blockSize(200).compressionLevel(0).build()) {
+      for (int i = 0; i < 50; ++i) {
+        writer.write(request(String.valueOf(i)));
+      }
+    }
+    Spliterator<BidRequest> suffix = OpenRtbLogReader.open(dir).requests();
+    assertThat(suffix.estimateSize()).isEqualTo(50);
+    List<BidRequest> actual = new ArrayList<>();
+    assertThat(suffix.tryAdvance(actual::add)).isTrue();
+
+    Spliterator<BidRequest> prefix = suffix.trySplit();
+    assertThat(prefix).isNotNull();
+    assertThat(prefix.estimateSize() + suffix.estimateSize()).isEqualTo(49);
+    prefix.forEachRemaining(actual::add);
+    suffix.forEachRemaining(actual::add);
+    assertThat(actual).hasSize(50);
+    for (int i = 0; i < 50; ++i) {
+      assertThat(actual.get(i).getId()).isEqualTo(String.valueOf(i));
+    }
+    assertThat(suffix.trySplit()).isNull();
+  }
+
+  @Test
+  public void testUnindexedSegment() throws IOException {
+    Path dir = tmp.getRoot().toPath();
+    try (OpenRtbLogWriter writer = OpenRtbLogWriter.builder(dir)
+        .blockSize(200).compressionLevel(0).build()) {
+      for (int i = 0; i < 20; ++i) {
+        writer.write(request(String.valueOf(i)));
+      }
+      writer.flush();
+      // Segment still open: no index, and possibly a trailing incomplete block
+      OpenRtbLogReader reader = OpenRtbLogReader.open(dir);
+      assertThat(reader.blockCount()).isGreaterThan(1);
+      assertThat(reader.requestStream(true).count()).isEqualTo(20);
+
+      Path segment = reader.segments().get(0);
+      byte[] bytes = Files.readAllBytes(segment);
+      Path truncated = tmp.newFile("truncated" + LogFormat.EXTENSION).toPath();
+      Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 1));
+      assertThat(OpenRtbLogReader.open(truncated).requestStream(false).count()).isLessThan(20);
+    }
+  }
+
+  @Test
+  public void testCorruptBlock() throws IOException {
+    Path dir = tmp.getRoot().toPath();
+    try (OpenRtbLogWriter writer = OpenRtbLogWriter.builder(dir).build()) {
+      writer.write(request("1"));
+    }
+    Path segment = OpenRtbLogReader.open(dir).segments().get(0);
+    byte[] bytes = Files.readAllBytes(segment);
+    bytes[LogFormat.MAGIC.length + LogFormat.BLOCK_HEADER_SIZE] ^= 1;
+    Files.write(segment, bytes);
+    try {
+      OpenRtbLogReader.open(segment).requestStream(false).count();
+      fail();
+    } catch (UncheckedIOException expected) {
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testNotSegment() throws IOException {
+    Path file = tmp.newFile("bad" + LogFormat.EXTENSION).toPath();
+    Files.write(file, new byte[] { 1, 2, 3 });
+    OpenRtbLogReader.open(file);
+  }
+}
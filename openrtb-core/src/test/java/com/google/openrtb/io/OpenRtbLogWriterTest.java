@@ -0,0 +1,355 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.io;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.ExtensionRegistryLite;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Inflater;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link OpenRtbLogWriter}.
+ */
+public class OpenRtbLogWriterTest {
+  @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void testSharedMetricRegistry() throws Exception {
+    MetricRegistry metricRegistry = new MetricRegistry();
+    try (OpenRtbLogWriter requests = OpenRtbLogWriter.builder(tmp.newFolder().toPath())
+            .metricRegistry(metricRegistry)
+            .build();
+        OpenRtbLogWriter responses = OpenRtbLogWriter.builder(tmp.newFolder().toPath())
+            .metricRegistry(metricRegistry)
+            .build()) {
+      requests.write(request("1"));
+      responses.write(response("1"));
+    }
+    assertThat(counter(metricRegistry, "records")).isEqualTo(2);
+  }
+
+  @Test
+  public void testWriteAndClose() throws Exception {
+    Path dir = tmp.getRoot().toPath();
+    MetricRegistry metricRegistry = new MetricRegistry();
+    try (OpenRtbLogWriter writer = OpenRtbLogWriter.builder(dir)
+        .metricRegistry(metricRegistry)
+        .build()) {
+      writer.write(request("1"));
+      writer.write(response("1"));
+      writer.write(request("2"), response("2"));
+      assertThat(writer.tryWrite(request("3"))).isTrue();
+    }
+
+    List<Path> segments = segments(dir);
+    assertThat(segments).hasSize(1);
+    assertThat(segments.get(0).getFileName().toString()).isEqualTo("openrtb-000000.ortblog");
+    assertThat(read(segments.get(0), true)).containsExactly(
+        request("1"), response("1"), request("2"), response("2"), request("3")).inOrder();
+    assertThat(counter(metricRegistry, "records")).isEqualTo(4);
+    assertThat(counter(metricRegistry, "blocks")).isEqualTo(1);
+    assertThat(counter(metricRegistry, "dropped")).isEqualTo(0);
+  }
+
+  @Test
+  public void testBlocksAndSegments() throws Exception {
+    Path dir = tmp.getRoot().toPath();
+    List<Object> expected = new ArrayList<>();
+    try (OpenRtbLogWriter writer = OpenRtbLogWriter.builder(dir)
+        .prefix("test")
+        .blockSize(1000)
+        .segmentSize(2000)
+        .compressionLevel(0)
+        .build()) {
+      for (int i = 0; i < 200; ++i) {
+        writer.write(request(String.valueOf(i)));
+        expected.add(request(String.valueOf(i)));
+      }
+    }
+
+    List<Path> segments = segments(dir);
+    assertThat(segments.size()).isGreaterThan(1);
+    List<Object> actual = new ArrayList<>();
+    for (Path segment : segments) {
+      assertThat(segment.getFileName().toString()).startsWith("test-");
+      actual.addAll(read(segment, true));
+    }
+    assertThat(actual).containsExactlyElementsIn(expected).inOrder();
+  }
+
+  @Test
+  public void testFlush() throws Exception {
+    Path dir = tmp.getRoot().toPath();
+    try (OpenRtbLogWriter writer = OpenRtbLogWriter.builder(dir).build()) {
+      writer.write(request("1"));
+      writer.flush();
+      // The segment is still open, so it has no index yet
+      assertThat(read(segments(dir).get(0), false)).containsExactly(request("1"));
+      writer.write(request("2"));
+    }
+    assertThat(read(segments(dir).get(0), true)).containsExactly(request("1"), request("2"));
+  }
+
+  @Test
+  public void testFlushInterval() throws Exception {
+    Path dir = tmp.getRoot().toPath();
+    try (OpenRtbLogWriter writer = OpenRtbLogWriter.builder(dir)
+        .flushInterval(10, TimeUnit.MILLISECONDS)
+        .build()) {
+      writer.write(request("1"));
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while ((segments(dir).isEmpty() || Files.size(segments(dir).get(0)) == 0)
+          && System.nanoTime() < deadline) {
+        Thread.sleep(5);
+      }
+      assertThat(read(segments(dir).get(0), false)).containsExactly(request("1"));
+    }
+  }
+
+  @Test
+  public void testExistingSegments() throws Exception {
+    Path dir = tmp.getRoot().toPath();
+    Files.createFile(dir.resolve("openrtb-000000.ortblog"));
+    try (OpenRtbLogWriter writer = OpenRtbLogWriter.builder(dir).build()) {
+      writer.write(request("1"));
+    }
+    assertThat(Files.size(dir.resolve("openrtb-000000.ortblog"))).isEqualTo(0);
+    assertThat(read(dir.resolve("openrtb-000001.ortblog"), true))
+        .containsExactly(request("1"));
+  }
+
+  @Test
+  public void testClosed() throws Exception {
+    OpenRtbLogWriter writer = OpenRtbLogWriter.builder(tmp.getRoot().toPath()).build();
+    writer.close();
+    writer.close();
+    assertThat(segments(tmp.getRoot().toPath())).isEmpty();
+    try {
+      writer.write(request("1"));
+      fail();
+    } catch (IOException expected) {
+    }
+  }
+
+  @Test
+  public void testFailure() throws Exception {
+    Path dir = tmp.newFolder("missing").toPath();
+    Files.delete(dir);
+    OpenRtbLogWriter writer = OpenRtbLogWriter.builder(dir).build();
+    writer.write(request("1"));
+    try {
+      writer.flush();
+      fail();
+    } catch (IOException expected) {
+    }
+    try {
+      writer.write(request("2"));
+      fail();
+    } catch (IOException expected) {
+    }
+  }
+
+  @Test
+  public void testInterrupted() throws Exception {
+    MetricRegistry metricRegistry = new MetricRegistry();
+    CountDownLatch gate = new CountDownLatch(1);
+    AtomicReference<Thread> flusher = new AtomicReference<>();
+    OpenRtbLogWriter writer = OpenRtbLogWriter.builder(tmp.getRoot().toPath())
+        .metricRegistry(metricRegistry)
+        .threadFactory(runnable -> {
+          flusher.set(new Thread(() -> {
+            try {
+              gate.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            runnable.run();
+          }));
+          return flusher.get();
+        })
+        .build();
+    writer.write(request("1"));
+    writer.write(request("2"));
+    AtomicReference<Exception> flushResult = new AtomicReference<>();
+    Thread flushing = new Thread(() -> {
+      try {
+        writer.flush();
+      } catch (Exception e) {
+        flushResult.set(e);
+      }
+    });
+    flushing.start();
+    while (!metricRegistry.getGauges().get(
+        MetricRegistry.name(OpenRtbLogWriter.class, "queue-size")).getValue().equals(3)) {
+      Thread.sleep(1);
+    }
+
+    // The flusher stops with records and a flush still queued: both are released
+    flusher.get().interrupt();
+    flusher.get().join();
+    flushing.join(5000);
+    assertThat(flushing.isAlive()).isFalse();
+    assertThat(flushResult.get()).isInstanceOf(IOException.class);
+    assertThat(counter(metricRegistry, "dropped")).isEqualTo(2);
+    try {
+      writer.write(request("3"));
+      fail();
+    } catch (IOException expected) {
+    }
+    try {
+      writer.close();
+      fail();
+    } catch (IOException expected) {
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadBlockSize() {
+    OpenRtbLogWriter.builder(tmp.getRoot().toPath()).blockSize(0);
+  }
+
+  static BidRequest request(String id) {
+    return BidRequest.newBuilder()
+        .setId(id)
+        .addImp(BidRequest.Imp.newBuilder().setId("1").setBidfloor(1.5))
+        .build();
+  }
+
+  static BidResponse response(String id) {
+    return BidResponse.newBuilder().setId(id).setBidid("bid-" + id).build();
+  }
+
+  private static List<Path> segments(Path dir) throws IOException {
+    try (Stream<Path> files = Files.list(dir)) {
+      return files
+          .filter(file -> file.toString().endsWith(LogFormat.EXTENSION))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  private static long counter(MetricRegistry metricRegistry, String name) {
+    return ((Counter) metricRegistry.getMetrics().get(
+        MetricRegistry.name(OpenRtbLogWriter.class, name))).getCount();
+  }
+
+  /**
+   * Reads all records of a segment, following the format documented by {@link LogFormat}.
+   */
+  private static List<Object> read(Path segment, boolean indexed) throws Exception {
+    ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(segment));
+    byte[] magic = new byte[LogFormat.MAGIC.length];
+    buf.get(magic);
+    assertThat(magic).isEqualTo(LogFormat.MAGIC);
+
+    int blockCount = -1;
+    long indexOffset = buf.limit();
+    if (indexed) {
+      buf.position(buf.limit() - LogFormat.FOOTER_SIZE);
+      indexOffset = buf.getLong();
+      blockCount = buf.getInt();
+      byte[] indexMagic = new byte[LogFormat.INDEX_MAGIC.length];
+      buf.get(indexMagic);
+      assertThat(indexMagic).isEqualTo(LogFormat.INDEX_MAGIC);
+      assertThat(indexOffset + (long) blockCount * LogFormat.INDEX_ENTRY_SIZE)
+          .isEqualTo(buf.limit() - LogFormat.FOOTER_SIZE);
+    }
+
+    List<Object> records = new ArrayList<>();
+    buf.position(LogFormat.MAGIC.length);
+    int blocks = 0;
+    while (buf.position() < indexOffset) {
+      long blockOffset = buf.position();
+      int compressedLength = buf.getInt();
+      int rawLength = buf.getInt();
+      int recordCount = buf.getInt();
+      int crc32 = buf.getInt();
+      byte[] compressed = Arrays.copyOfRange(
+          buf.array(), buf.position(), buf.position() + compressedLength);
+      buf.position(buf.position() + compressedLength);
+      CRC32 crc = new CRC32();
+      crc.update(compressed);
+      assertThat((int) crc.getValue()).isEqualTo(crc32);
+
+      Inflater inflater = new Inflater();
+      inflater.setInput(compressed);
+      byte[] raw = new byte[rawLength];
+      assertThat(inflater.inflate(raw)).isEqualTo(rawLength);
+      assertThat(inflater.finished()).isTrue();
+      inflater.end();
+
+      int blockRecords = 0;
+      CodedInputStream in = CodedInputStream.newInstance(raw);
+      for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+        if (tag >>> 3 == LogFormat.PAIR_FIELD) {
+          // Pairs are flattened to request, response
+          int oldLimit = in.pushLimit(in.readRawVarint32());
+          assertThat(in.readTag() >>> 3).isEqualTo(LogFormat.REQUEST_FIELD);
+          records.add(readMessage(in, LogFormat.REQUEST_FIELD));
+          assertThat(in.readTag() >>> 3).isEqualTo(LogFormat.RESPONSE_FIELD);
+          records.add(readMessage(in, LogFormat.RESPONSE_FIELD));
+          assertThat(in.readTag()).isEqualTo(0);
+          in.popLimit(oldLimit);
+        } else {
+          records.add(readMessage(in, tag >>> 3));
+        }
+        ++blockRecords;
+      }
+      if (indexed) {
+        ByteBuffer index = buf.duplicate();
+        index.position((int) indexOffset + blocks * LogFormat.INDEX_ENTRY_SIZE);
+        assertThat(index.getLong()).isEqualTo(blockOffset);
+        assertThat(index.getInt()).isEqualTo(recordCount);
+      }
+      ++blocks;
+      assertThat(blockRecords).isEqualTo(recordCount);
+    }
+    if (indexed) {
+      assertThat(blocks).isEqualTo(blockCount);
+    }
+    return records;
+  }
+
+  private static Object readMessage(CodedInputStream in, int field) throws IOException {
+    ExtensionRegistryLite registry = ExtensionRegistryLite.getEmptyRegistry();
+    return field == LogFormat.REQUEST_FIELD
+        ? in.readMessage(BidRequest.parser(), registry)
+        : in.readMessage(BidResponse.parser(), registry);
+  }
+}
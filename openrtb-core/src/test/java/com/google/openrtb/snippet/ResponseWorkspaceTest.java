@@ -0,0 +1,157 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.snippet;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid.Bid;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ResponseWorkspace}.
+ */
+public class ResponseWorkspaceTest {
+  private static final BidRequest REQUEST1 = BidRequest.newBuilder()
+      .setId("req1")
+      .addImp(Imp.newBuilder().setId("imp1"))
+      .build();
+  private static final BidRequest REQUEST2 = BidRequest.newBuilder()
+      .setId("req2")
+      .addImp(Imp.newBuilder().setId("imp2"))
+      .build();
+
+  @Test
+  public void testReuse() {
+    ResponseWorkspace.Pool pool = new ResponseWorkspace.Pool(2, 16, 64);
+    OpenRtbSnippetProcessor processor = new OpenRtbSnippetProcessor(true);
+    ResponseWorkspace workspace1;
+    BidResponse response;
+
+    try (ResponseWorkspace workspace = pool.acquire(REQUEST1)) {
+      workspace1 = workspace;
+      assertThat(workspace.request()).isSameInstanceAs(REQUEST1);
+      assertThat(workspace.imp("imp1")).isSameInstanceAs(REQUEST1.getImp(0));
+      assertThat(workspace.imp("imp2")).isNull();
+      workspace.response()
+          .setId("req1")
+          .addSeatbid(SeatBid.newBuilder().addBid(Bid.newBuilder()
+              .setId("1")
+              .setImpid("imp1")
+              .setPrice(1)
+              .setAdm(OpenRtbMacros.AUCTION_ID.key() + "/" + OpenRtbMacros.AUCTION_IMP_ID.key())));
+      processor.process(workspace.snippetContext());
+      response = workspace.response().build();
+    }
+    assertThat(response.getSeatbid(0).getBid(0).getAdm()).isEqualTo("req1/imp1");
+    assertThat(pool.idle()).isEqualTo(1);
+
+    try (ResponseWorkspace workspace = pool.acquire(REQUEST2)) {
+      assertThat(workspace).isSameInstanceAs(workspace1);
+      assertThat(pool.idle()).isEqualTo(0);
+      assertThat(workspace.response().getSeatbidCount()).isEqualTo(0);
+      assertThat(workspace.snippetContext().request()).isSameInstanceAs(REQUEST2);
+      assertThat(workspace.snippetContext().getBid()).isNull();
+      assertThat(workspace.imp("imp1")).isNull();
+      assertThat(workspace.imp("imp2")).isNotNull();
+      workspace.close();
+      // Closing twice is a no-op.
+    }
+    assertThat(pool.idle()).isEqualTo(1);
+  }
+
+  @Test
+  public void testReuseWithDifferentBids() {
+    ResponseWorkspace.Pool pool = new ResponseWorkspace.Pool(1, 16, 64);
+    OpenRtbSnippetProcessor processor = new OpenRtbSnippetProcessor(true);
+    BidResponse response1;
+    BidResponse response2;
+
+    try (ResponseWorkspace workspace = pool.acquire(REQUEST1)) {
+      Bid.Builder bid = Bid.newBuilder()
+          .setId("1")
+          .setImpid("imp1")
+          .setAdid("ad1")
+          .setPrice(1)
+          .setAdm(OpenRtbMacros.AUCTION_AD_ID.key());
+      workspace.response().setId("req1").addSeatbid(SeatBid.newBuilder().addBid(bid));
+      processor.process(workspace.snippetContext());
+      // A subclass could leave a bid in the nested context
+      workspace.snippetContext().rec().setBid(workspace.response().getSeatbidBuilder(0)
+          .getBidBuilder(0));
+      assertThat(workspace.snippetContext().rec().getBid()).isNull();
+      workspace.snippetContext().rec().setBid(workspace.response().getSeatbidBuilder(0)
+          .getBidBuilder(0));
+      response1 = workspace.response().build();
+    }
+
+    try (ResponseWorkspace workspace = pool.acquire(REQUEST2)) {
+      assertThat(workspace.snippetContext().getBid()).isNull();
+      assertThat(workspace.snippetContext().rec().getBid()).isNull();
+      workspace.response()
+          .setId("req2")
+          .addSeatbid(SeatBid.newBuilder().addBid(Bid.newBuilder()
+              .setId("2")
+              .setImpid("imp2")
+              .setAdid("ad2")
+              .setPrice(2)
+              .setAdm(OpenRtbMacros.AUCTION_AD_ID.key() + "/"
+                  + OpenRtbMacros.AUCTION_IMP_ID.key())));
+      processor.process(workspace.snippetContext());
+      response2 = workspace.response().build();
+    }
+
+    assertThat(response1.getSeatbid(0).getBid(0).getAdm()).isEqualTo("ad1");
+    assertThat(response2.getSeatbid(0).getBid(0).getAdm()).isEqualTo("ad2/imp2");
+  }
+
+  @Test
+  public void testBoundsAndTrimming() {
+    ResponseWorkspace.Pool pool = new ResponseWorkspace.Pool(1, 16, 64);
+    ResponseWorkspace workspace1 = pool.acquire(REQUEST1);
+    ResponseWorkspace workspace2 = pool.acquire(REQUEST2);
+    assertThat(workspace2).isNotSameInstanceAs(workspace1);
+    workspace1.snippetContext().builder().append(new char[1000]);
+    assertThat(workspace1.ints(100)).hasLength(100);
+    assertThat(workspace1.doubles(10).length).isAtLeast(10);
+    workspace1.close();
+    workspace2.close();
+    assertThat(pool.idle()).isEqualTo(1);
+
+    try (ResponseWorkspace workspace = pool.acquire(REQUEST1)) {
+      assertThat(workspace).isSameInstanceAs(workspace1);
+      assertThat(workspace.snippetContext().builder().length()).isEqualTo(0);
+      assertThat(workspace.snippetContext().builder().capacity()).isAtMost(64);
+      assertThat(workspace.ints(1)).hasLength(1);
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testClosed() {
+    ResponseWorkspace workspace = new ResponseWorkspace.Pool(1, 0, 0).acquire(REQUEST1);
+    workspace.close();
+    workspace.response();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadPool() {
+    new ResponseWorkspace.Pool(1, 10, 5);
+  }
+}
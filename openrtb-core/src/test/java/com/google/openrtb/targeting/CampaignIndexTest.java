@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.targeting;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.openrtb.OpenRtb.APIFramework;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.App;
+import com.google.openrtb.OpenRtb.BidRequest.Device;
+import com.google.openrtb.OpenRtb.BidRequest.Geo;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Banner;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Video;
+import com.google.openrtb.OpenRtb.BidRequest.User;
+import com.google.openrtb.OpenRtb.ConnectionType;
+import com.google.openrtb.OpenRtb.ContentCategory;
+import com.google.openrtb.OpenRtb.DeviceType;
+import com.google.openrtb.OpenRtb.Protocol;
+import com.google.openrtb.targeting.CampaignIndex.Campaign;
+import org.junit.Test;
+
+/**
+ * Tests for {@link CampaignIndex}.
+ */
+public class CampaignIndexTest {
+  private static final BidRequest REQUEST = BidRequest.newBuilder()
+      .setId("1")
+      .setApp(App.newBuilder().addCat("IAB1-1").addCat("IAB2"))
+      .setDevice(Device.newBuilder()
+          .setDevicetype(DeviceType.TABLET)
+          .setConnectiontype(ConnectionType.WIFI))
+      .setUser(User.newBuilder().setGeo(Geo.newBuilder().setCountry("usa")))
+      .addImp(Imp.newBuilder()
+          .setId("banner")
+          .setBanner(Banner.newBuilder()
+              .setW(320).setH(50)
+              .addApi(APIFramework.MRAID_2)
+              .addFormat(Banner.Format.newBuilder().setW(300).setH(250))))
+      .addImp(Imp.newBuilder()
+          .setId("video")
+          .setVideo(Video.newBuilder()
+              .addProtocols(Protocol.VAST_3_0)
+              .addApi(APIFramework.VPAID_2)))
+      .build();
+
+  @Test
+  public void testCandidates() {
+    CampaignIndex index = new CampaignIndex();
+    index.putAll(ImmutableList.of(
+        Campaign.newBuilder("any").build(),
+        Campaign.newBuilder("mrec-us").addFormat(300, 250).addCountry("USA").build(),
+        Campaign.newBuilder("mrec-ca").addFormat(300, 250).addCountry("CAN").build(),
+        Campaign.newBuilder("mraid")
+            .addApi(APIFramework.MRAID_1, APIFramework.MRAID_2)
+            .addCategory(ContentCategory.IAB1_1)
+            .build(),
+        Campaign.newBuilder("vast")
+            .addProtocol(Protocol.VAST_3_0)
+            .addDeviceType(DeviceType.TABLET, DeviceType.HIGHEND_PHONE)
+            .addConnectionType(ConnectionType.WIFI)
+            .build(),
+        Campaign.newBuilder("cell").addConnectionType(ConnectionType.CELL_4G).build()));
+    assertThat(index.size()).isEqualTo(6);
+
+    ImmutableSetMultimap<String, String> candidates = index.candidates(REQUEST);
+    assertThat(candidates.get("banner")).containsExactly("any", "mrec-us", "mraid");
+    assertThat(candidates.get("video")).containsExactly("any", "vast");
+    assertThat(index.candidates(REQUEST, REQUEST.getImp(1))).containsExactly("any", "vast");
+  }
+
+  @Test
+  public void testUpdates() {
+    CampaignIndex index = new CampaignIndex();
+    assertThat(index.candidates(REQUEST)).isEmpty();
+
+    index.put(Campaign.newBuilder("c1").addCountry("CAN").build());
+    assertThat(index.candidates(REQUEST)).isEmpty();
+
+    index.put(Campaign.newBuilder("c1").addCountry("USA").build());
+    assertThat(index.candidates(REQUEST).get("banner")).containsExactly("c1");
+
+    assertThat(index.remove("c1")).isTrue();
+    assertThat(index.remove("c1")).isFalse();
+    assertThat(index.candidates(REQUEST)).isEmpty();
+
+    index.put(Campaign.newBuilder("c2").build());
+    index.replaceAll(ImmutableList.of(Campaign.newBuilder("c3").build()));
+    assertThat(index.candidates(REQUEST).get("video")).containsExactly("c3");
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.targeting;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.App;
+import com.google.openrtb.OpenRtb.BidRequest.Device;
+import com.google.openrtb.OpenRtb.BidRequest.Geo;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Banner;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Native;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Pmp;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Video;
+import com.google.openrtb.OpenRtb.BidRequest.Site;
+import com.google.openrtb.OpenRtb.DeviceType;
+import com.google.openrtb.targeting.TargetingExpression.Attribute;
+import org.junit.Test;
+
+/**
+ * Tests for {@link LineItemMatcher} and {@link TargetingExpression}.
+ */
+public class LineItemMatcherTest {
+  private static final BidRequest REQUEST = BidRequest.newBuilder()
+      .setId("1")
+      .setSite(Site.newBuilder().addCat("IAB10-1"))
+      .setDevice(Device.newBuilder()
+          .setDevicetype(DeviceType.HIGHEND_PHONE)
+          .setGeo(Geo.newBuilder().setCountry("USA")))
+      .addImp(Imp.newBuilder()
+          .setId("banner")
+          .setBanner(Banner.newBuilder()
+              .addFormat(Banner.Format.newBuilder().setW(300).setH(250))
+              .addFormat(Banner.Format.newBuilder().setW(320).setH(50))))
+      .addImp(Imp.newBuilder()
+          .setId("video")
+          .setVideo(Video.newBuilder())
+          .setPmp(Pmp.newBuilder().addDeals(Pmp.Deal.newBuilder().setId("d1"))))
+      .addImp(Imp.newBuilder()
+          .setId("native")
+          .setNative(Native.newBuilder()))
+      .build();
+
+  @Test
+  public void testParse() {
+    assertThat(TargetingExpression.parse(
+        "IMP.TYPE in (Banner, video) and not (geo.country = \"can\" or cat in (IAB10_1))"))
+        .isEqualTo(TargetingExpression.and(
+            TargetingExpression.in(Attribute.IMP_TYPE, "banner", "video"),
+            TargetingExpression.not(TargetingExpression.or(
+                TargetingExpression.in(Attribute.COUNTRY, "CAN"),
+                TargetingExpression.in(Attribute.CATEGORY, "IAB10-1")))));
+    assertThat(TargetingExpression.parse("banner.size = 300x250").toString())
+        .isEqualTo("banner.size in (\"300x250\")");
+
+    assertThrows(IllegalArgumentException.class, () -> TargetingExpression.parse(""));
+    assertThrows(IllegalArgumentException.class, () -> TargetingExpression.parse("foo = 1"));
+    assertThrows(IllegalArgumentException.class, () -> TargetingExpression.parse("deal in ()"));
+    assertThrows(IllegalArgumentException.class, () -> TargetingExpression.parse("deal = \"x"));
+    assertThrows(IllegalArgumentException.class, () -> TargetingExpression.parse("deal = x)"));
+    assertThrows(IllegalArgumentException.class, () -> TargetingExpression.parse("deal ! x"));
+  }
+
+  @Test
+  public void testMatch() {
+    LineItemMatcher matcher = LineItemMatcher.builder()
+        .add("banner-us", "imp.type = banner and geo.country = usa")
+        .add("mrec", "banner.size in (300x250, 728x90)")
+        .add("leaderboard", "banner.size = 728x90")
+        .add("deal", "deal = d1 and device.devicetype in (HIGHEND_PHONE, TABLET)")
+        .add("not-video", "not imp.type = video")
+        .add("cat", "cat = IAB10_1 and (imp.type = native or imp.type = video)")
+        .add("excluded-cat", "cat = IAB10_1 and not cat = IAB10-1")
+        .add("ctv", "device.devicetype = CONNECTED_TV")
+        .build();
+    assertThat(matcher.size()).isEqualTo(8);
+    // "imp.type = video" and "cat = IAB10_1" are shared
+    assertThat(matcher.atomCount()).isEqualTo(10);
+
+    ImmutableListMultimap<String, String> matches = matcher.match(REQUEST);
+    assertThat(matches.get("banner")).containsExactly("banner-us", "mrec", "not-video");
+    assertThat(matches.get("video")).containsExactly("deal", "cat");
+    assertThat(matches.get("native")).containsExactly("not-video", "cat");
+    assertThat(matcher.match(REQUEST, REQUEST.getImp(1))).containsExactly("deal", "cat");
+
+    BidRequest appRequest = REQUEST.toBuilder()
+        .setApp(App.newBuilder().addCat("IAB1"))
+        .clearDevice()
+        .build();
+    matches = matcher.match(appRequest);
+    assertThat(matches.get("banner")).containsExactly("mrec", "not-video");
+    assertThat(matches.get("video")).isEmpty();
+  }
+
+  @Test
+  public void testDuplicate() {
+    LineItemMatcher.Builder builder = LineItemMatcher.builder().add("1", "deal = x");
+    assertThrows(IllegalArgumentException.class, () -> builder.add("1", "deal = y"));
+  }
+}
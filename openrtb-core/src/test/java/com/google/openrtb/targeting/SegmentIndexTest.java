@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.targeting;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableMultimap;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Data;
+import com.google.openrtb.OpenRtb.BidRequest.Data.Segment;
+import com.google.openrtb.OpenRtb.BidRequest.User;
+import com.google.openrtb.targeting.SegmentIndex.Match;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SegmentIndex}.
+ */
+public class SegmentIndexTest {
+
+  @Test
+  public void testMatch() {
+    SegmentIndex index = new SegmentIndex();
+    index.put("any", Match.ANY, ImmutableMultimap.of("dp1", "s1", "dp2", "s1"));
+    index.put("all", Match.ALL, ImmutableMultimap.of("dp1", "s1", "dp1", "s2"));
+    index.put("other", Match.ANY, ImmutableMultimap.of("dp3", "s1"));
+    assertThat(index.size()).isEqualTo(3);
+    assertThat(index.segmentCount()).isEqualTo(4);
+
+    assertThat(index.matchingCampaigns(request(Data.newBuilder().setId("dp1").addSegment(
+        Segment.newBuilder().setId("s1"))))).containsExactly("any");
+    assertThat(index.matchingCampaigns(request(Data.newBuilder().setId("dp1")
+        .addSegment(Segment.newBuilder().setId("s1"))
+        .addSegment(Segment.newBuilder().setId("s2"))))).containsExactly("any", "all");
+    // Same segment ID, different provider
+    assertThat(index.matchingCampaigns(request(Data.newBuilder().setId("dp2").addSegment(
+        Segment.newBuilder().setId("s2"))))).isEmpty();
+    assertThat(index.matchingCampaigns(BidRequest.newBuilder().setId("1").build())).isEmpty();
+    // Unknown segments are not interned
+    assertThat(index.segmentId("dp9", "s9")).isNull();
+    assertThat(index.segmentCount()).isEqualTo(4);
+  }
+
+  @Test
+  public void testUpdates() {
+    SegmentIndex index = new SegmentIndex();
+    index.put("c1", Match.ANY, ImmutableMultimap.of("dp", "a"));
+    index.put("c2", Match.ANY, ImmutableMultimap.of("dp", "b"));
+    BidRequest requestA = request(Data.newBuilder().setId("dp").addSegment(
+        Segment.newBuilder().setId("a")));
+    assertThat(index.matchingCampaigns(requestA)).containsExactly("c1");
+
+    index.put("c2", Match.ANY, ImmutableMultimap.of("dp", "a"));
+    assertThat(index.matchingCampaigns(requestA)).containsExactly("c1", "c2");
+
+    assertThat(index.remove("c1")).isTrue();
+    assertThat(index.remove("c1")).isFalse();
+    assertThat(index.matchingCampaigns(requestA)).containsExactly("c2");
+
+    // Reuses the slot freed by c1
+    index.put("c3", Match.ALL, ImmutableMultimap.of("dp", "a"));
+    assertThat(index.matchingCampaigns(requestA)).containsExactly("c2", "c3");
+    assertThat(index.size()).isEqualTo(2);
+  }
+
+  private static BidRequest request(Data.Builder data) {
+    return BidRequest.newBuilder()
+        .setId("1")
+        .setUser(User.newBuilder().addData(data))
+        .build();
+  }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.openrtb.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.openrtb.OpenRtb.AuctionType;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Pmp;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Pmp.Deal;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid.Bid;
+import org.junit.Test;
+
+/**
+ * Tests for {@link AuctionEngine}.
+ */
+public class AuctionEngineTest {
+  private static final double DELTA = 1e-9;
+  private static final BidRequest REQUEST = BidRequest.newBuilder()
+      .setId("1")
+      .addImp(Imp.newBuilder().setId("1").setBidfloor(1.0))
+      .addImp(Imp.newBuilder().setId("2").setBidfloor(0.5))
+      .addImp(Imp.newBuilder()
+          .setId("3")
+          .setPmp(Pmp.newBuilder()
+              .addDeals(Deal.newBuilder().setId("d1").setBidfloor(4.0))
+              .addDeals(Deal.newBuilder()
+                  .setId("d2").setBidfloor(3.0).setAt(AuctionType.FIXED_PRICE))))
+      .build();
+
+  @Test
+  public void testSecondPrice() {
+    AuctionEngine.Result result = new AuctionEngine().run(REQUEST, BidResponse.newBuilder()
+        .setId("1")
+        .addSeatbid(SeatBid.newBuilder().setSeat("a")
+            .addBid(bid("a1", "1", 3.0))
+            .addBid(bid("a2", "2", 0.4)))
+        .addSeatbid(SeatBid.newBuilder().setSeat("b")
+            .addBid(bid("b1", "1", 2.0))
+            .addBid(bid("b2", "2", 0.8))
+            .addBid(bid("b3", "x", 9.0)))
+        .build());
+
+    assertThat(result.winnerCount()).isEqualTo(2);
+    assertThat(result.winner("1").getId()).isEqualTo("a1");
+    assertThat(result.clearingPrice("1")).isWithin(DELTA).of(2.01);
+    // Losing bid a2 is below floor, so b2 has no competition and pays the floor plus increment.
+    assertThat(result.winner("2").getId()).isEqualTo("b2");
+    assertThat(result.clearingPrice("2")).isWithin(DELTA).of(0.51);
+    assertThat(result.winner("3")).isNull();
+    assertThat(result.clearingPrice("3")).isWithin(DELTA).of(0.0);
+    assertThat(result.winner("x")).isNull();
+
+    BidResponse filtered = result.response();
+    assertThat(filtered.getId()).isEqualTo("1");
+    assertThat(filtered.getSeatbidCount()).isEqualTo(2);
+    assertThat(filtered.getSeatbid(0).getSeat()).isEqualTo("a");
+    assertThat(filtered.getSeatbid(0).getBidList()).containsExactly(bid("a1", "1", 3.0));
+    assertThat(filtered.getSeatbid(1).getBidList()).containsExactly(bid("b2", "2", 0.8));
+  }
+
+  @Test
+  public void testFirstPriceAndIncrement() {
+    BidResponse response = BidResponse.newBuilder()
+        .setId("1")
+        .addSeatbid(SeatBid.newBuilder()
+            .addBid(bid("a1", "1", 3.0))
+            .addBid(bid("b1", "1", 2.995)))
+        .build();
+
+    assertThat(new AuctionEngine().run(REQUEST, response).clearingPrice("1"))
+        .isWithin(DELTA).of(3.0);
+    assertThat(new AuctionEngine(0).run(REQUEST, response).clearingPrice("1"))
+        .isWithin(DELTA).of(2.995);
+    assertThat(new AuctionEngine().run(
+        REQUEST.toBuilder().setAt(AuctionType.FIRST_PRICE).build(), response)
+        .clearingPrice("1")).isWithin(DELTA).of(3.0);
+  }
+
+  @Test
+  public void testSoleBid() {
+    AuctionEngine.Result result = new AuctionEngine().run(REQUEST, BidResponse.newBuilder()
+        .setId("1")
+        .addSeatbid(SeatBid.newBuilder()
+            .addBid(bid("a1", "1", 3.0))
+            .addBid(bid("a2", "2", 0.505))
+            .addBid(bid("a3", "3", 2.5)))
+        .build());
+
+    assertThat(result.clearingPrice("1")).isWithin(DELTA).of(1.01);
+    // Floor plus increment, capped at the bid's price.
+    assertThat(result.clearingPrice("2")).isWithin(DELTA).of(0.505);
+    // No floor: the winner pays its own price.
+    assertThat(result.clearingPrice("3")).isWithin(DELTA).of(2.5);
+  }
+
+  @Test
+  public void testPrivateAuction() {
+    BidRequest request = REQUEST.toBuilder()
+        .setImp(2, REQUEST.getImp(2).toBuilder()
+            .setPmp(REQUEST.getImp(2).getPmp().toBuilder().setPrivateAuction(true)))
+        .build();
+    AuctionEngine.Result result = new AuctionEngine().run(request, BidResponse.newBuilder()
+        .setId("1")
+        .addSeatbid(SeatBid.newBuilder()
+            .addBid(bid("a1", "3", 9.0))
+            .addBid(bid("a2", "3", 4.5).toBuilder().setDealid("d1")))
+        .build());
+
+    assertThat(result.winner("3").getId()).isEqualTo("a2");
+    assertThat(result.clearingPrice("3")).isWithin(DELTA).of(4.01);
+  }
+
+  @Test
+  public void testDeals() {
+    AuctionEngine.Result result = new AuctionEngine().run(REQUEST, BidResponse.newBuilder()
+        .setId("1")
+        .addSeatbid(SeatBid.newBuilder()
+            .addBid(bid("a1", "3", 3.5).toBuilder().setDealid("d1"))
+            .addBid(bid("a2", "3", 3.2).toBuilder().setDealid("d2"))
+            .addBid(bid("a3", "3", 9.0).toBuilder().setDealid("unknown"))
+            .addBid(bid("a4", "3", 9.0)))
+        .build());
+
+    // a1 is below its deal floor; a3's deal doesn't exist; a4 is open auction without floor.
+    assertThat(result.winner("3").getId()).isEqualTo("a4");
+
+    result = new AuctionEngine().run(REQUEST, BidResponse.newBuilder()
+        .setId("1")
+        .addSeatbid(SeatBid.newBuilder()
+            .addBid(bid("a1", "3", 3.5).toBuilder().setDealid("d1"))
+            .addBid(bid("a2", "3", 3.2).toBuilder().setDealid("d2")))
+        .build());
+    assertThat(result.winner("3").getId()).isEqualTo("a2");
+    assertThat(result.clearingPrice("3")).isWithin(DELTA).of(3.0);
+  }
+
+  @Test
+  public void testGroup() {
+    BidResponse response = BidResponse.newBuilder()
+        .setId("1")
+        .addSeatbid(SeatBid.newBuilder().setSeat("a").setGroup(true)
+            .addBid(bid("a1", "1", 5.0))
+            .addBid(bid("a2", "2", 1.0)))
+        .addSeatbid(SeatBid.newBuilder().setSeat("b")
+            .addBid(bid("b1", "1", 2.0))
+            .addBid(bid("b2", "2", 2.0)))
+        .build();
+
+    // a2 loses imp 2, so the whole group is withdrawn and b1 wins imp 1.
+    AuctionEngine.Result result = new AuctionEngine().run(REQUEST, response);
+    assertThat(result.winner("1").getId()).isEqualTo("b1");
+    assertThat(result.clearingPrice("1")).isWithin(DELTA).of(1.01);
+    assertThat(result.winner("2").getId()).isEqualTo("b2");
+    assertThat(result.response().getSeatbidList()).hasSize(1);
+
+    // Without group semantics, seat a wins imp 1.
+    result = new AuctionEngine().run(REQUEST, response.toBuilder()
+        .setSeatbid(0, response.getSeatbid(0).toBuilder().setGroup(false))
+        .build());
+    assertThat(result.winner("1").getId()).isEqualTo("a1");
+    assertThat(result.response().getSeatbidList()).hasSize(2);
+
+    // Group that wins everything.
+    result = new AuctionEngine().run(REQUEST, response.toBuilder()
+        .setSeatbid(0, response.getSeatbid(0).toBuilder()
+            .setBid(1, bid("a2", "2", 3.0)))
+        .build());
+    assertThat(result.winner("1").getId()).isEqualTo("a1");
+    assertThat(result.winner("2").getId()).isEqualTo("a2");
+  }
+
+  @Test
+  public void testOverlappingGroups() {
+    BidResponse response = BidResponse.newBuilder()
+        .setId("1")
+        .addSeatbid(SeatBid.newBuilder().setSeat("a").setGroup(true)
+            .addBid(bid("a1", "1", 3.0))
+            .addBid(bid("a2", "2", 1.0)))
+        .addSeatbid(SeatBid.newBuilder().setSeat("b").setGroup(true)
+            .addBid(bid("b1", "1", 2.0))
+            .addBid(bid("b2", "2", 4.0)))
+        .addSeatbid(SeatBid.newBuilder().setSeat("c")
+            .addBid(bid("c1", "1", 1.5)))
+        .build();
+
+    // Each group outbids the other on one impression, but b has the higher total, so it wins
+    // both impressions; a is withdrawn instead of knocking b out.
+    AuctionEngine.Result result = new AuctionEngine().run(REQUEST, response);
+    assertThat(result.winner("1").getId()).isEqualTo("b1");
+    assertThat(result.clearingPrice("1")).isWithin(DELTA).of(1.51);
+    assertThat(result.winner("2").getId()).isEqualTo("b2");
+    assertThat(result.clearingPrice("2")).isWithin(DELTA).of(0.51);
+    assertThat(result.response().getSeatbidList()).containsExactly(response.getSeatbid(1));
+
+    // A group that can't outbid the ungrouped bids is withdrawn, even with the higher total.
+    result = new AuctionEngine().run(REQUEST, response.toBuilder()
+        .setSeatbid(2, response.getSeatbid(2).toBuilder().setBid(0, bid("c1", "1", 2.5)))
+        .build());
+    assertThat(result.winner("1").getId()).isEqualTo("a1");
+    assertThat(result.clearingPrice("1")).isWithin(DELTA).of(2.51);
+    assertThat(result.winner("2").getId()).isEqualTo("a2");
+  }
+
+  @Test
+  public void testCurrency() {
+    AuctionEngine engine = new AuctionEngine(AuctionEngine.DEFAULT_INCREMENT,
+        new CurrencyConverter(ImmutableMap.of("USD", 1.0, "EUR", 0.5)));
+    BidRequest request = REQUEST.toBuilder()
+        .setImp(0, REQUEST.getImp(0).toBuilder().setBidfloorcur("EUR"))
+        .setImp(1, REQUEST.getImp(1).toBuilder().setBidfloorcur("GBP"))
+        .build();
+    AuctionEngine.Result result = engine.run(request, BidResponse.newBuilder()
+        .setId("1")
+        .setCur("USD")
+        .addSeatbid(SeatBid.newBuilder()
+            .addBid(bid("a1", "1", 1.5))
+            .addBid(bid("a2", "2", 9.0)))
+        .build());
+
+    // The floor of 1 EUR is 2 USD.
+    assertThat(result.winner("1")).isNull();
+    // Unsupported floor currency.
+    assertThat(result.winner("2")).isNull();
+
+    result = engine.run(request, BidResponse.newBuilder()
+        .setId("1")
+        .setCur("EUR")
+        .addSeatbid(SeatBid.newBuilder().addBid(bid("a1", "1", 1.5)))
+        .build());
+    assertThat(result.winner("1").getId()).isEqualTo("a1");
+    assertThat(result.clearingPrice("1")).isWithin(DELTA).of(1.01);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadIncrement() {
+    new AuctionEngine(-1);
+  }
+
+  private static Bid bid(String id, String impId, double price) {
+    return Bid.newBuilder().setId(id).setImpid(impId).setPrice(price).build();
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.Test;
+
+/**
+ * Tests for {@link CompressedBitmap}.
+ */
+public class CompressedBitmapTest {
+
+  @Test
+  public void testAddRemove() {
+    CompressedBitmap bitmap = new CompressedBitmap();
+    assertThat(bitmap.isEmpty()).isTrue();
+    assertThat(bitmap.add(5)).isTrue();
+    assertThat(bitmap.add(5)).isFalse();
+    assertThat(bitmap.add(1 << 20)).isTrue();
+    assertThat(bitmap.contains(5)).isTrue();
+    assertThat(bitmap.contains(6)).isFalse();
+    assertThat(bitmap.contains(-1)).isFalse();
+    assertThat(bitmap.cardinality()).isEqualTo(2);
+    assertThat(bitmap.toArray()).asList().containsExactly(5, 1 << 20).inOrder();
+    assertThat(bitmap.remove(5)).isTrue();
+    assertThat(bitmap.remove(5)).isFalse();
+    assertThat(bitmap.remove(1 << 20)).isTrue();
+    assertThat(bitmap.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void testDenseContainer() {
+    CompressedBitmap bitmap = new CompressedBitmap();
+    for (int i = 0; i < CompressedBitmap.ARRAY_MAX * 2; ++i) {
+      bitmap.add(i * 2);
+    }
+    assertThat(bitmap.cardinality()).isEqualTo(CompressedBitmap.ARRAY_MAX * 2);
+    assertThat(bitmap.contains(2)).isTrue();
+    assertThat(bitmap.contains(3)).isFalse();
+    for (int i = 0; i < CompressedBitmap.ARRAY_MAX * 2; i += 2) {
+      bitmap.remove(i * 2);
+    }
+    assertThat(bitmap.cardinality()).isEqualTo(CompressedBitmap.ARRAY_MAX);
+    assertThat(bitmap.contains(2)).isTrue();
+    assertThat(bitmap.contains(4)).isFalse();
+  }
+
+  @Test
+  public void testSetOperations() {
+    Random random = new Random(42);
+    for (int round = 0; round < 20; ++round) {
+      TreeSet<Integer> set1 = new TreeSet<>();
+      TreeSet<Integer> set2 = new TreeSet<>();
+      CompressedBitmap bitmap1 = new CompressedBitmap();
+      CompressedBitmap bitmap2 = new CompressedBitmap();
+      int range = round % 2 == 0 ? 1 << 18 : 1 << 14;
+      int count = random.nextInt(10_000);
+      for (int i = 0; i < count; ++i) {
+        int v1 = random.nextInt(range);
+        int v2 = random.nextInt(range);
+        set1.add(v1);
+        set2.add(v2);
+        bitmap1.add(v1);
+        bitmap2.add(v2);
+      }
+
+      TreeSet<Integer> and = new TreeSet<>(set1);
+      and.retainAll(set2);
+      TreeSet<Integer> or = new TreeSet<>(set1);
+      or.addAll(set2);
+
+      assertThat(bitmap1.and(bitmap2).toArray()).asList().containsExactlyElementsIn(and).inOrder();
+      assertThat(bitmap1.andCardinality(bitmap2)).isEqualTo(and.size());
+      assertThat(bitmap1.intersects(bitmap2)).isEqualTo(!and.isEmpty());
+      assertThat(bitmap1.or(bitmap2).toArray()).asList().containsExactlyElementsIn(or).inOrder();
+      assertThat(bitmap1.and(bitmap2).isSubsetOf(bitmap1)).isTrue();
+      assertThat(bitmap1.copy().orInPlace(bitmap2).toArray()).asList()
+          .containsExactlyElementsIn(or).inOrder();
+      assertThat(bitmap2.toArray()).asList().containsExactlyElementsIn(set2).inOrder();
+    }
+  }
+
+  @Test
+  public void testOrInPlace() {
+    Random random = new Random(7);
+    TreeSet<Integer> expected = new TreeSet<>();
+    CompressedBitmap union = new CompressedBitmap();
+    CompressedBitmap[] postings = new CompressedBitmap[30];
+    for (int p = 0; p < postings.length; ++p) {
+      // Mix of sparse and dense containers, over overlapping keys
+      int count = p % 3 == 0 ? 3_000 : random.nextInt(300);
+      int base = random.nextInt(4) << 16;
+      postings[p] = new CompressedBitmap();
+      for (int i = 0; i < count; ++i) {
+        int value = base + random.nextInt(1 << 16);
+        postings[p].add(value);
+        expected.add(value);
+      }
+      assertThat(union.orInPlace(postings[p])).isSameInstanceAs(union);
+      assertThat(union.cardinality()).isEqualTo(expected.size());
+    }
+    assertThat(union.toArray()).asList().containsExactlyElementsIn(expected).inOrder();
+    assertThat(union.orInPlace(union).cardinality()).isEqualTo(expected.size());
+
+    // The union doesn't share containers with its inputs
+    CompressedBitmap first = postings[0].copy();
+    for (int value : first.toArray()) {
+      union.remove(value);
+    }
+    assertThat(postings[0]).isEqualTo(first);
+  }
+
+  @Test
+  public void testCopyIsIndependent() {
+    CompressedBitmap bitmap = CompressedBitmap.of(1, 2, 3);
+    CompressedBitmap copy = bitmap.copy();
+    copy.add(4);
+    copy.remove(1);
+    assertThat(bitmap).isEqualTo(CompressedBitmap.of(1, 2, 3));
+    assertThat(copy).isEqualTo(CompressedBitmap.of(2, 3, 4));
+    assertThat(bitmap.orInPlace(copy)).isEqualTo(CompressedBitmap.of(1, 2, 3, 4));
+  }
+}
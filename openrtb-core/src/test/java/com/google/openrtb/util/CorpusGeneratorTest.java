@@ -0,0 +1,179 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Range;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid.Bid;
+import com.google.openrtb.util.CorpusGenerator.Distribution;
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+/**
+ * Tests for {@link CorpusGenerator}.
+ */
+public class CorpusGeneratorTest {
+  @Test
+  public void testReproducible() {
+    CorpusGenerator generator = CorpusGenerator.builder().seed(42).build();
+    assertThat(CorpusGenerator.builder().seed(42).build().request(7))
+        .isEqualTo(generator.request(7));
+    assertThat(generator.request(8)).isNotEqualTo(generator.request(7));
+    assertThat(CorpusGenerator.builder().seed(43).build().request(7))
+        .isNotEqualTo(generator.request(7));
+    assertThat(generator.requests(100).parallel().collect(Collectors.toList()))
+        .containsExactlyElementsIn(generator.requests(100).collect(Collectors.toList()))
+        .inOrder();
+    assertThat(generator.responses(10).collect(Collectors.toList()))
+        .containsExactlyElementsIn(generator.responses(10).collect(Collectors.toList()))
+        .inOrder();
+  }
+
+  @Test
+  public void testDefaults() throws InvalidProtocolBufferException {
+    CorpusGenerator generator = CorpusGenerator.builder().build();
+    int banners = 0;
+    int videos = 0;
+    int natives = 0;
+    int audios = 0;
+    int apps = 0;
+    int deals = 0;
+    int extensions = 0;
+    Set<String> domains = new HashSet<>();
+    List<BidRequest> requests = generator.requests(2000).collect(Collectors.toList());
+    for (BidRequest request : requests) {
+      assertThat(request.isInitialized()).isTrue();
+      assertThat(request.getImpCount()).isIn(ImmutableList.of(1, 2, 3, 5));
+      assertThat(request.getBcatCount()).isAtMost(50);
+      assertThat(request.getBadvCount()).isAtMost(200);
+      apps += request.hasApp() ? 1 : 0;
+      domains.add(request.getSite().getDomain());
+      extensions += request.getUnknownFields().hasField(CorpusGenerator.EXT_FIELD) ? 1 : 0;
+      for (Imp imp : request.getImpList()) {
+        banners += imp.hasBanner() ? 1 : 0;
+        videos += imp.hasVideo() ? 1 : 0;
+        natives += imp.hasNative() ? 1 : 0;
+        audios += imp.hasAudio() ? 1 : 0;
+        deals += imp.getPmp().getDealsCount();
+        assertThat(imp.getBanner().getFormatCount()).isAtMost(10);
+        assertThat(imp.getBidfloor()).isGreaterThan(0.0);
+      }
+      // Extension payloads survive serialization as unknown fields
+      assertThat(BidRequest.parseFrom(request.toByteArray())).isEqualTo(request);
+    }
+    assertThat(banners).isGreaterThan(videos);
+    assertThat(videos).isGreaterThan(audios);
+    assertThat(natives).isGreaterThan(audios);
+    assertThat(audios).isGreaterThan(0);
+    assertThat(apps).isIn(Range.closed(600, 1000));
+    assertThat(deals).isGreaterThan(0);
+    assertThat(extensions).isIn(Range.closed(800, 1200));
+    assertThat(domains.size()).isGreaterThan(100);
+  }
+
+  @Test
+  public void testResponses() {
+    CorpusGenerator generator = CorpusGenerator.builder().bidRate(1).build();
+    for (int i = 0; i < 200; ++i) {
+      BidRequest request = generator.request(i);
+      BidResponse response = generator.response(request, i);
+      assertThat(response.getId()).isEqualTo(request.getId());
+      int bids = 0;
+      for (SeatBid seat : response.getSeatbidList()) {
+        for (Bid bid : seat.getBidList()) {
+          ++bids;
+          Imp imp = OpenRtbUtils.impWithId(request, bid.getImpid());
+          assertThat(imp).isNotNull();
+          if (bid.hasDealid()) {
+            assertThat(DealIndex.of(request).deal(imp.getId(), bid.getDealid())).isNotNull();
+          } else {
+            assertThat(bid.getPrice()).isAtLeast(imp.getBidfloor());
+          }
+        }
+      }
+      assertThat(bids).isEqualTo(request.getImpCount());
+    }
+  }
+
+  @Test
+  public void testConfigured() {
+    CorpusGenerator generator = CorpusGenerator.builder()
+        .impCount(Distribution.constant(4))
+        .mediaMix(1, 0, 0, 0)
+        .formatCount(Distribution.constant(3))
+        .dealCount(Distribution.constant(0))
+        .bcatCount(Distribution.uniform(2, 2))
+        .badvCount(Distribution.constant(0))
+        .userDataCount(Distribution.constant(1))
+        .segmentCount(Distribution.constant(7))
+        .extensionSize(Distribution.constant(0))
+        .appRatio(1)
+        .domainCount(1)
+        .build();
+    generator.requests(50).forEach(request -> {
+      assertThat(request.getImpCount()).isEqualTo(4);
+      assertThat(request.getBcatCount()).isEqualTo(2);
+      assertThat(request.getBadvCount()).isEqualTo(0);
+      assertThat(request.getApp().getBundle()).isEqualTo("com.example.app0");
+      assertThat(request.getUser().getData(0).getSegmentCount()).isEqualTo(7);
+      assertThat(request.getUnknownFields().asMap()).isEmpty();
+      for (Imp imp : request.getImpList()) {
+        assertThat(imp.getBanner().getFormatCount()).isEqualTo(3);
+        assertThat(imp.hasPmp()).isFalse();
+      }
+    });
+  }
+
+  @Test
+  public void testDistributions() {
+    SplittableRandom random = new SplittableRandom(1);
+    Distribution zipf = Distribution.zipf(100, 1.0);
+    Distribution geometric = Distribution.geometric(4, 20);
+    Distribution weighted = Distribution.weighted(new int[] { 3, 7 }, new double[] { 1, 3 });
+    int[] ranks = new int[100];
+    long geometricSum = 0;
+    int sevens = 0;
+    for (int i = 0; i < 100_000; ++i) {
+      ++ranks[zipf.sample(random)];
+      int g = geometric.sample(random);
+      assertThat(g).isAtMost(20);
+      geometricSum += g;
+      sevens += weighted.sample(random) == 7 ? 1 : 0;
+    }
+    assertThat(ranks[0]).isGreaterThan(ranks[1]);
+    assertThat(ranks[1]).isGreaterThan(ranks[10]);
+    assertThat(ranks[99]).isGreaterThan(0);
+    assertThat(geometricSum / 100_000.0).isWithin(0.2).of(4);
+    assertThat(sevens / 100_000.0).isWithin(0.01).of(0.75);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadWeights() {
+    Distribution.weighted(new int[] { 1 }, new double[] { 1, 2 });
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import java.nio.file.Paths;
+import org.junit.Test;
+
+/**
+ * Tests for {@link CurrencyConverter}.
+ */
+public class CurrencyConverterTest {
+  private static final double DELTA = 1e-9;
+
+  @Test
+  public void testConvert() throws Exception {
+    CurrencyConverter converter = CurrencyConverter.fromFile(
+        Paths.get(CurrencyConverterTest.class.getResource("/currency-rates.properties").toURI()));
+    assertThat(converter.isSupported("EUR")).isTrue();
+    assertThat(converter.isSupported("eur")).isTrue();
+    assertThat(converter.isSupported("GBP")).isFalse();
+    assertThat(converter.convert(10, "USD", "EUR")).isWithin(DELTA).of(8);
+    assertThat(converter.convert(8, "eur", "JPY")).isWithin(DELTA).of(1500);
+    assertThat(converter.convert(3, "GBP", "GBP")).isWithin(DELTA).of(3);
+    assertThat(converter.convert(3, "GBP", "USD")).isNaN();
+    assertThat(converter.toString()).contains("JPY");
+
+    assertThat(converter.clears(1.0, "USD", 0.8, "EUR")).isTrue();
+    assertThat(converter.clears(1.0, "USD", 0.81, "EUR")).isFalse();
+    assertThat(converter.clears(1.0, "USD", 1.0, "GBP")).isFalse();
+    assertThat(converter.clears(1.0, "USD", 0, "GBP")).isTrue();
+  }
+
+  @Test
+  public void testSetRates() {
+    CurrencyConverter converter = new CurrencyConverter();
+    assertThat(converter.convert(1, "USD", "EUR")).isNaN();
+    assertThat(converter.convert(1, "USD", "USD")).isWithin(DELTA).of(1);
+    converter.setRates(ImmutableMap.of("USD", 1.0, "EUR", 0.5));
+    assertThat(converter.convert(1, "USD", "EUR")).isWithin(DELTA).of(0.5);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadRate() {
+    new CurrencyConverter(ImmutableMap.of("USD", 0.0));
+  }
+
+  @Test
+  public void testNormalizedFloors() {
+    CurrencyConverter converter = new CurrencyConverter(ImmutableMap.of("USD", 1.0, "EUR", 0.5));
+    double[] floors = converter.normalizedFloors(BidRequest.newBuilder()
+        .setId("1")
+        .addImp(Imp.newBuilder().setId("1").setBidfloor(2.0))
+        .addImp(Imp.newBuilder().setId("2").setBidfloor(2.0).setBidfloorcur("EUR"))
+        .addImp(Imp.newBuilder().setId("3").setBidfloor(2.0).setBidfloorcur("GBP"))
+        .addImp(Imp.newBuilder().setId("4").setBidfloorcur("GBP"))
+        .build(), "USD");
+    assertThat(floors).hasLength(4);
+    assertThat(floors[0]).isWithin(DELTA).of(2.0);
+    assertThat(floors[1]).isWithin(DELTA).of(4.0);
+    assertThat(floors[2]).isNaN();
+    assertThat(floors[3]).isWithin(DELTA).of(0.0);
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Pmp;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Pmp.Deal;
+import com.google.openrtb.util.DealIndex.ImpDeal;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests for {@link DealIndex}.
+ */
+public class DealIndexTest {
+  private static final DealIndex INDEX = DealIndex.of(BidRequest.newBuilder()
+      .setId("1")
+      .addImp(Imp.newBuilder()
+          .setId("1")
+          .setPmp(Pmp.newBuilder()
+              .addDeals(Deal.newBuilder().setId("a").setBidfloor(2.0).addWseat("s1"))
+              .addDeals(Deal.newBuilder().setId("b").setBidfloor(1.0))))
+      .addImp(Imp.newBuilder()
+          .setId("2")
+          .setPmp(Pmp.newBuilder()
+              .addDeals(Deal.newBuilder().setId("a").setBidfloor(3.0).addWseat("s1"))
+              .addDeals(Deal.newBuilder().setId("c").addWseat("s2"))))
+      .addImp(Imp.newBuilder().setId("3"))
+      .build());
+
+  @Test
+  public void testLookups() {
+    assertThat(INDEX.isEmpty()).isFalse();
+    assertThat(INDEX.deals("a")).hasSize(2);
+    assertThat(INDEX.deals("x")).isEmpty();
+    assertThat(INDEX.deal("2", "a").floor()).isEqualTo(3.0);
+    assertThat(INDEX.deal("2", "a").imp().getId()).isEqualTo("2");
+    assertThat(INDEX.deal("2", "b")).isNull();
+    assertThat(INDEX.deal("3", "a")).isNull();
+    assertThat(dealIds(INDEX.dealsForSeat("s1"))).containsExactly("1/a", "2/a", "1/b");
+    assertThat(dealIds(INDEX.dealsForSeat("s2"))).containsExactly("2/c", "1/b");
+    assertThat(dealIds(INDEX.dealsForSeat("s3"))).containsExactly("1/b");
+  }
+
+  @Test
+  public void testFloors() {
+    assertThat(dealIds(INDEX.dealsByFloor())).containsExactly("2/c", "1/b", "1/a", "2/a")
+        .inOrder();
+    assertThat(dealIds(INDEX.dealsClearedBy(2.0))).containsExactly("2/c", "1/b", "1/a")
+        .inOrder();
+    assertThat(INDEX.dealsClearedBy(-1.0)).isEmpty();
+    assertThat(DealIndex.of(BidRequest.newBuilder().setId("1").build()).isEmpty()).isTrue();
+  }
+
+  private static Iterable<String> dealIds(Iterable<ImpDeal> deals) {
+    List<String> ids = new ArrayList<>();
+    for (ImpDeal deal : deals) {
+      ids.add(deal.imp().getId() + "/" + deal.deal().getId());
+    }
+    return ids;
+  }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Device;
+import com.google.openrtb.OpenRtb.BidRequest.Geo;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidRequest.Site;
+import com.google.openrtb.OpenRtb.BidRequest.User;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid.Bid;
+import com.google.openrtb.OpenRtb.DeviceType;
+import com.google.openrtb.util.DecisionCache.Decision;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+/**
+ * Tests for {@link DecisionCache}.
+ */
+public class DecisionCacheTest {
+  private static final Decision DECISION = new Decision(1.5, "cr1", "deal1");
+
+  @Test
+  public void testHitsAndMisses() throws ExecutionException {
+    MetricRegistry metricRegistry = new MetricRegistry();
+    DecisionCache cache = DecisionCache.builder().metricRegistry(metricRegistry).build();
+    AtomicInteger loads = new AtomicInteger();
+    DecisionCache.Loader loader = request -> {
+      loads.incrementAndGet();
+      return ImmutableMap.of("1", DECISION);
+    };
+
+    assertThat(cache.getIfPresent(request("r1", "site1"))).isNull();
+    assertThat(cache.get(request("r1", "site1"), loader)).containsExactly("1", DECISION);
+    // Retry with a different id: same inventory
+    assertThat(cache.get(request("r2", "site1"), loader)).containsExactly("1", DECISION);
+    assertThat(cache.get(request("r3", "site2"), loader)).containsExactly("1", DECISION);
+    assertThat(loads.get()).isEqualTo(2);
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.hitRate()).isWithin(1e-9).of(1 / 4.0);
+    assertThat(gauge(metricRegistry, "hits")).isEqualTo(1L);
+    assertThat(gauge(metricRegistry, "misses")).isEqualTo(3L);
+    assertThat(gauge(metricRegistry, "size")).isEqualTo(2L);
+    assertThat((Double) gauge(metricRegistry, "hit-rate")).isWithin(1e-9).of(1 / 4.0);
+
+    cache.invalidate(request("r4", "site1"));
+    assertThat(cache.getIfPresent(request("r1", "site1"))).isNull();
+    cache.invalidateAll();
+    assertThat(cache.size()).isEqualTo(0);
+    assertThat(cache.toString()).contains("size=0");
+  }
+
+  @Test
+  public void testSharedMetricRegistry() {
+    MetricRegistry metricRegistry = new MetricRegistry();
+    DecisionCache first = DecisionCache.builder().metricRegistry(metricRegistry).build();
+    DecisionCache.builder().metricRegistry(metricRegistry).build();
+    first.put(request("r1", "site1"), ImmutableMap.of("1", DECISION));
+    assertThat(gauge(metricRegistry, "size")).isEqualTo(1L);
+  }
+
+  @Test
+  public void testNoBidsCached() throws ExecutionException {
+    DecisionCache cache = DecisionCache.builder().build();
+    cache.put(request("r1", "site1"), ImmutableMap.<String, Decision>of());
+    assertThat(cache.get(request("r2", "site1"), request -> {
+      throw new AssertionError();
+    })).isEmpty();
+  }
+
+  @Test
+  public void testExpiration() throws ExecutionException {
+    AtomicLong nanos = new AtomicLong();
+    DecisionCache cache = DecisionCache.builder()
+        .expireAfterWrite(10, TimeUnit.SECONDS)
+        .ticker(new Ticker() {
+          @Override public long read() {
+            return nanos.get();
+          }
+        })
+        .build();
+    cache.put(request("r1", "site1"), ImmutableMap.of("1", DECISION));
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(9));
+    assertThat(cache.getIfPresent(request("r1", "site1"))).isNotNull();
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+    assertThat(cache.getIfPresent(request("r1", "site1"))).isNull();
+  }
+
+  @Test
+  public void testMaximumSize() {
+    DecisionCache cache = DecisionCache.builder().maximumSize(10).build();
+    for (int i = 0; i < 100; ++i) {
+      cache.put(request("r", "site" + i), ImmutableMap.of("1", DECISION));
+    }
+    assertThat(cache.size()).isAtMost(10L);
+  }
+
+  @Test
+  public void testLoaderFailure() throws ExecutionException {
+    DecisionCache cache = DecisionCache.builder().build();
+    try {
+      cache.get(request("r1", "site1"), request -> {
+        throw new Exception("boom");
+      });
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e).hasCauseThat().hasMessageThat().isEqualTo("boom");
+    }
+    try {
+      cache.get(request("r1", "site1"), request -> {
+        throw new IllegalStateException("boom");
+      });
+      fail();
+    } catch (UncheckedExecutionException e) {
+      assertThat(e).hasCauseThat().isInstanceOf(IllegalStateException.class);
+    }
+    // Failures are not cached
+    assertThat(cache.get(request("r1", "site1"), request -> ImmutableMap.of("1", DECISION)))
+        .hasSize(1);
+  }
+
+  @Test
+  public void testIgnoresUserAndVolatileDeviceFields() throws ExecutionException {
+    DecisionCache cache = DecisionCache.builder().build();
+    cache.put(request("r1", "site1"), ImmutableMap.of("1", DECISION));
+    BidRequest request = request("r2", "site1").toBuilder()
+        .setUser(User.newBuilder().setId("u1"))
+        .setDevice(Device.newBuilder().setIp("192.168.1.1"))
+        .build();
+    assertThat(cache.getIfPresent(request)).containsExactly("1", DECISION);
+  }
+
+  @Test
+  public void testKeepsTargetedDeviceFields() {
+    BidRequest us = request("r1", "site1").toBuilder()
+        .setDevice(Device.newBuilder()
+            .setIp("192.168.1.1")
+            .setDevicetype(DeviceType.MOBILE)
+            .setGeo(Geo.newBuilder().setCountry("USA").setLat(40.7).setLon(-74.0)))
+        .build();
+    BidRequest otherUser = request("r2", "site1").toBuilder()
+        .setDevice(us.getDevice().toBuilder()
+            .setIp("10.0.0.1")
+            .setIfa("ifa1")
+            .setGeo(us.getDevice().getGeo().toBuilder().setLat(34.1).setLon(-118.2)))
+        .build();
+    BidRequest canada = us.toBuilder()
+        .setDevice(us.getDevice().toBuilder()
+            .setGeo(us.getDevice().getGeo().toBuilder().setCountry("CAN")))
+        .build();
+    RequestFingerprinter fingerprinter = DecisionCache.DEFAULT_FINGERPRINTER;
+    assertThat(fingerprinter.fingerprint(otherUser)).isEqualTo(fingerprinter.fingerprint(us));
+    assertThat(fingerprinter.fingerprint(canada)).isNotEqualTo(fingerprinter.fingerprint(us));
+    assertThat(fingerprinter.fingerprint(us.toBuilder()
+        .setDevice(us.getDevice().toBuilder().setDevicetype(DeviceType.PERSONAL_COMPUTER))
+        .build())).isNotEqualTo(fingerprinter.fingerprint(us));
+
+    DecisionCache cache = DecisionCache.builder().build();
+    cache.put(us, ImmutableMap.of("1", DECISION));
+    assertThat(cache.getIfPresent(otherUser)).containsExactly("1", DECISION);
+    assertThat(cache.getIfPresent(canada)).isNull();
+  }
+
+  @Test
+  public void testSingleFlight() throws Exception {
+    DecisionCache cache = DecisionCache.builder().build();
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<ImmutableMap<String, Decision>>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; ++i) {
+        String id = "r" + i;
+        futures.add(executor.submit(() -> cache.get(request(id, "site1"), request -> {
+          loads.incrementAndGet();
+          loading.countDown();
+          release.await();
+          return ImmutableMap.of("1", DECISION);
+        })));
+      }
+      loading.await();
+      Thread.sleep(50);
+      release.countDown();
+      for (Future<ImmutableMap<String, Decision>> future : futures) {
+        assertThat(future.get()).containsExactly("1", DECISION);
+      }
+      assertThat(loads.get()).isEqualTo(1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testDecision() {
+    Bid bid = DECISION.toBid("b1", "1").build();
+    assertThat(bid.getImpid()).isEqualTo("1");
+    assertThat(bid.getPrice()).isEqualTo(1.5);
+    assertThat(bid.getCrid()).isEqualTo("cr1");
+    assertThat(bid.getDealid()).isEqualTo("deal1");
+    assertThat(new Decision(2, "cr1", null).toBid("b1", "1").hasDealid()).isFalse();
+    assertThat(new Decision(1.5, "cr1", "deal1")).isEqualTo(DECISION);
+    assertThat(new Decision(1.5, "cr1", "deal1").hashCode()).isEqualTo(DECISION.hashCode());
+    assertThat(new Decision(1.5, "cr1", null)).isNotEqualTo(DECISION);
+    assertThat(DECISION.toString()).contains("cr1");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDecision_badPrice() {
+    new Decision(0, "cr1", null);
+  }
+
+  private static Object gauge(MetricRegistry metricRegistry, String name) {
+    Gauge<?> gauge = metricRegistry.getGauges().get(
+        MetricRegistry.name(DecisionCache.class, name));
+    return gauge.getValue();
+  }
+
+  private static BidRequest request(String id, String siteId) {
+    return BidRequest.newBuilder()
+        .setId(id)
+        .setSite(Site.newBuilder().setId(siteId))
+        .addImp(Imp.newBuilder().setId("1").setBidfloor(1.0))
+        .build();
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Banner;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Video;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid.Bid;
+import org.junit.Test;
+
+/**
+ * Tests for {@link FormatIndex}.
+ */
+public class FormatIndexTest {
+  private static final Imp FIXED = Imp.newBuilder()
+      .setId("fixed")
+      .setBanner(Banner.newBuilder()
+          .setW(728).setH(90)
+          .addFormat(Banner.Format.newBuilder().setW(300).setH(250))
+          .addFormat(Banner.Format.newBuilder().setW(320).setH(50)))
+      .build();
+  private static final Imp FLEX = Imp.newBuilder()
+      .setId("flex")
+      .setBanner(Banner.newBuilder()
+          .addFormat(Banner.Format.newBuilder().setWratio(2).setHratio(1).setWmin(200))
+          .addFormat(Banner.Format.newBuilder().setW(300).setH(250)))
+      .build();
+  private static final Imp RANGE = Imp.newBuilder()
+      .setId("range")
+      .setBanner(Banner.newBuilder()
+          .setWmin(100).setWmax(400)
+          .setHmin(50).setHmax(300))
+      .build();
+  private static final Imp ANY = Imp.newBuilder()
+      .setId("any")
+      .setBanner(Banner.newBuilder())
+      .build();
+  private static final Imp VIDEO = Imp.newBuilder()
+      .setId("video")
+      .setVideo(Video.newBuilder().setW(640).setH(480))
+      .build();
+  private static final FormatIndex INDEX = FormatIndex.of(BidRequest.newBuilder()
+      .setId("1")
+      .addImp(FIXED)
+      .addImp(FLEX)
+      .addImp(RANGE)
+      .addImp(ANY)
+      .addImp(VIDEO)
+      .build());
+
+  @Test
+  public void testImpsAccepting() {
+    assertThat(INDEX.impsAccepting(300, 250)).containsExactly(FIXED, FLEX, RANGE, ANY).inOrder();
+    assertThat(INDEX.impsAccepting(728, 90)).containsExactly(FIXED, ANY).inOrder();
+    assertThat(INDEX.impsAccepting(400, 200)).containsExactly(FLEX, RANGE, ANY).inOrder();
+    // Right ratio, below wmin
+    assertThat(INDEX.impsAccepting(100, 50)).containsExactly(RANGE, ANY).inOrder();
+    assertThat(INDEX.impsAccepting(640, 480)).containsExactly(ANY);
+    assertThat(INDEX.impsAcceptingRatio(4, 2)).containsExactly(FLEX, ANY).inOrder();
+    assertThat(INDEX.impsAcceptingRatio(16, 9)).containsExactly(ANY);
+  }
+
+  @Test
+  public void testAccepts() {
+    assertThat(INDEX.accepts("fixed", Bid.newBuilder().setW(320).setH(50))).isTrue();
+    assertThat(INDEX.accepts("fixed", Bid.newBuilder().setW(320).setH(51))).isFalse();
+    assertThat(INDEX.accepts("fixed", Bid.newBuilder())).isTrue();
+    assertThat(INDEX.accepts("flex", Bid.newBuilder().setWratio(2).setHratio(1))).isTrue();
+    assertThat(INDEX.accepts("fixed", Bid.newBuilder().setWratio(2).setHratio(1))).isFalse();
+    assertThat(INDEX.accepts("flex", Bid.newBuilder().setW(400).setH(200))).isTrue();
+    assertThat(INDEX.accepts("flex", Bid.newBuilder().setW(100).setH(50))).isFalse();
+    assertThat(INDEX.accepts("range", Bid.newBuilder().setW(100).setH(50))).isTrue();
+    assertThat(INDEX.accepts("range", Bid.newBuilder().setW(500).setH(50))).isFalse();
+    assertThat(INDEX.accepts("any", Bid.newBuilder().setW(640).setH(480))).isTrue();
+    assertThat(INDEX.accepts("video", Bid.newBuilder().setW(640).setH(480))).isFalse();
+    assertThat(INDEX.accepts("missing", Bid.newBuilder())).isFalse();
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.openrtb.OpenRtb.DataAssetType;
+import com.google.openrtb.OpenRtb.ImageAssetType;
+import com.google.openrtb.OpenRtb.NativeRequest;
+import com.google.openrtb.OpenRtb.NativeResponse;
+import com.google.openrtb.OpenRtb.NativeResponse.Asset;
+import com.google.openrtb.util.NativeAssetMatcher.Capabilities;
+import org.junit.Test;
+
+/**
+ * Tests for {@link NativeAssetMatcher}.
+ */
+public class NativeAssetMatcherTest {
+  // Satisfies NativeRequirementsTest.REQUEST: title (1), main image (2), sponsored (5)
+  static final NativeResponse RESPONSE = NativeResponse.newBuilder()
+      .setLink(NativeResponse.Link.newBuilder().setUrl("http://click"))
+      .addAssets(Asset.newBuilder()
+          .setId(1)
+          .setTitle(Asset.Title.newBuilder().setText("Great product")))
+      .addAssets(Asset.newBuilder()
+          .setId(2)
+          .setImg(Asset.Image.newBuilder()
+              .setType(ImageAssetType.MAIN)
+              .setUrl("http://img")
+              .setW(1200).setH(627)))
+      .addAssets(Asset.newBuilder()
+          .setId(5)
+          .setData(Asset.Data.newBuilder()
+              .setType(DataAssetType.SPONSORED)
+              .setValue("Brand")))
+      .build();
+
+  private static final NativeAssetMatcher MATCHER =
+      NativeAssetMatcher.of(NativeRequirementsTest.REQUEST);
+
+  @Test
+  public void testMatches() {
+    assertThat(MATCHER.request()).isSameInstanceAs(NativeRequirementsTest.REQUEST);
+    assertThat(MATCHER.matches(Capabilities.of(RESPONSE))).isTrue();
+    assertThat(MATCHER.matches(Capabilities.builder()
+        .title(25)
+        .image(ImageAssetType.MAIN, 600, 300)
+        .data(DataAssetType.SPONSORED, 20)
+        .data(DataAssetType.DESC, 200)
+        .build())).isTrue();
+
+    // Missing kind
+    assertThat(MATCHER.matches(Capabilities.builder()
+        .title(10)
+        .image(ImageAssetType.MAIN, 600, 300)
+        .build())).isFalse();
+    // Title too long
+    assertThat(MATCHER.matches(Capabilities.builder()
+        .title(26)
+        .image(ImageAssetType.MAIN, 600, 300)
+        .data(DataAssetType.SPONSORED, 5)
+        .build())).isFalse();
+    // Image too small, or wrong type
+    assertThat(MATCHER.matches(Capabilities.builder()
+        .title(10)
+        .image(ImageAssetType.MAIN, 300, 300)
+        .image(ImageAssetType.ICON, 600, 300)
+        .data(DataAssetType.SPONSORED, 5)
+        .build())).isFalse();
+    // Data too long
+    assertThat(MATCHER.matches(Capabilities.builder()
+        .title(10)
+        .image(ImageAssetType.MAIN, 600, 300)
+        .data(DataAssetType.SPONSORED, 21)
+        .build())).isFalse();
+    // Any of several images can satisfy the requirement
+    assertThat(MATCHER.matches(Capabilities.builder()
+        .title(10)
+        .image(ImageAssetType.MAIN, 300, 300)
+        .image(ImageAssetType.MAIN, 1200, 627)
+        .data(DataAssetType.SPONSORED, 5)
+        .build())).isTrue();
+  }
+
+  @Test
+  public void testUntypedAndExactImages() {
+    NativeAssetMatcher matcher = NativeAssetMatcher.of(NativeRequest.newBuilder()
+        .addAssets(NativeRequest.Asset.newBuilder()
+            .setId(1)
+            .setRequired(true)
+            .setImg(NativeRequest.Asset.Image.newBuilder().setW(300).setH(250)))
+        .build());
+    assertThat(matcher.matches(Capabilities.builder()
+        .image(ImageAssetType.ICON, 300, 250).build())).isTrue();
+    assertThat(matcher.matches(Capabilities.builder()
+        .image(null, 300, 250).build())).isTrue();
+    assertThat(matcher.matches(Capabilities.builder()
+        .image(ImageAssetType.MAIN, 320, 250).build())).isFalse();
+    assertThat(matcher.matches(Capabilities.builder().title(5).build())).isFalse();
+
+    // No required assets
+    NativeAssetMatcher optional = NativeAssetMatcher.of(NativeRequest.newBuilder()
+        .addAssets(NativeRequest.Asset.newBuilder()
+            .setId(1)
+            .setTitle(NativeRequest.Asset.Title.newBuilder().setLen(10)))
+        .build());
+    assertThat(optional.matches(Capabilities.builder().build())).isTrue();
+    assertThat(optional.toString()).contains("required=0");
+  }
+
+  @Test
+  public void testInvalidAssets() {
+    assertThat(MATCHER.invalidAssets(RESPONSE)).isEmpty();
+    // Missing required title
+    assertThat(MATCHER.invalidAssets(RESPONSE.toBuilder().removeAssets(0).build()))
+        .containsExactly(1);
+    // Unknown asset, and asset with the wrong type
+    assertThat(MATCHER.invalidAssets(RESPONSE.toBuilder()
+        .addAssets(Asset.newBuilder().setId(99).setTitle(Asset.Title.newBuilder().setText("x")))
+        .addAssets(Asset.newBuilder().setId(3)
+            .setImg(Asset.Image.newBuilder().setType(ImageAssetType.MAIN).setUrl("u")
+                .setW(50).setH(50)))
+        .build()))
+        .containsExactly(99, 3).inOrder();
+    // Title too long, counted in code points
+    String title = "é" + new String(new char[24]).replace('\0', 'x');
+    assertThat(MATCHER.invalidAssets(RESPONSE.toBuilder()
+        .setAssets(0, RESPONSE.getAssets(0).toBuilder()
+            .setTitle(Asset.Title.newBuilder().setText(title)))
+        .build())).isEmpty();
+    assertThat(MATCHER.invalidAssets(RESPONSE.toBuilder()
+        .setAssets(0, RESPONSE.getAssets(0).toBuilder()
+            .setTitle(Asset.Title.newBuilder().setText(title + "x")))
+        .build())).containsExactly(1, 1);
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.NativeRequest;
+import com.google.protobuf.TextFormat;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+/**
+ * Tests for {@link NativeRequestCache}.
+ */
+public class NativeRequestCacheTest {
+  private static final NativeRequest REQUEST = NativeRequirementsTest.REQUEST;
+
+  @Test
+  public void testDecodeOnce() throws IOException {
+    AtomicInteger decodes = new AtomicInteger();
+    MetricRegistry metricRegistry = new MetricRegistry();
+    NativeRequestCache cache = NativeRequestCache.builder()
+        .decoder(request -> {
+          decodes.incrementAndGet();
+          return decode(request);
+        })
+        .metricRegistry(metricRegistry)
+        .build();
+    String request = TextFormat.printer().printToString(REQUEST);
+
+    NativeRequirements reqs = cache.get(Imp.Native.newBuilder().setRequest(request).build());
+    assertThat(reqs.request()).isEqualTo(REQUEST);
+    assertThat(reqs.titleLength()).isEqualTo(25);
+    assertThat(cache.get(new String(request))).isSameInstanceAs(reqs);
+    assertThat(decodes.get()).isEqualTo(1);
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(cache.hitRate()).isEqualTo(0.5);
+    assertThat(((Gauge<?>) metricRegistry.getMetrics().get(
+        MetricRegistry.name(NativeRequestCache.class, "hits"))).getValue()).isEqualTo(1L);
+
+    cache.invalidateAll();
+    cache.get(request);
+    assertThat(decodes.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testRequestNative() throws IOException {
+    NativeRequestCache cache = NativeRequestCache.builder().build();
+    NativeRequirements reqs =
+        cache.get(Imp.Native.newBuilder().setRequestNative(REQUEST).build());
+    assertThat(reqs.request()).isSameInstanceAs(REQUEST);
+    // Equal requests share the cached requirements
+    assertThat(cache.get(REQUEST.toBuilder().build())).isSameInstanceAs(reqs);
+    assertThat(cache.get(REQUEST.toBuilder().setVer("1.1").build())).isNotSameInstanceAs(reqs);
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void testRequestNativeInstance() {
+    NativeRequestCache cache = NativeRequestCache.builder().build();
+    NativeRequirements reqs = cache.get(REQUEST);
+    assertThat(cache.hitCount()).isEqualTo(0);
+    // The same instance is found by identity, an equal one by contents
+    assertThat(cache.get(REQUEST)).isSameInstanceAs(reqs);
+    assertThat(cache.get(REQUEST.toBuilder().build())).isSameInstanceAs(reqs);
+    assertThat(cache.hitCount()).isEqualTo(2);
+    assertThat(cache.hitRate()).isWithin(1e-9).of(2.0 / 3);
+  }
+
+  @Test
+  public void testSharedMetricRegistry() {
+    MetricRegistry metricRegistry = new MetricRegistry();
+    NativeRequestCache.builder().metricRegistry(metricRegistry).build();
+    NativeRequestCache.builder().metricRegistry(metricRegistry).build();
+    assertThat(metricRegistry.getGauges()).containsKey(
+        MetricRegistry.name(NativeRequestCache.class, "hit-rate"));
+  }
+
+  @Test
+  public void testDecodeFailure() {
+    AtomicInteger decodes = new AtomicInteger();
+    NativeRequestCache cache = NativeRequestCache.builder()
+        .decoder(request -> {
+          decodes.incrementAndGet();
+          return decode(request);
+        })
+        .build();
+    for (int i = 0; i < 2; ++i) {
+      try {
+        cache.get("not a native request");
+        fail("Expected IOException");
+      } catch (IOException expected) {
+      }
+    }
+    // Failures are not cached
+    assertThat(decodes.get()).isEqualTo(2);
+    assertThat(cache.size()).isEqualTo(0);
+
+    try {
+      NativeRequestCache.builder().build().get("assets { id: 1 }");
+      fail("Expected IOException");
+    } catch (IOException expected) {
+    }
+  }
+
+  @Test
+  public void testMaximumSize() throws IOException {
+    NativeRequestCache cache = NativeRequestCache.builder().maximumSize(10).build();
+    for (int i = 0; i < 100; ++i) {
+      cache.get(REQUEST.toBuilder().setSeq(i).build());
+    }
+    assertThat(cache.size()).isAtMost(10L);
+    assertThat(cache.toString()).contains("size");
+  }
+
+  private static NativeRequest decode(String request) throws IOException {
+    return TextFormat.parse(request, NativeRequest.class);
+  }
+}
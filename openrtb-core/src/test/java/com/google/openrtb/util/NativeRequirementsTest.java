@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Video;
+import com.google.openrtb.OpenRtb.DataAssetType;
+import com.google.openrtb.OpenRtb.EventType;
+import com.google.openrtb.OpenRtb.ImageAssetType;
+import com.google.openrtb.OpenRtb.NativeRequest;
+import com.google.openrtb.OpenRtb.NativeRequest.Asset;
+import com.google.openrtb.util.NativeRequirements.ImageRequirement;
+import org.junit.Test;
+
+/**
+ * Tests for {@link NativeRequirements}.
+ */
+public class NativeRequirementsTest {
+  static final NativeRequest REQUEST = NativeRequest.newBuilder()
+      .setVer("1.2")
+      .addAssets(Asset.newBuilder()
+          .setId(1)
+          .setRequired(true)
+          .setTitle(Asset.Title.newBuilder().setLen(25)))
+      .addAssets(Asset.newBuilder()
+          .setId(2)
+          .setRequired(true)
+          .setImg(Asset.Image.newBuilder()
+              .setType(ImageAssetType.MAIN)
+              .setWmin(600).setHmin(300)
+              .addMimes("image/png")))
+      .addAssets(Asset.newBuilder()
+          .setId(3)
+          .setImg(Asset.Image.newBuilder()
+              .setType(ImageAssetType.ICON)
+              .setW(50).setH(50)))
+      .addAssets(Asset.newBuilder()
+          .setId(4)
+          .setImg(Asset.Image.newBuilder().setW(100).setH(100)))
+      .addAssets(Asset.newBuilder()
+          .setId(5)
+          .setRequired(true)
+          .setData(Asset.Data.newBuilder().setType(DataAssetType.SPONSORED).setLen(20)))
+      .addAssets(Asset.newBuilder()
+          .setId(6)
+          .setData(Asset.Data.newBuilder().setType(DataAssetType.DESC).setLen(90)))
+      .addAssets(Asset.newBuilder()
+          .setId(7)
+          .setData(Asset.Data.newBuilder().setType(DataAssetType.DESC)))
+      .addEventtrackers(NativeRequest.EventTrackers.newBuilder()
+          .setEvent(EventType.IMPRESSION))
+      .build();
+
+  @Test
+  public void testRequirements() {
+    NativeRequirements reqs = NativeRequirements.of(REQUEST);
+    assertThat(reqs.request()).isSameInstanceAs(REQUEST);
+    assertThat(reqs.hasTitle()).isTrue();
+    assertThat(reqs.titleLength()).isEqualTo(25);
+    assertThat(reqs.titleRequired()).isTrue();
+    assertThat(reqs.images()).hasSize(3);
+    assertThat(reqs.images(ImageAssetType.MAIN)).hasSize(1);
+    assertThat(reqs.images(ImageAssetType.ICON).get(0).assetId()).isEqualTo(3);
+    assertThat(reqs.images(ImageAssetType.LOGO)).isEmpty();
+    assertThat(reqs.dataTypes()).containsExactly(DataAssetType.SPONSORED, DataAssetType.DESC);
+    assertThat(reqs.requiredDataTypes()).containsExactly(DataAssetType.SPONSORED);
+    assertThat(reqs.dataLength(DataAssetType.SPONSORED)).isEqualTo(20);
+    // One of the DESC assets is unlimited
+    assertThat(reqs.dataLength(DataAssetType.DESC)).isEqualTo(0);
+    assertThat(reqs.dataLength(DataAssetType.PRICE)).isEqualTo(0);
+    assertThat(reqs.hasVideo()).isFalse();
+    assertThat(reqs.eventTypes()).containsExactly(EventType.IMPRESSION);
+    assertThat(reqs.requiredAssetCount()).isEqualTo(3);
+    assertThat(reqs.toString()).contains("titleLength=25");
+  }
+
+  @Test
+  public void testImageSizes() {
+    NativeRequirements reqs = NativeRequirements.of(REQUEST);
+    ImageRequirement main = reqs.images(ImageAssetType.MAIN).get(0);
+    assertThat(main.required()).isTrue();
+    assertThat(main.accepts(1200, 627)).isTrue();
+    assertThat(main.accepts(600, 200)).isFalse();
+    assertThat(main.acceptsMime("image/png")).isTrue();
+    assertThat(main.acceptsMime("image/gif")).isFalse();
+
+    ImageRequirement icon = reqs.images(ImageAssetType.ICON).get(0);
+    assertThat(icon.accepts(50, 50)).isTrue();
+    assertThat(icon.accepts(100, 100)).isFalse();
+    assertThat(icon.acceptsMime("image/gif")).isTrue();
+
+    ImageRequirement untyped = reqs.images().get(2);
+    assertThat(untyped.type()).isNull();
+    assertThat(untyped.w()).isEqualTo(100);
+  }
+
+  @Test
+  public void testEmptyAndVideo() {
+    NativeRequirements empty = NativeRequirements.of(NativeRequest.getDefaultInstance());
+    assertThat(empty.hasTitle()).isFalse();
+    assertThat(empty.images()).isEmpty();
+    assertThat(empty.dataTypes()).isEmpty();
+    assertThat(empty.requiredAssetCount()).isEqualTo(0);
+
+    NativeRequirements video = NativeRequirements.of(NativeRequest.newBuilder()
+        .addAssets(Asset.newBuilder()
+            .setId(1)
+            .setRequired(true)
+            .setVideo(Video.newBuilder().addMimes("video/mp4")))
+        .build());
+    assertThat(video.hasVideo()).isTrue();
+    assertThat(video.videoRequired()).isTrue();
+  }
+}
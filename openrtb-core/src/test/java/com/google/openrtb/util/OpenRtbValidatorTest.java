@@ -20,15 +20,20 @@ import static com.google.common.truth.Truth.assertThat;
 import static java.util.Arrays.asList;
 
 import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableMap;
 import com.google.openrtb.OpenRtb.BidRequest;
 import com.google.openrtb.OpenRtb.BidRequest.Imp;
 import com.google.openrtb.OpenRtb.BidRequest.Imp.Audio;
 import com.google.openrtb.OpenRtb.BidRequest.Imp.Banner;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Pmp;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Pmp.Deal;
 import com.google.openrtb.OpenRtb.BidRequest.Imp.Video;
 import com.google.openrtb.OpenRtb.BidResponse;
 import com.google.openrtb.OpenRtb.BidResponse.SeatBid;
 import com.google.openrtb.OpenRtb.BidResponse.SeatBid.Bid;
 import com.google.openrtb.OpenRtb.CreativeAttribute;
+import com.google.openrtb.OpenRtb.ImageAssetType;
+import com.google.openrtb.OpenRtb.NativeResponse;
 import com.google.openrtb.OpenRtb.Protocol;
 import com.google.openrtb.OpenRtb.VideoLinearity;
 import org.junit.Before;
@@ -166,6 +171,198 @@ public class OpenRtbValidatorTest {
     assertThat(OpenRtbUtils.bids(response)).isEmpty();
   }
 
+  @Test
+  public void testBannerSize() {
+    BidRequest request = requestBanner.toBuilder()
+        .setImp(0, requestBanner.getImp(0).toBuilder()
+            .setBanner(requestBanner.getImp(0).getBanner().toBuilder()
+                .addFormat(Banner.Format.newBuilder().setW(300).setH(250))
+                .addFormat(Banner.Format.newBuilder().setWratio(4).setHratio(3).setWmin(400))))
+        .build();
+    BidResponse.Builder response = testResponse(testBid().setW(300).setH(250));
+    response.getSeatbidBuilder(0)
+        .addBid(testBid().setId("2").setW(800).setH(600))
+        .addBid(testBid().setId("3").setWratio(8).setHratio(6))
+        .addBid(testBid().setId("4").setW(300).setH(600))
+        .addBid(testBid().setId("5").setW(200).setH(150));
+    assertThat(validator.validate(request, response)).isFalse();
+    assertThat(OpenRtbUtils.bids(response)).hasSize(3);
+    assertThat(OpenRtbUtils.bidWithId(response, "4")).isNull();
+    assertThat(OpenRtbUtils.bidWithId(response, "5")).isNull();
+    assertThat(metricRegistry.counter(
+        MetricRegistry.name(OpenRtbValidator.class, "size-mismatch")).getCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void testMultiFormatSize() {
+    BidRequest request = requestBanner.toBuilder()
+        .setImp(0, requestBanner.getImp(0).toBuilder()
+            .setBanner(requestBanner.getImp(0).getBanner().toBuilder()
+                .addFormat(Banner.Format.newBuilder().setW(300).setH(250)))
+            .setVideo(Video.newBuilder()
+                .setW(640)
+                .setH(480)))
+        .build();
+    BidResponse.Builder response = testResponse(testBid().setW(300).setH(250));
+    response.getSeatbidBuilder(0)
+        .addBid(testBid().setId("2").setW(640).setH(480));
+    assertThat(validator.validate(request, response)).isTrue();
+    assertThat(OpenRtbUtils.bids(response)).hasSize(2);
+    assertThat(metricRegistry.counter(
+        MetricRegistry.name(OpenRtbValidator.class, "size-mismatch")).getCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testDeals() {
+    BidRequest request = requestBanner.toBuilder()
+        .setImp(0, requestBanner.getImp(0).toBuilder()
+            .setPmp(Pmp.newBuilder()
+                .addDeals(Deal.newBuilder().setId("d1").setBidfloor(10.0))
+                .addDeals(Deal.newBuilder().setId("d2").setBidfloor(200.0))))
+        .build();
+    BidResponse.Builder response = testResponse(testBid().setDealid("d1"));
+    response.getSeatbidBuilder(0)
+        .addBid(testBid().setId("2").setDealid("d2"))
+        .addBid(testBid().setId("3").setDealid("d3"))
+        .addBid(testBid().setId("4"));
+    assertThat(validator.validate(request, response)).isFalse();
+    assertThat(OpenRtbUtils.bids(response)).hasSize(2);
+    assertThat(OpenRtbUtils.bidWithId(response, "2")).isNull();
+    assertThat(OpenRtbUtils.bidWithId(response, "3")).isNull();
+    assertThat(metricRegistry.counter(
+        MetricRegistry.name(OpenRtbValidator.class, "invalid-deal")).getCount()).isEqualTo(1);
+    assertThat(metricRegistry.counter(
+        MetricRegistry.name(OpenRtbValidator.class, "below-deal-floor")).getCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testDealCurrency() {
+    OpenRtbValidator converting = new OpenRtbValidator(new MetricRegistry(),
+        new CurrencyConverter(ImmutableMap.of("USD", 1.0, "EUR", 0.5)));
+    BidRequest request = requestBanner.toBuilder()
+        .setImp(0, requestBanner.getImp(0).toBuilder()
+            .setPmp(Pmp.newBuilder()
+                .addDeals(Deal.newBuilder().setId("d1").setBidfloor(60.0).setBidfloorcur("EUR"))
+                .addDeals(Deal.newBuilder().setId("d2").setBidfloor(40.0).setBidfloorcur("EUR"))
+                .addDeals(Deal.newBuilder().setId("d3").setBidfloor(1.0).setBidfloorcur("GBP"))))
+        .build();
+    BidResponse.Builder response = testResponse(testBid().setDealid("d1"));
+    response.getSeatbidBuilder(0)
+        .addBid(testBid().setId("2").setDealid("d2"))
+        .addBid(testBid().setId("3").setDealid("d3"));
+    assertThat(converting.validate(request, response)).isFalse();
+    assertThat(OpenRtbUtils.bids(response)).hasSize(1);
+    assertThat(OpenRtbUtils.bidWithId(response, "2")).isNotNull();
+
+    response = testResponse(testBid().setDealid("d1")).setCur("EUR");
+    assertThat(converting.validate(request, response)).isTrue();
+  }
+
+  @Test
+  public void testGroup() {
+    BidResponse.Builder response = BidResponse.newBuilder()
+        .addSeatbid(SeatBid.newBuilder().setSeat("a").setGroup(true)
+            .addBid(testBid().setId("a1"))
+            .addBid(testBid().setId("a2").addAdomain("adv1.com"))
+            .addBid(testBid().setId("a3")))
+        .addSeatbid(SeatBid.newBuilder().setSeat("b").setGroup(true)
+            .addBid(testBid().setId("b1"))
+            .addBid(testBid().setId("b2")))
+        .addSeatbid(SeatBid.newBuilder().setSeat("c")
+            .addBid(testBid().setId("c1"))
+            .addBid(testBid().setId("c2").addAdomain("adv1.com")));
+    assertThat(validator.validate(requestBanner, response)).isFalse();
+    assertThat(response.getSeatbidCount()).isEqualTo(2);
+    assertThat(response.getSeatbid(0).getSeat()).isEqualTo("b");
+    assertThat(response.getSeatbid(0).getBidCount()).isEqualTo(2);
+    assertThat(response.getSeatbid(1).getSeat()).isEqualTo("c");
+    assertThat(response.getSeatbid(1).getBidCount()).isEqualTo(1);
+    assertThat(metricRegistry.counter(
+        MetricRegistry.name(OpenRtbValidator.class, "group-dropped-bids")).getCount())
+        .isEqualTo(2);
+  }
+
+  @Test
+  public void testBidRuleOverride() {
+    OpenRtbValidator custom = new OpenRtbValidator(new MetricRegistry()) {
+      @Override public boolean validate(BidRequest request, Bid.Builder bid) {
+        return !bid.getId().startsWith("x") && super.validate(request, bid);
+      }
+    };
+    BidResponse.Builder response = BidResponse.newBuilder()
+        .addSeatbid(SeatBid.newBuilder().setSeat("a")
+            .addBid(testBid().setId("a1"))
+            .addBid(testBid().setId("x1")))
+        .addSeatbid(SeatBid.newBuilder().setSeat("b").setGroup(true)
+            .addBid(testBid().setId("b1"))
+            .addBid(testBid().setId("x2")));
+    assertThat(custom.validate(requestBanner, response)).isFalse();
+    assertThat(response.getSeatbidCount()).isEqualTo(1);
+    assertThat(response.getSeatbid(0).getBidList()).containsExactly(testBid().setId("a1").build());
+    assertThat(custom.validate(requestBanner, testBid())).isTrue();
+    assertThat(custom.validate(requestBanner, testBid().setId("x3"))).isFalse();
+  }
+
+  @Test
+  public void testNative() {
+    BidRequest request = BidRequest.newBuilder()
+        .setId("1")
+        .addImp(Imp.newBuilder()
+            .setId("1")
+            .setNative(Imp.Native.newBuilder()
+                .setRequestNative(NativeRequirementsTest.REQUEST)))
+        .build();
+    NativeResponse good = NativeAssetMatcherTest.RESPONSE;
+    BidResponse.Builder response = BidResponse.newBuilder()
+        .addSeatbid(SeatBid.newBuilder()
+            .addBid(testBid().setId("good").setAdmNative(good))
+            .addBid(testBid().setId("bad").setAdmNative(good.toBuilder().removeAssets(0))));
+    assertThat(validator.validate(request, response)).isFalse();
+    assertThat(response.getSeatbid(0).getBidCount()).isEqualTo(1);
+    assertThat(response.getSeatbid(0).getBid(0).getId()).isEqualTo("good");
+    assertThat(metricRegistry.counter(
+        MetricRegistry.name(OpenRtbValidator.class, "invalid-native")).getCount())
+        .isEqualTo(1);
+  }
+
+  @Test
+  public void testNativeUntypedAssets() {
+    BidRequest request = BidRequest.newBuilder()
+        .setId("1")
+        .addImp(Imp.newBuilder()
+            .setId("1")
+            .setNative(Imp.Native.newBuilder()
+                .setRequestNative(NativeRequirementsTest.REQUEST)))
+        .build();
+    // Response image and data assets don't need to repeat the type, or have a size
+    NativeResponse untyped = NativeResponse.newBuilder()
+        .setLink(NativeResponse.Link.newBuilder().setUrl("http://click"))
+        .addAssets(NativeResponse.Asset.newBuilder()
+            .setId(1)
+            .setTitle(NativeResponse.Asset.Title.newBuilder().setText("Great product")))
+        .addAssets(NativeResponse.Asset.newBuilder()
+            .setId(2)
+            .setImg(NativeResponse.Asset.Image.newBuilder().setUrl("http://img")))
+        .addAssets(NativeResponse.Asset.newBuilder()
+            .setId(5)
+            .setData(NativeResponse.Asset.Data.newBuilder().setValue("Brand")))
+        .addAssets(NativeResponse.Asset.newBuilder()
+            .setId(6)
+            .setData(NativeResponse.Asset.Data.newBuilder().setValue("Description")))
+        .build();
+    NativeResponse wrongType = untyped.toBuilder()
+        .setAssets(1, untyped.getAssets(1).toBuilder()
+            .setImg(untyped.getAssets(1).getImg().toBuilder().setType(ImageAssetType.ICON)))
+        .build();
+    BidResponse.Builder response = BidResponse.newBuilder()
+        .addSeatbid(SeatBid.newBuilder()
+            .addBid(testBid().setId("untyped").setAdmNative(untyped))
+            .addBid(testBid().setId("wrongType").setAdmNative(wrongType)));
+    assertThat(validator.validate(request, response)).isFalse();
+    assertThat(response.getSeatbid(0).getBidCount()).isEqualTo(1);
+    assertThat(response.getSeatbid(0).getBid(0).getId()).isEqualTo("untyped");
+  }
+
   @Test
   public void testNoImp() {
     BidResponse.Builder response = testResponse(testBid().setImpid("2"));
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.Range;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.App;
+import com.google.openrtb.OpenRtb.BidRequest.Device;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Banner;
+import com.google.openrtb.OpenRtb.BidRequest.Site;
+import com.google.openrtb.OpenRtb.BidRequest.Source;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.Test;
+
+/**
+ * Tests for {@link RequestFingerprinter}.
+ */
+public class RequestFingerprinterTest {
+  private static final RequestFingerprinter FP = RequestFingerprinter.DEFAULT;
+
+  private static final BidRequest REQUEST = BidRequest.newBuilder()
+      .setId("req1")
+      .setTmax(120)
+      .setSource(Source.newBuilder().setTid("t1"))
+      .setSite(Site.newBuilder().setId("site1").setDomain("example.com"))
+      .addImp(Imp.newBuilder().setId("1").setBidfloor(1.5)
+          .setBanner(Banner.newBuilder().setW(300).setH(250)))
+      .addImp(Imp.newBuilder().setId("2").setBidfloor(0.5)
+          .setBanner(Banner.newBuilder().setW(728).setH(90)))
+      .addBcat("IAB1").addBcat("IAB2").addBcat("IAB3")
+      .addBadv("a.com")
+      .build();
+
+  @Test
+  public void testStable() {
+    assertThat(FP.fingerprint(REQUEST)).isEqualTo(FP.fingerprint(REQUEST));
+    assertThat(FP.fingerprint128(REQUEST)).isEqualTo(FP.fingerprint128(REQUEST));
+    assertThat(FP.fingerprint(REQUEST)).isEqualTo(FP.fingerprint128(REQUEST).asLong());
+    assertThat(FP.fingerprint128(REQUEST).bits()).isEqualTo(128);
+  }
+
+  @Test
+  public void testIgnoresVolatileFields() {
+    BidRequest retried = REQUEST.toBuilder()
+        .setId("req2")
+        .setTmax(80)
+        .setSource(Source.newBuilder().setTid("t2"))
+        .build();
+    assertThat(FP.fingerprint(retried)).isEqualTo(FP.fingerprint(REQUEST));
+    assertThat(FP.fingerprint(REQUEST.toBuilder().clearTmax().build()))
+        .isEqualTo(FP.fingerprint(REQUEST));
+  }
+
+  @Test
+  public void testRepeatedOrderInsensitive() {
+    BidRequest shuffled = REQUEST.toBuilder()
+        .clearImp().addImp(REQUEST.getImp(1)).addImp(REQUEST.getImp(0))
+        .clearBcat().addBcat("IAB3").addBcat("IAB1").addBcat("IAB2")
+        .build();
+    assertThat(FP.fingerprint(shuffled)).isEqualTo(FP.fingerprint(REQUEST));
+
+    RequestFingerprinter ordered = RequestFingerprinter.builder()
+        .ordered(BidRequest.IMP_FIELD_NUMBER)
+        .build();
+    assertThat(ordered.fingerprint(shuffled)).isNotEqualTo(ordered.fingerprint(REQUEST));
+  }
+
+  @Test
+  public void testSensitiveToContent() {
+    long base = FP.fingerprint(REQUEST);
+    assertThat(FP.fingerprint(REQUEST.toBuilder()
+        .setImp(0, REQUEST.getImp(0).toBuilder().setBidfloor(1.6)).build()))
+        .isNotEqualTo(base);
+    assertThat(FP.fingerprint(REQUEST.toBuilder().addBcat("IAB4").build())).isNotEqualTo(base);
+    // Duplicates don't cancel out
+    assertThat(FP.fingerprint(REQUEST.toBuilder().addBadv("a.com").build())).isNotEqualTo(base);
+    // Same strings moved to a different field
+    assertThat(FP.fingerprint(REQUEST.toBuilder().clearBadv().addBapp("a.com").build()))
+        .isNotEqualTo(base);
+    assertThat(FP.fingerprint(REQUEST.toBuilder()
+        .setApp(App.newBuilder().setId("site1").setDomain("example.com")).build()))
+        .isNotEqualTo(base);
+  }
+
+  @Test
+  public void testIgnorePath() {
+    RequestFingerprinter noIp = RequestFingerprinter.builder()
+        .ignorePath(BidRequest.DEVICE_FIELD_NUMBER, Device.IP_FIELD_NUMBER)
+        .build();
+    BidRequest withIp = REQUEST.toBuilder()
+        .setDevice(Device.newBuilder().setIp("10.0.0.1").setOs("iOS"))
+        .build();
+    assertThat(noIp.fingerprint(withIp.toBuilder()
+        .setDevice(withIp.getDevice().toBuilder().setIp("10.0.0.2")).build()))
+        .isEqualTo(noIp.fingerprint(withIp));
+    assertThat(noIp.fingerprint(withIp.toBuilder()
+        .setDevice(withIp.getDevice().toBuilder().setOs("Android")).build()))
+        .isNotEqualTo(noIp.fingerprint(withIp));
+    // A message with only ignored fields is like a missing one.
+    assertThat(noIp.fingerprint(withIp.toBuilder()
+        .setDevice(Device.newBuilder().setIp("10.0.0.1")).build()))
+        .isEqualTo(noIp.fingerprint(REQUEST));
+    // Fingerprints without nested paths are unchanged.
+    assertThat(RequestFingerprinter.builder().ignorePath(BidRequest.TMAX_FIELD_NUMBER).build()
+        .fingerprint(withIp)).isEqualTo(FP.fingerprint(withIp));
+  }
+
+  @Test
+  public void testFieldSubsets() {
+    RequestFingerprinter inventory = RequestFingerprinter.builder()
+        .ignore(BidRequest.DEVICE_FIELD_NUMBER, BidRequest.USER_FIELD_NUMBER)
+        .build();
+    BidRequest withDevice = REQUEST.toBuilder()
+        .setDevice(Device.newBuilder().setIp("10.0.0.1"))
+        .build();
+    assertThat(inventory.fingerprint(withDevice)).isEqualTo(inventory.fingerprint(REQUEST));
+    assertThat(FP.fingerprint(withDevice)).isNotEqualTo(FP.fingerprint(REQUEST));
+
+    RequestFingerprinter impsOnly = RequestFingerprinter.builder()
+        .include(BidRequest.IMP_FIELD_NUMBER)
+        .build();
+    assertThat(impsOnly.fingerprint(withDevice.toBuilder().clearBcat().build()))
+        .isEqualTo(impsOnly.fingerprint(REQUEST));
+
+    RequestFingerprinter all = RequestFingerprinter.builder().clearIgnored().build();
+    assertThat(all.fingerprint(REQUEST.toBuilder().setId("x").build()))
+        .isNotEqualTo(all.fingerprint(REQUEST));
+
+    RequestFingerprinter seeded = RequestFingerprinter.builder().seed(42).build();
+    assertThat(seeded.fingerprint(REQUEST)).isNotEqualTo(FP.fingerprint(REQUEST));
+    assertThat(seeded.toString()).contains("ignored");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIgnoreAfterInclude() {
+    RequestFingerprinter.builder().include(BidRequest.IMP_FIELD_NUMBER).ignore(1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadFieldNumber() {
+    RequestFingerprinter.builder().ignore(0);
+  }
+
+  @Test
+  public void testNoCollisions_generatedCorpus() {
+    Random random = new Random(1234);
+    int count = 50_000;
+    Set<BidRequest> requests = new HashSet<>();
+    Set<Long> fingerprints64 = new HashSet<>();
+    int[] lowByteBuckets = new int[256];
+
+    while (requests.size() < count) {
+      BidRequest request = randomRequest(random);
+      if (requests.add(request)) {
+        long fingerprint = FP.fingerprint(request);
+        fingerprints64.add(fingerprint);
+        ++lowByteBuckets[(int) (fingerprint & 0xFF)];
+      }
+    }
+
+    // Requests are generated without ignored fields or reordered elements, so distinct
+    // requests must have distinct fingerprints (a 64-bit collision in 50K is ~1e-10 likely)
+    assertThat(fingerprints64).hasSize(count);
+    int expected = count / lowByteBuckets.length;
+    for (int bucket : lowByteBuckets) {
+      assertThat(bucket).isIn(Range.closed(
+          expected * 2 / 3, expected * 4 / 3));
+    }
+  }
+
+  @Test
+  public void testNoCollisions_similarRequests() {
+    // Requests differing only by a tiny change in a nested field
+    Set<Long> fingerprints = new HashSet<>();
+    int count = 50_000;
+    for (int i = 0; i < count; ++i) {
+      fingerprints.add(FP.fingerprint(REQUEST.toBuilder()
+          .setImp(1, REQUEST.getImp(1).toBuilder().setBidfloor(i / 1000.0))
+          .build()));
+    }
+    assertThat(fingerprints).hasSize(count);
+  }
+
+  private static BidRequest randomRequest(Random random) {
+    BidRequest.Builder request = BidRequest.newBuilder().setId("1");
+    if (random.nextBoolean()) {
+      request.setSite(Site.newBuilder().setId("site" + random.nextInt(1000)));
+    } else {
+      request.setApp(App.newBuilder().setBundle("com.app" + random.nextInt(1000)));
+    }
+    for (int i = 0, n = 1 + random.nextInt(3); i < n; ++i) {
+      request.addImp(Imp.newBuilder()
+          .setId(String.valueOf(i + 1))
+          .setBidfloor(random.nextInt(100) / 10.0)
+          .setBanner(Banner.newBuilder()
+              .setW(random.nextBoolean() ? 300 : 728)
+              .setH(random.nextBoolean() ? 250 : 90)));
+    }
+    // Sorted, so distinct requests are never permutations of each other
+    Set<String> bcat = new TreeSet<>();
+    for (int i = 0, n = random.nextInt(3); i < n; ++i) {
+      bcat.add("IAB" + random.nextInt(26));
+    }
+    request.addAllBcat(bcat);
+    return request.build();
+  }
+}
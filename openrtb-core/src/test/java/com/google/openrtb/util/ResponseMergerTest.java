@@ -0,0 +1,185 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid.Bid;
+import com.google.openrtb.OpenRtb.NoBidReason;
+import com.google.openrtb.util.ResponseMerger.DuplicatePolicy;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ResponseMerger}.
+ */
+public class ResponseMergerTest {
+  private static final ResponseMerger FIRST_WINS = new ResponseMerger(DuplicatePolicy.FIRST_WINS);
+  private static final ResponseMerger HIGHEST_PRICE =
+      new ResponseMerger(DuplicatePolicy.HIGHEST_PRICE);
+
+  @Test
+  public void testEmpty() {
+    BidResponse merged = FIRST_WINS.merge("r", ImmutableList.<BidResponse>of());
+    assertThat(merged.getId()).isEqualTo("r");
+    assertThat(merged.getSeatbidCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testMergeBySeat() {
+    BidResponse resp1 = response("x", seat("s1", bid("1", 1.0)), seat("s2", bid("2", 2.0)));
+    BidResponse resp2 = response("y", seat("s1", bid("3", 3.0)))
+        .toBuilder().setCur("EUR").build();
+    BidResponse resp3 = response("z", seat("s3", bid("4", 4.0)));
+    BidResponse merged = FIRST_WINS.merge("r", ImmutableList.of(resp1, resp2, resp3));
+
+    assertThat(merged.getId()).isEqualTo("r");
+    assertThat(merged.getCur()).isEqualTo("EUR");
+    assertThat(merged.getSeatbidCount()).isEqualTo(3);
+    assertThat(bidIds(merged.getSeatbid(0))).containsExactly("1", "3").inOrder();
+    // Seats and bids are reused by reference
+    assertThat(merged.getSeatbid(0).getBid(1)).isSameInstanceAs(resp2.getSeatbid(0).getBid(0));
+    assertThat(merged.getSeatbid(1)).isSameInstanceAs(resp1.getSeatbid(1));
+    assertThat(merged.getSeatbid(2)).isSameInstanceAs(resp3.getSeatbid(0));
+  }
+
+  @Test
+  public void testSeatFieldsFromFirst() {
+    BidResponse resp1 = response("x",
+        seat("s1", bid("1", 1.0)).toBuilder().setGroup(true).build());
+    BidResponse resp2 = response("y",
+        seat("s1", bid("2", 2.0)).toBuilder().setGroup(true).build());
+    BidResponse merged = FIRST_WINS.merge("r", ImmutableList.of(resp1, resp2));
+    assertThat(merged.getSeatbidCount()).isEqualTo(1);
+    assertThat(merged.getSeatbid(0).getGroup()).isTrue();
+    assertThat(bidIds(merged.getSeatbid(0))).containsExactly("1", "2").inOrder();
+  }
+
+  @Test
+  public void testSeatsWithDifferentGroup() {
+    BidResponse resp1 = response("x",
+        seat("s1", bid("1", 1.0), bid("2", 1.0)).toBuilder().setGroup(true).build());
+    BidResponse resp2 = response("y", seat("s1", bid("3", 2.0)));
+    BidResponse resp3 = response("z",
+        seat("s1", bid("4", 3.0)).toBuilder().setGroup(true).build());
+    BidResponse merged = FIRST_WINS.merge("r", ImmutableList.of(resp1, resp2, resp3));
+    // The grouped seat is kept apart, and merged only with the other grouped seat
+    assertThat(merged.getSeatbidCount()).isEqualTo(2);
+    assertThat(merged.getSeatbid(0).getSeat()).isEqualTo("s1");
+    assertThat(merged.getSeatbid(0).getGroup()).isTrue();
+    assertThat(bidIds(merged.getSeatbid(0))).containsExactly("1", "2", "4").inOrder();
+    assertThat(merged.getSeatbid(1)).isSameInstanceAs(resp2.getSeatbid(0));
+  }
+
+  @Test
+  public void testNoBidFirst() {
+    BidResponse noBid = BidResponse.newBuilder()
+        .setId("x")
+        .setNbr(NoBidReason.TECHNICAL_ERROR)
+        .setBidid("b")
+        .setCustomdata("c")
+        .build();
+    BidResponse resp = response("y", seat("s1", bid("1", 1.0)));
+    BidResponse merged = FIRST_WINS.merge("r", ImmutableList.of(noBid, resp));
+    assertThat(merged.getId()).isEqualTo("r");
+    assertThat(merged.hasNbr()).isFalse();
+    assertThat(merged.hasBidid()).isFalse();
+    assertThat(merged.hasCustomdata()).isFalse();
+    assertThat(merged.getSeatbidList()).containsExactly(resp.getSeatbid(0));
+  }
+
+  @Test
+  public void testDuplicates_firstWins() {
+    BidResponse merged = FIRST_WINS.merge("r", ImmutableList.of(
+        response("x", seat("s1", bid("1", 1.0), bid("2", 2.0))),
+        response("y", seat("s2", bid("1", 5.0)), seat("s1", bid("2", 1.0)))));
+    assertThat(merged.getSeatbidCount()).isEqualTo(1);
+    assertThat(merged.getSeatbid(0).getSeat()).isEqualTo("s1");
+    assertThat(bidIds(merged.getSeatbid(0))).containsExactly("1", "2").inOrder();
+    assertThat(merged.getSeatbid(0).getBid(0).getPrice()).isEqualTo(1.0);
+  }
+
+  @Test
+  public void testDuplicates_highestPrice() {
+    BidResponse resp1 = response("x", seat("s1", bid("1", 1.0), bid("2", 2.0)));
+    BidResponse resp2 = response("y",
+        seat("s2", bid("1", 5.0)), seat("s1", bid("2", 1.0), bid("3", 3.0)));
+    BidResponse merged = HIGHEST_PRICE.merge("r", ImmutableList.of(resp1, resp2));
+    assertThat(merged.getSeatbidCount()).isEqualTo(2);
+    assertThat(merged.getSeatbid(0).getSeat()).isEqualTo("s1");
+    assertThat(bidIds(merged.getSeatbid(0))).containsExactly("2", "3").inOrder();
+    assertThat(merged.getSeatbid(0).getBid(0).getPrice()).isEqualTo(2.0);
+    assertThat(merged.getSeatbid(1).getSeat()).isEqualTo("s2");
+    assertThat(merged.getSeatbid(1).getBid(0).getPrice()).isEqualTo(5.0);
+  }
+
+  @Test
+  public void testDuplicates_sameResponse() {
+    BidResponse resp = response("x", seat("s1", bid("1", 1.0), bid("1", 3.0), bid("1", 2.0)));
+    BidResponse merged = HIGHEST_PRICE.merge("r", ImmutableList.of(resp));
+    assertThat(merged.getSeatbid(0).getBidCount()).isEqualTo(1);
+    assertThat(merged.getSeatbid(0).getBid(0).getPrice()).isEqualTo(3.0);
+    assertThat(FIRST_WINS.merge("r", ImmutableList.of(resp)).getSeatbid(0).getBid(0).getPrice())
+        .isEqualTo(1.0);
+  }
+
+  @Test
+  public void testMergeSources() {
+    BidResponse resp1 = response("x",
+        seat("", bid("1", 1.0), bid("1", 2.0)).toBuilder().setGroup(true).build(),
+        seat("s1", bid("2", 1.0)));
+    BidResponse resp2 = response("y", seat("", bid("1", 3.0)), seat("s1", bid("2", 2.0)));
+    BidResponse merged = HIGHEST_PRICE.mergeSources("r", ImmutableList.of(resp1, resp2));
+    // Bid IDs are only unique within each source, and unnamed seats are never merged
+    assertThat(merged.getSeatbidCount()).isEqualTo(3);
+    assertThat(merged.getSeatbid(0).getGroup()).isTrue();
+    assertThat(merged.getSeatbid(0).getBidCount()).isEqualTo(1);
+    assertThat(merged.getSeatbid(0).getBid(0).getPrice()).isEqualTo(2.0);
+    assertThat(merged.getSeatbid(1).getSeat()).isEqualTo("s1");
+    assertThat(bidIds(merged.getSeatbid(1))).containsExactly("2", "2");
+    assertThat(merged.getSeatbid(2)).isSameInstanceAs(resp2.getSeatbid(0));
+  }
+
+  @Test
+  public void testToString() {
+    assertThat(HIGHEST_PRICE.toString()).contains("HIGHEST_PRICE");
+  }
+
+  private static BidResponse response(String id, SeatBid... seats) {
+    return BidResponse.newBuilder().setId(id).addAllSeatbid(ImmutableList.copyOf(seats)).build();
+  }
+
+  private static SeatBid seat(String seat, Bid... bids) {
+    return SeatBid.newBuilder().setSeat(seat).addAllBid(ImmutableList.copyOf(bids)).build();
+  }
+
+  private static Bid bid(String id, double price) {
+    return Bid.newBuilder().setId(id).setImpid("1").setPrice(price).build();
+  }
+
+  private static List<String> bidIds(SeatBid seatbid) {
+    List<String> ids = new ArrayList<>();
+    for (Bid bid : seatbid.getBidList()) {
+      ids.add(bid.getId());
+    }
+    return ids;
+  }
+}
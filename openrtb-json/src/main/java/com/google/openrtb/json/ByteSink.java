@@ -0,0 +1,288 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.json;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Growable byte array, with helpers to write JSON text and protobuf wire format.
+ *
+ * <p>This class is NOT threadsafe.
+ */
+final class ByteSink {
+  private static final byte[] HEX = "0123456789abcdef".getBytes(US_ASCII);
+  private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes(US_ASCII);
+
+  private byte[] buf;
+  private int size;
+
+  ByteSink(int initialCapacity) {
+    this.buf = new byte[initialCapacity];
+  }
+
+  byte[] buffer() {
+    return buf;
+  }
+
+  int size() {
+    return size;
+  }
+
+  int capacity() {
+    return buf.length;
+  }
+
+  void reset() {
+    size = 0;
+  }
+
+  byte[] toByteArray() {
+    return Arrays.copyOf(buf, size);
+  }
+
+  void writeTo(OutputStream os) throws IOException {
+    os.write(buf, 0, size);
+  }
+
+  private void ensure(int more) {
+    if (size + more > buf.length) {
+      buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + more));
+    }
+  }
+
+  void write(int b) {
+    ensure(1);
+    buf[size++] = (byte) b;
+  }
+
+  void write(byte[] bytes) {
+    write(bytes, 0, bytes.length);
+  }
+
+  void write(byte[] bytes, int off, int len) {
+    ensure(len);
+    System.arraycopy(bytes, off, buf, size, len);
+    size += len;
+  }
+
+  void write(ByteSink other) {
+    write(other.buf, 0, other.size);
+  }
+
+  // JSON
+
+  void writeLong(long value) {
+    if (value == Long.MIN_VALUE) {
+      write(MIN_LONG);
+      return;
+    }
+    ensure(20);
+    if (value < 0) {
+      buf[size++] = '-';
+      value = -value;
+    }
+    int digits = 1;
+    for (long v = value; v >= 10; v /= 10) {
+      ++digits;
+    }
+    for (int i = size + digits - 1; i >= size; --i) {
+      buf[i] = (byte) ('0' + value % 10);
+      value /= 10;
+    }
+    size += digits;
+  }
+
+  /**
+   * Writes a double. Integral values are written without a fraction; non-finite values,
+   * that JSON can't represent, are written as {@code null}.
+   */
+  void writeDouble(double value) {
+    if (value == (long) value && Math.abs(value) < 1e15) {
+      writeLong((long) value);
+    } else if (Double.isNaN(value) || Double.isInfinite(value)) {
+      writeAscii("null");
+    } else {
+      writeAscii(Double.toString(value));
+    }
+  }
+
+  void writeAscii(String s) {
+    int len = s.length();
+    ensure(len);
+    for (int i = 0; i < len; ++i) {
+      buf[size++] = (byte) s.charAt(i);
+    }
+  }
+
+  /**
+   * Writes a JSON string, from UTF-8 bytes: quoted, and escaped as necessary.
+   */
+  void writeString(byte[] utf8, int off, int len) {
+    ensure(len + 2);
+    buf[size++] = '"';
+    int end = off + len;
+    int start = off;
+    for (int i = off; i < end; ++i) {
+      int b = utf8[i];
+      if (b == '"' || b == '\\' || (b >= 0 && b < 0x20)) {
+        write(utf8, start, i - start);
+        writeEscape(b);
+        start = i + 1;
+      }
+    }
+    write(utf8, start, end - start);
+    write('"');
+  }
+
+  void writeString(String s) {
+    byte[] utf8 = s.getBytes(UTF_8);
+    writeString(utf8, 0, utf8.length);
+  }
+
+  /**
+   * Escapes in place the bytes written since {@code start}, as the contents of a JSON string.
+   * This allows writing JSON text as a string value directly, without a temporary buffer:
+   * the text is written first, then its escapes are expanded backwards in a single move.
+   */
+  void escapeFrom(int start) {
+    int extra = 0;
+    for (int i = start; i < size; ++i) {
+      extra += escapeLength(buf[i]) - 1;
+    }
+    if (extra == 0) {
+      return;
+    }
+    ensure(extra);
+    int dst = size + extra;
+    for (int src = size - 1; src >= start; --src) {
+      int b = buf[src];
+      int len = escapeLength(b);
+      if (len == 1) {
+        buf[--dst] = (byte) b;
+      } else {
+        dst -= len;
+        putEscape(dst, b);
+      }
+    }
+    size += extra;
+  }
+
+  private static int escapeLength(int b) {
+    switch (b) {
+      case '"':
+      case '\\':
+      case '\n':
+      case '\r':
+      case '\t':
+      case '\b':
+      case '\f':
+        return 2;
+      default:
+        return b >= 0 && b < 0x20 ? 6 : 1;
+    }
+  }
+
+  private void writeEscape(int b) {
+    ensure(6);
+    size = putEscape(size, b);
+  }
+
+  /**
+   * Writes the escape sequence of a byte at a position.
+   *
+   * @return The position after the escape sequence
+   */
+  private int putEscape(int pos, int b) {
+    buf[pos++] = '\\';
+    switch (b) {
+      case '"':
+      case '\\':
+        buf[pos++] = (byte) b;
+        break;
+      case '\n':
+        buf[pos++] = 'n';
+        break;
+      case '\r':
+        buf[pos++] = 'r';
+        break;
+      case '\t':
+        buf[pos++] = 't';
+        break;
+      case '\b':
+        buf[pos++] = 'b';
+        break;
+      case '\f':
+        buf[pos++] = 'f';
+        break;
+      default:
+        buf[pos++] = 'u';
+        buf[pos++] = '0';
+        buf[pos++] = '0';
+        buf[pos++] = HEX[b >> 4];
+        buf[pos++] = HEX[b & 0xF];
+    }
+    return pos;
+  }
+
+  // Protobuf wire format
+
+  void writeTag(int number, int wireType) {
+    writeVarint32((number << 3) | wireType);
+  }
+
+  void writeVarint32(int value) {
+    ensure(5);
+    while ((value & ~0x7F) != 0) {
+      buf[size++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buf[size++] = (byte) value;
+  }
+
+  void writeVarint64(long value) {
+    ensure(10);
+    while ((value & ~0x7FL) != 0) {
+      buf[size++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buf[size++] = (byte) value;
+  }
+
+  void writeFixed32(int value) {
+    ensure(4);
+    buf[size++] = (byte) value;
+    buf[size++] = (byte) (value >> 8);
+    buf[size++] = (byte) (value >> 16);
+    buf[size++] = (byte) (value >> 24);
+  }
+
+  void writeFixed64(long value) {
+    writeFixed32((int) value);
+    writeFixed32((int) (value >> 32));
+  }
+
+  void writeLengthDelimited(int number, byte[] bytes, int off, int len) {
+    writeTag(number, WireInput.WIRETYPE_LENGTH_DELIMITED);
+    writeVarint32(len);
+    write(bytes, off, len);
+  }
+}
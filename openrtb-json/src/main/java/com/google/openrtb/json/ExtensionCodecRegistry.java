@@ -0,0 +1,169 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.json;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Extension;
+import com.google.protobuf.ExtensionRegistry;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Mapping of the keys of OpenRTB {@code ext} objects to protobuf extensions, for
+ * {@link OpenRtbJsonFactory#create(ExtensionCodecRegistry)}.
+ *
+ * <p>Each registered extension is compiled by the factory, like regular fields, into
+ * the schema of the message type it extends: {@code ext} keys are resolved from their bytes
+ * with a hash table per message type, and values are transcoded directly to the extension's
+ * wire format, so reading doesn't need {@link ExtensionRegistry} lookups by key or
+ * intermediate {@code DynamicMessage}s. The generated parser still uses
+ * {@link #protobufRegistry()} to recognize the extension fields.
+ *
+ * <p>Unknown {@code ext} keys are skipped by default. Alternatively, they can be kept as raw
+ * JSON bytes (the verbatim {@code "key":value} member) in an unknown field of the message,
+ * that is written back in the {@code ext} object, so unknown extensions survive a read/write
+ * round trip without being parsed.
+ *
+ * <p>This class is immutable and threadsafe.
+ */
+public final class ExtensionCodecRegistry {
+  /** Registry without extensions, that skips all {@code ext} keys. */
+  public static final ExtensionCodecRegistry EMPTY = builder().build();
+
+  private static final int MAX_FIELD_NUMBER = (1 << 29) - 1;
+
+  private final ImmutableListMultimap<Descriptor, Entry> extensions;
+  private final ExtensionRegistry protobufRegistry;
+  private final int rawFieldNumber;
+
+  private ExtensionCodecRegistry(Builder builder) {
+    this.extensions = builder.extensions.build();
+    this.protobufRegistry = builder.protobufRegistry.getUnmodifiable();
+    this.rawFieldNumber = builder.rawFieldNumber;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Registry with the same extensions, to parse messages with the generated code.
+   */
+  public ExtensionRegistry protobufRegistry() {
+    return protobufRegistry;
+  }
+
+  /**
+   * Field number for unknown {@code ext} keys kept as raw JSON, or 0 if they are skipped.
+   */
+  public int rawFieldNumber() {
+    return rawFieldNumber;
+  }
+
+  ImmutableList<Entry> extensions(Descriptor containingType) {
+    return extensions.get(containingType);
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("extensions", extensions.size())
+        .add("rawFieldNumber", rawFieldNumber)
+        .toString();
+  }
+
+  /**
+   * A registered extension and its key.
+   */
+  static final class Entry {
+    final FieldDescriptor descriptor;
+    final String jsonKey;
+
+    Entry(FieldDescriptor descriptor, String jsonKey) {
+      this.descriptor = descriptor;
+      this.jsonKey = jsonKey;
+    }
+  }
+
+  /**
+   * Builder for {@link ExtensionCodecRegistry}.
+   */
+  public static final class Builder {
+    private final ImmutableListMultimap.Builder<Descriptor, Entry> extensions =
+        ImmutableListMultimap.builder();
+    private final ExtensionRegistry protobufRegistry = ExtensionRegistry.newInstance();
+    private final Set<String> keys = new HashSet<>();
+    private final Set<String> numbers = new HashSet<>();
+    private final Set<Integer> extensionNumbers = new HashSet<>();
+    private int rawFieldNumber;
+
+    private Builder() {
+    }
+
+    /**
+     * Registers an extension, with its field name as the {@code ext} key.
+     */
+    public Builder register(Extension<?, ?> extension) {
+      return register(extension, extension.getDescriptor().getName());
+    }
+
+    /**
+     * Registers an extension, with a custom {@code ext} key.
+     */
+    public Builder register(Extension<?, ?> extension, String jsonKey) {
+      FieldDescriptor fd = extension.getDescriptor();
+      checkNotNull(jsonKey);
+      checkArgument(fd.getType() != FieldDescriptor.Type.GROUP,
+          "Group extensions not supported: %s", fd.getFullName());
+      Descriptor containingType = fd.getContainingType();
+      checkArgument(keys.add(containingType.getFullName() + '/' + jsonKey),
+          "Duplicate key for %s: %s", containingType.getFullName(), jsonKey);
+      checkArgument(numbers.add(containingType.getFullName() + '/' + fd.getNumber()),
+          "Duplicate extension for %s: %s", containingType.getFullName(), fd.getNumber());
+      checkArgument(fd.getNumber() != rawFieldNumber,
+          "Extension uses the raw field number: %s", fd.getFullName());
+      extensionNumbers.add(fd.getNumber());
+      extensions.put(containingType, new Entry(fd, jsonKey));
+      protobufRegistry.add(extension);
+      return this;
+    }
+
+    /**
+     * Keeps unknown {@code ext} keys as raw JSON, in an unknown field with the given number.
+     * The number must not be used by any field or registered extension of the OpenRTB
+     * messages; a number in the extension range that no exchange uses is recommended.
+     */
+    public Builder keepUnknownKeys(int fieldNumber) {
+      checkArgument(fieldNumber > 0 && fieldNumber <= MAX_FIELD_NUMBER,
+          "Invalid field number: %s", fieldNumber);
+      checkArgument(!extensionNumbers.contains(fieldNumber),
+          "Field number used by an extension: %s", fieldNumber);
+      this.rawFieldNumber = fieldNumber;
+      return this;
+    }
+
+    public ExtensionCodecRegistry build() {
+      return new ExtensionCodecRegistry(this);
+    }
+  }
+}
@@ -0,0 +1,513 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.json;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import javax.annotation.Nullable;
+
+/**
+ * Tokenizer of UTF-8 JSON text from a byte array. Keys are matched against
+ * {@link MessageSchema}s directly from the input bytes; strings are exposed as byte ranges,
+ * either in the input (if they have no escapes) or in a scratch buffer.
+ *
+ * <p>Scalars are parsed leniently, as exchanges commonly send numbers as strings,
+ * or booleans as {@code true/false} instead of OpenRTB's {@code 1/0}.
+ *
+ * <p>This class is NOT threadsafe.
+ */
+final class JsonInput {
+  private static final double[] POW10 = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+  private static final int MAX_FAST_DIGITS = 15;
+
+  private final byte[] buf;
+  private final int start;
+  private final int end;
+  private int pos;
+  private ByteSink scratch;
+
+  /** Bytes of the last string read by {@link #readString()}. */
+  byte[] strBuf;
+  int strOff;
+  int strLen;
+
+  JsonInput(byte[] buf, int off, int len) {
+    this.buf = buf;
+    this.start = off;
+    this.pos = off;
+    this.end = off + len;
+  }
+
+  /**
+   * Skips whitespace, and returns the next byte without consuming it.
+   *
+   * @return The next byte, or -1 at the end of input
+   */
+  int peek() {
+    while (pos < end) {
+      byte b = buf[pos];
+      if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+        return b & 0xFF;
+      }
+      ++pos;
+    }
+    return -1;
+  }
+
+  boolean consume(char c) {
+    if (peek() == c) {
+      ++pos;
+      return true;
+    }
+    return false;
+  }
+
+  void expect(char c) throws IOException {
+    if (!consume(c)) {
+      throw error("Expected '" + c + "'");
+    }
+  }
+
+  void expectEnd() throws IOException {
+    if (peek() != -1) {
+      throw error("Unexpected data after JSON value");
+    }
+  }
+
+  /**
+   * Consumes a {@code null} literal, if that's the next value.
+   */
+  boolean consumeNull() throws IOException {
+    if (peek() == 'n') {
+      expectLiteral("null");
+      return true;
+    }
+    return false;
+  }
+
+  byte[] buffer() {
+    return buf;
+  }
+
+  int position() {
+    return pos;
+  }
+
+  void reset(int position) {
+    this.pos = position;
+  }
+
+  IOException error(String message) {
+    return new IOException(message + " at offset " + (pos - start));
+  }
+
+  /**
+   * Reads an object key and the following colon.
+   *
+   * @param extension {@code true} to look up the key in the schema's extensions,
+   *     for keys of an {@code ext} object
+   * @return The key's field, or {@code null} if the schema has no field for the key
+   */
+  @Nullable MessageSchema.Field readKey(MessageSchema schema, boolean extension)
+      throws IOException {
+    expect('"');
+    int keyStart = pos;
+    int hash = 0x811C9DC5;
+    MessageSchema.Field field;
+    while (true) {
+      if (pos >= end) {
+        throw error("Unterminated string");
+      }
+      byte b = buf[pos];
+      if (b == '"') {
+        field = extension
+            ? schema.extension(buf, keyStart, pos - keyStart, hash)
+            : schema.field(buf, keyStart, pos - keyStart, hash);
+        ++pos;
+        break;
+      } else if (b == '\\') {
+        pos = keyStart - 1;
+        readString();
+        hash = MessageSchema.hash(strBuf, strOff, strLen);
+        field = extension
+            ? schema.extension(strBuf, strOff, strLen, hash)
+            : schema.field(strBuf, strOff, strLen, hash);
+        break;
+      }
+      hash = (hash ^ (b & 0xFF)) * 0x01000193;
+      ++pos;
+    }
+    expect(':');
+    return field;
+  }
+
+  /**
+   * Consumes the key and colon of an object's first entry, if it matches {@code name}.
+   */
+  boolean consumeKey(byte[] name) throws IOException {
+    int mark = pos;
+    if (consume('"') && pos + name.length < end && buf[pos + name.length] == '"') {
+      boolean matches = true;
+      for (int i = 0; i < name.length && matches; ++i) {
+        matches = buf[pos + i] == name[i];
+      }
+      if (matches) {
+        pos += name.length + 1;
+        if (consume(':')) {
+          return true;
+        }
+      }
+    }
+    pos = mark;
+    return false;
+  }
+
+  /**
+   * Reads a string into {@link #strBuf}, {@link #strOff} and {@link #strLen}. Numbers are
+   * also accepted, as their text.
+   */
+  void readString() throws IOException {
+    int c = peek();
+    if (c != '"') {
+      if (c == '-' || (c >= '0' && c <= '9')) {
+        strBuf = buf;
+        strOff = pos;
+        skipScalar();
+        strLen = pos - strOff;
+        return;
+      }
+      throw error("Expected string");
+    }
+    int strStart = ++pos;
+    while (pos < end) {
+      byte b = buf[pos];
+      if (b == '"') {
+        strBuf = buf;
+        strOff = strStart;
+        strLen = pos++ - strStart;
+        return;
+      } else if (b == '\\') {
+        unescape(strStart);
+        return;
+      }
+      ++pos;
+    }
+    throw error("Unterminated string");
+  }
+
+  String readStringValue() throws IOException {
+    readString();
+    return new String(strBuf, strOff, strLen, UTF_8);
+  }
+
+  private void unescape(int strStart) throws IOException {
+    if (scratch == null) {
+      scratch = new ByteSink(256);
+    }
+    scratch.reset();
+    scratch.write(buf, strStart, pos - strStart);
+    while (true) {
+      if (pos >= end) {
+        throw error("Unterminated string");
+      }
+      byte b = buf[pos++];
+      if (b == '"') {
+        break;
+      } else if (b != '\\') {
+        scratch.write(b);
+        continue;
+      }
+      if (pos >= end) {
+        throw error("Unterminated string");
+      }
+      byte escaped = buf[pos++];
+      switch (escaped) {
+        case '"':
+        case '\\':
+        case '/':
+          scratch.write(escaped);
+          break;
+        case 'b':
+          scratch.write('\b');
+          break;
+        case 'f':
+          scratch.write('\f');
+          break;
+        case 'n':
+          scratch.write('\n');
+          break;
+        case 'r':
+          scratch.write('\r');
+          break;
+        case 't':
+          scratch.write('\t');
+          break;
+        case 'u':
+          writeCodePoint(readUnicodeEscape());
+          break;
+        default:
+          throw error("Invalid escape");
+      }
+    }
+    strBuf = scratch.buffer();
+    strOff = 0;
+    strLen = scratch.size();
+  }
+
+  private int readUnicodeEscape() throws IOException {
+    int c = readHex4();
+    if (Character.isHighSurrogate((char) c)) {
+      if (pos + 6 <= end && buf[pos] == '\\' && buf[pos + 1] == 'u') {
+        int mark = pos;
+        pos += 2;
+        int low = readHex4();
+        if (Character.isLowSurrogate((char) low)) {
+          return Character.toCodePoint((char) c, (char) low);
+        }
+        pos = mark;
+      }
+      return 0xFFFD;
+    }
+    return Character.isLowSurrogate((char) c) ? 0xFFFD : c;
+  }
+
+  private int readHex4() throws IOException {
+    if (pos + 4 > end) {
+      throw error("Invalid unicode escape");
+    }
+    int c = 0;
+    for (int i = 0; i < 4; ++i) {
+      int digit = Character.digit(buf[pos++], 16);
+      if (digit < 0) {
+        throw error("Invalid unicode escape");
+      }
+      c = (c << 4) | digit;
+    }
+    return c;
+  }
+
+  private void writeCodePoint(int cp) {
+    if (cp < 0x80) {
+      scratch.write(cp);
+    } else if (cp < 0x800) {
+      scratch.write(0xC0 | (cp >> 6));
+      scratch.write(0x80 | (cp & 0x3F));
+    } else if (cp < 0x10000) {
+      scratch.write(0xE0 | (cp >> 12));
+      scratch.write(0x80 | ((cp >> 6) & 0x3F));
+      scratch.write(0x80 | (cp & 0x3F));
+    } else {
+      scratch.write(0xF0 | (cp >> 18));
+      scratch.write(0x80 | ((cp >> 12) & 0x3F));
+      scratch.write(0x80 | ((cp >> 6) & 0x3F));
+      scratch.write(0x80 | (cp & 0x3F));
+    }
+  }
+
+  /**
+   * Reads an integer, also accepted as a string or with a fraction (which is truncated).
+   */
+  long readLong() throws IOException {
+    boolean quoted = consume('"');
+    int numStart = quoted ? pos : skipToValue();
+    boolean negative = pos < end && buf[pos] == '-';
+    if (negative) {
+      ++pos;
+    }
+    long value = 0;
+    int digits = 0;
+    while (pos < end && buf[pos] >= '0' && buf[pos] <= '9') {
+      value = value * 10 + (buf[pos++] - '0');
+      ++digits;
+    }
+    if (digits == 0 || digits > 18
+        || (pos < end && (buf[pos] == '.' || buf[pos] == 'e' || buf[pos] == 'E'))) {
+      pos = numStart;
+      value = (long) parseDouble();
+    } else if (negative) {
+      value = -value;
+    }
+    if (quoted) {
+      expect('"');
+    }
+    return value;
+  }
+
+  /**
+   * Reads a number, also accepted as a string.
+   */
+  double readDouble() throws IOException {
+    boolean quoted = consume('"');
+    if (!quoted) {
+      skipToValue();
+    }
+    double value = parseDouble();
+    if (quoted) {
+      expect('"');
+    }
+    return value;
+  }
+
+  /**
+   * Reads a boolean: {@code true/false}, a number (non-zero is {@code true}),
+   * or any of those as a string.
+   */
+  boolean readBoolean() throws IOException {
+    boolean quoted = consume('"');
+    int c = quoted ? (pos < end ? buf[pos] : -1) : peek();
+    boolean value;
+    if (c == 't') {
+      expectLiteral("true");
+      value = true;
+    } else if (c == 'f') {
+      expectLiteral("false");
+      value = false;
+    } else {
+      value = parseDouble() != 0;
+    }
+    if (quoted) {
+      expect('"');
+    }
+    return value;
+  }
+
+  private int skipToValue() throws IOException {
+    if (peek() == -1) {
+      throw error("Unexpected end of input");
+    }
+    return pos;
+  }
+
+  private double parseDouble() throws IOException {
+    int numStart = pos;
+    boolean negative = pos < end && buf[pos] == '-';
+    if (negative) {
+      ++pos;
+    }
+    long mantissa = 0;
+    int digits = 0;
+    int exponent = 0;
+    while (pos < end && buf[pos] >= '0' && buf[pos] <= '9') {
+      mantissa = mantissa * 10 + (buf[pos++] - '0');
+      ++digits;
+    }
+    if (pos < end && buf[pos] == '.') {
+      ++pos;
+      while (pos < end && buf[pos] >= '0' && buf[pos] <= '9') {
+        mantissa = mantissa * 10 + (buf[pos++] - '0');
+        ++digits;
+        --exponent;
+      }
+    }
+    boolean simple = true;
+    if (pos < end && (buf[pos] == 'e' || buf[pos] == 'E')) {
+      simple = false;
+      skipScalar();
+    }
+    if (pos == numStart || digits == 0) {
+      throw error("Expected number");
+    }
+
+    // Fast path: the mantissa and power of ten are exact doubles, so one correctly-rounded
+    // division gives the correctly-rounded result. Otherwise, let the JDK handle it.
+    if (simple && digits <= MAX_FAST_DIGITS && -exponent < POW10.length) {
+      double value = exponent == 0 ? mantissa : mantissa / POW10[-exponent];
+      return negative ? -value : value;
+    }
+    try {
+      return Double.parseDouble(new String(buf, numStart, pos - numStart, ISO_8859_1));
+    } catch (NumberFormatException e) {
+      pos = numStart;
+      throw error("Invalid number");
+    }
+  }
+
+  private void expectLiteral(String literal) throws IOException {
+    if (pos + literal.length() > end) {
+      throw error("Expected " + literal);
+    }
+    for (int i = 0; i < literal.length(); ++i) {
+      if (buf[pos + i] != literal.charAt(i)) {
+        throw error("Expected " + literal);
+      }
+    }
+    pos += literal.length();
+  }
+
+  /**
+   * Skips any value, including objects and arrays.
+   */
+  void skipValue() throws IOException {
+    int c = peek();
+    if (c == '{' || c == '[') {
+      int depth = 0;
+      do {
+        byte b = buf[pos];
+        if (b == '"') {
+          skipString();
+          continue;
+        } else if (b == '{' || b == '[') {
+          ++depth;
+        } else if (b == '}' || b == ']') {
+          --depth;
+        }
+        ++pos;
+      } while (depth > 0 && pos < end);
+      if (depth > 0) {
+        throw error("Unterminated " + (c == '{' ? "object" : "array"));
+      }
+    } else if (c == '"') {
+      skipString();
+    } else if (c == -1) {
+      throw error("Unexpected end of input");
+    } else {
+      int valueStart = pos;
+      skipScalar();
+      if (pos == valueStart) {
+        throw error("Unexpected character");
+      }
+    }
+  }
+
+  private void skipString() throws IOException {
+    ++pos;
+    while (pos < end) {
+      byte b = buf[pos++];
+      if (b == '"') {
+        return;
+      } else if (b == '\\') {
+        ++pos;
+      }
+    }
+    throw error("Unterminated string");
+  }
+
+  private void skipScalar() {
+    while (pos < end) {
+      byte b = buf[pos];
+      if (b == ',' || b == '}' || b == ']' || b == ':' || b == '"'
+          || b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+        return;
+      }
+      ++pos;
+    }
+  }
+}
@@ -0,0 +1,380 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.json;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
+import com.google.openrtb.OpenRtb.NativeRequest;
+import com.google.openrtb.OpenRtb.NativeResponse;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.EnumDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+
+/**
+ * JSON mapping of a message type, compiled once from its descriptor: fields are looked up
+ * by number (for writing) or by the UTF-8 bytes of their JSON key (for reading) with array
+ * indexing and hashing, instead of reflection.
+ *
+ * <p>Extensions registered in an {@link ExtensionCodecRegistry} are compiled like fields,
+ * with their own tables, for the keys of the message's {@code ext} object.
+ *
+ * <p>JSON keys are the field names, which in {@code openrtb.proto} follow the specification.
+ * The exception are the {@code *_native} fields (like {@code Bid.adm_native}), which are
+ * written as JSON strings under the key of their string alternative (like {@code adm}),
+ * and never read since the specification only has the string form. Fields removed from the
+ * specification (like {@code Video.companionad_21} or {@code Content.context_22}) use the key
+ * of the field that replaced them; when reading, they are told apart by their JSON type.
+ *
+ * <p>This class is immutable and threadsafe.
+ */
+final class MessageSchema {
+  private static final ImmutableSet<String> CATEGORY_FIELDS =
+      ImmutableSet.of("cat", "bcat", "sectioncat", "pagecat");
+  private static final String NATIVE_SUFFIX = "_native";
+  /** Name of a removed field: the current field's name and the last version that had it. */
+  private static final Pattern LEGACY_NAME = Pattern.compile("(.+)_2\\d");
+
+  private final Descriptor descriptor;
+  private final int rawFieldNumber;
+  private Field[] byNumber;
+  private KeyTable byKey;
+  private int[] extensionNumbers;
+  private Field[] extensions;
+  private KeyTable extensionsByKey;
+
+  private MessageSchema(Descriptor descriptor, int rawFieldNumber) {
+    this.descriptor = descriptor;
+    this.rawFieldNumber = rawFieldNumber;
+  }
+
+  /**
+   * Compiles the schema of a message type, and of all message types nested in its fields
+   * or extensions.
+   *
+   * @param compiled Schemas already compiled, that will be reused and updated
+   */
+  static MessageSchema compile(Descriptor descriptor, ExtensionCodecRegistry registry,
+      Map<Descriptor, MessageSchema> compiled) {
+    MessageSchema schema = compiled.get(descriptor);
+    if (schema != null) {
+      return schema;
+    }
+    schema = new MessageSchema(descriptor,
+        descriptor.isExtendable() ? registry.rawFieldNumber() : 0);
+    // Registered before compiling fields, so recursive types are supported
+    compiled.put(descriptor, schema);
+
+    List<Field> fields = new ArrayList<>();
+    int maxNumber = 0;
+    for (FieldDescriptor fd : descriptor.getFields()) {
+      if (fd.getType() != FieldDescriptor.Type.GROUP) {
+        FieldDescriptor replacement = replacement(fd);
+        fields.add(new Field(fd, replacement == null ? null : replacement.getName(),
+            nestedSchema(fd, registry, compiled), nativeRequestSchema(fd, registry, compiled)));
+        maxNumber = Math.max(maxNumber, fd.getNumber());
+      }
+    }
+    schema.byNumber = new Field[maxNumber + 1];
+    List<Field> keyed = new ArrayList<>();
+    for (Field field : fields) {
+      schema.byNumber[field.number] = field;
+    }
+    for (Field field : fields) {
+      FieldDescriptor replacement = replacement(field.descriptor);
+      if (replacement != null) {
+        schema.byNumber[replacement.getNumber()].legacy = field;
+      } else if (!field.embeddedJson) {
+        keyed.add(field);
+      }
+    }
+    if (descriptor.isExtendable()) {
+      keyed.add(Field.EXT);
+    }
+    schema.byKey = new KeyTable(keyed);
+
+    List<Field> extensions = new ArrayList<>();
+    for (ExtensionCodecRegistry.Entry entry : registry.extensions(descriptor)) {
+      extensions.add(new Field(entry.descriptor, entry.jsonKey,
+          nestedSchema(entry.descriptor, registry, compiled), null));
+    }
+    extensions.sort((f1, f2) -> Integer.compare(f1.number, f2.number));
+    schema.extensions = extensions.toArray(new Field[0]);
+    schema.extensionNumbers = new int[extensions.size()];
+    for (int i = 0; i < extensions.size(); ++i) {
+      schema.extensionNumbers[i] = extensions.get(i).number;
+    }
+    schema.extensionsByKey = new KeyTable(extensions);
+    return schema;
+  }
+
+  @Nullable private static MessageSchema nestedSchema(FieldDescriptor fd,
+      ExtensionCodecRegistry registry, Map<Descriptor, MessageSchema> compiled) {
+    return fd.getJavaType() == FieldDescriptor.JavaType.MESSAGE
+        ? compile(fd.getMessageType(), registry, compiled)
+        : null;
+  }
+
+  /**
+   * Compiles the {@link NativeRequest} schema for a string field that has a
+   * {@code *_native} alternative of that type, like {@code Imp.Native.request}.
+   */
+  @Nullable private static MessageSchema nativeRequestSchema(FieldDescriptor fd,
+      ExtensionCodecRegistry registry, Map<Descriptor, MessageSchema> compiled) {
+    FieldDescriptor alternative = nativeAlternative(fd);
+    return alternative == null || alternative.getMessageType() != NativeRequest.getDescriptor()
+        ? null
+        : compile(alternative.getMessageType(), registry, compiled);
+  }
+
+  /**
+   * Finds the field that replaced a removed field, like {@code companionad} for
+   * {@code companionad_21}, if their JSON types are different so they can share a key.
+   */
+  @Nullable private static FieldDescriptor replacement(FieldDescriptor fd) {
+    Matcher matcher = LEGACY_NAME.matcher(fd.getName());
+    if (!fd.getOptions().getDeprecated() || fd.isRepeated() || !matcher.matches()) {
+      return null;
+    }
+    FieldDescriptor replacement = fd.getContainingType().findFieldByName(matcher.group(1));
+    return replacement != null
+        && (fd.getType() == FieldDescriptor.Type.MESSAGE
+            ? replacement.isRepeated()
+            : fd.getType() == FieldDescriptor.Type.STRING
+                && replacement.getType() == FieldDescriptor.Type.ENUM)
+        ? replacement
+        : null;
+  }
+
+  @Nullable private static FieldDescriptor nativeAlternative(FieldDescriptor fd) {
+    return fd.getType() == FieldDescriptor.Type.STRING
+        ? fd.getContainingType().findFieldByName(fd.getName() + NATIVE_SUFFIX)
+        : null;
+  }
+
+  Descriptor descriptor() {
+    return descriptor;
+  }
+
+  /**
+   * Field number of the unknown field that keeps unknown {@code ext} keys as raw JSON,
+   * or 0 if they are skipped.
+   */
+  int rawFieldNumber() {
+    return rawFieldNumber;
+  }
+
+  /**
+   * Finds a field by number.
+   */
+  @Nullable Field field(int number) {
+    return number < byNumber.length ? byNumber[number] : null;
+  }
+
+  /**
+   * Finds a field by JSON key. The key {@code ext} resolves to {@link Field#EXT} for
+   * extendable messages.
+   *
+   * @param hash Hash of the key, as computed by {@link #hash(byte[], int, int)}
+   */
+  @Nullable Field field(byte[] key, int off, int len, int hash) {
+    return byKey.get(key, off, len, hash);
+  }
+
+  /**
+   * Finds a registered extension by number.
+   */
+  @Nullable Field extension(int number) {
+    int index = Arrays.binarySearch(extensionNumbers, number);
+    return index < 0 ? null : extensions[index];
+  }
+
+  /**
+   * Finds a registered extension by its key in the {@code ext} object.
+   */
+  @Nullable Field extension(byte[] key, int off, int len, int hash) {
+    return extensionsByKey.get(key, off, len, hash);
+  }
+
+  /**
+   * FNV-1a hash of a key's UTF-8 bytes.
+   */
+  static int hash(byte[] key, int off, int len) {
+    int hash = 0x811C9DC5;
+    for (int i = off, end = off + len; i < end; ++i) {
+      hash = (hash ^ (key[i] & 0xFF)) * 0x01000193;
+    }
+    return hash;
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("type", descriptor.getFullName())
+        .toString();
+  }
+
+  /**
+   * Open-addressing hash table of fields by JSON key.
+   */
+  private static final class KeyTable {
+    final Field[] slots;
+    final int mask;
+
+    KeyTable(List<Field> fields) {
+      int size = Integer.highestOneBit(Math.max(fields.size(), 1) * 2) * 2;
+      this.slots = new Field[size];
+      this.mask = size - 1;
+      for (Field field : fields) {
+        int slot = hash(field.name, 0, field.name.length) & mask;
+        while (slots[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        slots[slot] = field;
+      }
+    }
+
+    @Nullable Field get(byte[] key, int off, int len, int hash) {
+      for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+        Field field = slots[slot];
+        if (field == null || field.nameMatches(key, off, len)) {
+          return field;
+        }
+      }
+    }
+  }
+
+  /**
+   * JSON mapping of a field.
+   */
+  static final class Field {
+    /** Marker for the {@code ext} object of extendable messages. */
+    static final Field EXT = new Field();
+
+    // Null for EXT
+    final FieldDescriptor descriptor;
+    final int number;
+    final FieldDescriptor.Type type;
+    final boolean repeated;
+    /** JSON key, as UTF-8. */
+    final byte[] name;
+    /** JSON key, quoted and followed by a colon, ready to write. */
+    final byte[] key;
+    /** String field with IAB content categories, like {@code cat} or {@code bcat}. */
+    final boolean category;
+    /** Native message field, embedded as a JSON string. */
+    final boolean embeddedJson;
+    @Nullable final MessageSchema message;
+    @Nullable final EnumDescriptor enumType;
+    /** For strings with a {@link NativeRequest} alternative, the alternative's schema. */
+    @Nullable final MessageSchema nativeRequest;
+    /** Field number of the {@link NativeRequest} alternative, or 0. */
+    final int nativeRequestNumber;
+    /** Removed field with the same JSON key, set while compiling the schema. */
+    @Nullable Field legacy;
+
+    /**
+     * Creates a field.
+     *
+     * @param jsonName JSON key, if different from the field name
+     * @param message Schema of the field's type, for message fields
+     * @param nativeRequest Schema of the field's {@link NativeRequest} alternative, if any
+     */
+    Field(FieldDescriptor fd, @Nullable String jsonName, @Nullable MessageSchema message,
+        @Nullable MessageSchema nativeRequest) {
+      this.descriptor = fd;
+      this.number = fd.getNumber();
+      this.type = fd.getType();
+      this.repeated = fd.isRepeated();
+      this.message = message;
+      this.enumType = type == FieldDescriptor.Type.ENUM ? fd.getEnumType() : null;
+      this.nativeRequest = nativeRequest;
+      this.nativeRequestNumber = nativeRequest == null ? 0 : nativeAlternative(fd).getNumber();
+      this.category = type == FieldDescriptor.Type.STRING && CATEGORY_FIELDS.contains(fd.getName());
+      this.embeddedJson = message != null
+          && fd.getName().endsWith(NATIVE_SUFFIX)
+          && (fd.getMessageType() == NativeRequest.getDescriptor()
+              || fd.getMessageType() == NativeResponse.getDescriptor());
+      if (jsonName == null) {
+        jsonName = embeddedJson
+            ? fd.getName().substring(0, fd.getName().length() - NATIVE_SUFFIX.length())
+            : fd.getName();
+      }
+      this.name = jsonName.getBytes(UTF_8);
+      this.key = ('"' + jsonName + "\":").getBytes(UTF_8);
+    }
+
+    private Field() {
+      this.descriptor = null;
+      this.number = 0;
+      this.type = null;
+      this.repeated = false;
+      this.message = null;
+      this.enumType = null;
+      this.nativeRequest = null;
+      this.nativeRequestNumber = 0;
+      this.category = false;
+      this.embeddedJson = false;
+      this.name = "ext".getBytes(UTF_8);
+      this.key = "\"ext\":".getBytes(UTF_8);
+    }
+
+    /**
+     * Resolves the field for a value, from its first character: the {@link #legacy} field
+     * if the value is an object or string (where this field has an array or a number),
+     * otherwise this field.
+     */
+    Field forValue(int c) {
+      return legacy != null && c == (legacy.type == FieldDescriptor.Type.MESSAGE ? '{' : '"')
+          ? legacy
+          : this;
+    }
+
+    boolean nameMatches(byte[] key, int off, int len) {
+      if (len != name.length) {
+        return false;
+      }
+      for (int i = 0; i < len; ++i) {
+        if (name[i] != key[off + i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Checks if the field uses length-delimited encoding for single values, so a
+     * length-delimited repeated value is not a packed array.
+     */
+    boolean isLengthDelimited() {
+      return type == FieldDescriptor.Type.STRING
+          || type == FieldDescriptor.Type.BYTES
+          || type == FieldDescriptor.Type.MESSAGE;
+    }
+
+    @Override public String toString() {
+      return descriptor == null ? "ext" : descriptor.getFullName();
+    }
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.json;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.OpenRtb.NativeRequest;
+import com.google.openrtb.OpenRtb.NativeResponse;
+import com.google.protobuf.Descriptors.Descriptor;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Factory of {@link OpenRtbJsonReader}s and {@link OpenRtbJsonWriter}s.
+ *
+ * <p>The JSON mapping of all OpenRTB message types is compiled when the factory is created,
+ * so it's recommended to create a single factory and share it, as well as its readers
+ * and writers, which are threadsafe.
+ *
+ * <p>This class is threadsafe.
+ */
+public final class OpenRtbJsonFactory {
+  private final ExtensionCodecRegistry extensions;
+  private final ImmutableMap<Descriptor, MessageSchema> schemas;
+
+  private OpenRtbJsonFactory(ExtensionCodecRegistry extensions) {
+    this.extensions = extensions;
+    Map<Descriptor, MessageSchema> compiled = new HashMap<>();
+    MessageSchema.compile(BidRequest.getDescriptor(), extensions, compiled);
+    MessageSchema.compile(BidResponse.getDescriptor(), extensions, compiled);
+    MessageSchema.compile(NativeRequest.getDescriptor(), extensions, compiled);
+    MessageSchema.compile(NativeResponse.getDescriptor(), extensions, compiled);
+    this.schemas = ImmutableMap.copyOf(compiled);
+  }
+
+  /**
+   * Creates a factory without extensions: all {@code ext} objects are ignored.
+   */
+  public static OpenRtbJsonFactory create() {
+    return create(ExtensionCodecRegistry.EMPTY);
+  }
+
+  /**
+   * Creates a factory that maps {@code ext} objects to the registry's extensions.
+   */
+  public static OpenRtbJsonFactory create(ExtensionCodecRegistry extensions) {
+    return new OpenRtbJsonFactory(checkNotNull(extensions));
+  }
+
+  public ExtensionCodecRegistry extensions() {
+    return extensions;
+  }
+
+  public OpenRtbJsonReader newReader() {
+    return new OpenRtbJsonReader(this);
+  }
+
+  public OpenRtbJsonWriter newWriter() {
+    return new OpenRtbJsonWriter(this);
+  }
+
+  MessageSchema schema(Descriptor descriptor) {
+    MessageSchema schema = schemas.get(descriptor);
+    checkArgument(schema != null, "Not an OpenRTB message: %s", descriptor.getFullName());
+    return schema;
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("messageTypes", schemas.size())
+        .add("extensions", extensions)
+        .toString();
+  }
+}
@@ -0,0 +1,451 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.json;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.io.BaseEncoding;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.OpenRtb.NativeRequest;
+import com.google.openrtb.OpenRtb.NativeResponse;
+import com.google.openrtb.util.OpenRtbUtils;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors.EnumValueDescriptor;
+import com.google.protobuf.ExtensionRegistry;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+import com.google.protobuf.UnsafeByteOperations;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import javax.annotation.Nullable;
+
+/**
+ * Reads OpenRTB messages from UTF-8 JSON.
+ *
+ * <p>JSON is transcoded in a single pass to protobuf wire format, which is then parsed by
+ * the generated code of each message: fields are resolved from the JSON keys' bytes through
+ * the compiled {@link MessageSchema}, without reflection or temporary strings for keys.
+ *
+ * <ul>
+ *   <li>Enums are read from the specification's integer values, or also from their names.</li>
+ *   <li>Booleans are read from OpenRTB's {@code 0/1}, or also from {@code true/false}.</li>
+ *   <li>Numbers are also accepted as strings, and strings as numbers.</li>
+ *   <li>Content categories ({@code cat}, {@code bcat}...) are normalized to their JSON names,
+ *   e.g. {@code IAB1_2} is read as {@code IAB1-2}.</li>
+ *   <li>Keys of {@code ext} objects are mapped to the extensions registered in the factory's
+ *   {@link ExtensionCodecRegistry}; unknown keys are ignored, or kept as raw JSON.</li>
+ *   <li>Other unknown keys, and {@code null} values, are ignored.</li>
+ *   <li>Native requests and responses may be wrapped in a {@code native} object,
+ *   as in Native 1.0/1.1.</li>
+ * </ul>
+ *
+ * <p>Readers created by {@link #decodingNativeRequests(int)} also decode the native requests
+ * embedded as JSON strings in {@code Imp.Native.request}, to {@code Imp.Native.request_native}.
+ * Since the same native templates repeat across requests, the transcoded native requests are
+ * cached by the contents of their strings.
+ *
+ * <p>This class is threadsafe.
+ */
+public class OpenRtbJsonReader {
+  private static final int MAX_DEPTH = 64;
+  private static final int MAX_RETAINED_BUFFER = 1024 * 1024;
+  private static final byte[] NATIVE_ROOT = "native".getBytes(UTF_8);
+  private static final ThreadLocal<Scratch> scratches = ThreadLocal.withInitial(Scratch::new);
+  /** Cached for native request strings that are not valid JSON. */
+  private static final byte[] UNDECODABLE = new byte[0];
+
+  private final OpenRtbJsonFactory factory;
+  private final ExtensionRegistry extensions;
+  private final MessageSchema bidRequest;
+  private final MessageSchema bidResponse;
+  private final MessageSchema nativeRequest;
+  private final MessageSchema nativeResponse;
+  @Nullable private final Cache<ByteString, byte[]> nativeRequests;
+
+  OpenRtbJsonReader(OpenRtbJsonFactory factory) {
+    this(factory, null);
+  }
+
+  private OpenRtbJsonReader(
+      OpenRtbJsonFactory factory, @Nullable Cache<ByteString, byte[]> nativeRequests) {
+    this.factory = factory;
+    this.nativeRequests = nativeRequests;
+    this.extensions = factory.extensions().protobufRegistry();
+    this.bidRequest = factory.schema(BidRequest.getDescriptor());
+    this.bidResponse = factory.schema(BidResponse.getDescriptor());
+    this.nativeRequest = factory.schema(NativeRequest.getDescriptor());
+    this.nativeResponse = factory.schema(NativeResponse.getDescriptor());
+  }
+
+  public OpenRtbJsonFactory factory() {
+    return factory;
+  }
+
+  /**
+   * Creates a reader that also decodes {@code Imp.Native.request} strings into
+   * {@code request_native}. Strings that are not valid native requests are kept as is.
+   *
+   * @param cacheSize Maximum number of distinct native request strings to cache
+   */
+  public OpenRtbJsonReader decodingNativeRequests(int cacheSize) {
+    checkArgument(cacheSize >= 0, "Negative cache size: %s", cacheSize);
+    return new OpenRtbJsonReader(factory,
+        CacheBuilder.newBuilder().maximumSize(cacheSize).<ByteString, byte[]>build());
+  }
+
+  public BidRequest readBidRequest(byte[] json) throws IOException {
+    return readBidRequest(json, 0, json.length);
+  }
+
+  public BidRequest readBidRequest(byte[] json, int off, int len) throws IOException {
+    return read(bidRequest, BidRequest.parser(), json, off, len, false);
+  }
+
+  /**
+   * Reads the buffer's remaining bytes, without changing its position.
+   */
+  public BidRequest readBidRequest(ByteBuffer json) throws IOException {
+    return read(bidRequest, BidRequest.parser(), json, false);
+  }
+
+  public BidResponse readBidResponse(byte[] json) throws IOException {
+    return readBidResponse(json, 0, json.length);
+  }
+
+  public BidResponse readBidResponse(byte[] json, int off, int len) throws IOException {
+    return read(bidResponse, BidResponse.parser(), json, off, len, false);
+  }
+
+  /**
+   * Reads the buffer's remaining bytes, without changing its position.
+   */
+  public BidResponse readBidResponse(ByteBuffer json) throws IOException {
+    return read(bidResponse, BidResponse.parser(), json, false);
+  }
+
+  public NativeRequest readNativeRequest(byte[] json) throws IOException {
+    return readNativeRequest(json, 0, json.length);
+  }
+
+  public NativeRequest readNativeRequest(byte[] json, int off, int len) throws IOException {
+    return read(nativeRequest, NativeRequest.parser(), json, off, len, true);
+  }
+
+  public NativeResponse readNativeResponse(byte[] json) throws IOException {
+    return readNativeResponse(json, 0, json.length);
+  }
+
+  public NativeResponse readNativeResponse(byte[] json, int off, int len) throws IOException {
+    return read(nativeResponse, NativeResponse.parser(), json, off, len, true);
+  }
+
+  private <T extends MessageLite> T read(MessageSchema schema, Parser<T> parser,
+      ByteBuffer json, boolean nativeRoot) throws IOException {
+    if (json.hasArray()) {
+      return read(schema, parser,
+          json.array(), json.arrayOffset() + json.position(), json.remaining(), nativeRoot);
+    }
+    byte[] copy = new byte[json.remaining()];
+    json.duplicate().get(copy);
+    return read(schema, parser, copy, 0, copy.length, nativeRoot);
+  }
+
+  private <T extends MessageLite> T read(MessageSchema schema, Parser<T> parser,
+      byte[] json, int off, int len, boolean nativeRoot) throws IOException {
+    checkNotNull(json);
+    JsonInput in = new JsonInput(json, off, len);
+    Scratch scratch = scratches.get();
+    if (scratch.inUse) {
+      scratch = new Scratch();
+    }
+    scratch.inUse = true;
+    try {
+      ByteSink out = scratch.sink(0);
+      readRoot(schema, in, scratch, 0, nativeRoot);
+      return parser.parseFrom(out.buffer(), 0, out.size(), extensions);
+    } finally {
+      scratch.release();
+    }
+  }
+
+  /**
+   * Reads a whole JSON document, writing its wire format to the scratch sink for a depth.
+   *
+   * @param nativeRoot Accepts a root object wrapped in a {@code native} object
+   */
+  private void readRoot(MessageSchema schema, JsonInput in, Scratch scratch, int depth,
+      boolean nativeRoot) throws IOException {
+    boolean wrapped = false;
+    if (nativeRoot) {
+      int mark = in.position();
+      wrapped = in.consume('{') && in.consumeKey(NATIVE_ROOT) && in.peek() == '{';
+      if (!wrapped) {
+        in.reset(mark);
+      }
+    }
+    readObject(schema, in, scratch, depth);
+    if (wrapped) {
+      in.expect('}');
+    }
+    in.expectEnd();
+  }
+
+  /**
+   * Reads an object, writing its wire format to the scratch sink for its depth.
+   */
+  private void readObject(MessageSchema schema, JsonInput in, Scratch scratch, int depth)
+      throws IOException {
+    if (depth > MAX_DEPTH) {
+      throw in.error("Maximum nesting depth exceeded");
+    }
+    ByteSink out = scratch.sink(depth);
+    in.expect('{');
+    if (in.consume('}')) {
+      return;
+    }
+    do {
+      MessageSchema.Field field = in.readKey(schema, false);
+      if (field == MessageSchema.Field.EXT) {
+        if (!in.consumeNull()) {
+          readExt(schema, in, out, scratch, depth);
+        }
+      } else if (field == null) {
+        in.skipValue();
+      } else {
+        readField(field, in, out, scratch, depth);
+      }
+    } while (in.consume(','));
+    in.expect('}');
+  }
+
+  /**
+   * Reads an {@code ext} object, writing registered extensions like regular fields,
+   * and unknown keys as raw JSON if the schema keeps them.
+   */
+  private void readExt(MessageSchema schema, JsonInput in, ByteSink out,
+      Scratch scratch, int depth) throws IOException {
+    in.expect('{');
+    if (in.consume('}')) {
+      return;
+    }
+    do {
+      in.peek();
+      int memberStart = in.position();
+      MessageSchema.Field field = in.readKey(schema, true);
+      if (field != null) {
+        readField(field, in, out, scratch, depth);
+      } else {
+        in.skipValue();
+        if (schema.rawFieldNumber() != 0) {
+          out.writeLengthDelimited(schema.rawFieldNumber(),
+              in.buffer(), memberStart, in.position() - memberStart);
+        }
+      }
+    } while (in.consume(','));
+    in.expect('}');
+  }
+
+  private void readField(MessageSchema.Field field, JsonInput in, ByteSink out,
+      Scratch scratch, int depth) throws IOException {
+    if (in.consumeNull()) {
+      return;
+    }
+    field = field.forValue(in.peek());
+    if (field.repeated && in.consume('[')) {
+      if (!in.consume(']')) {
+        do {
+          if (!in.consumeNull()) {
+            readValue(field, in, out, scratch, depth);
+          }
+        } while (in.consume(','));
+        in.expect(']');
+      }
+    } else {
+      readValue(field, in, out, scratch, depth);
+    }
+  }
+
+  private void readValue(MessageSchema.Field field, JsonInput in, ByteSink out,
+      Scratch scratch, int depth) throws IOException {
+    int number = field.number;
+    switch (field.type) {
+      case MESSAGE: {
+        ByteSink child = scratch.sink(depth + 1);
+        readObject(field.message, in, scratch, depth + 1);
+        out.writeLengthDelimited(number, child.buffer(), 0, child.size());
+        break;
+      }
+      case STRING:
+        if (field.category) {
+          String cat = in.readStringValue();
+          String jsonCat = OpenRtbUtils.categoryToJsonName(cat);
+          byte[] utf8 = (jsonCat == null ? cat : jsonCat).getBytes(UTF_8);
+          out.writeLengthDelimited(number, utf8, 0, utf8.length);
+        } else {
+          in.readString();
+          byte[] nativeRequest = field.nativeRequest == null || nativeRequests == null
+              ? null
+              : decodeNativeRequest(field, in, scratch, depth);
+          if (nativeRequest == null) {
+            out.writeLengthDelimited(number, in.strBuf, in.strOff, in.strLen);
+          } else {
+            out.writeLengthDelimited(
+                field.nativeRequestNumber, nativeRequest, 0, nativeRequest.length);
+          }
+        }
+        break;
+      case BYTES: {
+        byte[] bytes;
+        try {
+          bytes = BaseEncoding.base64().decode(in.readStringValue());
+        } catch (IllegalArgumentException e) {
+          throw in.error("Invalid base64");
+        }
+        out.writeLengthDelimited(number, bytes, 0, bytes.length);
+        break;
+      }
+      case BOOL:
+        out.writeTag(number, WireInput.WIRETYPE_VARINT);
+        out.writeVarint32(in.readBoolean() ? 1 : 0);
+        break;
+      case ENUM:
+        out.writeTag(number, WireInput.WIRETYPE_VARINT);
+        out.writeVarint64(readEnum(field, in));
+        break;
+      case INT32:
+        out.writeTag(number, WireInput.WIRETYPE_VARINT);
+        out.writeVarint64((int) in.readLong());
+        break;
+      case UINT32:
+        out.writeTag(number, WireInput.WIRETYPE_VARINT);
+        out.writeVarint32((int) in.readLong());
+        break;
+      case INT64:
+      case UINT64:
+        out.writeTag(number, WireInput.WIRETYPE_VARINT);
+        out.writeVarint64(in.readLong());
+        break;
+      case SINT32: {
+        int value = (int) in.readLong();
+        out.writeTag(number, WireInput.WIRETYPE_VARINT);
+        out.writeVarint32((value << 1) ^ (value >> 31));
+        break;
+      }
+      case SINT64: {
+        long value = in.readLong();
+        out.writeTag(number, WireInput.WIRETYPE_VARINT);
+        out.writeVarint64((value << 1) ^ (value >> 63));
+        break;
+      }
+      case FIXED32:
+      case SFIXED32:
+        out.writeTag(number, WireInput.WIRETYPE_FIXED32);
+        out.writeFixed32((int) in.readLong());
+        break;
+      case FIXED64:
+      case SFIXED64:
+        out.writeTag(number, WireInput.WIRETYPE_FIXED64);
+        out.writeFixed64(in.readLong());
+        break;
+      case DOUBLE:
+        out.writeTag(number, WireInput.WIRETYPE_FIXED64);
+        out.writeFixed64(Double.doubleToRawLongBits(in.readDouble()));
+        break;
+      case FLOAT:
+        out.writeTag(number, WireInput.WIRETYPE_FIXED32);
+        out.writeFixed32(Float.floatToRawIntBits((float) in.readDouble()));
+        break;
+      default:
+        in.skipValue();
+    }
+  }
+
+  /**
+   * Decodes the native request in the string just read, from the cache if possible.
+   *
+   * @return Wire format of the native request, or {@code null} if the string is not
+   *     a valid native request
+   */
+  @Nullable private byte[] decodeNativeRequest(MessageSchema.Field field, JsonInput in,
+      Scratch scratch, int depth) {
+    byte[] json = Arrays.copyOfRange(in.strBuf, in.strOff, in.strOff + in.strLen);
+    ByteString key = UnsafeByteOperations.unsafeWrap(json);
+    byte[] wire = nativeRequests.getIfPresent(key);
+    if (wire == null) {
+      ByteSink out = scratch.sink(depth + 1);
+      try {
+        readRoot(field.nativeRequest, new JsonInput(json, 0, json.length), scratch, depth + 1,
+            true);
+        wire = out.toByteArray();
+      } catch (IOException e) {
+        wire = UNDECODABLE;
+      }
+      nativeRequests.put(key, wire);
+    }
+    return wire == UNDECODABLE ? null : wire;
+  }
+
+  private static int readEnum(MessageSchema.Field field, JsonInput in) throws IOException {
+    if (in.peek() == '"') {
+      int mark = in.position();
+      EnumValueDescriptor value = field.enumType.findValueByName(in.readStringValue());
+      if (value != null) {
+        return value.getNumber();
+      }
+      in.reset(mark);
+    }
+    return (int) in.readLong();
+  }
+
+  /**
+   * Per-thread scratch sinks, one per nesting depth.
+   */
+  private static final class Scratch {
+    ByteSink[] sinks = new ByteSink[8];
+    boolean inUse;
+
+    /**
+     * Returns the sink for a depth, reset.
+     */
+    ByteSink sink(int depth) {
+      if (depth >= sinks.length) {
+        sinks = Arrays.copyOf(sinks, sinks.length * 2);
+      }
+      ByteSink sink = sinks[depth];
+      if (sink == null) {
+        sink = sinks[depth] = new ByteSink(depth == 0 ? 4096 : 256);
+      }
+      sink.reset();
+      return sink;
+    }
+
+    void release() {
+      for (int i = 0; i < sinks.length; ++i) {
+        if (sinks[i] != null && sinks[i].capacity() > MAX_RETAINED_BUFFER) {
+          sinks[i] = null;
+        }
+      }
+      inUse = false;
+    }
+  }
+}
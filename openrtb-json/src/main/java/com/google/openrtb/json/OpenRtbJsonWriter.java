@@ -0,0 +1,384 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.json;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.io.BaseEncoding;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.OpenRtb.NativeRequest;
+import com.google.openrtb.OpenRtb.NativeResponse;
+import com.google.openrtb.util.OpenRtbUtils;
+import com.google.protobuf.MessageLite;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Writes OpenRTB messages as UTF-8 JSON.
+ *
+ * <p>Messages are serialized by their generated code, and the protobuf wire format is then
+ * transcoded to JSON in a single pass through the compiled {@link MessageSchema}, without
+ * reflection. Enums are written as the specification's integer values, booleans as
+ * {@code 0/1}, and content categories with their JSON names. Fields are written in
+ * field number order, followed by the {@code ext} object with the extensions registered in
+ * the factory's {@link ExtensionCodecRegistry} and any unknown {@code ext} keys kept as raw
+ * JSON; other extensions are not written.
+ *
+ * <p>Native messages in {@code *_native} fields (like {@code Bid.adm_native}) are written as
+ * JSON strings, in their string field's key (like {@code adm}). The native JSON is streamed
+ * into the output and escaped in place, so bidders can set {@code adm_native} instead of
+ * serializing the markup to a JSON string themselves, without any intermediate copy.
+ *
+ * <p>This class is threadsafe.
+ */
+public class OpenRtbJsonWriter {
+  private static final int MAX_RETAINED_BUFFER = 1024 * 1024;
+  private static final ThreadLocal<ByteSink> sinks =
+      ThreadLocal.withInitial(() -> new ByteSink(4096));
+
+  private final OpenRtbJsonFactory factory;
+  private final MessageSchema bidRequest;
+  private final MessageSchema bidResponse;
+  private final MessageSchema nativeRequest;
+  private final MessageSchema nativeResponse;
+
+  OpenRtbJsonWriter(OpenRtbJsonFactory factory) {
+    this.factory = factory;
+    this.bidRequest = factory.schema(BidRequest.getDescriptor());
+    this.bidResponse = factory.schema(BidResponse.getDescriptor());
+    this.nativeRequest = factory.schema(NativeRequest.getDescriptor());
+    this.nativeResponse = factory.schema(NativeResponse.getDescriptor());
+  }
+
+  public OpenRtbJsonFactory factory() {
+    return factory;
+  }
+
+  public byte[] writeBidRequest(BidRequest req) {
+    return write(bidRequest, req);
+  }
+
+  public void writeBidRequest(BidRequest req, OutputStream os) throws IOException {
+    write(bidRequest, req, os);
+  }
+
+  public byte[] writeBidResponse(BidResponse resp) {
+    return write(bidResponse, resp);
+  }
+
+  public void writeBidResponse(BidResponse resp, OutputStream os) throws IOException {
+    write(bidResponse, resp, os);
+  }
+
+  public byte[] writeNativeRequest(NativeRequest req) {
+    return write(nativeRequest, req);
+  }
+
+  public void writeNativeRequest(NativeRequest req, OutputStream os) throws IOException {
+    write(nativeRequest, req, os);
+  }
+
+  public byte[] writeNativeResponse(NativeResponse resp) {
+    return write(nativeResponse, resp);
+  }
+
+  public void writeNativeResponse(NativeResponse resp, OutputStream os) throws IOException {
+    write(nativeResponse, resp, os);
+  }
+
+  private byte[] write(MessageSchema schema, MessageLite msg) {
+    ByteSink out = acquire();
+    try {
+      transcode(schema, msg, out);
+      return out.toByteArray();
+    } finally {
+      release(out);
+    }
+  }
+
+  private void write(MessageSchema schema, MessageLite msg, OutputStream os) throws IOException {
+    ByteSink out = acquire();
+    try {
+      transcode(schema, msg, out);
+      out.writeTo(os);
+    } finally {
+      release(out);
+    }
+  }
+
+  private void transcode(MessageSchema schema, MessageLite msg, ByteSink out) {
+    byte[] wire = msg.toByteArray();
+    try {
+      writeMessage(schema, new WireInput(wire, 0, wire.length), out);
+    } catch (IOException e) {
+      // Not possible, the wire format was just serialized
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static ByteSink acquire() {
+    ByteSink out = sinks.get();
+    // Reentrant calls get their own sink
+    sinks.set(null);
+    if (out == null) {
+      out = new ByteSink(4096);
+    }
+    out.reset();
+    return out;
+  }
+
+  private static void release(ByteSink out) {
+    if (out.capacity() <= MAX_RETAINED_BUFFER) {
+      sinks.set(out);
+    }
+  }
+
+  /**
+   * Writes a message as a JSON object, from its wire format up to the input's limit.
+   */
+  private void writeMessage(MessageSchema schema, WireInput in, ByteSink out)
+      throws IOException {
+    out.write('{');
+    Members members = new Members(out);
+    int[] extPositions = null;
+    int extCount = 0;
+
+    while (in.hasMore()) {
+      int tagPosition = in.pos;
+      int tag = in.readVarint32();
+      int number = tag >>> 3;
+      MessageSchema.Field field = schema.field(number);
+      if (field != null) {
+        members.write(field, tag, in);
+        continue;
+      }
+      if (number == schema.rawFieldNumber() || schema.extension(number) != null) {
+        // Extensions are written later, all in the ext object
+        if (extPositions == null) {
+          extPositions = new int[8];
+        } else if (extCount == extPositions.length) {
+          extPositions = Arrays.copyOf(extPositions, extCount * 2);
+        }
+        extPositions[extCount++] = tagPosition;
+      }
+      in.skipField(tag);
+    }
+
+    if (extCount != 0) {
+      members.key(MessageSchema.Field.EXT);
+      out.write('{');
+      Members ext = new Members(out);
+      int end = in.pos;
+      for (int i = 0; i < extCount; ++i) {
+        in.pos = extPositions[i];
+        int tag = in.readVarint32();
+        MessageSchema.Field field = schema.extension(tag >>> 3);
+        if (field == null) {
+          int len = in.readLength();
+          ext.raw(in.buf, in.pos, len);
+        } else {
+          ext.write(field, tag, in);
+        }
+      }
+      in.pos = end;
+      ext.closeArray();
+      out.write('}');
+    }
+    members.closeArray();
+    out.write('}');
+  }
+
+  private void writeValue(MessageSchema.Field field, WireInput in, ByteSink out)
+      throws IOException {
+    switch (field.type) {
+      case MESSAGE: {
+        int oldLimit = in.pushLimit(in.readLength());
+        if (field.embeddedJson) {
+          // Written in place, then escaped as a string
+          out.write('"');
+          int start = out.size();
+          writeMessage(field.message, in, out);
+          out.escapeFrom(start);
+          out.write('"');
+        } else {
+          writeMessage(field.message, in, out);
+        }
+        in.popLimit(oldLimit);
+        break;
+      }
+      case STRING: {
+        int len = in.readLength();
+        if (field.category) {
+          String cat = new String(in.buf, in.pos, len, UTF_8);
+          String jsonCat = OpenRtbUtils.categoryToJsonName(cat);
+          out.writeString(jsonCat == null ? cat : jsonCat);
+        } else {
+          out.writeString(in.buf, in.pos, len);
+        }
+        in.pos += len;
+        break;
+      }
+      case BYTES: {
+        int len = in.readLength();
+        out.write('"');
+        out.writeAscii(BaseEncoding.base64().encode(in.buf, in.pos, len));
+        out.write('"');
+        in.pos += len;
+        break;
+      }
+      default:
+        writeScalar(field, in, out);
+    }
+  }
+
+  private static void writeScalar(MessageSchema.Field field, WireInput in, ByteSink out)
+      throws IOException {
+    switch (field.type) {
+      case BOOL:
+        out.write(in.readVarint64() != 0 ? '1' : '0');
+        break;
+      case INT32:
+      case ENUM:
+        out.writeLong((int) in.readVarint64());
+        break;
+      case UINT32:
+        out.writeLong(in.readVarint64() & 0xFFFFFFFFL);
+        break;
+      case INT64:
+        out.writeLong(in.readVarint64());
+        break;
+      case UINT64: {
+        long value = in.readVarint64();
+        if (value >= 0) {
+          out.writeLong(value);
+        } else {
+          out.writeAscii(Long.toUnsignedString(value));
+        }
+        break;
+      }
+      case SINT32: {
+        int value = (int) in.readVarint64();
+        out.writeLong((value >>> 1) ^ -(value & 1));
+        break;
+      }
+      case SINT64: {
+        long value = in.readVarint64();
+        out.writeLong((value >>> 1) ^ -(value & 1));
+        break;
+      }
+      case FIXED32:
+        out.writeLong(in.readFixed32() & 0xFFFFFFFFL);
+        break;
+      case SFIXED32:
+        out.writeLong(in.readFixed32());
+        break;
+      case FIXED64: {
+        long value = in.readFixed64();
+        if (value >= 0) {
+          out.writeLong(value);
+        } else {
+          out.writeAscii(Long.toUnsignedString(value));
+        }
+        break;
+      }
+      case SFIXED64:
+        out.writeLong(in.readFixed64());
+        break;
+      case DOUBLE:
+        out.writeDouble(Double.longBitsToDouble(in.readFixed64()));
+        break;
+      case FLOAT:
+        out.writeDouble(Float.intBitsToFloat(in.readFixed32()));
+        break;
+      default:
+        throw new IOException("Unexpected type: " + field);
+    }
+  }
+
+  /**
+   * Members of a JSON object being written, grouping repeated fields in arrays.
+   */
+  private final class Members {
+    final ByteSink out;
+    boolean first = true;
+    MessageSchema.Field array;
+    int arraySize;
+
+    Members(ByteSink out) {
+      this.out = out;
+    }
+
+    void write(MessageSchema.Field field, int tag, WireInput in) throws IOException {
+      if (field != array) {
+        key(field);
+        if (field.repeated) {
+          out.write('[');
+          array = field;
+          arraySize = 0;
+        }
+      }
+
+      if (field.repeated && (tag & 7) == WireInput.WIRETYPE_LENGTH_DELIMITED
+          && !field.isLengthDelimited()) {
+        int oldLimit = in.pushLimit(in.readLength());
+        while (in.hasMore()) {
+          if (arraySize++ != 0) {
+            out.write(',');
+          }
+          writeScalar(field, in, out);
+        }
+        in.popLimit(oldLimit);
+      } else {
+        if (field.repeated && arraySize++ != 0) {
+          out.write(',');
+        }
+        writeValue(field, in, out);
+      }
+    }
+
+    /**
+     * Writes a member verbatim, from its raw JSON.
+     */
+    void raw(byte[] json, int off, int len) {
+      closeArray();
+      separator();
+      out.write(json, off, len);
+    }
+
+    void key(MessageSchema.Field field) {
+      closeArray();
+      separator();
+      out.write(field.key);
+    }
+
+    void closeArray() {
+      if (array != null) {
+        out.write(']');
+        array = null;
+      }
+    }
+
+    private void separator() {
+      if (!first) {
+        out.write(',');
+      }
+      first = false;
+    }
+  }
+}
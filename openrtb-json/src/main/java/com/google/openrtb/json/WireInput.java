@@ -0,0 +1,156 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.json;
+
+import java.io.IOException;
+
+/**
+ * Reader of protobuf wire format from a byte array, with nested limits for embedded messages.
+ * Unlike {@link com.google.protobuf.CodedInputStream}, it exposes the underlying array
+ * so strings can be copied without decoding.
+ *
+ * <p>This class is NOT threadsafe.
+ */
+final class WireInput {
+  static final int WIRETYPE_VARINT = 0;
+  static final int WIRETYPE_FIXED64 = 1;
+  static final int WIRETYPE_LENGTH_DELIMITED = 2;
+  static final int WIRETYPE_START_GROUP = 3;
+  static final int WIRETYPE_END_GROUP = 4;
+  static final int WIRETYPE_FIXED32 = 5;
+
+  final byte[] buf;
+  int pos;
+  private int limit;
+
+  WireInput(byte[] buf, int off, int len) {
+    this.buf = buf;
+    this.pos = off;
+    this.limit = off + len;
+  }
+
+  boolean hasMore() {
+    return pos < limit;
+  }
+
+  /**
+   * Limits reading to the next {@code len} bytes.
+   *
+   * @return The previous limit, to restore with {@link #popLimit(int)}
+   */
+  int pushLimit(int len) throws IOException {
+    int oldLimit = limit;
+    if (len < 0 || pos + len > limit) {
+      throw truncated();
+    }
+    limit = pos + len;
+    return oldLimit;
+  }
+
+  void popLimit(int oldLimit) {
+    pos = limit;
+    limit = oldLimit;
+  }
+
+  int readVarint32() throws IOException {
+    return (int) readVarint64();
+  }
+
+  long readVarint64() throws IOException {
+    long result = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      if (pos >= limit) {
+        throw truncated();
+      }
+      byte b = buf[pos++];
+      result |= (long) (b & 0x7F) << shift;
+      if (b >= 0) {
+        return result;
+      }
+    }
+    throw new IOException("Malformed varint");
+  }
+
+  int readFixed32() throws IOException {
+    if (pos + 4 > limit) {
+      throw truncated();
+    }
+    int value = (buf[pos] & 0xFF)
+        | (buf[pos + 1] & 0xFF) << 8
+        | (buf[pos + 2] & 0xFF) << 16
+        | (buf[pos + 3] & 0xFF) << 24;
+    pos += 4;
+    return value;
+  }
+
+  long readFixed64() throws IOException {
+    return (readFixed32() & 0xFFFFFFFFL) | (long) readFixed32() << 32;
+  }
+
+  /**
+   * Reads the length of a length-delimited value, checking it's within the limit.
+   */
+  int readLength() throws IOException {
+    int len = readVarint32();
+    if (len < 0 || pos + len > limit) {
+      throw truncated();
+    }
+    return len;
+  }
+
+  void skipField(int tag) throws IOException {
+    switch (tag & 7) {
+      case WIRETYPE_VARINT:
+        readVarint64();
+        break;
+      case WIRETYPE_FIXED64:
+        skip(8);
+        break;
+      case WIRETYPE_LENGTH_DELIMITED: {
+        int len = readLength();
+        pos += len;
+        break;
+      }
+      case WIRETYPE_FIXED32:
+        skip(4);
+        break;
+      case WIRETYPE_START_GROUP:
+        int endTag = (tag & ~7) | WIRETYPE_END_GROUP;
+        while (true) {
+          int nested = readVarint32();
+          if (nested == endTag) {
+            break;
+          }
+          skipField(nested);
+        }
+        break;
+      default:
+        throw new IOException("Invalid wire type: " + (tag & 7));
+    }
+  }
+
+  private void skip(int len) throws IOException {
+    if (pos + len > limit) {
+      throw truncated();
+    }
+    pos += len;
+  }
+
+  private static IOException truncated() {
+    return new IOException("Truncated message");
+  }
+}
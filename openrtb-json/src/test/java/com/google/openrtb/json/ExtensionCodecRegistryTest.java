@@ -0,0 +1,147 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.json;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.fail;
+
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid.Bid;
+import com.google.openrtb.json.TestJsonExt.JsonTest1;
+import java.io.IOException;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ExtensionCodecRegistry}.
+ */
+public class ExtensionCodecRegistryTest {
+  private static final ExtensionCodecRegistry REGISTRY = ExtensionCodecRegistry.builder()
+      .register(TestJsonExt.testRequest1)
+      .register(TestJsonExt.crtype)
+      .register(TestJsonExt.tags)
+      .register(TestJsonExt.rewarded, "is_rewarded")
+      .register(TestJsonExt.reserve)
+      .register(TestJsonExt.testBid)
+      .build();
+  private static final OpenRtbJsonFactory FACTORY = OpenRtbJsonFactory.create(REGISTRY);
+
+  @Test
+  public void testReadExtensions() throws IOException {
+    BidRequest req = FACTORY.newReader().readBidRequest(bytes("{"
+        + "\"id\":\"1\","
+        + "\"imp\":[{\"id\":\"1\",\"ext\":{\"is_rewarded\":1,\"reserve\":\"0.5\"}}],"
+        + "\"ext\":{\"testRequest1\":{\"test1\":\"a\",\"test2\":[1,2]},"
+        + "\"crtype\":\"banner\",\"tags\":[\"x\",\"y\"],\"unknown\":{\"z\":[1,{}]}}}"));
+    assertThat(req.getExtension(TestJsonExt.testRequest1)).isEqualTo(
+        JsonTest1.newBuilder().setTest1("a").addTest2(1).addTest2(2).build());
+    assertThat(req.getExtension(TestJsonExt.crtype)).isEqualTo("banner");
+    assertThat(req.getExtension(TestJsonExt.tags)).containsExactly("x", "y").inOrder();
+    assertThat(req.getImp(0).getExtension(TestJsonExt.rewarded)).isTrue();
+    assertThat(req.getImp(0).getExtension(TestJsonExt.reserve)).isEqualTo(0.5);
+    assertThat(req.getUnknownFields().asMap()).isEmpty();
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    BidRequest req = BidRequest.newBuilder()
+        .setId("1")
+        .addImp(Imp.newBuilder()
+            .setId("1")
+            .setExtension(TestJsonExt.rewarded, true)
+            .setExtension(TestJsonExt.reserve, 1.25))
+        .setExtension(TestJsonExt.testRequest1, JsonTest1.newBuilder().setTest1("a").build())
+        .addExtension(TestJsonExt.tags, "x")
+        .build();
+    byte[] json = FACTORY.newWriter().writeBidRequest(req);
+    assertThat(new String(json, UTF_8)).contains("\"ext\":{\"is_rewarded\":1,\"reserve\":1.25}");
+    assertThat(FACTORY.newReader().readBidRequest(json)).isEqualTo(req);
+
+    BidResponse resp = BidResponse.newBuilder()
+        .setId("1")
+        .addSeatbid(SeatBid.newBuilder().addBid(Bid.newBuilder()
+            .setId("1")
+            .setImpid("1")
+            .setPrice(1.5)
+            .setExtension(TestJsonExt.testBid, JsonTest1.newBuilder().setTest1("b").build())))
+        .build();
+    assertThat(FACTORY.newReader().readBidResponse(FACTORY.newWriter().writeBidResponse(resp)))
+        .isEqualTo(resp);
+  }
+
+  @Test
+  public void testUnregisteredFactory() throws IOException {
+    BidRequest req = OpenRtbJsonFactory.create().newReader().readBidRequest(
+        bytes("{\"id\":\"1\",\"ext\":{\"crtype\":\"banner\",\"tags\":[\"x\"]}}"));
+    assertThat(req.hasExtension(TestJsonExt.crtype)).isFalse();
+    assertThat(req).isEqualTo(BidRequest.newBuilder().setId("1").build());
+  }
+
+  @Test
+  public void testKeepUnknownKeys() throws IOException {
+    OpenRtbJsonFactory factory = OpenRtbJsonFactory.create(ExtensionCodecRegistry.builder()
+        .register(TestJsonExt.crtype)
+        .keepUnknownKeys(9999)
+        .build());
+    String json = "{\"id\":\"1\",\"ext\":{\"crtype\":\"video\","
+        + "\"other\":{\"a\":[1,2.5,\"s\"]},\"flag\":true}}";
+    BidRequest req = factory.newReader().readBidRequest(bytes(json));
+    assertThat(req.getExtension(TestJsonExt.crtype)).isEqualTo("video");
+    assertThat(req.getUnknownFields().getField(9999).getLengthDelimitedList()).hasSize(2);
+    assertThat(new String(factory.newWriter().writeBidRequest(req), UTF_8)).isEqualTo(json);
+  }
+
+  @Test
+  public void testBuilderValidation() {
+    try {
+      ExtensionCodecRegistry.builder()
+          .register(TestJsonExt.crtype)
+          .register(TestJsonExt.tags, "crtype");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      ExtensionCodecRegistry.builder()
+          .register(TestJsonExt.crtype)
+          .register(TestJsonExt.crtype, "other");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      ExtensionCodecRegistry.builder().register(TestJsonExt.crtype).keepUnknownKeys(111);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      ExtensionCodecRegistry.builder().keepUnknownKeys(0);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+    }
+    // Same key on different message types is fine
+    ExtensionCodecRegistry.builder()
+        .register(TestJsonExt.testRequest1, "x")
+        .register(TestJsonExt.testBid, "x")
+        .build();
+  }
+
+  private static byte[] bytes(String json) {
+    return json.getBytes(UTF_8);
+  }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.json;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.fail;
+
+import com.google.openrtb.OpenRtb.APIFramework;
+import com.google.openrtb.OpenRtb.AuctionType;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.OpenRtb.NativeRequest;
+import com.google.openrtb.OpenRtb.NativeResponse;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.junit.Test;
+
+/**
+ * Tests for {@link OpenRtbJsonReader}.
+ */
+public class OpenRtbJsonReaderTest {
+  static final OpenRtbJsonFactory FACTORY = OpenRtbJsonFactory.create();
+  private static final OpenRtbJsonReader READER = FACTORY.newReader();
+
+  // Adapted from the OpenRTB 2.5 specification, example 6.2.1 (simple banner)
+  private static final String SPEC_REQUEST = "{\n"
+      + "  \"id\": \"80ce30c53c16e6ede735f123ef6e32361bfc7b22\",\n"
+      + "  \"at\": 1, \"cur\": [ \"USD\" ],\n"
+      + "  \"imp\": [\n"
+      + "    {\n"
+      + "      \"id\": \"1\", \"bidfloor\": 0.03,\n"
+      + "      \"banner\": {\n"
+      + "        \"h\": 250, \"w\": 300, \"pos\": 0\n"
+      + "      }\n"
+      + "    }\n"
+      + "  ],\n"
+      + "  \"site\": {\n"
+      + "    \"id\": \"102855\",\n"
+      + "    \"cat\": [ \"IAB3-1\" ],\n"
+      + "    \"domain\": \"www.foobar.com\",\n"
+      + "    \"page\": \"http://www.foobar.com/1234.html \",\n"
+      + "    \"publisher\": {\n"
+      + "      \"id\": \"8953\", \"name\": \"foobar.com\",\n"
+      + "      \"cat\": [ \"IAB3-1\" ],\n"
+      + "      \"domain\": \"foobar.com\"\n"
+      + "    }\n"
+      + "  },\n"
+      + "  \"device\": {\n"
+      + "    \"ua\": \"Mozilla/5.0 (Macintosh; Intel Mac OS X 10_6_8) AppleWebKit/534.53.11\",\n"
+      + "    \"ip\": \"123.145.167.10\"\n"
+      + "  },\n"
+      + "  \"user\": {\n"
+      + "    \"id\": \"55816b39711f9b5acf3b90e313ed29e51665623f\"\n"
+      + "  }\n"
+      + "}";
+
+  @Test
+  public void testSpecRequest() throws IOException {
+    BidRequest req = READER.readBidRequest(SPEC_REQUEST.getBytes(UTF_8));
+    assertThat(req.getId()).isEqualTo("80ce30c53c16e6ede735f123ef6e32361bfc7b22");
+    assertThat(req.getAt()).isEqualTo(AuctionType.FIRST_PRICE);
+    assertThat(req.getCurList()).containsExactly("USD");
+    assertThat(req.getImpCount()).isEqualTo(1);
+    assertThat(req.getImp(0).getBidfloor()).isEqualTo(0.03);
+    assertThat(req.getImp(0).getBanner().getW()).isEqualTo(300);
+    assertThat(req.getImp(0).getBanner().getH()).isEqualTo(250);
+    assertThat(req.getImp(0).getBanner().hasPos()).isTrue();
+    assertThat(req.getSite().getCatList()).containsExactly("IAB3-1");
+    assertThat(req.getSite().getPublisher().getName()).isEqualTo("foobar.com");
+    assertThat(req.getDevice().getIp()).isEqualTo("123.145.167.10");
+    assertThat(req.getUser().getId()).isEqualTo("55816b39711f9b5acf3b90e313ed29e51665623f");
+  }
+
+  @Test
+  public void testLenientScalars() throws IOException {
+    BidRequest req = read("{\"id\":123,\"tmax\":\"120\",\"test\":true,\"allimps\":0,"
+        + "\"at\":\"SECOND_PRICE\",\"bcat\":[\"IAB1_2\",\"IAB2\",\"custom\"],"
+        + "\"imp\":[{\"id\":\"1\",\"bidfloor\":\"1.25\",\"secure\":\"1\","
+        + "\"banner\":{\"w\":300.0,\"h\":2.5e2,\"api\":[3,\"5\"]}}]}");
+    assertThat(req.getId()).isEqualTo("123");
+    assertThat(req.getTmax()).isEqualTo(120);
+    assertThat(req.getTest()).isTrue();
+    assertThat(req.hasAllimps()).isTrue();
+    assertThat(req.getAllimps()).isFalse();
+    assertThat(req.getAt()).isEqualTo(AuctionType.SECOND_PRICE);
+    assertThat(req.getBcatList()).containsExactly("IAB1-2", "IAB2", "custom").inOrder();
+    assertThat(req.getImp(0).getBidfloor()).isEqualTo(1.25);
+    assertThat(req.getImp(0).getSecure()).isTrue();
+    assertThat(req.getImp(0).getBanner().getW()).isEqualTo(300);
+    assertThat(req.getImp(0).getBanner().getH()).isEqualTo(250);
+    assertThat(req.getImp(0).getBanner().getApiList())
+        .containsExactly(APIFramework.MRAID_1, APIFramework.MRAID_2).inOrder();
+  }
+
+  @Test
+  public void testUnknownAndNull() throws IOException {
+    BidRequest req = read("{\"id\":\"1\",\"unknown\":{\"a\":[1,{\"b\":\"}\\\"]\"}],\"c\":null},"
+        + "\"ext\":{\"x\":true},\"tmax\":null,\"bcat\":[null,\"IAB1\"],\"site\":null,"
+        + "\"more\":[],\"num\":-1.5e3,\"flag\":false}");
+    assertThat(req.getId()).isEqualTo("1");
+    assertThat(req.hasTmax()).isFalse();
+    assertThat(req.hasSite()).isFalse();
+    assertThat(req.getBcatList()).containsExactly("IAB1");
+  }
+
+  @Test
+  public void testSingleValueForArray() throws IOException {
+    assertThat(read("{\"id\":\"1\",\"cur\":\"EUR\"}").getCurList()).containsExactly("EUR");
+  }
+
+  @Test
+  public void testStringEscapes() throws IOException {
+    BidRequest req = read("{\"id\":\"a\\\"b\\\\c\\/d\\n\\u00e9\\u4e2d\\ud83d\\ude00\\ud83d\","
+        + "\"bad\\u0076\":[\"IAB1\"],\"badv\":[\"café.com\"]}");
+    assertThat(req.getId()).isEqualTo("a\"b\\c/d\né中😀�");
+    assertThat(req.getBadvList()).containsExactly("IAB1", "café.com").inOrder();
+  }
+
+  @Test
+  public void testNumbers() throws IOException {
+    assertThat(floor("0.1")).isEqualTo(0.1);
+    assertThat(floor("-2")).isEqualTo(-2.0);
+    assertThat(floor("123456.789012")).isEqualTo(123456.789012);
+    assertThat(floor("1e-3")).isEqualTo(0.001);
+    assertThat(floor("1.7976931348623157E308")).isEqualTo(Double.MAX_VALUE);
+    assertThat(floor("0.1234567890123456789")).isEqualTo(0.1234567890123456789);
+  }
+
+  @Test
+  public void testByteBuffer() throws IOException {
+    byte[] json = ("xx" + SPEC_REQUEST + "yy").getBytes(UTF_8);
+    ByteBuffer heap = ByteBuffer.wrap(json, 2, json.length - 4).slice();
+    assertThat(READER.readBidRequest(heap).getImpCount()).isEqualTo(1);
+    assertThat(heap.position()).isEqualTo(0);
+
+    ByteBuffer direct = ByteBuffer.allocateDirect(json.length);
+    direct.put(json).flip().position(2).limit(json.length - 2);
+    assertThat(READER.readBidRequest(direct).getImpCount()).isEqualTo(1);
+    assertThat(READER.readBidRequest(json, 2, json.length - 4).getImpCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testResponse() throws IOException {
+    BidResponse resp = READER.readBidResponse(("{\"id\":\"1\",\"cur\":\"USD\",\"seatbid\":"
+        + "[{\"seat\":\"s1\",\"group\":1,\"bid\":[{\"id\":\"b1\",\"impid\":\"1\",\"price\":1.5,"
+        + "\"adm\":\"<a/>\",\"cat\":[\"IAB1_2\"],\"attr\":[1,2]}]}],\"nbr\":2}")
+        .getBytes(UTF_8));
+    assertThat(resp.getSeatbid(0).getGroup()).isTrue();
+    assertThat(resp.getSeatbid(0).getBid(0).getPrice()).isEqualTo(1.5);
+    assertThat(resp.getSeatbid(0).getBid(0).getAdm()).isEqualTo("<a/>");
+    assertThat(resp.getSeatbid(0).getBid(0).getCatList()).containsExactly("IAB1-2");
+    assertThat(resp.getSeatbid(0).getBid(0).getAttrCount()).isEqualTo(2);
+    assertThat(resp.getNbr().getNumber()).isEqualTo(2);
+  }
+
+  @Test
+  public void testNative() throws IOException {
+    String nativeReq = "{\"ver\":\"1.1\",\"assets\":[{\"id\":1,\"required\":1,"
+        + "\"title\":{\"len\":90}},{\"id\":2,\"img\":{\"type\":3,\"wmin\":100,\"hmin\":50}}]}";
+    NativeRequest plain = READER.readNativeRequest(nativeReq.getBytes(UTF_8));
+    NativeRequest wrapped = READER.readNativeRequest(
+        ("{ \"native\" : " + nativeReq + " }").getBytes(UTF_8));
+    assertThat(plain.getAssetsCount()).isEqualTo(2);
+    assertThat(plain.getAssets(0).getTitle().getLen()).isEqualTo(90);
+    assertThat(plain.getAssets(1).getImg().getWmin()).isEqualTo(100);
+    assertThat(wrapped).isEqualTo(plain);
+
+    NativeResponse resp = READER.readNativeResponse(("{\"native\":{\"link\":{\"url\":\"http://a\"},"
+        + "\"assets\":[{\"id\":1,\"title\":{\"text\":\"Hi\"}}]}}").getBytes(UTF_8));
+    assertThat(resp.getLink().getUrl()).isEqualTo("http://a");
+    assertThat(resp.getAssets(0).getTitle().getText()).isEqualTo("Hi");
+  }
+
+  @Test
+  public void testDecodingNativeRequests() throws IOException {
+    OpenRtbJsonReader reader = READER.decodingNativeRequests(10);
+    NativeRequest nativeReq = NativeRequest.newBuilder()
+        .setVer("1.2")
+        .addAssets(NativeRequest.Asset.newBuilder()
+            .setId(1)
+            .setTitle(NativeRequest.Asset.Title.newBuilder().setLen(25)))
+        .build();
+    String nativeJson = "{\"ver\":\"1.2\",\"assets\":[{\"id\":1,\"title\":{\"len\":25}}]}";
+    String json = "{\"id\":\"1\",\"imp\":["
+        + "{\"id\":\"1\",\"native\":{\"request\":" + quote(nativeJson) + ",\"ver\":\"1.2\"}},"
+        + "{\"id\":\"2\",\"native\":{\"request\":"
+        + quote("{\"native\":" + nativeJson + "}") + "}},"
+        + "{\"id\":\"3\",\"native\":{\"request\":\"not json\"}}]}";
+    for (int i = 0; i < 2; ++i) {
+      // Second time from the cache
+      BidRequest req = reader.readBidRequest(json.getBytes(UTF_8));
+      assertThat(req.getImp(0).getNative().getRequestNative()).isEqualTo(nativeReq);
+      assertThat(req.getImp(0).getNative().getVer()).isEqualTo("1.2");
+      assertThat(req.getImp(1).getNative().getRequestNative()).isEqualTo(nativeReq);
+      assertThat(req.getImp(2).getNative().getRequest()).isEqualTo("not json");
+    }
+
+    // Without decoding, native requests are kept as strings
+    BidRequest req = READER.readBidRequest(json.getBytes(UTF_8));
+    assertThat(req.getImp(0).getNative().hasRequestNative()).isFalse();
+    assertThat(READER.readNativeRequest(req.getImp(0).getNative().getRequest().getBytes(UTF_8)))
+        .isEqualTo(nativeReq);
+  }
+
+  @Test
+  public void testErrors() {
+    assertError("");
+    assertError("[]");
+    assertError("{\"id\":\"1\"");
+    assertError("{\"id\":\"1\",}");
+    assertError("{\"id\":\"1\"} x");
+    assertError("{\"id\":\"1\",\"tmax\":\"abc\"}");
+    assertError("{\"id\":\"1\",\"imp\":[{\"id\":\"1\"}");
+    assertError("{\"id\":\"1\",\"x\":{\"a\":1}");
+    assertError("{\"id\":\"1\\x\"}");
+    // Missing required field
+    assertError("{\"tmax\":100}");
+  }
+
+  @Test
+  public void testMaxDepth() {
+    StringBuilder json = new StringBuilder("{\"id\":\"1\",\"unknown\":");
+    for (int i = 0; i < 10_000; ++i) {
+      json.append('[');
+    }
+    assertError(json.toString());
+  }
+
+  private static BidRequest read(String json) throws IOException {
+    return READER.readBidRequest(json.getBytes(UTF_8));
+  }
+
+  private static String quote(String json) {
+    return '"' + json.replace("\"", "\\\"") + '"';
+  }
+
+  private static double floor(String value) throws IOException {
+    return read("{\"id\":\"1\",\"imp\":[{\"id\":\"1\",\"bidfloor\":" + value + "}]}")
+        .getImp(0).getBidfloor();
+  }
+
+  private static void assertError(String json) {
+    try {
+      read(json);
+      fail("Expected error: " + json);
+    } catch (IOException e) {
+      // expected
+    }
+  }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.json;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.openrtb.OpenRtb.APIFramework;
+import com.google.openrtb.OpenRtb.AuctionType;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.App;
+import com.google.openrtb.OpenRtb.BidRequest.Content;
+import com.google.openrtb.OpenRtb.BidRequest.Device;
+import com.google.openrtb.OpenRtb.BidRequest.Geo;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Banner;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Native;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Pmp;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Pmp.Deal;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Video;
+import com.google.openrtb.OpenRtb.BidRequest.Publisher;
+import com.google.openrtb.OpenRtb.BidRequest.Site;
+import com.google.openrtb.OpenRtb.BidRequest.User;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid.Bid;
+import com.google.openrtb.OpenRtb.ContentContext;
+import com.google.openrtb.OpenRtb.DataAssetType;
+import com.google.openrtb.OpenRtb.NativeRequest;
+import com.google.openrtb.OpenRtb.NativeResponse;
+import com.google.openrtb.OpenRtb.NoBidReason;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.junit.Test;
+
+/**
+ * Tests for {@link OpenRtbJsonWriter}.
+ */
+public class OpenRtbJsonWriterTest {
+  private static final OpenRtbJsonWriter WRITER = OpenRtbJsonReaderTest.FACTORY.newWriter();
+  private static final OpenRtbJsonReader READER = OpenRtbJsonReaderTest.FACTORY.newReader();
+
+  static final NativeResponse NATIVE_RESPONSE = NativeResponse.newBuilder()
+      .setVer("1.2")
+      .setLink(NativeResponse.Link.newBuilder().setUrl("http://click/\"x\""))
+      .addAssets(NativeResponse.Asset.newBuilder()
+          .setId(1)
+          .setTitle(NativeResponse.Asset.Title.newBuilder().setText("Title é")))
+      .addAssets(NativeResponse.Asset.newBuilder()
+          .setId(2)
+          .setData(NativeResponse.Asset.Data.newBuilder().setValue("Sponsor\n")))
+      .build();
+
+  static final BidRequest REQUEST = BidRequest.newBuilder()
+      .setId("req\t1")
+      .setAt(AuctionType.FIRST_PRICE)
+      .setTmax(120)
+      .setTest(true)
+      .addCur("USD").addCur("EUR")
+      .addBcat("IAB1_2").addBcat("IAB25")
+      .setApp(App.newBuilder()
+          .setId("app1")
+          .setBundle("com.example")
+          .addCat("IAB3")
+          .setPublisher(Publisher.newBuilder().setId("pub1")))
+      .setDevice(Device.newBuilder()
+          .setUa("Mozilla/5.0 \"quoted\"")
+          .setGeo(Geo.newBuilder().setLat(-33.8688).setLon(151.2093).setCountry("AUS")))
+      .setUser(User.newBuilder().setId("u1").setYob(1980))
+      .addImp(Imp.newBuilder()
+          .setId("1")
+          .setBidfloor(0.5)
+          .setBidfloorcur("EUR")
+          .setBanner(Banner.newBuilder()
+              .setW(300).setH(250)
+              .addFormat(Banner.Format.newBuilder().setW(320).setH(50))
+              .addApi(APIFramework.MRAID_2))
+          .setPmp(Pmp.newBuilder()
+              .setPrivateAuction(true)
+              .addDeals(Deal.newBuilder().setId("d1").setBidfloor(2.25).addWseat("s1"))))
+      .addImp(Imp.newBuilder()
+          .setId("2")
+          .setVideo(Video.newBuilder().addMimes("video/mp4").setMinduration(5)))
+      .addImp(Imp.newBuilder()
+          .setId("3")
+          .setNative(Native.newBuilder()
+              .setRequestNative(NativeRequest.newBuilder()
+                  .setVer("1.2")
+                  .addAssets(NativeRequest.Asset.newBuilder()
+                      .setId(1)
+                      .setRequired(true)
+                      .setData(NativeRequest.Asset.Data.newBuilder()
+                          .setType(DataAssetType.SPONSORED))))))
+      .build();
+
+  static final BidResponse RESPONSE = BidResponse.newBuilder()
+      .setId("req1")
+      .setBidid("bid1")
+      .setCur("EUR")
+      .addSeatbid(SeatBid.newBuilder()
+          .setSeat("s1")
+          .addBid(Bid.newBuilder()
+              .setId("b1")
+              .setImpid("1")
+              .setPrice(1.75)
+              .setAdm("<img src=\"x\"/>")
+              .addAdomain("adv.com")
+              .addCat("IAB1_2")
+              .setW(300).setH(250))
+          .addBid(Bid.newBuilder()
+              .setId("b2")
+              .setImpid("3")
+              .setPrice(2)
+              .setAdmNative(NATIVE_RESPONSE)))
+      .build();
+
+  @Test
+  public void testSimple() {
+    assertThat(write(BidRequest.newBuilder()
+        .setId("1")
+        .setTmax(100)
+        .setAllimps(false)
+        .addImp(Imp.newBuilder().setId("1").setBidfloor(1.5))
+        .addImp(Imp.newBuilder().setId("2").setBidfloor(2))
+        .addBcat("IAB1_2").addBcat("x")
+        .build()))
+        .isEqualTo("{\"id\":\"1\",\"imp\":[{\"id\":\"1\",\"bidfloor\":1.5},"
+            + "{\"id\":\"2\",\"bidfloor\":2}],\"tmax\":100,\"allimps\":0,"
+            + "\"bcat\":[\"IAB1-2\",\"x\"]}");
+  }
+
+  @Test
+  public void testLegacyFields() throws IOException {
+    BidRequest legacy = BidRequest.newBuilder()
+        .setId("1")
+        .addImp(Imp.newBuilder()
+            .setId("1")
+            .setVideo(Video.newBuilder()
+                .setCompanionad21(Video.CompanionAd.newBuilder()
+                    .addBanner(Banner.newBuilder().setId("c1")))))
+        .setSite(Site.newBuilder().setContent(Content.newBuilder().setContext22("news")))
+        .build();
+    String json = write(legacy);
+    assertThat(json).isEqualTo("{\"id\":\"1\",\"imp\":[{\"id\":\"1\",\"video\":"
+        + "{\"companionad\":{\"banner\":[{\"id\":\"c1\"}]}}}],"
+        + "\"site\":{\"content\":{\"context\":\"news\"}}}");
+    assertThat(READER.readBidRequest(json.getBytes(UTF_8))).isEqualTo(legacy);
+
+    // The same keys with the current JSON types are the current fields
+    BidRequest current = READER.readBidRequest(("{\"id\":\"1\",\"imp\":[{\"id\":\"1\","
+        + "\"video\":{\"companionad\":[{\"id\":\"c1\"}]}}],"
+        + "\"site\":{\"content\":{\"context\":2}}}").getBytes(UTF_8));
+    assertThat(current.getImp(0).getVideo().getCompanionadList())
+        .containsExactly(Banner.newBuilder().setId("c1").build());
+    assertThat(current.getSite().getContent().getContext()).isEqualTo(ContentContext.GAME);
+  }
+
+  @Test
+  public void testEscapes() {
+    assertThat(write(BidRequest.newBuilder().setId("a\"b\\c\n\u0001é").build()))
+        .isEqualTo("{\"id\":\"a\\\"b\\\\c\\n\\u0001é\"}");
+  }
+
+  @Test
+  public void testNonFinite() {
+    assertThat(write(BidRequest.newBuilder()
+        .setId("1")
+        .addImp(Imp.newBuilder().setId("1").setBidfloor(Double.NaN))
+        .build()))
+        .isEqualTo("{\"id\":\"1\",\"imp\":[{\"id\":\"1\",\"bidfloor\":null}]}");
+  }
+
+  @Test
+  public void testEmbeddedNative() throws IOException {
+    String json = new String(WRITER.writeBidResponse(RESPONSE), UTF_8);
+    assertThat(json).contains("\"adm\":\"{\\\"ver\\\":\\\"1.2\\\",");
+    assertThat(json).doesNotContain("adm_native");
+
+    // Native markup is read back as the adm string
+    Bid nativeBid = READER.readBidResponse(json.getBytes(UTF_8)).getSeatbid(0).getBid(1);
+    assertThat(nativeBid.hasAdmNative()).isFalse();
+    assertThat(READER.readNativeResponse(nativeBid.getAdm().getBytes(UTF_8)))
+        .isEqualTo(NATIVE_RESPONSE);
+  }
+
+  @Test
+  public void testEmbeddedNativeSameAsString() {
+    // Escaping in place matches writing the native JSON as a regular string
+    String admJson = new String(WRITER.writeNativeResponse(NATIVE_RESPONSE), UTF_8);
+    Bid.Builder bid = RESPONSE.getSeatbid(0).getBid(1).toBuilder().setAdm(admJson);
+    BidResponse stringResp = RESPONSE.toBuilder()
+        .setSeatbid(0, RESPONSE.getSeatbid(0).toBuilder().setBid(1, bid))
+        .build();
+    assertThat(WRITER.writeBidResponse(RESPONSE)).isEqualTo(WRITER.writeBidResponse(stringResp));
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    BidRequest expectedReq = REQUEST.toBuilder()
+        .setBcat(0, "IAB1-2")
+        .setImp(2, REQUEST.getImp(2).toBuilder().setNative(Native.newBuilder()
+            .setRequest(new String(
+                WRITER.writeNativeRequest(REQUEST.getImp(2).getNative().getRequestNative()),
+                UTF_8))))
+        .build();
+    assertThat(READER.readBidRequest(WRITER.writeBidRequest(REQUEST))).isEqualTo(expectedReq);
+    assertThat(READER.readBidRequest(WRITER.writeBidRequest(expectedReq)))
+        .isEqualTo(expectedReq);
+
+    BidResponse simpleResp = RESPONSE.toBuilder()
+        .setSeatbid(0, RESPONSE.getSeatbid(0).toBuilder().removeBid(1)
+            .setBid(0, RESPONSE.getSeatbid(0).getBid(0).toBuilder().setCat(0, "IAB1-2")))
+        .setNbr(NoBidReason.TECHNICAL_ERROR)
+        .build();
+    assertThat(READER.readBidResponse(WRITER.writeBidResponse(simpleResp))).isEqualTo(simpleResp);
+    assertThat(READER.readNativeResponse(WRITER.writeNativeResponse(NATIVE_RESPONSE)))
+        .isEqualTo(NATIVE_RESPONSE);
+  }
+
+  @Test
+  public void testOutputStream() throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    WRITER.writeBidRequest(REQUEST, os);
+    assertThat(os.toByteArray()).isEqualTo(WRITER.writeBidRequest(REQUEST));
+    os.reset();
+    WRITER.writeBidResponse(RESPONSE, os);
+    assertThat(os.toByteArray()).isEqualTo(WRITER.writeBidResponse(RESPONSE));
+    os.reset();
+    WRITER.writeNativeRequest(NativeRequest.getDefaultInstance(), os);
+    WRITER.writeNativeResponse(NATIVE_RESPONSE, os);
+    assertThat(new String(os.toByteArray(), UTF_8)).startsWith("{}{");
+  }
+
+  @Test
+  public void testFactory() {
+    assertThat(WRITER.factory()).isSameInstanceAs(OpenRtbJsonReaderTest.FACTORY);
+    assertThat(READER.factory().toString()).contains("messageTypes");
+  }
+
+  private static String write(BidRequest req) {
+    return new String(WRITER.writeBidRequest(req), UTF_8);
+  }
+}
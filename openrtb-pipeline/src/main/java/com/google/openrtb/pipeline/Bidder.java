@@ -0,0 +1,39 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.pipeline;
+
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidResponse;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A downstream bidder, called by {@link BidderFanout}.
+ *
+ * <p>Implementations must be threadsafe, and should not block the calling thread.
+ */
+@FunctionalInterface
+public interface Bidder {
+  /**
+   * Sends a request to the bidder.
+   *
+   * @param request The request, with {@code tmax} set to the time available to the bidder
+   * @param deadline When the caller will stop waiting for the response, so the bidder can
+   *     abandon the call
+   * @return Future for the bidder's response
+   */
+  CompletableFuture<BidResponse> bid(BidRequest request, Deadline deadline);
+}
@@ -0,0 +1,364 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.pipeline;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid;
+import com.google.openrtb.util.ResponseMerger;
+import com.google.openrtb.util.ResponseMerger.DuplicatePolicy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends a request to several {@link Bidder}s in parallel, and merges their responses.
+ *
+ * <ul>
+ *   <li>The fan-out is cut off at the request's {@code tmax} minus a safety margin, measured from
+ *   the request's arrival; responses that arrive later are ignored. Requests to bidders have
+ *   their {@code tmax} reduced to the remaining time.</li>
+ *   <li>If a bidder doesn't respond within the hedging delay, a second request is sent to it,
+ *   and the first response from either request is used.</li>
+ *   <li>Responses are merged by a {@link ResponseMerger} into a single response, with one
+ *   {@link SeatBid} per named seat. Bidders are independent, so duplicate bid IDs are only
+ *   resolved within each bidder's response, by a configurable policy, and unnamed seats of
+ *   different bidders are kept apart.</li>
+ * </ul>
+ *
+ * <p>Timers for cut-off and hedging are {@link Deadline}s in a {@link TimerWheel}.
+ *
+ * <p>This class is threadsafe.
+ */
+public final class BidderFanout {
+  private static final Logger logger = LoggerFactory.getLogger(BidderFanout.class);
+
+  private final ImmutableList<Target> targets;
+  private final TimerWheel timerWheel;
+  private final Executor executor;
+  private final long safetyMargin;
+  private final long hedgeDelay;
+  private final long defaultTmax;
+  private final ResponseMerger merger;
+  private final Counter hedges;
+  private final Counter timeouts;
+  private final Counter errors;
+
+  private BidderFanout(Builder builder) {
+    MetricRegistry metricRegistry = builder.metricRegistry;
+    ImmutableList.Builder<Target> targets = ImmutableList.builder();
+    for (Map.Entry<String, Bidder> bidder : builder.bidders.entrySet()) {
+      targets.add(new Target(bidder.getKey(), bidder.getValue(), metricRegistry.timer(
+          MetricRegistry.name(BidderFanout.class, "bidder", bidder.getKey()))));
+    }
+    this.targets = targets.build();
+    this.timerWheel = builder.timerWheel;
+    this.executor = builder.executor;
+    this.safetyMargin = builder.safetyMargin;
+    this.hedgeDelay = builder.hedgeDelay;
+    this.defaultTmax = builder.defaultTmax;
+    this.merger = new ResponseMerger(builder.duplicatePolicy);
+    this.hedges = metricRegistry.counter(MetricRegistry.name(BidderFanout.class, "hedges"));
+    this.timeouts = metricRegistry.counter(
+        MetricRegistry.name(BidderFanout.class, "bidder-timeouts"));
+    this.errors = metricRegistry.counter(MetricRegistry.name(BidderFanout.class, "bidder-errors"));
+  }
+
+  /**
+   * Creates a builder.
+   *
+   * @param timerWheel Timer wheel for cut-off and hedging timers, usually shared with
+   *     a {@link Pipeline}
+   */
+  public static Builder builder(TimerWheel timerWheel) {
+    return new Builder(timerWheel);
+  }
+
+  /**
+   * Sends a request to all bidders.
+   *
+   * @param startNanos Arrival time of the request, from {@link System#nanoTime()}
+   * @return Future for the merged response, which is never completed exceptionally: bidders
+   *     that fail or don't respond in time are left out
+   */
+  public CompletableFuture<BidResponse> fanOut(BidRequest request, long startNanos) {
+    return new Call(request, startNanos).start();
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("bidders", targets)
+        .add("safetyMargin", safetyMargin)
+        .add("hedgeDelay", hedgeDelay)
+        .toString();
+  }
+
+  /**
+   * State of one fan-out.
+   */
+  private final class Call {
+    final BidRequest request;
+    final long startNanos;
+    final AtomicReferenceArray<BidResponse> responses;
+    final AtomicBoolean[] done;
+    final AtomicInteger remaining;
+    final AtomicBoolean finished = new AtomicBoolean();
+    final CompletableFuture<BidResponse> result = new CompletableFuture<>();
+    Deadline cutoff;
+
+    Call(BidRequest request, long startNanos) {
+      this.request = request;
+      this.startNanos = startNanos;
+      this.responses = new AtomicReferenceArray<>(targets.size());
+      this.done = new AtomicBoolean[targets.size()];
+      for (int i = 0; i < done.length; ++i) {
+        done[i] = new AtomicBoolean();
+      }
+      this.remaining = new AtomicInteger(targets.size());
+    }
+
+    CompletableFuture<BidResponse> start() {
+      long budget = Deadline.tmax(request, defaultTmax) - safetyMargin;
+      cutoff = timerWheel.newDeadline(startNanos, Math.max(0, budget), TimeUnit.MILLISECONDS,
+          () -> executor.execute(this::cutOff));
+      long available = cutoff.remaining(TimeUnit.MILLISECONDS);
+      if (targets.isEmpty() || available <= 0) {
+        cutoff.disarm();
+        cutOff();
+        return result;
+      }
+
+      BidRequest forwarded = request.toBuilder().setTmax((int) available).build();
+      for (int i = 0; i < targets.size(); ++i) {
+        send(i, forwarded);
+      }
+      return result;
+    }
+
+    void send(int index, BidRequest forwarded) {
+      Target target = targets.get(index);
+      AtomicBoolean done = this.done[index];
+      AtomicInteger attempts = new AtomicInteger(1);
+      Deadline hedge = hedgeDelay <= 0
+          ? null
+          : timerWheel.newDeadline(System.nanoTime(), hedgeDelay, TimeUnit.MILLISECONDS,
+              () -> executor.execute(() -> {
+                if (!done.get() && !cutoff.isExpired()) {
+                  hedges.inc();
+                  attempts.incrementAndGet();
+                  attempt(index, target, forwarded, done, attempts, null);
+                }
+              }));
+      attempt(index, target, forwarded, done, attempts, hedge);
+    }
+
+    void attempt(int index, Target target, BidRequest forwarded,
+        AtomicBoolean done, AtomicInteger attempts, Deadline hedge) {
+      long attemptStart = System.nanoTime();
+      CompletableFuture<BidResponse> future;
+      try {
+        future = target.bidder.bid(forwarded, cutoff);
+      } catch (RuntimeException e) {
+        future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+      }
+      future.whenComplete((response, error) -> {
+        if (error == null) {
+          if (done.compareAndSet(false, true)) {
+            target.timer.update(System.nanoTime() - attemptStart, TimeUnit.NANOSECONDS);
+            if (hedge != null) {
+              hedge.disarm();
+            }
+            if (!finished.get()) {
+              responses.set(index, response);
+              bidderDone();
+            }
+          }
+        } else {
+          if (logger.isDebugEnabled()) {
+            logger.debug("Bidder {} failed: {}", target.name, error.toString());
+          }
+          errors.inc();
+          // Give up on the bidder if no other attempt is in flight; a pending hedge is dropped.
+          if (attempts.decrementAndGet() == 0) {
+            if (hedge != null) {
+              hedge.disarm();
+            }
+            if (done.compareAndSet(false, true)) {
+              bidderDone();
+            }
+          }
+        }
+      });
+    }
+
+    void bidderDone() {
+      if (remaining.decrementAndGet() == 0) {
+        cutoff.disarm();
+        finish();
+      }
+    }
+
+    void cutOff() {
+      if (finished.compareAndSet(false, true)) {
+        // Bidders that already responded or failed are done, only pending ones timed out.
+        for (AtomicBoolean bidderDone : done) {
+          if (!bidderDone.get()) {
+            timeouts.inc();
+          }
+        }
+        complete();
+      }
+    }
+
+    void finish() {
+      if (finished.compareAndSet(false, true)) {
+        complete();
+      }
+    }
+
+    void complete() {
+      List<BidResponse> received = new ArrayList<>(targets.size());
+      for (int i = 0; i < targets.size(); ++i) {
+        BidResponse response = responses.get(i);
+        if (response != null) {
+          received.add(response);
+        }
+      }
+      result.complete(merger.mergeSources(request.getId(), received));
+    }
+  }
+
+  private static final class Target {
+    final String name;
+    final Bidder bidder;
+    final Timer timer;
+
+    Target(String name, Bidder bidder, Timer timer) {
+      this.name = name;
+      this.bidder = bidder;
+      this.timer = timer;
+    }
+
+    @Override public String toString() {
+      return name;
+    }
+  }
+
+  /**
+   * Builder for {@link BidderFanout}.
+   */
+  public static final class Builder {
+    private final TimerWheel timerWheel;
+    private final Map<String, Bidder> bidders = new LinkedHashMap<>();
+    private MetricRegistry metricRegistry = new MetricRegistry();
+    private Executor executor = ForkJoinPool.commonPool();
+    private long safetyMargin = 10;
+    private long hedgeDelay;
+    private long defaultTmax = 100;
+    private DuplicatePolicy duplicatePolicy = DuplicatePolicy.FIRST_WINS;
+
+    private Builder(TimerWheel timerWheel) {
+      this.timerWheel = checkNotNull(timerWheel);
+    }
+
+    /**
+     * Adds a bidder.
+     *
+     * @param name Bidder name, for metrics and logging; must be unique
+     */
+    public Builder bidder(String name, Bidder bidder) {
+      checkArgument(bidders.put(checkNotNull(name), checkNotNull(bidder)) == null,
+          "Duplicate bidder: %s", name);
+      return this;
+    }
+
+    public Builder metricRegistry(MetricRegistry metricRegistry) {
+      this.metricRegistry = checkNotNull(metricRegistry);
+      return this;
+    }
+
+    /**
+     * Sets the executor for hedged requests and for merging responses at cut-off time,
+     * so that work doesn't run in the timer wheel's thread. Default is the common pool.
+     */
+    public Builder executor(Executor executor) {
+      this.executor = checkNotNull(executor);
+      return this;
+    }
+
+    /**
+     * Sets the time in milliseconds reserved from {@code tmax} to process the merged response
+     * and send it. Default is 10.
+     */
+    public Builder safetyMargin(long safetyMargin) {
+      checkArgument(safetyMargin >= 0, "safetyMargin: %s", safetyMargin);
+      this.safetyMargin = safetyMargin;
+      return this;
+    }
+
+    /**
+     * Sets the delay in milliseconds after which a hedged request is sent to bidders that
+     * didn't respond yet. Default is 0, for no hedging.
+     */
+    public Builder hedgeDelay(long hedgeDelay) {
+      checkArgument(hedgeDelay >= 0, "hedgeDelay: %s", hedgeDelay);
+      this.hedgeDelay = hedgeDelay;
+      return this;
+    }
+
+    /**
+     * Sets the timeout in milliseconds for requests without {@code tmax}. Default is 100.
+     */
+    public Builder defaultTmax(long defaultTmax) {
+      checkArgument(defaultTmax > 0, "defaultTmax: %s", defaultTmax);
+      this.defaultTmax = defaultTmax;
+      return this;
+    }
+
+    /**
+     * Sets how bids with the same ID in a bidder's response are resolved when merging
+     * responses. Default is {@link DuplicatePolicy#FIRST_WINS}.
+     */
+    public Builder duplicatePolicy(DuplicatePolicy duplicatePolicy) {
+      this.duplicatePolicy = checkNotNull(duplicatePolicy);
+      return this;
+    }
+
+    public BidderFanout build() {
+      return new BidderFanout(this);
+    }
+  }
+}
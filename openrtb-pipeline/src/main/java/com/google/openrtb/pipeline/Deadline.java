@@ -0,0 +1,192 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.pipeline;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.MoreObjects;
+import com.google.openrtb.OpenRtb.BidRequestOrBuilder;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import javax.annotation.Nullable;
+
+/**
+ * Time limit for processing a request. Stages should call {@link #check()} (or poll
+ * {@link #isExpired()}) between units of work, so processing stops soon after the deadline;
+ * the deadline can also be cancelled explicitly, e.g. when the request's response was already
+ * sent by other means.
+ *
+ * <p>Deadlines created by a {@link TimerWheel} are expired by the wheel's thread, which also
+ * runs their expiration action, so polling them is a single volatile read. Other deadlines
+ * check the clock when polled. In both cases, {@link #disarm()} should be called when the
+ * request is done, so the wheel can release the deadline before it expires.
+ *
+ * <p>This class is threadsafe.
+ */
+public final class Deadline {
+  static final int PENDING = 0;
+  static final int EXPIRED = 1;
+  static final int DISARMED = 2;
+  private static final AtomicIntegerFieldUpdater<Deadline> STATE =
+      AtomicIntegerFieldUpdater.newUpdater(Deadline.class, "state");
+
+  private final long startNanos;
+  private final long expiryNanos;
+  @Nullable private final TimerWheel wheel;
+  @Nullable final Runnable onExpiry;
+  private volatile int state;
+
+  // Wheel bookkeeping: links for the wheel's arm/disarm stacks, written before the deadline
+  // is published to the wheel; and links in a wheel bucket, used only by the wheel's thread.
+  Deadline nextArm;
+  Deadline nextDisarm;
+  long expiryTick;
+  TimerWheel.Bucket bucket;
+  Deadline prev;
+  Deadline next;
+
+  Deadline(long startNanos, long timeoutNanos,
+      @Nullable TimerWheel wheel, @Nullable Runnable onExpiry) {
+    this.startNanos = startNanos;
+    this.expiryNanos = startNanos + timeoutNanos;
+    this.wheel = wheel;
+    this.onExpiry = onExpiry;
+  }
+
+  /**
+   * Creates a deadline that expires some time after a start time.
+   *
+   * @param startNanos Start time, from {@link System#nanoTime()}
+   */
+  public static Deadline of(long startNanos, long timeout, TimeUnit unit) {
+    checkArgument(timeout >= 0, "Negative timeout: %s", timeout);
+    return new Deadline(startNanos, unit.toNanos(timeout), null, null);
+  }
+
+  /**
+   * Creates a deadline that expires some time from now.
+   */
+  public static Deadline after(long timeout, TimeUnit unit) {
+    return of(System.nanoTime(), timeout, unit);
+  }
+
+  /**
+   * Creates a deadline for a request, using its {@code tmax}.
+   *
+   * @param startNanos Arrival time of the request, from {@link System#nanoTime()}
+   * @param defaultTmax Timeout in milliseconds, for requests without {@code tmax}
+   */
+  public static Deadline forRequest(
+      BidRequestOrBuilder request, long startNanos, long defaultTmax) {
+    return of(startNanos, tmax(request, defaultTmax), TimeUnit.MILLISECONDS);
+  }
+
+  static long tmax(BidRequestOrBuilder request, long defaultTmax) {
+    return request.getTmax() > 0 ? request.getTmax() : defaultTmax;
+  }
+
+  /**
+   * Checks if the deadline has expired, or was cancelled.
+   */
+  public boolean isExpired() {
+    int state = this.state;
+    return state == EXPIRED
+        || (wheel == null && state == PENDING && System.nanoTime() - expiryNanos >= 0);
+  }
+
+  /**
+   * Checks the deadline.
+   *
+   * @throws DeadlineExceededException if the deadline has expired
+   */
+  public void check() {
+    if (isExpired()) {
+      throw new DeadlineExceededException(this);
+    }
+  }
+
+  /**
+   * Cancels the deadline, so it's immediately expired. The expiration action doesn't run.
+   */
+  public void cancel() {
+    int prevState = STATE.getAndSet(this, EXPIRED);
+    if (prevState == PENDING && wheel != null) {
+      wheel.disarm(this);
+    }
+  }
+
+  /**
+   * Stops tracking the deadline, when the request is done. If it didn't expire yet,
+   * it will not expire anymore and its expiration action won't run.
+   *
+   * @return {@code true} if the deadline was disarmed before expiring
+   */
+  public boolean disarm() {
+    if (STATE.compareAndSet(this, PENDING, DISARMED)) {
+      if (wheel != null) {
+        wheel.disarm(this);
+      }
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Expires the deadline, if still pending.
+   *
+   * @return {@code true} if the deadline was pending
+   */
+  boolean expire() {
+    return STATE.compareAndSet(this, PENDING, EXPIRED);
+  }
+
+  boolean isPending() {
+    return state == PENDING;
+  }
+
+  /**
+   * Time left until expiration; zero or negative if expired.
+   */
+  public long remaining(TimeUnit unit) {
+    return state == EXPIRED
+        ? Math.min(0, unit.convert(expiryNanos - System.nanoTime(), TimeUnit.NANOSECONDS))
+        : unit.convert(expiryNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Time since the start of the deadline.
+   */
+  public long elapsed(TimeUnit unit) {
+    return unit.convert(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public long startNanos() {
+    return startNanos;
+  }
+
+  public long expiryNanos() {
+    return expiryNanos;
+  }
+
+  @Override public String toString() {
+    int state = this.state;
+    return MoreObjects.toStringHelper(this)
+        .add("timeoutMs", TimeUnit.NANOSECONDS.toMillis(expiryNanos - startNanos))
+        .add("state", state == PENDING ? "pending" : state == EXPIRED ? "expired" : "disarmed")
+        .toString();
+  }
+}
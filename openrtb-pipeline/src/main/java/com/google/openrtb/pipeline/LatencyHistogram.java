@@ -0,0 +1,185 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.pipeline;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.MoreObjects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with a fixed relative precision over its whole range, in the style of
+ * HdrHistogram: values are counted in buckets that double in width with each power of two,
+ * each divided in enough sub-buckets for the precision. Unlike sampling reservoirs (like the
+ * metrics {@code Timer}), all values are counted, so high percentiles are exact up to the
+ * precision.
+ *
+ * <p>Recording is a single atomic increment, without allocation or locking. Values above the
+ * highest trackable value are counted in the last bucket, but still reported by {@link #max}.
+ *
+ * <p>This class is threadsafe.
+ */
+public final class LatencyHistogram {
+  private final int subBucketBits;
+  private final int subBucketHalfCount;
+  private final long highestTrackable;
+  private final AtomicLongArray counts;
+  private final LongAdder total = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Creates a histogram of nanosecond latencies up to one minute, with 3 significant digits.
+   */
+  public LatencyHistogram() {
+    this(TimeUnit.MINUTES.toNanos(1), 3);
+  }
+
+  /**
+   * Creates a histogram.
+   *
+   * @param highestTrackable Highest value tracked with full precision
+   * @param significantDigits Decimal digits of precision, from 1 to 5
+   */
+  public LatencyHistogram(long highestTrackable, int significantDigits) {
+    checkArgument(highestTrackable >= 2, "highestTrackable: %s", highestTrackable);
+    checkArgument(significantDigits >= 1 && significantDigits <= 5,
+        "significantDigits: %s", significantDigits);
+    long largestSingleUnit = 2 * (long) Math.pow(10, significantDigits);
+    this.subBucketBits = 64 - Long.numberOfLeadingZeros(largestSingleUnit - 1);
+    this.subBucketHalfCount = 1 << (subBucketBits - 1);
+    this.highestTrackable = highestTrackable;
+    this.counts = new AtomicLongArray(index(highestTrackable) + 1);
+  }
+
+  /**
+   * Records a value; negative values are recorded as zero.
+   */
+  public void record(long value) {
+    long v = Math.max(value, 0);
+    counts.incrementAndGet(index(Math.min(v, highestTrackable)));
+    total.increment();
+    sum.add(v);
+    min.accumulate(v);
+    max.accumulate(v);
+  }
+
+  public long count() {
+    return total.sum();
+  }
+
+  public long min() {
+    return count() == 0 ? 0 : min.get();
+  }
+
+  public long max() {
+    return max.get();
+  }
+
+  public double mean() {
+    long count = count();
+    return count == 0 ? 0 : (double) sum.sum() / count;
+  }
+
+  /**
+   * Returns the value at a percentile: the highest value equivalent (within the precision)
+   * to the value that is greater or equal to {@code percentile}% of all recorded values.
+   *
+   * @param percentile Percentile, from 0 to 100
+   */
+  public long valueAtPercentile(double percentile) {
+    checkArgument(percentile >= 0 && percentile <= 100, "percentile: %s", percentile);
+    long[] snapshot = new long[counts.length()];
+    long count = 0;
+    for (int i = 0; i < snapshot.length; ++i) {
+      snapshot[i] = counts.get(i);
+      count += snapshot[i];
+    }
+    if (count == 0) {
+      return 0;
+    }
+    long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    long seen = 0;
+    for (int i = 0; i < snapshot.length; ++i) {
+      seen += snapshot[i];
+      if (seen >= target) {
+        return Math.min(highestValue(i), max());
+      }
+    }
+    return max();
+  }
+
+  /**
+   * Clears all recorded values. Values recorded concurrently may be partially cleared.
+   */
+  public void reset() {
+    for (int i = 0; i < counts.length(); ++i) {
+      counts.set(i, 0);
+    }
+    total.reset();
+    sum.reset();
+    min.reset();
+    max.reset();
+  }
+
+  /**
+   * Formats the count, mean and common percentiles, converting from nanoseconds.
+   */
+  public String summary(TimeUnit unit) {
+    return MoreObjects.toStringHelper("")
+        .add("count", count())
+        .add("mean", convert(mean(), unit))
+        .add("p50", convert(valueAtPercentile(50), unit))
+        .add("p90", convert(valueAtPercentile(90), unit))
+        .add("p99", convert(valueAtPercentile(99), unit))
+        .add("p99.9", convert(valueAtPercentile(99.9), unit))
+        .add("max", convert(max(), unit))
+        .toString();
+  }
+
+  private static double convert(double nanos, TimeUnit unit) {
+    return Math.round(nanos / unit.toNanos(1) * 1000) / 1000.0;
+  }
+
+  /**
+   * Bucket index of a value: values below the sub-bucket count have their own index;
+   * larger values are shifted so they fall in the upper half of the sub-buckets.
+   */
+  private int index(long value) {
+    int shift = 64 - Long.numberOfLeadingZeros(value) - subBucketBits;
+    return shift <= 0
+        ? (int) value
+        : (shift + 1) * subBucketHalfCount + (int) (value >>> shift) - subBucketHalfCount;
+  }
+
+  private long highestValue(int index) {
+    int shift = index / subBucketHalfCount - 1;
+    if (shift <= 0) {
+      return index;
+    }
+    long lowest = (long) (index - shift * subBucketHalfCount) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+
+  @Override public String toString() {
+    return summary(TimeUnit.MILLISECONDS);
+  }
+}
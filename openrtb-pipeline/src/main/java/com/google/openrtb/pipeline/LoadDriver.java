@@ -0,0 +1,153 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.pipeline;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidResponse;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * In-process load driver for a {@link Pipeline}: submits requests with a fixed number of
+ * requests in flight (a closed loop), and counts the outcomes.
+ *
+ * <p>This class is threadsafe.
+ */
+public final class LoadDriver {
+  private final Pipeline pipeline;
+
+  public LoadDriver(Pipeline pipeline) {
+    this.pipeline = checkNotNull(pipeline);
+  }
+
+  /**
+   * Runs requests through the pipeline, and waits for all responses.
+   *
+   * @param requests Provides each request; called from the calling thread only
+   * @param count Number of requests
+   * @param concurrency Maximum number of requests in flight
+   */
+  public Result run(Supplier<BidRequest> requests, int count, int concurrency)
+      throws InterruptedException {
+    checkArgument(count >= 0, "count: %s", count);
+    checkArgument(concurrency > 0, "concurrency: %s", concurrency);
+    Semaphore inFlight = new Semaphore(concurrency);
+    LongAdder bids = new LongAdder();
+    LongAdder noBids = new LongAdder();
+    LongAdder failures = new LongAdder();
+    long start = System.nanoTime();
+
+    for (int i = 0; i < count; ++i) {
+      inFlight.acquire();
+      pipeline.submit(requests.get()).whenComplete((response, error) -> {
+        if (error != null) {
+          failures.increment();
+        } else if (hasBids(response)) {
+          bids.increment();
+        } else {
+          noBids.increment();
+        }
+        inFlight.release();
+      });
+    }
+    inFlight.acquire(concurrency);
+    inFlight.release(concurrency);
+
+    return new Result(count, bids.sum(), noBids.sum(), failures.sum(), System.nanoTime() - start);
+  }
+
+  static boolean hasBids(BidResponse response) {
+    for (BidResponse.SeatBid seatbid : response.getSeatbidList()) {
+      if (seatbid.getBidCount() != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Outcome of {@link LoadDriver#run}.
+   */
+  public static final class Result {
+    private final long requests;
+    private final long bids;
+    private final long noBids;
+    private final long failures;
+    private final long elapsedNanos;
+
+    Result(long requests, long bids, long noBids, long failures, long elapsedNanos) {
+      this.requests = requests;
+      this.bids = bids;
+      this.noBids = noBids;
+      this.failures = failures;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    public long requests() {
+      return requests;
+    }
+
+    /**
+     * Number of responses with at least one bid.
+     */
+    public long bids() {
+      return bids;
+    }
+
+    /**
+     * Number of responses without bids.
+     */
+    public long noBids() {
+      return noBids;
+    }
+
+    /**
+     * Number of requests that completed exceptionally.
+     */
+    public long failures() {
+      return failures;
+    }
+
+    public long elapsed(TimeUnit unit) {
+      return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Requests per second.
+     */
+    public double throughput() {
+      return elapsedNanos == 0 ? 0 : requests * 1e9 / elapsedNanos;
+    }
+
+    @Override public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("requests", requests)
+          .add("bids", bids)
+          .add("noBids", noBids)
+          .add("failures", failures)
+          .add("elapsedMs", elapsed(TimeUnit.MILLISECONDS))
+          .add("qps", Math.round(throughput()))
+          .toString();
+    }
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.pipeline;
+
+import com.google.openrtb.OpenRtb.NoBidReason;
+import javax.annotation.Nullable;
+
+/**
+ * Thrown by a {@link Stage} to stop processing a request, and respond with a no-bid.
+ */
+public class NoBidException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  @Nullable private final NoBidReason reason;
+
+  /**
+   * Creates the exception.
+   *
+   * @param reason Reason for the no-bid response's {@code nbr}, or {@code null} to not set it
+   */
+  public NoBidException(@Nullable NoBidReason reason) {
+    super(reason == null ? "No bid" : "No bid: " + reason);
+    this.reason = reason;
+  }
+
+  @Nullable public NoBidReason reason() {
+    return reason;
+  }
+}
@@ -0,0 +1,428 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.pipeline;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.OpenRtb.NoBidReason;
+import com.google.openrtb.snippet.ResponseWorkspace;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a sequence of {@link Stage}s for each request, producing its response.
+ *
+ * <ul>
+ *   <li>Each request runs in its own task of the pipeline's executor. By default, that's a
+ *   virtual thread per request when the JVM supports them (Java 21+), or a cached thread pool.
+ *   </li>
+ *   <li>Each stage is timed, in the {@link MetricRegistry} timer {@code Pipeline.stage.<name>},
+ *   and reported to the {@link StageListener} if any.</li>
+ *   <li>The request's {@code tmax} (or a default) sets its {@link Deadline}, tracked by a
+ *   {@link TimerWheel}. The deadline is checked before each stage, and stages may check it too.
+ *   If the deadline expires, the request's future is completed immediately with a no-bid
+ *   response, and the processing thread stops at its next check. That completion runs in the
+ *   timer wheel's thread, so dependent actions of the future that aren't quick should use
+ *   its {@code *Async} methods.</li>
+ *   <li>Requests that fail or time out get a no-bid response with a {@link NoBidReason}.</li>
+ * </ul>
+ *
+ * <p>This class is threadsafe.
+ */
+public final class Pipeline implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(Pipeline.class);
+
+  private final ImmutableList<NamedStage> stages;
+  @Nullable private final Parser parser;
+  private final Timer parseTimer;
+  private final Timer totalTimer;
+  private final Counter noBid;
+  private final Counter deadlineExceeded;
+  private final Counter errors;
+  private final ExecutorService executor;
+  private final boolean ownsExecutor;
+  private final TimerWheel timerWheel;
+  private final boolean ownsTimerWheel;
+  private final long defaultTmax;
+  private final NoBidReason timeoutReason;
+  @Nullable private final ResponseWorkspace.Pool workspaces;
+  @Nullable private final StageListener stageListener;
+
+  private Pipeline(Builder builder) {
+    MetricRegistry metricRegistry = builder.metricRegistry;
+    ImmutableList.Builder<NamedStage> stages = ImmutableList.builder();
+    for (int i = 0; i < builder.stageNames.size(); ++i) {
+      String name = builder.stageNames.get(i);
+      stages.add(new NamedStage(name, builder.stages.get(i),
+          metricRegistry.timer(MetricRegistry.name(Pipeline.class, "stage", name))));
+    }
+    this.stages = stages.build();
+    this.parser = builder.parser;
+    this.parseTimer = metricRegistry.timer(MetricRegistry.name(Pipeline.class, "parse"));
+    this.totalTimer = metricRegistry.timer(MetricRegistry.name(Pipeline.class, "total"));
+    this.noBid = metricRegistry.counter(MetricRegistry.name(Pipeline.class, "no-bid"));
+    this.deadlineExceeded = metricRegistry.counter(
+        MetricRegistry.name(Pipeline.class, "deadline-exceeded"));
+    this.errors = metricRegistry.counter(MetricRegistry.name(Pipeline.class, "errors"));
+    this.ownsExecutor = builder.executor == null;
+    this.executor = ownsExecutor ? perRequestExecutor() : builder.executor;
+    this.ownsTimerWheel = builder.timerWheel == null;
+    this.timerWheel = ownsTimerWheel ? new TimerWheel() : builder.timerWheel;
+    this.defaultTmax = builder.defaultTmax;
+    this.timeoutReason = builder.timeoutReason;
+    this.workspaces = builder.workspaces;
+    this.stageListener = builder.stageListener;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Processes a request asynchronously.
+   *
+   * @return Future for the response, which is never completed exceptionally: failures
+   *     and timeouts produce no-bid responses
+   */
+  public CompletableFuture<BidResponse> submit(BidRequest request) {
+    checkNotNull(request);
+    return submit(System.nanoTime(), () -> request);
+  }
+
+  /**
+   * Parses and processes a request asynchronously. Requests that fail to parse
+   * get a no-bid response with {@link NoBidReason#INVALID_REQUEST}.
+   *
+   * @throws IllegalStateException if the pipeline doesn't have a {@link Parser}
+   */
+  public CompletableFuture<BidResponse> submit(byte[] payload) {
+    checkNotNull(payload);
+    if (parser == null) {
+      throw new IllegalStateException("Pipeline has no parser");
+    }
+    return submit(System.nanoTime(), () -> {
+      long start = System.nanoTime();
+      try {
+        return parser.parse(payload);
+      } finally {
+        parseTimer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+    });
+  }
+
+  private CompletableFuture<BidResponse> submit(long startNanos, RequestSource source) {
+    CompletableFuture<BidResponse> future = new CompletableFuture<>();
+    executor.execute(() -> run(future, startNanos, source));
+    return future;
+  }
+
+  private void run(CompletableFuture<BidResponse> future, long startNanos, RequestSource source) {
+    BidRequest request;
+    try {
+      request = source.get();
+    } catch (IOException | RuntimeException e) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("Request rejected, parsing failed", e);
+      }
+      errors.inc();
+      future.complete(noBidResponse("", NoBidReason.INVALID_REQUEST));
+      return;
+    } catch (Error e) {
+      errors.inc();
+      future.complete(noBidResponse("", NoBidReason.TECHNICAL_ERROR));
+      throw e;
+    }
+
+    Deadline deadline = null;
+    try {
+      // The no-bid is completed in the timer wheel's thread: going through the executor would
+      // queue it behind the work that caused the timeout, or lose it if the executor is shut
+      // down. Creating the deadline fails if the wheel is closed.
+      deadline = timerWheel.forRequest(request, startNanos, defaultTmax,
+          () -> future.complete(noBidResponse(request.getId(), timeoutReason)));
+      future.complete(process(request, deadline));
+    } catch (RuntimeException | Error e) {
+      // Anything process() doesn't handle, like an Error from a stage: the future must
+      // still be completed, since disarming the deadline also drops its timeout no-bid.
+      logger.warn("Request {} failed: {}", request.getId(), e.toString());
+      errors.inc();
+      future.complete(noBidResponse(request.getId(), NoBidReason.TECHNICAL_ERROR));
+      if (e instanceof Error) {
+        throw e;
+      }
+    } finally {
+      if (deadline != null) {
+        deadline.disarm();
+      }
+    }
+  }
+
+  /**
+   * Processes a request synchronously, in the calling thread. The deadline is only enforced
+   * by checks between stages, and by the stages themselves.
+   *
+   * @return The response; a no-bid response if processing failed, or the deadline expired
+   */
+  public BidResponse process(BidRequest request, Deadline deadline) {
+    ResponseWorkspace workspace = workspaces == null ? null : workspaces.acquire(request);
+    long start = System.nanoTime();
+    try {
+      PipelineContext context = new PipelineContext(request, deadline, workspace);
+      for (NamedStage stage : stages) {
+        deadline.check();
+        long stageStart = System.nanoTime();
+        try {
+          stage.stage.process(context);
+        } finally {
+          long stageNanos = System.nanoTime() - stageStart;
+          stage.timer.update(stageNanos, TimeUnit.NANOSECONDS);
+          if (stageListener != null) {
+            stageListener.stageCompleted(stage.name, stageNanos);
+          }
+        }
+      }
+      deadline.check();
+      return context.response().build();
+    } catch (NoBidException e) {
+      noBid.inc();
+      return noBidResponse(request.getId(), e.reason());
+    } catch (DeadlineExceededException e) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("Request {}: {}", request.getId(), e.getMessage());
+      }
+      deadlineExceeded.inc();
+      return noBidResponse(request.getId(), timeoutReason);
+    } catch (Exception e) {
+      logger.warn("Request {} failed: {}", request.getId(), e.toString());
+      errors.inc();
+      return noBidResponse(request.getId(), NoBidReason.TECHNICAL_ERROR);
+    } finally {
+      totalTimer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      if (workspace != null) {
+        workspace.close();
+      }
+    }
+  }
+
+  /**
+   * Creates a no-bid response.
+   *
+   * @param reason Value for {@code nbr}, or {@code null} to not set it
+   */
+  public static BidResponse noBidResponse(String requestId, @Nullable NoBidReason reason) {
+    BidResponse.Builder response = BidResponse.newBuilder().setId(requestId);
+    if (reason != null) {
+      response.setNbr(reason);
+    }
+    return response.build();
+  }
+
+  /**
+   * Shuts down the pipeline's threads. Requests in progress are completed, but stop
+   * at their next deadline check. An executor or timer wheel provided to the {@link Builder}
+   * is not shut down.
+   */
+  @Override public void close() {
+    if (ownsExecutor) {
+      executor.shutdown();
+    }
+    if (ownsTimerWheel) {
+      timerWheel.close();
+    }
+  }
+
+  /**
+   * Creates an executor that runs each task in a new virtual thread if supported by the JVM,
+   * otherwise a cached thread pool with daemon threads.
+   */
+  static ExecutorService perRequestExecutor() {
+    try {
+      return (ExecutorService) Executors.class
+          .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+          .setNameFormat("openrtb-pipeline-%d").setDaemon(true).build());
+    }
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("stages", stages)
+        .add("defaultTmax", defaultTmax)
+        .toString();
+  }
+
+  /**
+   * Parses serialized requests, for {@link Pipeline#submit(byte[])}.
+   */
+  @FunctionalInterface
+  public interface Parser {
+    BidRequest parse(byte[] payload) throws IOException;
+  }
+
+  /**
+   * Observes the processing time of each stage, e.g. to record latency distributions with
+   * more precision than the metrics timers. Called in the processing thread, so it must be
+   * threadsafe and fast.
+   */
+  @FunctionalInterface
+  public interface StageListener {
+    /**
+     * Called after a stage completes, normally or not.
+     */
+    void stageCompleted(String stage, long nanos);
+  }
+
+  @FunctionalInterface
+  private interface RequestSource {
+    BidRequest get() throws IOException;
+  }
+
+  private static final class NamedStage {
+    final String name;
+    final Stage stage;
+    final Timer timer;
+
+    NamedStage(String name, Stage stage, Timer timer) {
+      this.name = name;
+      this.stage = stage;
+      this.timer = timer;
+    }
+
+    @Override public String toString() {
+      return name;
+    }
+  }
+
+  /**
+   * Builder for {@link Pipeline}.
+   */
+  public static final class Builder {
+    private final List<String> stageNames = new ArrayList<>();
+    private final List<Stage> stages = new ArrayList<>();
+    private final Set<String> uniqueNames = new HashSet<>();
+    private MetricRegistry metricRegistry = new MetricRegistry();
+    private Parser parser;
+    private ExecutorService executor;
+    private long defaultTmax = 100;
+    private NoBidReason timeoutReason = NoBidReason.TECHNICAL_ERROR;
+    private ResponseWorkspace.Pool workspaces;
+    private TimerWheel timerWheel;
+    private StageListener stageListener;
+
+    private Builder() {
+    }
+
+    /**
+     * Adds a stage, which runs after all stages previously added.
+     *
+     * @param name Stage name, for metrics and logging; must be unique
+     */
+    public Builder stage(String name, Stage stage) {
+      checkArgument(uniqueNames.add(checkNotNull(name)), "Duplicate stage: %s", name);
+      stageNames.add(name);
+      stages.add(checkNotNull(stage));
+      return this;
+    }
+
+    public Builder metricRegistry(MetricRegistry metricRegistry) {
+      this.metricRegistry = checkNotNull(metricRegistry);
+      return this;
+    }
+
+    /**
+     * Sets the parser for serialized requests; needed for {@link Pipeline#submit(byte[])}.
+     */
+    public Builder parser(Parser parser) {
+      this.parser = checkNotNull(parser);
+      return this;
+    }
+
+    /**
+     * Sets the executor that runs requests. Each request runs in a single task, for its
+     * whole duration, so this should be a thread-per-task executor (which is a good fit for
+     * virtual threads) or a pool with enough threads for the number of concurrent requests.
+     */
+    public Builder executor(ExecutorService executor) {
+      this.executor = checkNotNull(executor);
+      return this;
+    }
+
+    /**
+     * Sets the deadline in milliseconds for requests without {@code tmax}. Default is 100.
+     */
+    public Builder defaultTmax(long defaultTmax) {
+      checkArgument(defaultTmax > 0, "defaultTmax: %s", defaultTmax);
+      this.defaultTmax = defaultTmax;
+      return this;
+    }
+
+    /**
+     * Sets the {@code nbr} for responses to requests that exceed their deadline.
+     * Default is {@link NoBidReason#TECHNICAL_ERROR}.
+     */
+    public Builder timeoutReason(NoBidReason timeoutReason) {
+      this.timeoutReason = checkNotNull(timeoutReason);
+      return this;
+    }
+
+    /**
+     * Sets a pool of workspaces, so each request reuses a response builder and snippet context.
+     */
+    public Builder workspaces(ResponseWorkspace.Pool workspaces) {
+      this.workspaces = checkNotNull(workspaces);
+      return this;
+    }
+
+    /**
+     * Sets the timer wheel that expires request deadlines, which can be shared by several
+     * pipelines. By default, each pipeline has its own.
+     */
+    public Builder timerWheel(TimerWheel timerWheel) {
+      this.timerWheel = checkNotNull(timerWheel);
+      return this;
+    }
+
+    public Builder stageListener(StageListener stageListener) {
+      this.stageListener = checkNotNull(stageListener);
+      return this;
+    }
+
+    public Pipeline build() {
+      return new Pipeline(this);
+    }
+  }
+}
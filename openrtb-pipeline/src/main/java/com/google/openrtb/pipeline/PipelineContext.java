@@ -0,0 +1,120 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.pipeline;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.snippet.ResponseWorkspace;
+import com.google.openrtb.snippet.SnippetProcessorContext;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * State of a request being processed by a {@link Pipeline}: the request (which stages may
+ * replace, e.g. to remove filtered impressions), the response under construction, the request's
+ * {@link Deadline}, and attributes that stages use to pass results to later stages.
+ *
+ * <p>This class is NOT threadsafe; it's only used by the thread that processes the request.
+ */
+public final class PipelineContext {
+  private BidRequest request;
+  private final BidResponse.Builder response;
+  private final Deadline deadline;
+  @Nullable private final ResponseWorkspace workspace;
+  private Map<Key<?>, Object> attributes;
+
+  PipelineContext(BidRequest request, Deadline deadline, @Nullable ResponseWorkspace workspace) {
+    this.request = request;
+    this.deadline = deadline;
+    this.workspace = workspace;
+    this.response = workspace == null ? BidResponse.newBuilder() : workspace.response();
+    response.setId(request.getId());
+  }
+
+  public BidRequest request() {
+    return request;
+  }
+
+  public void setRequest(BidRequest request) {
+    this.request = checkNotNull(request);
+  }
+
+  /**
+   * The response under construction, initially with only the {@code id} set.
+   */
+  public BidResponse.Builder response() {
+    return response;
+  }
+
+  public Deadline deadline() {
+    return deadline;
+  }
+
+  /**
+   * A snippet processing context for the current request and response. Reuses the context
+   * of the pipeline's {@link ResponseWorkspace}, if any, when the request wasn't replaced.
+   */
+  public SnippetProcessorContext snippetContext() {
+    return workspace != null && workspace.request() == request
+        ? workspace.snippetContext()
+        : new SnippetProcessorContext(request, response);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Nullable public <T> T get(Key<T> key) {
+    return attributes == null ? null : (T) attributes.get(key);
+  }
+
+  public <T> void put(Key<T> key, T value) {
+    if (attributes == null) {
+      attributes = new HashMap<>();
+    }
+    attributes.put(key, checkNotNull(value));
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this).omitNullValues()
+        .add("request", request.getId())
+        .add("deadline", deadline)
+        .add("attributes", attributes)
+        .toString();
+  }
+
+  /**
+   * Typed key for attributes of a {@link PipelineContext}. Keys are compared by identity,
+   * so they're usually constants.
+   */
+  public static final class Key<T> {
+    private final String name;
+
+    private Key(String name) {
+      this.name = checkNotNull(name);
+    }
+
+    public static <T> Key<T> of(String name) {
+      return new Key<>(name);
+    }
+
+    @Override public String toString() {
+      return name;
+    }
+  }
+}
@@ -0,0 +1,428 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.pipeline;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidResponse;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import javax.annotation.Nullable;
+
+/**
+ * Replays logged requests (e.g. from {@code OpenRtbLogReader}) against a {@link Pipeline},
+ * or any other {@link Target} such as a client for a local HTTP bidder, at a target rate.
+ *
+ * <p>Requests are sent on a fixed schedule (an open loop), independent of how fast responses
+ * come back, and latency is measured from each request's scheduled time. So if the target
+ * stalls, the requests that should have been sent meanwhile still count the stall in their
+ * latency, unlike a closed loop like {@link LoadDriver} where a stall also delays the following
+ * requests and hides their wait (coordinated omission). The service time, measured from the
+ * actual send, is reported separately.
+ *
+ * <p>Before sending, the volatile fields of each request are rewritten: {@code id} and
+ * {@code source.tid} get unique values, {@code tmax} is optionally replaced, and a custom
+ * {@link RequestRewriter} can update other fields, like timestamps in extensions.
+ *
+ * <pre>
+ * ReplayDriver.StageLatencies stages = new ReplayDriver.StageLatencies();
+ * Pipeline pipeline = Pipeline.builder().stage(...).stageListener(stages).build();
+ * ReplayDriver driver = ReplayDriver.builder(pipeline::submit).stageLatencies(stages).build();
+ * ReplayDriver.Result result = driver.run(reader.requestStream(false).iterator(), 5000);
+ * System.out.println(result.report(TimeUnit.MILLISECONDS));
+ * </pre>
+ *
+ * <p>This class is threadsafe, but only one replay should run at a time.
+ */
+public final class ReplayDriver {
+  private final Target target;
+  private final String idPrefix;
+  private final int tmax;
+  @Nullable private final RequestRewriter rewriter;
+  private final long maxOutstanding;
+  @Nullable private final StageLatencies stageLatencies;
+
+  private ReplayDriver(Builder builder) {
+    this.target = builder.target;
+    this.idPrefix = builder.idPrefix;
+    this.tmax = builder.tmax;
+    this.rewriter = builder.rewriter;
+    this.maxOutstanding = builder.maxOutstanding;
+    this.stageLatencies = builder.stageLatencies;
+  }
+
+  public static Builder builder(Target target) {
+    return new Builder(target);
+  }
+
+  /**
+   * Sends all requests at a fixed rate, and waits for all responses.
+   *
+   * @param requests Logged requests; only used from the calling thread
+   * @param qps Target requests per second
+   */
+  public Result run(Iterator<BidRequest> requests, double qps) throws InterruptedException {
+    checkArgument(qps > 0, "qps: %s", qps);
+    if (stageLatencies != null) {
+      stageLatencies.reset();
+    }
+    LatencyHistogram latency = new LatencyHistogram();
+    LatencyHistogram serviceTime = new LatencyHistogram();
+    LongAdder bids = new LongAdder();
+    LongAdder noBids = new LongAdder();
+    LongAdder failures = new LongAdder();
+    AtomicLong outstanding = new AtomicLong();
+    long dropped = 0;
+    double intervalNanos = 1e9 / qps;
+    long start = System.nanoTime();
+    long sequence = 0;
+
+    for (; requests.hasNext(); ++sequence) {
+      BidRequest request = rewrite(requests.next(), sequence);
+      long intended = start + (long) (sequence * intervalNanos);
+      for (long now = System.nanoTime(); now < intended; now = System.nanoTime()) {
+        LockSupport.parkNanos(intended - now);
+        if (Thread.interrupted()) {
+          throw new InterruptedException();
+        }
+      }
+      if (outstanding.get() >= maxOutstanding) {
+        ++dropped;
+        continue;
+      }
+
+      outstanding.incrementAndGet();
+      long sent = System.nanoTime();
+      CompletionStage<BidResponse> response;
+      try {
+        response = target.submit(request);
+      } catch (RuntimeException e) {
+        failures.increment();
+        complete(outstanding);
+        continue;
+      }
+      response.whenComplete((resp, error) -> {
+        long end = System.nanoTime();
+        latency.record(end - intended);
+        serviceTime.record(end - sent);
+        if (error != null) {
+          failures.increment();
+        } else if (LoadDriver.hasBids(resp)) {
+          bids.increment();
+        } else {
+          noBids.increment();
+        }
+        complete(outstanding);
+      });
+    }
+
+    synchronized (outstanding) {
+      while (outstanding.get() != 0) {
+        outstanding.wait();
+      }
+    }
+    return new Result(sequence, dropped, bids.sum(), noBids.sum(), failures.sum(),
+        System.nanoTime() - start, latency, serviceTime,
+        stageLatencies == null ? ImmutableSortedMap.of() : stageLatencies.snapshot());
+  }
+
+  private static void complete(AtomicLong outstanding) {
+    if (outstanding.decrementAndGet() == 0) {
+      synchronized (outstanding) {
+        outstanding.notifyAll();
+      }
+    }
+  }
+
+  private BidRequest rewrite(BidRequest logged, long sequence) {
+    String id = idPrefix + sequence;
+    BidRequest.Builder request = logged.toBuilder().setId(id);
+    if (logged.getSource().hasTid()) {
+      request.getSourceBuilder().setTid(id);
+    }
+    if (tmax != 0) {
+      request.setTmax(tmax);
+    }
+    return rewriter == null ? request.build() : rewriter.rewrite(request, sequence).build();
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("target", target)
+        .add("maxOutstanding", maxOutstanding)
+        .toString();
+  }
+
+  /**
+   * Destination of replayed requests.
+   */
+  @FunctionalInterface
+  public interface Target {
+    /**
+     * Sends a request. This is called from the replay's scheduling thread, so it should
+     * not block.
+     */
+    CompletionStage<BidResponse> submit(BidRequest request);
+  }
+
+  /**
+   * Updates replayed requests, after the driver sets {@code id}, {@code source.tid}
+   * and {@code tmax}.
+   */
+  @FunctionalInterface
+  public interface RequestRewriter {
+    /**
+     * @param request Request to update
+     * @param sequence Position of the request in the replay, from zero
+     */
+    BidRequest.Builder rewrite(BidRequest.Builder request, long sequence);
+  }
+
+  /**
+   * Records the latency distribution of each stage of a {@link Pipeline}: set it in the
+   * pipeline's {@link Pipeline.Builder#stageListener} and the driver's
+   * {@link Builder#stageLatencies}.
+   *
+   * <p>This class is threadsafe.
+   */
+  public static final class StageLatencies implements Pipeline.StageListener {
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    @Override public void stageCompleted(String stage, long nanos) {
+      histograms.computeIfAbsent(stage, name -> new LatencyHistogram()).record(nanos);
+    }
+
+    public ImmutableSortedMap<String, LatencyHistogram> snapshot() {
+      return ImmutableSortedMap.copyOf(histograms);
+    }
+
+    public void reset() {
+      histograms.clear();
+    }
+
+    @Override public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("stages", histograms.keySet())
+          .toString();
+    }
+  }
+
+  /**
+   * Outcome of {@link ReplayDriver#run}.
+   */
+  public static final class Result {
+    private final long requests;
+    private final long dropped;
+    private final long bids;
+    private final long noBids;
+    private final long failures;
+    private final long elapsedNanos;
+    private final LatencyHistogram latency;
+    private final LatencyHistogram serviceTime;
+    private final ImmutableSortedMap<String, LatencyHistogram> stages;
+
+    Result(long requests, long dropped, long bids, long noBids, long failures,
+        long elapsedNanos, LatencyHistogram latency, LatencyHistogram serviceTime,
+        ImmutableSortedMap<String, LatencyHistogram> stages) {
+      this.requests = requests;
+      this.dropped = dropped;
+      this.bids = bids;
+      this.noBids = noBids;
+      this.failures = failures;
+      this.elapsedNanos = elapsedNanos;
+      this.latency = latency;
+      this.serviceTime = serviceTime;
+      this.stages = stages;
+    }
+
+    /**
+     * Number of requests scheduled, including dropped requests.
+     */
+    public long requests() {
+      return requests;
+    }
+
+    /**
+     * Number of requests not sent, because too many requests were outstanding.
+     */
+    public long dropped() {
+      return dropped;
+    }
+
+    /**
+     * Number of responses with at least one bid.
+     */
+    public long bids() {
+      return bids;
+    }
+
+    /**
+     * Number of responses without bids.
+     */
+    public long noBids() {
+      return noBids;
+    }
+
+    /**
+     * Number of requests that failed to send or completed exceptionally.
+     */
+    public long failures() {
+      return failures;
+    }
+
+    public long elapsed(TimeUnit unit) {
+      return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Completed requests per second.
+     */
+    public double throughput() {
+      return rate(bids + noBids + failures);
+    }
+
+    /**
+     * Latency in nanoseconds, from the time each request was scheduled to its completion.
+     */
+    public LatencyHistogram latency() {
+      return latency;
+    }
+
+    /**
+     * Latency in nanoseconds, from the time each request was actually sent to its completion.
+     */
+    public LatencyHistogram serviceTime() {
+      return serviceTime;
+    }
+
+    /**
+     * Processing time of each pipeline stage in nanoseconds, by stage name. Empty if the
+     * driver has no {@link StageLatencies}.
+     */
+    public ImmutableSortedMap<String, LatencyHistogram> stages() {
+      return stages;
+    }
+
+    /**
+     * Executions per second of a stage.
+     */
+    public double stageThroughput(String stage) {
+      LatencyHistogram histogram = stages.get(stage);
+      return histogram == null ? 0 : rate(histogram.count());
+    }
+
+    /**
+     * Formats the results, with a line for each latency histogram.
+     */
+    public String report(TimeUnit unit) {
+      StringBuilder report = new StringBuilder(toString()).append('\n');
+      report.append("latency ").append(latency.summary(unit)).append('\n');
+      report.append("service ").append(serviceTime.summary(unit)).append('\n');
+      for (Map.Entry<String, LatencyHistogram> stage : stages.entrySet()) {
+        report.append("stage.").append(stage.getKey())
+            .append(" qps=").append(Math.round(stageThroughput(stage.getKey())))
+            .append(' ').append(stage.getValue().summary(unit)).append('\n');
+      }
+      return report.toString();
+    }
+
+    private double rate(long count) {
+      return elapsedNanos == 0 ? 0 : count * 1e9 / elapsedNanos;
+    }
+
+    @Override public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("requests", requests)
+          .add("dropped", dropped)
+          .add("bids", bids)
+          .add("noBids", noBids)
+          .add("failures", failures)
+          .add("elapsedMs", elapsed(TimeUnit.MILLISECONDS))
+          .add("qps", Math.round(throughput()))
+          .toString();
+    }
+  }
+
+  /**
+   * Builder for {@link ReplayDriver}.
+   */
+  public static final class Builder {
+    private final Target target;
+    private String idPrefix = "replay-";
+    private int tmax;
+    private RequestRewriter rewriter;
+    private long maxOutstanding = 100_000;
+    private StageLatencies stageLatencies;
+
+    private Builder(Target target) {
+      this.target = checkNotNull(target);
+    }
+
+    /**
+     * Sets the prefix of the request IDs, which are followed by the request's sequence number.
+     * Default is {@code replay-}.
+     */
+    public Builder idPrefix(String idPrefix) {
+      this.idPrefix = checkNotNull(idPrefix);
+      return this;
+    }
+
+    /**
+     * Sets the {@code tmax} of all requests; {@code 0} (default) keeps the logged values.
+     */
+    public Builder tmax(int tmax) {
+      checkArgument(tmax >= 0, "tmax: %s", tmax);
+      this.tmax = tmax;
+      return this;
+    }
+
+    public Builder rewriter(RequestRewriter rewriter) {
+      this.rewriter = checkNotNull(rewriter);
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of requests waiting for responses. When reached, scheduled
+     * requests are dropped (and counted) instead of sent; they're not delayed, which would
+     * close the loop. Default is 100,000.
+     */
+    public Builder maxOutstanding(long maxOutstanding) {
+      checkArgument(maxOutstanding > 0, "maxOutstanding: %s", maxOutstanding);
+      this.maxOutstanding = maxOutstanding;
+      return this;
+    }
+
+    public Builder stageLatencies(StageLatencies stageLatencies) {
+      this.stageLatencies = checkNotNull(stageLatencies);
+      return this;
+    }
+
+    public ReplayDriver build() {
+      return new ReplayDriver(this);
+    }
+  }
+}
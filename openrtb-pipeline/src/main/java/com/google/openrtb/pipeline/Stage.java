@@ -0,0 +1,30 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.pipeline;
+
+/**
+ * A step of request processing in a {@link Pipeline}. Stages read and update the request and
+ * response in the {@link PipelineContext}, and can stop processing by throwing
+ * {@link NoBidException}. Long-running stages should check the context's {@link Deadline}.
+ *
+ * <p>Implementations must be threadsafe, since the same stage processes many requests
+ * concurrently.
+ */
+@FunctionalInterface
+public interface Stage {
+  void process(PipelineContext context) throws Exception;
+}
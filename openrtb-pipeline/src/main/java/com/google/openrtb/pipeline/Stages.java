@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.pipeline;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.snippet.OpenRtbSnippetProcessor;
+import com.google.openrtb.util.OpenRtbUtils;
+import com.google.openrtb.util.OpenRtbValidator;
+import java.util.function.Predicate;
+
+/**
+ * Standard {@link Stage}s, built from the library's utilities.
+ */
+public final class Stages {
+  private Stages() {
+  }
+
+  /**
+   * Removes impressions that don't pass a filter, see
+   * {@link OpenRtbUtils#impsWith(BidRequest, Predicate)}. If no impressions are left,
+   * processing stops with a no-bid.
+   */
+  public static Stage filterImps(Predicate<Imp> impFilter) {
+    checkNotNull(impFilter);
+    return context -> {
+      BidRequest request = context.request();
+      Iterable<Imp> imps = OpenRtbUtils.impsWith(request, impFilter);
+      if (imps != request.getImpList()) {
+        BidRequest.Builder filtered = request.toBuilder().clearImp().addAllImp(imps);
+        if (filtered.getImpCount() == 0) {
+          throw new NoBidException(null);
+        }
+        context.setRequest(filtered.build());
+      }
+    };
+  }
+
+  /**
+   * Sends the request to downstream bidders, and adds their seats to the response. The stage
+   * waits for the merged response, which is cheap for the virtual threads that run requests
+   * by default.
+   */
+  public static Stage fanOut(BidderFanout fanout) {
+    checkNotNull(fanout);
+    return context -> {
+      BidResponse merged = fanout.fanOut(context.request(), context.deadline().startNanos()).get();
+      context.response().addAllSeatbid(merged.getSeatbidList());
+      if (merged.hasCur()) {
+        context.response().setCur(merged.getCur());
+      }
+    };
+  }
+
+  /**
+   * Expands macros in all bids of the response.
+   */
+  public static Stage processSnippets(OpenRtbSnippetProcessor processor) {
+    checkNotNull(processor);
+    return context -> processor.process(context.snippetContext());
+  }
+
+  /**
+   * Removes invalid bids from the response.
+   */
+  public static Stage validate(OpenRtbValidator validator) {
+    checkNotNull(validator);
+    return context -> validator.validate(context.request(), context.response());
+  }
+}
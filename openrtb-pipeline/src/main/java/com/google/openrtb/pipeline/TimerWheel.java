@@ -0,0 +1,310 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.pipeline;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.openrtb.OpenRtb.BidRequestOrBuilder;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hierarchical timer wheel for {@link Deadline}s, tuned for millisecond-scale timeouts like
+ * {@code BidRequest.tmax}.
+ *
+ * <p>The wheel has four levels of buckets. The first level has one bucket per tick for the next
+ * 256 ticks (256ms with the default 1ms tick), so typical deadlines are placed directly in the
+ * bucket of their expiration tick; longer timeouts are placed in coarser levels (64 buckets each)
+ * and moved down as time passes. Each {@link Deadline} is its own bucket list node, so arming a
+ * deadline doesn't allocate anything else. Arming and disarming are O(1) and lock-free for the
+ * calling threads: deadlines are pushed to a stack that the wheel's single thread drains on each
+ * tick, which is the only thread that touches the buckets.
+ *
+ * <p>Deadlines expire at tick granularity: no earlier than their expiration time, and usually
+ * less than one tick later. Expiration actions run in the wheel's thread, so they must be quick.
+ *
+ * <p>This class is threadsafe.
+ */
+public final class TimerWheel implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(TimerWheel.class);
+  private static final int[] LEVEL_BITS = { 8, 6, 6, 6 };
+  private static final int LEVELS = LEVEL_BITS.length;
+
+  private final long tickNanos;
+  private final long originNanos;
+  private final Bucket[][] levels = new Bucket[LEVELS][];
+  private final int[] shifts = new int[LEVELS];
+  private final long[] spans = new long[LEVELS];
+  private final AtomicReference<Deadline> armed = new AtomicReference<>();
+  private final AtomicReference<Deadline> disarmed = new AtomicReference<>();
+  private final Thread thread;
+  private volatile boolean closed;
+  private volatile int pending;
+  private long currentTick;
+
+  /**
+   * Creates a wheel with a 1ms tick.
+   */
+  public TimerWheel() {
+    this(1, TimeUnit.MILLISECONDS, new ThreadFactoryBuilder()
+        .setNameFormat("openrtb-timer-wheel").setDaemon(true).build());
+  }
+
+  /**
+   * Creates a wheel.
+   *
+   * @param tick Duration of each tick, which is the precision of expiration
+   * @param threadFactory Creates the wheel's thread
+   */
+  public TimerWheel(long tick, TimeUnit unit, ThreadFactory threadFactory) {
+    checkArgument(tick > 0, "tick: %s", tick);
+    this.tickNanos = unit.toNanos(tick);
+    int shift = 0;
+    for (int level = 0; level < LEVELS; ++level) {
+      levels[level] = new Bucket[1 << LEVEL_BITS[level]];
+      for (int i = 0; i < levels[level].length; ++i) {
+        levels[level][i] = new Bucket();
+      }
+      shifts[level] = shift;
+      shift += LEVEL_BITS[level];
+      spans[level] = 1L << shift;
+    }
+    this.originNanos = System.nanoTime();
+    this.thread = threadFactory.newThread(this::run);
+    thread.start();
+  }
+
+  /**
+   * Creates and arms a deadline.
+   *
+   * @param startNanos Start time, from {@link System#nanoTime()}
+   * @param onExpiry Runs in the wheel's thread when the deadline expires; not run if
+   *     the deadline is cancelled or disarmed first
+   */
+  public Deadline newDeadline(long startNanos, long timeout, TimeUnit unit,
+      @Nullable Runnable onExpiry) {
+    checkArgument(timeout >= 0, "Negative timeout: %s", timeout);
+    checkState(!closed, "Timer wheel is closed");
+    Deadline deadline = new Deadline(startNanos, unit.toNanos(timeout), this, onExpiry);
+    push(armed, deadline, true);
+    return deadline;
+  }
+
+  /**
+   * Creates and arms a deadline for a request, using its {@code tmax}.
+   *
+   * @param startNanos Arrival time of the request, from {@link System#nanoTime()}
+   * @param defaultTmax Timeout in milliseconds, for requests without {@code tmax}
+   */
+  public Deadline forRequest(BidRequestOrBuilder request, long startNanos, long defaultTmax,
+      @Nullable Runnable onExpiry) {
+    return newDeadline(startNanos, Deadline.tmax(request, defaultTmax), TimeUnit.MILLISECONDS,
+        onExpiry);
+  }
+
+  /**
+   * Number of deadlines in the wheel, as of the last tick.
+   */
+  public int pending() {
+    return pending;
+  }
+
+  void disarm(Deadline deadline) {
+    push(disarmed, deadline, false);
+  }
+
+  private static void push(AtomicReference<Deadline> stack, Deadline deadline, boolean arm) {
+    Deadline head;
+    do {
+      head = stack.get();
+      if (arm) {
+        deadline.nextArm = head;
+      } else {
+        deadline.nextDisarm = head;
+      }
+    } while (!stack.compareAndSet(head, deadline));
+  }
+
+  private void run() {
+    while (!closed) {
+      long nowTick = (System.nanoTime() - originNanos) / tickNanos;
+      drain();
+      while (currentTick < nowTick) {
+        advance(++currentTick);
+      }
+      long sleep = originNanos + (currentTick + 1) * tickNanos - System.nanoTime();
+      if (sleep > 0) {
+        LockSupport.parkNanos(this, sleep);
+      }
+    }
+  }
+
+  private void drain() {
+    for (Deadline deadline = armed.getAndSet(null); deadline != null; ) {
+      Deadline next = deadline.nextArm;
+      deadline.nextArm = null;
+      if (deadline.isPending()) {
+        long expiryTick = Math.max(0,
+            ceilDiv(deadline.expiryNanos() - originNanos, tickNanos));
+        deadline.expiryTick = expiryTick;
+        if (expiryTick <= currentTick) {
+          expire(deadline);
+        } else {
+          place(deadline);
+          ++pending;
+        }
+      }
+      deadline = next;
+    }
+
+    for (Deadline deadline = disarmed.getAndSet(null); deadline != null; ) {
+      Deadline next = deadline.nextDisarm;
+      deadline.nextDisarm = null;
+      if (deadline.bucket != null) {
+        deadline.bucket.remove(deadline);
+        --pending;
+      }
+      deadline = next;
+    }
+  }
+
+  private void advance(long tick) {
+    for (int level = LEVELS - 1; level > 0; --level) {
+      if ((tick & (spans[level - 1] - 1)) == 0) {
+        Bucket bucket = levels[level][slot(level, tick)];
+        for (Deadline deadline = bucket.clear(); deadline != null; ) {
+          Deadline next = deadline.next;
+          deadline.prev = deadline.next = null;
+          place(deadline);
+          deadline = next;
+        }
+      }
+    }
+
+    Bucket bucket = levels[0][slot(0, tick)];
+    for (Deadline deadline = bucket.clear(); deadline != null; ) {
+      Deadline next = deadline.next;
+      deadline.prev = deadline.next = null;
+      --pending;
+      expire(deadline);
+      deadline = next;
+    }
+  }
+
+  /**
+   * Places a deadline in the bucket of the finest level that covers its expiration tick.
+   * Deadlines beyond the coarsest level's range go to its farthest bucket, and are placed
+   * again when that bucket is reached.
+   */
+  private void place(Deadline deadline) {
+    long delta = deadline.expiryTick - currentTick;
+    for (int level = 0; level < LEVELS; ++level) {
+      if (delta < spans[level]) {
+        levels[level][slot(level, deadline.expiryTick)].add(deadline);
+        return;
+      }
+    }
+    levels[LEVELS - 1][slot(LEVELS - 1, currentTick + spans[LEVELS - 1] - 1)].add(deadline);
+  }
+
+  private int slot(int level, long tick) {
+    return (int) ((tick >>> shifts[level]) & (levels[level].length - 1));
+  }
+
+  private static void expire(Deadline deadline) {
+    if (deadline.expire() && deadline.onExpiry != null) {
+      try {
+        deadline.onExpiry.run();
+      } catch (RuntimeException e) {
+        logger.warn("Deadline expiration action failed", e);
+      }
+    }
+  }
+
+  private static long ceilDiv(long x, long y) {
+    return x <= 0 ? x / y : (x + y - 1) / y;
+  }
+
+  /**
+   * Stops the wheel's thread. Pending deadlines don't expire anymore, except by polling.
+   */
+  @Override public void close() {
+    closed = true;
+    LockSupport.unpark(thread);
+  }
+
+  @Override public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("tickNanos", tickNanos)
+        .add("pending", pending)
+        .toString();
+  }
+
+  /**
+   * Doubly-linked list of deadlines, through their {@code prev/next} fields.
+   */
+  static final class Bucket {
+    private Deadline head;
+
+    void add(Deadline deadline) {
+      checkNotNull(deadline);
+      deadline.bucket = this;
+      deadline.prev = null;
+      deadline.next = head;
+      if (head != null) {
+        head.prev = deadline;
+      }
+      head = deadline;
+    }
+
+    void remove(Deadline deadline) {
+      if (deadline.prev == null) {
+        head = deadline.next;
+      } else {
+        deadline.prev.next = deadline.next;
+      }
+      if (deadline.next != null) {
+        deadline.next.prev = deadline.prev;
+      }
+      deadline.prev = deadline.next = null;
+      deadline.bucket = null;
+    }
+
+    /**
+     * Removes all deadlines.
+     *
+     * @return The first deadline, still linked to the others by {@code next}
+     */
+    Deadline clear() {
+      Deadline first = head;
+      head = null;
+      for (Deadline deadline = first; deadline != null; deadline = deadline.next) {
+        deadline.bucket = null;
+      }
+      return first;
+    }
+  }
+}
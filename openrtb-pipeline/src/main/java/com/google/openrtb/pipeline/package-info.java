@@ -0,0 +1,23 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Request processing pipeline: runs the stages of a bidder (parsing, filtering, targeting,
+ * response assembly, snippet processing, validation) for each {@code BidRequest} in its own
+ * thread, with per-stage timing and enforcement of the request's {@code tmax}.
+ */
+@javax.annotation.ParametersAreNonnullByDefault
+package com.google.openrtb.pipeline;
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.pipeline;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid.Bid;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests for {@link BidderFanout}.
+ */
+public class BidderFanoutTest {
+  private static final BidRequest REQUEST = BidRequest.newBuilder()
+      .setId("req1")
+      .setTmax(300)
+      .addImp(Imp.newBuilder().setId("imp1"))
+      .build();
+
+  private final TimerWheel timerWheel = new TimerWheel();
+  private final MetricRegistry metricRegistry = new MetricRegistry();
+
+  @After
+  public void tearDown() {
+    timerWheel.close();
+  }
+
+  @Test
+  public void testMerge() throws Exception {
+    StubBidder bidder1 = new StubBidder(call -> 5, respond("seat1", "b1", 1.0));
+    StubBidder bidder2 = new StubBidder(call -> 10, respond("seat1", "b2", 2.0));
+    StubBidder bidder3 = new StubBidder(call -> 1, respond("seat2", "b3", 3.0));
+    BidderFanout fanout = BidderFanout.builder(timerWheel)
+        .metricRegistry(metricRegistry)
+        .bidder("bidder1", bidder1)
+        .bidder("bidder2", bidder2)
+        .bidder("bidder3", bidder3)
+        .build();
+
+    BidResponse response = fanout.fanOut(REQUEST, System.nanoTime()).get(5, TimeUnit.SECONDS);
+    assertThat(response.getId()).isEqualTo("req1");
+    assertThat(response.getSeatbidCount()).isEqualTo(2);
+    SeatBid seat1 = response.getSeatbid(0).getSeat().equals("seat1")
+        ? response.getSeatbid(0)
+        : response.getSeatbid(1);
+    assertThat(seat1.getBidCount()).isEqualTo(2);
+    assertThat(metricRegistry.counter(
+        "com.google.openrtb.pipeline.BidderFanout.bidder-timeouts").getCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testMergeIndependentBidders() throws Exception {
+    // Both bidders use the same bid ID and an unnamed seat, one of them with group=1
+    StubBidder bidder1 = new StubBidder(call -> 1, request -> respond("", "1", 1.0)
+        .apply(request).toBuilder()
+        .setSeatbid(0, respond("", "1", 1.0).apply(request).getSeatbid(0).toBuilder()
+            .setGroup(true))
+        .build());
+    StubBidder bidder2 = new StubBidder(call -> 5, respond("", "1", 2.0));
+    BidderFanout fanout = BidderFanout.builder(timerWheel)
+        .metricRegistry(metricRegistry)
+        .bidder("bidder1", bidder1)
+        .bidder("bidder2", bidder2)
+        .build();
+
+    BidResponse response = fanout.fanOut(REQUEST, System.nanoTime()).get(5, TimeUnit.SECONDS);
+    assertThat(response.getSeatbidCount()).isEqualTo(2);
+    for (SeatBid seatbid : response.getSeatbidList()) {
+      assertThat(seatbid.getBidCount()).isEqualTo(1);
+      assertThat(seatbid.getGroup()).isEqualTo(seatbid.getBid(0).getPrice() == 1.0);
+    }
+  }
+
+  @Test
+  public void testCutoff() throws Exception {
+    StubBidder fast = new StubBidder(call -> 1, respond("seat1", "b1", 1.0));
+    StubBidder slow = new StubBidder(call -> 2000, respond("seat2", "b2", 2.0));
+    StubBidder failing = new StubBidder(call -> -1, respond("seat3", "b3", 3.0));
+    BidderFanout fanout = BidderFanout.builder(timerWheel)
+        .metricRegistry(metricRegistry)
+        .safetyMargin(100)
+        .bidder("fast", fast)
+        .bidder("slow", slow)
+        .bidder("failing", failing)
+        .build();
+
+    long start = System.nanoTime();
+    BidResponse response = fanout.fanOut(REQUEST, start).get(5, TimeUnit.SECONDS);
+    assertThat(System.nanoTime() - start).isLessThan(TimeUnit.MILLISECONDS.toNanos(1000));
+    assertThat(response.getSeatbidCount()).isEqualTo(1);
+    assertThat(response.getSeatbid(0).getSeat()).isEqualTo("seat1");
+    // Only the slow bidder timed out, the failed one was done.
+    assertThat(metricRegistry.counter(
+        "com.google.openrtb.pipeline.BidderFanout.bidder-timeouts").getCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testHedge() throws Exception {
+    // The first call is slow, the hedged call is fast.
+    StubBidder bidder = new StubBidder(call -> call == 0 ? 2000 : 1, respond("seat1", "b1", 1.0));
+    BidderFanout fanout = BidderFanout.builder(timerWheel)
+        .metricRegistry(metricRegistry)
+        .hedgeDelay(20)
+        .bidder("bidder", bidder)
+        .build();
+
+    BidResponse response = fanout.fanOut(REQUEST, System.nanoTime()).get(5, TimeUnit.SECONDS);
+    assertThat(response.getSeatbid(0).getBid(0).getId()).isEqualTo("b1");
+    assertThat(bidder.calls()).isEqualTo(2);
+    assertThat(metricRegistry.counter("com.google.openrtb.pipeline.BidderFanout.hedges")
+        .getCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testFailures() throws Exception {
+    StubBidder failing = new StubBidder(call -> -1, respond("seat1", "b1", 1.0));
+    StubBidder good = new StubBidder(call -> 1, respond("seat2", "b2", 1.0));
+    BidderFanout fanout = BidderFanout.builder(timerWheel)
+        .metricRegistry(metricRegistry)
+        .hedgeDelay(100)
+        .bidder("failing", failing)
+        .bidder("good", good)
+        .bidder("throwing", (request, deadline) -> {
+          throw new IllegalStateException();
+        })
+        .build();
+
+    long start = System.nanoTime();
+    BidResponse response = fanout.fanOut(REQUEST, start).get(5, TimeUnit.SECONDS);
+    // Completed before the cut-off, since failed bidders are done.
+    assertThat(System.nanoTime() - start).isLessThan(TimeUnit.MILLISECONDS.toNanos(250));
+    assertThat(response.getSeatbidCount()).isEqualTo(1);
+    assertThat(metricRegistry.counter("com.google.openrtb.pipeline.BidderFanout.bidder-errors")
+        .getCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void testNoTime() throws Exception {
+    StubBidder bidder = new StubBidder(call -> 1, respond("seat1", "b1", 1.0));
+    BidderFanout fanout = BidderFanout.builder(timerWheel)
+        .metricRegistry(metricRegistry)
+        .bidder("bidder", bidder)
+        .build();
+    BidResponse response = fanout.fanOut(REQUEST.toBuilder().setTmax(5).build(), System.nanoTime())
+        .get(5, TimeUnit.SECONDS);
+    assertThat(response.getSeatbidCount()).isEqualTo(0);
+    assertThat(bidder.calls()).isEqualTo(0);
+    // The cut-off timer was disarmed, so the timeout isn't counted again when it would expire.
+    Thread.sleep(100);
+    assertThat(metricRegistry.counter(
+        "com.google.openrtb.pipeline.BidderFanout.bidder-timeouts").getCount()).isEqualTo(1);
+  }
+
+  static Function<BidRequest, BidResponse> respond(String seat, String bidId, double price) {
+    return request -> BidResponse.newBuilder()
+        .setId(request.getId())
+        .addSeatbid(SeatBid.newBuilder()
+            .setSeat(seat)
+            .addBid(Bid.newBuilder()
+                .setId(bidId)
+                .setImpid(request.getImp(0).getId())
+                .setPrice(price)))
+        .build();
+  }
+}
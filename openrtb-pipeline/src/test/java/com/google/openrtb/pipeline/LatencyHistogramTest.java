@@ -0,0 +1,81 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.pipeline;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * Tests for {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTest {
+  @Test
+  public void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertThat(histogram.valueAtPercentile(99)).isEqualTo(0);
+    for (long i = 1; i <= 10_000; ++i) {
+      histogram.record(i * 1000);
+    }
+    assertThat(histogram.count()).isEqualTo(10_000);
+    assertThat(histogram.min()).isEqualTo(1000);
+    assertThat(histogram.max()).isEqualTo(10_000_000);
+    assertThat(histogram.mean()).isWithin(1).of(5_000_500);
+    assertPrecision(histogram.valueAtPercentile(50), 5_000_000);
+    assertPrecision(histogram.valueAtPercentile(99), 9_900_000);
+    assertPrecision(histogram.valueAtPercentile(99.99), 9_999_000);
+    assertThat(histogram.valueAtPercentile(100)).isEqualTo(10_000_000);
+    assertPrecision(histogram.valueAtPercentile(0), 1000);
+    assertThat(histogram.summary(TimeUnit.MILLISECONDS)).contains("count=10000");
+  }
+
+  @Test
+  public void testSmallValues() {
+    LatencyHistogram histogram = new LatencyHistogram(1000, 3);
+    for (long i = 0; i < 1000; ++i) {
+      histogram.record(i);
+    }
+    // Values below the sub-bucket count are exact
+    assertThat(histogram.valueAtPercentile(50)).isEqualTo(499);
+    assertThat(histogram.valueAtPercentile(100)).isEqualTo(999);
+  }
+
+  @Test
+  public void testOutOfRange() {
+    LatencyHistogram histogram = new LatencyHistogram(1_000_000, 2);
+    histogram.record(-5);
+    histogram.record(5_000_000);
+    assertThat(histogram.min()).isEqualTo(0);
+    assertThat(histogram.max()).isEqualTo(5_000_000);
+    assertThat(histogram.valueAtPercentile(50)).isEqualTo(0);
+    assertThat(histogram.valueAtPercentile(100)).isAtLeast(1_000_000);
+
+    histogram.reset();
+    assertThat(histogram.count()).isEqualTo(0);
+    assertThat(histogram.max()).isEqualTo(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadDigits() {
+    new LatencyHistogram(1000, 6);
+  }
+
+  private static void assertPrecision(long actual, long expected) {
+    assertThat((double) actual).isWithin(expected / 1000.0).of(expected);
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.pipeline;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+/**
+ * Tests for {@link LoadDriver}.
+ */
+public class LoadDriverTest {
+  @Test
+  public void testRun() throws Exception {
+    AtomicInteger ids = new AtomicInteger();
+    try (Pipeline pipeline = Pipeline.builder()
+        .stage("bid", context -> {
+          if (Integer.parseInt(context.request().getId()) % 2 == 0) {
+            PipelineTest.BID.process(context);
+          }
+        })
+        .build()) {
+      LoadDriver.Result result = new LoadDriver(pipeline).run(
+          () -> PipelineTest.REQUEST.toBuilder().setId(String.valueOf(ids.getAndIncrement()))
+              .build(),
+          1000, 16);
+      assertThat(result.requests()).isEqualTo(1000);
+      assertThat(result.bids()).isEqualTo(500);
+      assertThat(result.noBids()).isEqualTo(500);
+      assertThat(result.failures()).isEqualTo(0);
+      assertThat(result.throughput()).isGreaterThan(0.0);
+      assertThat(result.toString()).contains("requests=1000");
+    }
+  }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.pipeline;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid.Bid;
+import com.google.openrtb.OpenRtb.NoBidReason;
+import com.google.openrtb.snippet.ResponseWorkspace;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * Tests for {@link Pipeline}.
+ */
+public class PipelineTest {
+  static final BidRequest REQUEST = BidRequest.newBuilder()
+      .setId("req1")
+      .setTmax(5000)
+      .addImp(Imp.newBuilder().setId("imp1"))
+      .build();
+  static final Stage BID = context -> context.response().addSeatbid(SeatBid.newBuilder()
+      .addBid(Bid.newBuilder()
+          .setId("bid1")
+          .setImpid(context.request().getImp(0).getId())
+          .setPrice(1.0)));
+
+  private final MetricRegistry metricRegistry = new MetricRegistry();
+
+  @Test
+  public void testStages() throws Exception {
+    PipelineContext.Key<String> key = PipelineContext.Key.of("key");
+    try (Pipeline pipeline = Pipeline.builder()
+        .metricRegistry(metricRegistry)
+        .stage("first", context -> context.put(key, "value"))
+        .stage("bid", BID)
+        .stage("check", context -> {
+          assertThat(context.get(key)).isEqualTo("value");
+          assertThat(context.deadline().isExpired()).isFalse();
+        })
+        .build()) {
+      BidResponse response = pipeline.submit(REQUEST).get();
+      assertThat(response.getId()).isEqualTo("req1");
+      assertThat(response.getSeatbid(0).getBid(0).getId()).isEqualTo("bid1");
+      assertThat(response.hasNbr()).isFalse();
+    }
+    assertThat(metricRegistry.timer("com.google.openrtb.pipeline.Pipeline.stage.bid").getCount())
+        .isEqualTo(1);
+    assertThat(metricRegistry.timer("com.google.openrtb.pipeline.Pipeline.total").getCount())
+        .isEqualTo(1);
+  }
+
+  @Test
+  public void testDeadline() throws Exception {
+    CountDownLatch stageStarted = new CountDownLatch(1);
+    CountDownLatch stageExited = new CountDownLatch(1);
+    try (Pipeline pipeline = Pipeline.builder()
+        .metricRegistry(metricRegistry)
+        .timeoutReason(NoBidReason.UNKNOWN_ERROR)
+        .stage("slow", context -> {
+          stageStarted.countDown();
+          try {
+            while (true) {
+              context.deadline().check();
+              Thread.sleep(1);
+            }
+          } finally {
+            stageExited.countDown();
+          }
+        })
+        .stage("bid", BID)
+        .build()) {
+      BidResponse response = pipeline.submit(REQUEST.toBuilder().setTmax(20).build())
+          .get(5, TimeUnit.SECONDS);
+      assertThat(stageStarted.getCount()).isEqualTo(0);
+      assertThat(response.getSeatbidCount()).isEqualTo(0);
+      assertThat(response.getNbr()).isEqualTo(NoBidReason.UNKNOWN_ERROR);
+      assertThat(stageExited.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+  }
+
+  @Test
+  public void testDeadlineSaturatedExecutor() throws Exception {
+    // The only thread is busy with the request until it's released, after its deadline.
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    CountDownLatch release = new CountDownLatch(1);
+    try (Pipeline pipeline = Pipeline.builder()
+        .metricRegistry(metricRegistry)
+        .executor(executor)
+        .stage("blocked", context -> {
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        })
+        .build()) {
+      BidResponse response = pipeline.submit(REQUEST.toBuilder().setTmax(20).build())
+          .get(5, TimeUnit.SECONDS);
+      assertThat(response.getNbr()).isEqualTo(NoBidReason.TECHNICAL_ERROR);
+    } finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testCloseWithQueuedRequest() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      Pipeline pipeline = Pipeline.builder()
+          .metricRegistry(metricRegistry)
+          .executor(executor)
+          .stage("blocked", context -> {
+            if (context.request().getId().equals("req1")) {
+              started.countDown();
+              release.await();
+            }
+          })
+          .stage("bid", BID)
+          .build();
+      CompletableFuture<BidResponse> running = pipeline.submit(REQUEST);
+      CompletableFuture<BidResponse> queued =
+          pipeline.submit(REQUEST.toBuilder().setId("req2").build());
+      // The queued request only runs after the pipeline's timer wheel is closed.
+      assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+      pipeline.close();
+      release.countDown();
+      assertThat(running.get(5, TimeUnit.SECONDS).getSeatbidCount()).isEqualTo(1);
+      BidResponse response = queued.get(5, TimeUnit.SECONDS);
+      assertThat(response.getId()).isEqualTo("req2");
+      assertThat(response.getNbr()).isEqualTo(NoBidReason.TECHNICAL_ERROR);
+    } finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testStageError() throws Exception {
+    try (Pipeline pipeline = Pipeline.builder()
+        .metricRegistry(metricRegistry)
+        .stage("error", context -> {
+          throw new AssertionError("Stage error");
+        })
+        .build()) {
+      BidResponse response = pipeline.submit(REQUEST).get(5, TimeUnit.SECONDS);
+      assertThat(response.getNbr()).isEqualTo(NoBidReason.TECHNICAL_ERROR);
+    }
+  }
+
+  @Test
+  public void testDeadlineBetweenStages() {
+    try (Pipeline pipeline = Pipeline.builder()
+        .metricRegistry(metricRegistry)
+        .stage("bid", BID)
+        .build()) {
+      Deadline deadline = Deadline.after(1, TimeUnit.HOURS);
+      deadline.cancel();
+      BidResponse response = pipeline.process(REQUEST, deadline);
+      assertThat(response.getSeatbidCount()).isEqualTo(0);
+      assertThat(response.getNbr()).isEqualTo(NoBidReason.TECHNICAL_ERROR);
+    }
+    assertThat(metricRegistry.counter(
+        "com.google.openrtb.pipeline.Pipeline.deadline-exceeded").getCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testFailures() throws Exception {
+    try (Pipeline pipeline = Pipeline.builder()
+        .metricRegistry(metricRegistry)
+        .stage("fail", context -> {
+          throw new IllegalStateException("boom");
+        })
+        .build()) {
+      assertThat(pipeline.submit(REQUEST).get().getNbr()).isEqualTo(NoBidReason.TECHNICAL_ERROR);
+    }
+    try (Pipeline pipeline = Pipeline.builder()
+        .metricRegistry(metricRegistry)
+        .stage("nobid", context -> {
+          throw new NoBidException(NoBidReason.UNSUPPORTED_DEVICE);
+        })
+        .build()) {
+      assertThat(pipeline.submit(REQUEST).get().getNbr())
+          .isEqualTo(NoBidReason.UNSUPPORTED_DEVICE);
+    }
+    assertThat(metricRegistry.counter("com.google.openrtb.pipeline.Pipeline.errors").getCount())
+        .isEqualTo(1);
+    assertThat(metricRegistry.counter("com.google.openrtb.pipeline.Pipeline.no-bid").getCount())
+        .isEqualTo(1);
+  }
+
+  @Test
+  public void testParse() throws Exception {
+    try (Pipeline pipeline = Pipeline.builder()
+        .parser(BidRequest::parseFrom)
+        .workspaces(new ResponseWorkspace.Pool(4, 64, 1024))
+        .stage("bid", BID)
+        .build()) {
+      BidResponse response = pipeline.submit(REQUEST.toByteArray()).get();
+      assertThat(response.getSeatbid(0).getBid(0).getImpid()).isEqualTo("imp1");
+      response = pipeline.submit(new byte[] { 1, 2, 3 }).get();
+      assertThat(response.getNbr()).isEqualTo(NoBidReason.INVALID_REQUEST);
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testNoParser() {
+    try (Pipeline pipeline = Pipeline.builder().build()) {
+      pipeline.submit(new byte[0]);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDuplicateStage() {
+    Pipeline.builder().stage("bid", BID).stage("bid", BID);
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.pipeline;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Source;
+import com.google.openrtb.OpenRtb.BidResponse;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ReplayDriver}.
+ */
+public class ReplayDriverTest {
+  @Test
+  public void testReplayPipeline() throws Exception {
+    Set<String> ids = ConcurrentHashMap.newKeySet();
+    ReplayDriver.StageLatencies stages = new ReplayDriver.StageLatencies();
+    try (Pipeline pipeline = Pipeline.builder()
+        .stage("check", context -> {
+          ids.add(context.request().getId());
+          assertThat(context.request().getSource().getTid())
+              .isEqualTo(context.request().getId());
+          assertThat(context.request().getTmax()).isEqualTo(1000);
+        })
+        .stage("bid", PipelineTest.BID)
+        .stageListener(stages)
+        .build()) {
+      ReplayDriver driver = ReplayDriver.builder(pipeline::submit)
+          .idPrefix("r")
+          .tmax(1000)
+          .stageLatencies(stages)
+          .build();
+      BidRequest logged = PipelineTest.REQUEST.toBuilder()
+          .setSource(Source.newBuilder().setTid("logged"))
+          .build();
+      ReplayDriver.Result result =
+          driver.run(Collections.nCopies(200, logged).iterator(), 2000);
+
+      assertThat(result.requests()).isEqualTo(200);
+      assertThat(result.dropped()).isEqualTo(0);
+      assertThat(result.bids()).isEqualTo(200);
+      assertThat(result.failures()).isEqualTo(0);
+      assertThat(ids).hasSize(200);
+      assertThat(ids).contains("r199");
+      // 200 requests at 2000 QPS are scheduled over ~100ms
+      assertThat(result.elapsed(TimeUnit.MILLISECONDS)).isAtLeast(99);
+      assertThat(result.latency().count()).isEqualTo(200);
+      assertThat(result.serviceTime().count()).isEqualTo(200);
+      assertThat(result.stages().keySet()).containsExactly("bid", "check");
+      assertThat(result.stages().get("bid").count()).isEqualTo(200);
+      assertThat(result.stageThroughput("bid")).isGreaterThan(0.0);
+      assertThat(result.report(TimeUnit.MILLISECONDS)).contains("stage.check");
+    }
+  }
+
+  @Test
+  public void testOpenLoop() throws Exception {
+    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    try {
+      ReplayDriver driver = ReplayDriver.builder(request -> delayed(executor, 50)).build();
+      ReplayDriver.Result result = driver.run(
+          Collections.nCopies(20, PipelineTest.REQUEST).iterator(), 1000);
+
+      // Requests are not held back by slow responses, so they overlap
+      assertThat(result.noBids()).isEqualTo(20);
+      assertThat(result.elapsed(TimeUnit.MILLISECONDS)).isLessThan(20 * 50);
+      assertThat(result.latency().valueAtPercentile(50))
+          .isAtLeast(TimeUnit.MILLISECONDS.toNanos(50));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testMaxOutstanding() throws Exception {
+    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    try {
+      ReplayDriver driver = ReplayDriver.builder(request -> delayed(executor, 500))
+          .maxOutstanding(5)
+          .rewriter((request, sequence) -> request.setTest(sequence % 2 == 0))
+          .build();
+      ReplayDriver.Result result = driver.run(
+          Collections.nCopies(20, PipelineTest.REQUEST).iterator(), 10_000);
+
+      assertThat(result.requests()).isEqualTo(20);
+      assertThat(result.noBids()).isEqualTo(5);
+      assertThat(result.dropped()).isEqualTo(15);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static CompletableFuture<BidResponse> delayed(
+      ScheduledExecutorService executor, long delayMs) {
+    CompletableFuture<BidResponse> response = new CompletableFuture<>();
+    executor.schedule(() -> response.complete(BidResponse.getDefaultInstance()),
+        delayMs, TimeUnit.MILLISECONDS);
+    return response;
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.pipeline;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidRequest.Imp;
+import com.google.openrtb.OpenRtb.BidRequest.Imp.Banner;
+import com.google.openrtb.OpenRtb.BidResponse;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid;
+import com.google.openrtb.OpenRtb.BidResponse.SeatBid.Bid;
+import com.google.openrtb.snippet.OpenRtbMacros;
+import com.google.openrtb.snippet.OpenRtbSnippetProcessor;
+import com.google.openrtb.util.OpenRtbValidator;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * Tests for {@link Stages}.
+ */
+public class StagesTest {
+  private static final BidRequest REQUEST = BidRequest.newBuilder()
+      .setId("req1")
+      .addBadv("bad.com")
+      .addImp(Imp.newBuilder().setId("imp1"))
+      .addImp(Imp.newBuilder().setId("imp2").setBanner(Banner.newBuilder()))
+      .build();
+
+  @Test
+  public void testStages() {
+    try (Pipeline pipeline = Pipeline.builder()
+        .stage("filter", Stages.filterImps(Imp::hasBanner))
+        .stage("bid", context -> context.response().addSeatbid(SeatBid.newBuilder()
+            .addBid(Bid.newBuilder()
+                .setId("1")
+                .setImpid(context.request().getImp(0).getId())
+                .setPrice(1.0)
+                .setAdm(OpenRtbMacros.AUCTION_IMP_ID.key()))
+            .addBid(Bid.newBuilder()
+                .setId("2")
+                .setImpid("imp2")
+                .setPrice(1.0)
+                .addAdomain("bad.com"))))
+        .stage("snippets", Stages.processSnippets(new OpenRtbSnippetProcessor(true)))
+        .stage("validate", Stages.validate(new OpenRtbValidator(new MetricRegistry())))
+        .build()) {
+      BidResponse response = pipeline.process(REQUEST, Deadline.after(1, TimeUnit.HOURS));
+      assertThat(response.getSeatbid(0).getBidList()).hasSize(1);
+      assertThat(response.getSeatbid(0).getBid(0).getAdm()).isEqualTo("imp2");
+    }
+  }
+
+  @Test
+  public void testFanOut() {
+    try (TimerWheel timerWheel = new TimerWheel();
+        Pipeline pipeline = Pipeline.builder()
+            .timerWheel(timerWheel)
+            .stage("fanout", Stages.fanOut(BidderFanout.builder(timerWheel)
+                .bidder("stub", new StubBidder(
+                    call -> 1, BidderFanoutTest.respond("seat1", "b1", 1.0)))
+                .build()))
+            .build()) {
+      BidResponse response = pipeline.process(REQUEST, Deadline.after(1, TimeUnit.HOURS));
+      assertThat(response.getSeatbid(0).getSeat()).isEqualTo("seat1");
+    }
+  }
+
+  @Test
+  public void testFilterAll() {
+    try (Pipeline pipeline = Pipeline.builder()
+        .stage("filter", Stages.filterImps(Imp::hasVideo))
+        .build()) {
+      BidResponse response = pipeline.process(REQUEST, Deadline.after(1, TimeUnit.HOURS));
+      assertThat(response.getId()).isEqualTo("req1");
+      assertThat(response.hasNbr()).isFalse();
+      assertThat(response.getSeatbidCount()).isEqualTo(0);
+    }
+  }
+}
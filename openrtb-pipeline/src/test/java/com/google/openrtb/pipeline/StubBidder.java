@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.pipeline;
+
+import com.google.openrtb.OpenRtb.BidRequest;
+import com.google.openrtb.OpenRtb.BidResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Local {@link Bidder} for tests: responds after a delay, which can vary per call.
+ */
+class StubBidder implements Bidder {
+  private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2,
+      r -> {
+        Thread thread = new Thread(r, "stub-bidder");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  private final IntUnaryOperator delayForCall;
+  private final Function<BidRequest, BidResponse> responder;
+  private final AtomicInteger calls = new AtomicInteger();
+
+  /**
+   * Creates a stub.
+   *
+   * @param delayForCall Delay in milliseconds for each call number (from 0);
+   *     negative to fail the call
+   */
+  StubBidder(IntUnaryOperator delayForCall, Function<BidRequest, BidResponse> responder) {
+    this.delayForCall = delayForCall;
+    this.responder = responder;
+  }
+
+  int calls() {
+    return calls.get();
+  }
+
+  @Override public CompletableFuture<BidResponse> bid(BidRequest request, Deadline deadline) {
+    int delay = delayForCall.applyAsInt(calls.getAndIncrement());
+    CompletableFuture<BidResponse> future = new CompletableFuture<>();
+    scheduler.schedule(() -> {
+      if (delay < 0) {
+        future.completeExceptionally(new IllegalStateException("Stub failure"));
+      } else {
+        future.complete(responder.apply(request));
+      }
+    }, Math.abs(delay), TimeUnit.MILLISECONDS);
+    return future;
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.openrtb.pipeline;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.openrtb.OpenRtb.BidRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+/**
+ * Tests for {@link TimerWheel} and {@link Deadline}.
+ */
+public class TimerWheelTest {
+  @Test
+  public void testExpiration() throws Exception {
+    // Short ticks, so the test covers all levels of the wheel quickly.
+    try (TimerWheel wheel = new TimerWheel(10, TimeUnit.MICROSECONDS,
+        new ThreadFactoryBuilder().setDaemon(true).build())) {
+      long[] timeouts = { 0, 1, 5, 30, 200, 250 };
+      CountDownLatch expired = new CountDownLatch(timeouts.length);
+      AtomicInteger early = new AtomicInteger();
+      List<Deadline> deadlines = new ArrayList<>();
+      for (long timeout : timeouts) {
+        long start = System.nanoTime();
+        deadlines.add(wheel.newDeadline(start, timeout, TimeUnit.MILLISECONDS, () -> {
+          if (System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(timeout)) {
+            early.incrementAndGet();
+          }
+          expired.countDown();
+        }));
+      }
+      assertThat(expired.await(5, TimeUnit.SECONDS)).isTrue();
+      assertThat(early.get()).isEqualTo(0);
+      for (Deadline deadline : deadlines) {
+        assertThat(deadline.isExpired()).isTrue();
+        assertThat(deadline.disarm()).isFalse();
+      }
+      assertThat(wheel.pending()).isEqualTo(0);
+    }
+  }
+
+  @Test
+  public void testDisarm() throws Exception {
+    try (TimerWheel wheel = new TimerWheel()) {
+      AtomicInteger expired = new AtomicInteger();
+      List<Deadline> deadlines = new ArrayList<>();
+      // Timeouts in seconds, so nothing expires before the loops finish, even on a busy machine.
+      for (int i = 0; i < 1000; ++i) {
+        deadlines.add(wheel.newDeadline(System.nanoTime(), 10 + i % 400, TimeUnit.SECONDS,
+            expired::incrementAndGet));
+      }
+      for (Deadline deadline : deadlines) {
+        assertThat(deadline.isExpired()).isFalse();
+        assertThat(deadline.disarm()).isTrue();
+        assertThat(deadline.isExpired()).isFalse();
+      }
+      Deadline last = wheel.newDeadline(System.nanoTime(), 20, TimeUnit.MILLISECONDS, null);
+      while (!last.isExpired()) {
+        Thread.sleep(1);
+      }
+      Thread.sleep(5);
+      assertThat(wheel.pending()).isEqualTo(0);
+      assertThat(expired.get()).isEqualTo(0);
+    }
+  }
+
+  @Test
+  public void testCancel() {
+    try (TimerWheel wheel = new TimerWheel()) {
+      AtomicInteger expired = new AtomicInteger();
+      Deadline deadline = wheel.forRequest(BidRequest.newBuilder().setId("1").setTmax(10000),
+          System.nanoTime(), 100, expired::incrementAndGet);
+      assertThat(deadline.remaining(TimeUnit.MILLISECONDS)).isGreaterThan(5000L);
+      deadline.check();
+      deadline.cancel();
+      assertThat(deadline.isExpired()).isTrue();
+      assertThat(deadline.remaining(TimeUnit.MILLISECONDS)).isAtMost(0L);
+      assertThat(deadline.toString()).contains("expired");
+      assertThat(expired.get()).isEqualTo(0);
+    }
+  }
+
+  @Test(expected = DeadlineExceededException.class)
+  public void testUnmanagedDeadline() {
+    Deadline deadline = Deadline.forRequest(BidRequest.newBuilder().setId("1"), 0, 100);
+    assertThat(deadline.isExpired()).isTrue();
+    deadline.check();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testClosed() {
+    TimerWheel wheel = new TimerWheel();
+    wheel.close();
+    wheel.newDeadline(System.nanoTime(), 1, TimeUnit.SECONDS, null);
+  }
+}